@@ -51,6 +51,35 @@ public interface Group {
      */
     PcjFuture<Void> asyncBarrier();
 
+    /**
+     * Arrives at the barrier without waiting for other PCJ Threads.
+     * <p>
+     * PCJ Thread can continue to work and use returned token in
+     * {@link #barrierAwait(int)} method to wait until every thread arrive at the barrier.
+     *
+     * @return token of the barrier
+     */
+    int barrierArrive();
+
+    /**
+     * Waits until every thread arrive at the barrier started by {@link #barrierArrive()}.
+     *
+     * @param token token of the barrier returned by {@link #barrierArrive()}
+     * @throws PcjRuntimeException contains wrapped exception (eg. InterruptedException)
+     */
+    void barrierAwait(int token) throws PcjRuntimeException;
+
+    /**
+     * Arrives at the barrier without waiting for other PCJ Threads and
+     * registers action to execute when every thread arrive at the barrier.
+     * <p>
+     * The action is executed by asynchronous worker of the PCJ Thread, like
+     * tasks sent using {@link #asyncAt(int, AsyncTask)}.
+     *
+     * @param action action to execute after completion of the barrier
+     */
+    void onBarrierComplete(Runnable action);
+
     /**
      * Starts asynchronous barrier with one peer PCJ Thread.
      * <p>
@@ -78,6 +107,22 @@ public interface Group {
      */
     <T> PcjFuture<T> asyncGet(int threadId, Enum<?> variable, int... indices);
 
+    /**
+     * Asynchronous get range operation.
+     * <p>
+     * Gets part of shareable array variable from PCJ Thread from the group.
+     * For off-heap array variable, the content is sent directly from the off-heap memory
+     * (or from the memory-mapped file).
+     *
+     * @param <T>       type of value (array or {@link OffHeapArray})
+     * @param threadId  current group PCJ Thread id
+     * @param variable  variable name
+     * @param fromIndex index of the first element
+     * @param count     number of elements
+     * @return {@link PcjFuture} that will contain the array of the same type as the variable with {@code count} elements
+     */
+    <T> PcjFuture<T> asyncGetRange(int threadId, Enum<?> variable, long fromIndex, long count);
+
     /**
      * Asynchronous collect operation.
      * <p>
@@ -103,6 +148,149 @@ public interface Group {
      */
     <T> PcjFuture<T> asyncReduce(ReduceOperation<T> function, Enum<?> variable, int... indices);
 
+    /**
+     * Asynchronous allreduce operation.
+     * <p>
+     * Reduces value of shareable variable from all PCJ Threads from the group
+     * and returns the reduced value to every PCJ Thread from the group.
+     * It is collective operation: it has to be called by all PCJ Threads from the group.
+     * The reduced value is not stored in any shareable variable.
+     * <p>
+     * Large arrays of primitive numeric elements (see {@code pcj.allreduce.ring.threshold})
+     * are reduced in chunks, so for them the function has to be element-wise
+     * and all arrays have to be of the same length.
+     *
+     * @param <T>      type of value
+     * @param function reduce function
+     * @param variable variable name
+     * @param indices  (optional) indices for array variable
+     * @return {@link org.pcj.PcjFuture} that will contain reduced shareable variable value
+     */
+    <T> PcjFuture<T> asyncAllReduce(ReduceOperation<T> function, Enum<?> variable, int... indices);
+
+    /**
+     * Asynchronous reduce-scatter operation.
+     * <p>
+     * Reduces element-wise arrays from source shareable variable of all PCJ Threads
+     * from the group and stores block {@code i} of the reduced array (of {@code counts[i]}
+     * elements, blocks are placed one after another) into target shareable variable
+     * of PCJ Thread {@code i}. Upon successful completion increases modification count
+     * of the target variable by one.
+     * It is collective operation: it has to be called by all PCJ Threads from the group
+     * with the same counts.
+     * <p>
+     * The reduce function is applied on parts of arrays, so it has to be element-wise.
+     * Its type argument is the array type (eg. {@code double[]}), not the element type:
+     * the function combines two arrays of the same length, eg. {@link ReduceOperation#sum()}.
+     * Large arrays (see {@code pcj.reducescatter.ring.threshold}) are exchanged
+     * in the ring of nodes, smaller - pairwise.
+     *
+     * @param <T>            type of array
+     * @param function       element-wise reduce function
+     * @param sourceVariable source variable name (array of length equal to sum of counts)
+     * @param targetVariable target variable name
+     * @param counts         number of elements of block for each PCJ Thread
+     * @return {@link org.pcj.PcjFuture} to check if the operation is completed
+     * @throws IllegalArgumentException when the function does not accept arrays of type of the source variable
+     */
+    <T> PcjFuture<Void> asyncReduceScatter(ReduceOperation<T> function, Enum<?> sourceVariable, Enum<?> targetVariable, int[] counts);
+
+    /**
+     * Asynchronous allgather operation.
+     * <p>
+     * Gets value of shareable variable from all PCJ Threads from the group
+     * by all PCJ Threads from the group. Value of PCJ Thread {@code i} is
+     * stored at index {@code i} of the array (array of primitive elements
+     * for primitive variable).
+     * It is collective operation: it has to be called by all PCJ Threads from the group.
+     * <p>
+     * Values are exchanged between nodes using recursive doubling or, for
+     * large values (see {@code pcj.allgather.ring.threshold}), in the ring of
+     * nodes. The algorithm is chosen using size of the value, so values should
+     * be of the same size on all PCJ Threads.
+     *
+     * @param <T>      type of array
+     * @param variable variable name
+     * @param indices  (optional) indices for array variable
+     * @return {@link org.pcj.PcjFuture} that will contain shareable variable values in form of array
+     */
+    <T> PcjFuture<T> asyncAllGather(Enum<?> variable, int... indices);
+
+    /**
+     * Asynchronous allgather operation into the output array.
+     * <p>
+     * Works like {@link #asyncAllGather(Enum, int...)}, but values are stored
+     * into the output array of length equal to number of PCJ Threads in the group
+     * instead of newly created one. The output array can be reused in
+     * subsequent calls, when the previous operation is completed.
+     *
+     * @param <T>      type of array
+     * @param output   array for values, or {@code null} to create new one
+     * @param variable variable name
+     * @param indices  (optional) indices for array variable
+     * @return {@link org.pcj.PcjFuture} that will contain the output array
+     */
+    <T> PcjFuture<T> asyncAllGather(T output, Enum<?> variable, int... indices);
+
+    /**
+     * Asynchronous all-to-all operation.
+     * <p>
+     * Sends block {@code j} of the array from send shareable variable (of
+     * {@code sendCounts[j]} elements, blocks are placed one after another) to
+     * PCJ Thread {@code j}, and stores array of blocks received from all PCJ
+     * Threads of the group (block from PCJ Thread {@code j} of {@code recvCounts[j]}
+     * elements, blocks are placed one after another) into receive shareable
+     * variable. Upon successful completion increases modification count of the
+     * receive variable by one.
+     * It is collective operation: it has to be called by all PCJ Threads from the group.
+     * <p>
+     * {@code recvCounts[j]} of PCJ Thread {@code i} has to be equal to
+     * {@code sendCounts[i]} of PCJ Thread {@code j}. Blocks of PCJ Threads
+     * placed on the same node are sent to other node in one message.
+     * The send array cannot be modified until the operation is completed.
+     *
+     * @param sendVariable send variable name (array of length at least equal to sum of sendCounts)
+     * @param recvVariable receive variable name
+     * @param sendCounts   number of elements sent to each PCJ Thread
+     * @param recvCounts   number of elements received from each PCJ Thread
+     * @return {@link org.pcj.PcjFuture} to check if the operation is completed
+     */
+    PcjFuture<Void> asyncAllToAll(Enum<?> sendVariable, Enum<?> recvVariable, int[] sendCounts, int[] recvCounts);
+
+    /**
+     * Asynchronous inclusive scan operation.
+     * <p>
+     * Reduces values of shareable variable of PCJ Threads {@code 0..i} of the group
+     * (in order of thread ids) and returns the result to PCJ Thread {@code i}.
+     * It is collective operation: it has to be called by all PCJ Threads from the group.
+     * <p>
+     * The function has to be associative, but it does not have to be commutative.
+     * Built-in operations (see {@link ReduceOperation#sum()}) combine arrays element-wise.
+     *
+     * @param <T>      type of value
+     * @param function reduce function
+     * @param variable variable name
+     * @param indices  (optional) indices for array variable
+     * @return {@link org.pcj.PcjFuture} that will contain reduced value of PCJ Threads up to the current one
+     */
+    <T> PcjFuture<T> asyncScan(ReduceOperation<T> function, Enum<?> variable, int... indices);
+
+    /**
+     * Asynchronous exclusive scan operation.
+     * <p>
+     * Reduces values of shareable variable of PCJ Threads {@code 0..i-1} of the group
+     * (in order of thread ids) and returns the result to PCJ Thread {@code i}.
+     * PCJ Thread {@code 0} gets {@code null}.
+     * It is collective operation: it has to be called by all PCJ Threads from the group.
+     *
+     * @param <T>      type of value
+     * @param function reduce function
+     * @param variable variable name
+     * @param indices  (optional) indices for array variable
+     * @return {@link org.pcj.PcjFuture} that will contain reduced value of PCJ Threads before the current one
+     */
+    <T> PcjFuture<T> asyncExscan(ReduceOperation<T> function, Enum<?> variable, int... indices);
+
     /**
      * Asynchronous put operation.
      * <p>
@@ -118,6 +306,23 @@ public interface Group {
      */
     <T> PcjFuture<Void> asyncPut(T newValue, int threadId, Enum<?> variable, int... indices);
 
+    /**
+     * Asynchronous put range operation.
+     * <p>
+     * Puts values into part of shareable array variable, starting at {@code fromIndex},
+     * to PCJ Thread from the group. For off-heap array variable, the values can also
+     * be a primitive array of the element type.
+     * Upon successful completion increases modification count of the shareable variable by one.
+     *
+     * @param <T>       type of value (array or {@link OffHeapArray})
+     * @param values    new values
+     * @param threadId  current group PCJ Thread id
+     * @param variable  variable name
+     * @param fromIndex index of the first element to put
+     * @return {@link org.pcj.PcjFuture} for checking the operation state
+     */
+    <T> PcjFuture<Void> asyncPutRange(T values, int threadId, Enum<?> variable, long fromIndex);
+
     /**
      * Asynchronous accumulate operation.
      * <p>
@@ -134,6 +339,79 @@ public interface Group {
      */
     <T> PcjFuture<Void> asyncAccumulate(ReduceOperation<T> function, T newValue, int threadId, Enum<?> variable, int... indices);
 
+    /**
+     * Asynchronous gather operation.
+     * <p>
+     * Gets values of shareable array variable at many positions from PCJ Thread from the group
+     * using single request.
+     *
+     * @param <T>      type of value (array)
+     * @param threadId current group PCJ Thread id
+     * @param variable variable name
+     * @param indices  positions in the array variable
+     * @return {@link PcjFuture} that will contain packed array of values in order of {@code indices}
+     */
+    <T> PcjFuture<T> asyncGather(int threadId, Enum<?> variable, int[] indices);
+
+    /**
+     * Asynchronous scatter operation.
+     * <p>
+     * Puts values into shareable array variable at many positions to PCJ Thread from the group
+     * using single request. The {@code values} array has to have the same length as {@code indices}.
+     * Upon successful completion increases modification count of the shareable variable by one.
+     * <p>
+     * It is one-sided operation on one PCJ Thread. Blocks of an array are distributed
+     * to all PCJ Threads by {@link #asyncScatterBlocks(Object, Enum, int[], int[])}.
+     *
+     * @param <T>      type of value (array)
+     * @param values   packed array of new values
+     * @param threadId current group PCJ Thread id
+     * @param variable variable name
+     * @param indices  positions in the array variable
+     * @return {@link org.pcj.PcjFuture} for checking the operation state
+     */
+    <T> PcjFuture<Void> asyncScatter(T values, int threadId, Enum<?> variable, int[] indices);
+
+    /**
+     * Asynchronous scatter accumulate operation.
+     * <p>
+     * Accumulates values into shareable array variable at many positions to PCJ Thread from the group
+     * using single request. The {@code values} array has to have the same length as {@code indices}.
+     * Upon successful completion increases modification count of the shareable variable by one.
+     *
+     * @param <T>      type of array element
+     * @param function reduce function
+     * @param values   packed array of new values
+     * @param threadId current group PCJ Thread id
+     * @param variable variable name
+     * @param indices  positions in the array variable
+     * @return {@link org.pcj.PcjFuture} for checking the operation state
+     */
+    <T> PcjFuture<Void> asyncScatterAccumulate(ReduceOperation<T> function, Object values, int threadId, Enum<?> variable, int[] indices);
+
+    /**
+     * Asynchronous collective scatter operation.
+     * <p>
+     * Puts block of {@code counts[i]} elements of {@code values} array, starting at
+     * {@code displacements[i]}, into shareable variable of PCJ Thread {@code i} from the group.
+     * Blocks are sent down the communication tree and each node receives only blocks
+     * of PCJ Threads placed in its subtree.
+     * Upon successful completion increases modification count of the shareable variable by one
+     * for every PCJ Thread.
+     * <p>
+     * Like broadcast, it is called by one PCJ Thread. Putting values at many positions
+     * of a single PCJ Thread is done by {@link #asyncScatter(Object, int, Enum, int[])}.
+     *
+     * @param <T>           type of value (array)
+     * @param values        array of values
+     * @param variable      variable name
+     * @param counts        number of elements of block for each PCJ Thread
+     * @param displacements (optional, may be null) index of the first element of block
+     *                      for each PCJ Thread, blocks are placed one after another by default
+     * @return {@link org.pcj.PcjFuture} for checking the operation state
+     */
+    <T> PcjFuture<Void> asyncScatterBlocks(T values, Enum<?> variable, int[] counts, int[] displacements);
+
     /**
      * Asynchronous broadcast operation.
      * <p>
@@ -160,6 +438,26 @@ public interface Group {
      */
     <T> PcjFuture<T> asyncAt(int threadId, AsyncTask<T> asyncTask);
 
+    /**
+     * Splits the group into new groups. Collective operation - every PCJ Thread
+     * of the group has to call the method.
+     * <p>
+     * PCJ Threads with the same {@code color} form new group. PCJ Threads in the
+     * new group are ordered by {@code key} and then by id in this group. PCJ Thread
+     * with negative {@code color} does not join any group.
+     * <p>
+     * All new groups are created in one operation, without joining every PCJ Thread
+     * separately.
+     * <p>
+     * New groups cannot be joined by name. {@link PCJ#joinGroup(String)} with
+     * the name of a new group joins other, separate group.
+     *
+     * @param color color of the new group
+     * @param key   key used to order PCJ Threads in the new group
+     * @return new group of current PCJ Thread or {@code null} if {@code color} is negative
+     */
+    Group split(int color, int key);
+
     /**
      * This function will be removed.
      *
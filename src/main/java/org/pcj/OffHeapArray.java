@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2011-2019, PCJ Library, Marek Nowicki
+ * All rights reserved.
+ *
+ * Licensed under New BSD License (3-clause license).
+ *
+ * See the file "LICENSE" for the full license governing this code.
+ */
+package org.pcj;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Array of primitive values stored outside of the Java heap, in direct memory.
+ * <p>
+ * Off-heap arrays can be used as types of shareable variables in {@link Storage} classes.
+ * The content is not moved by the garbage collector and elements are indexed by {@code long},
+ * so the array can hold more than 2<sup>31</sup> elements. The memory is divided into segments
+ * of at most 1 GiB. The amount of direct memory can be limited by JVM
+ * ({@code -XX:MaxDirectMemorySize}).
+ * <p>
+ * When whole value of the shareable variable is sent to other PCJ Thread, the content is written
+ * into the network straight from the off-heap memory, without copying it into intermediate
+ * buffers. The content should not be modified until such operation is completed.
+ * <p>
+ * Elements of shareable off-heap array variable can be accessed by PCJ operations using one
+ * index, like elements of one-dimensional array.
+ * <p>
+ * The array can also be a view over memory-mapped file (see {@code map} methods of subclasses),
+ * that allows working on datasets bigger than the memory. Each PCJ Thread can map its own file,
+ * eg. when initializing storage:
+ * <pre>
+ * {@code
+ * OffHeapDoubleArray data = OffHeapDoubleArray.map(
+ *         Paths.get(PCJ.getProperty("data.dir"), "part-" + PCJ.myId()), true);
+ * }
+ * </pre>
+ * Remote reads of such variables are written into the network straight from the mapping.
+ *
+ * @author Marek Nowicki (faramir@mat.umk.pl)
+ */
+public abstract class OffHeapArray implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+    private static final int SEGMENT_SHIFT = 30;
+    private static final long SEGMENT_SIZE = 1L << SEGMENT_SHIFT;
+    private static final long SEGMENT_MASK = SEGMENT_SIZE - 1;
+    private static final int COPY_BUFFER_SIZE = 8192;
+
+    private final long length;
+    private final int elementSize;
+    private transient ByteBuffer[] segments;
+    private transient long baseOffset;
+
+    OffHeapArray(long length, int elementSize) {
+        if (length < 0) {
+            throw new IllegalArgumentException("Negative length: " + length);
+        }
+        this.length = length;
+        this.elementSize = elementSize;
+        this.segments = allocateSegments(length * elementSize);
+    }
+
+    OffHeapArray(long length, int elementSize, ByteBuffer[] segments) {
+        this.length = length;
+        this.elementSize = elementSize;
+        this.segments = segments;
+    }
+
+    OffHeapArray(OffHeapArray source, long fromIndex, long toIndex) {
+        if (fromIndex < 0 || toIndex > source.length || fromIndex > toIndex) {
+            throw new ArrayIndexOutOfBoundsException("Range [" + fromIndex + ", " + toIndex + ") out of bounds for length " + source.length);
+        }
+        this.length = toIndex - fromIndex;
+        this.elementSize = source.elementSize;
+        this.segments = source.segments;
+        this.baseOffset = source.baseOffset + fromIndex * elementSize;
+    }
+
+    static ByteBuffer[] mapSegments(Path file, long byteSize, boolean readOnly) throws IOException {
+        FileChannel.MapMode mode;
+        StandardOpenOption[] options;
+        if (readOnly) {
+            mode = FileChannel.MapMode.READ_ONLY;
+            options = new StandardOpenOption[]{StandardOpenOption.READ};
+        } else {
+            mode = FileChannel.MapMode.READ_WRITE;
+            options = new StandardOpenOption[]{StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE};
+        }
+
+        try (FileChannel channel = FileChannel.open(file, options)) {
+            if (readOnly && channel.size() < byteSize) {
+                throw new IOException("File " + file + " is too small: " + channel.size() + " < " + byteSize);
+            }
+
+            int count = (int) ((byteSize + SEGMENT_SIZE - 1) >>> SEGMENT_SHIFT);
+            ByteBuffer[] segments = new ByteBuffer[count];
+            for (int i = 0; i < count; ++i) {
+                long position = (long) i << SEGMENT_SHIFT;
+                long size = Math.min(SEGMENT_SIZE, byteSize - position);
+                segments[i] = channel.map(mode, position, size);
+            }
+            return segments;
+        }
+    }
+
+    private static ByteBuffer[] allocateSegments(long byteSize) {
+        int count = (int) ((byteSize + SEGMENT_SIZE - 1) >>> SEGMENT_SHIFT);
+        ByteBuffer[] segments = new ByteBuffer[count];
+        for (int i = 0; i < count; ++i) {
+            long size = Math.min(SEGMENT_SIZE, byteSize - ((long) i << SEGMENT_SHIFT));
+            segments[i] = ByteBuffer.allocateDirect((int) size);
+        }
+        return segments;
+    }
+
+    /**
+     * Gets number of elements in the array.
+     *
+     * @return number of elements
+     */
+    public final long length() {
+        return length;
+    }
+
+    /**
+     * Checks if the array content can be only read, eg. array is a view over file mapped in read-only mode.
+     *
+     * @return true if the array is read-only
+     */
+    public final boolean isReadOnly() {
+        return segments.length > 0 && segments[0].isReadOnly();
+    }
+
+    /**
+     * Forces any changes made to the content of memory-mapped array to be written to the storage device.
+     * <p>
+     * Does nothing for arrays that are not memory-mapped.
+     */
+    public final void force() {
+        for (ByteBuffer segment : segments) {
+            if (segment instanceof MappedByteBuffer && !segment.isReadOnly()) {
+                ((MappedByteBuffer) segment).force();
+            }
+        }
+    }
+
+    final long byteOffset(long index) {
+        if (index < 0 || index >= length) {
+            throw new ArrayIndexOutOfBoundsException("Index " + index + " out of bounds for length " + length);
+        }
+        return baseOffset + index * elementSize;
+    }
+
+    final ByteBuffer segment(long byteOffset) {
+        return segments[(int) (byteOffset >>> SEGMENT_SHIFT)];
+    }
+
+    static int position(long byteOffset) {
+        return (int) (byteOffset & SEGMENT_MASK);
+    }
+
+    /**
+     * Gets views of the memory that holds elements from {@code fromIndex} (inclusive)
+     * to {@code toIndex} (exclusive).
+     * <p>
+     * Returned buffers share content with the array, but have independent positions and limits.
+     * Values are stored in big-endian byte order.
+     *
+     * @param fromIndex index of first element
+     * @param toIndex   index after the last element
+     * @return array of buffers, one for each touched segment
+     */
+    public final ByteBuffer[] byteBuffers(long fromIndex, long toIndex) {
+        if (fromIndex < 0 || toIndex > length || fromIndex > toIndex) {
+            throw new ArrayIndexOutOfBoundsException("Range [" + fromIndex + ", " + toIndex + ") out of bounds for length " + length);
+        }
+        if (fromIndex == toIndex) {
+            return new ByteBuffer[0];
+        }
+
+        long from = baseOffset + fromIndex * elementSize;
+        long to = baseOffset + toIndex * elementSize;
+        int first = (int) (from >>> SEGMENT_SHIFT);
+        int last = (int) ((to - 1) >>> SEGMENT_SHIFT);
+
+        ByteBuffer[] buffers = new ByteBuffer[last - first + 1];
+        for (int s = first; s <= last; ++s) {
+            ByteBuffer buffer = segments[s].duplicate();
+            buffer.limit(s == last ? position(to - 1) + 1 : buffer.capacity());
+            buffer.position(s == first ? position(from) : 0);
+            buffers[s - first] = buffer.slice();
+        }
+        return buffers;
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+
+        byte[] buffer = new byte[COPY_BUFFER_SIZE];
+        for (ByteBuffer segment : byteBuffers(0, length)) {
+            while (segment.hasRemaining()) {
+                int len = Math.min(buffer.length, segment.remaining());
+                segment.get(buffer, 0, len);
+                out.write(buffer, 0, len);
+            }
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        segments = allocateSegments(length * elementSize);
+
+        byte[] buffer = new byte[COPY_BUFFER_SIZE];
+        for (ByteBuffer segment : byteBuffers(0, length)) {
+            while (segment.hasRemaining()) {
+                int len = Math.min(buffer.length, segment.remaining());
+                in.readFully(buffer, 0, len);
+                segment.put(buffer, 0, len);
+            }
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2011-2019, PCJ Library, Marek Nowicki
+ * All rights reserved.
+ *
+ * Licensed under New BSD License (3-clause license).
+ *
+ * See the file "LICENSE" for the full license governing this code.
+ */
+package org.pcj;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Array of {@code long} values stored outside of the Java heap.
+ *
+ * @author Marek Nowicki (faramir@mat.umk.pl)
+ * @see OffHeapArray
+ */
+public final class OffHeapLongArray extends OffHeapArray {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Allocates new array filled with zeros.
+     *
+     * @param length number of elements
+     */
+    public OffHeapLongArray(long length) {
+        super(length, Long.BYTES);
+    }
+
+    private OffHeapLongArray(long length, ByteBuffer[] segments) {
+        super(length, Long.BYTES, segments);
+    }
+
+    private OffHeapLongArray(OffHeapLongArray source, long fromIndex, long toIndex) {
+        super(source, fromIndex, toIndex);
+    }
+
+    /**
+     * Maps whole file into memory. Length of the array is the size of the file divided by size of the element.
+     *
+     * @param file     path to the file
+     * @param readOnly if the file should be mapped in read-only mode
+     * @return array that is a view over the file
+     * @throws IOException when the file cannot be opened or mapped
+     */
+    public static OffHeapLongArray map(Path file, boolean readOnly) throws IOException {
+        long length = Files.size(file) / Long.BYTES;
+        return new OffHeapLongArray(length, mapSegments(file, length * Long.BYTES, readOnly));
+    }
+
+    /**
+     * Maps the file into memory in read-write mode. The file is created or extended when necessary.
+     *
+     * @param file   path to the file
+     * @param length number of elements
+     * @return array that is a view over the file
+     * @throws IOException when the file cannot be opened or mapped
+     */
+    public static OffHeapLongArray map(Path file, long length) throws IOException {
+        if (length < 0) {
+            throw new IllegalArgumentException("Negative length: " + length);
+        }
+        return new OffHeapLongArray(length, mapSegments(file, length * Long.BYTES, false));
+    }
+
+    /**
+     * Gets the element.
+     *
+     * @param index index of the element
+     * @return value of the element
+     */
+    public long get(long index) {
+        long offset = byteOffset(index);
+        return segment(offset).getLong(position(offset));
+    }
+
+    /**
+     * Sets the element.
+     *
+     * @param index index of the element
+     * @param value new value of the element
+     */
+    public void set(long index, long value) {
+        long offset = byteOffset(index);
+        segment(offset).putLong(position(offset), value);
+    }
+
+    /**
+     * Gets view of the part of the array. The view shares content with this array.
+     *
+     * @param fromIndex index of first element (inclusive)
+     * @param toIndex   index after the last element (exclusive)
+     * @return view of the part of the array
+     */
+    public OffHeapLongArray slice(long fromIndex, long toIndex) {
+        return new OffHeapLongArray(this, fromIndex, toIndex);
+    }
+
+    /**
+     * Copies elements from the array into this array starting at {@code index}.
+     *
+     * @param index  index of first element to set
+     * @param values values to copy
+     */
+    public void set(long index, long[] values) {
+        int offset = 0;
+        for (ByteBuffer buffer : byteBuffers(index, index + values.length)) {
+            int count = buffer.remaining() / Long.BYTES;
+            buffer.asLongBuffer().put(values, offset, count);
+            offset += count;
+        }
+    }
+
+    /**
+     * Copies elements of this array starting at {@code index} into the array.
+     *
+     * @param index  index of first element to get
+     * @param values array to fill in
+     */
+    public void get(long index, long[] values) {
+        int offset = 0;
+        for (ByteBuffer buffer : byteBuffers(index, index + values.length)) {
+            int count = buffer.remaining() / Long.BYTES;
+            buffer.asLongBuffer().get(values, offset, count);
+            offset += count;
+        }
+    }
+}
@@ -11,6 +11,7 @@ package org.pcj;
 import java.util.Properties;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.function.Predicate;
 import org.pcj.internal.InternalGroup;
 import org.pcj.internal.InternalPCJ;
 import org.pcj.internal.PcjThread;
@@ -205,9 +206,46 @@ public final class PCJ {
      * <p>
      * It is the equivalent to call:
      * <blockquote>{@code PCJ.asyncBarrier().get();}</blockquote>
+     * but it does not create {@link PcjFuture} object.
      */
     public static void barrier() {
-        PCJ.asyncBarrier().get();
+        Group globalGroup = getGlobalGroup();
+        globalGroup.barrierAwait(globalGroup.barrierArrive());
+    }
+
+    /**
+     * Arrives at the barrier without waiting for other PCJ Threads.
+     * <p>
+     * PCJ Thread can continue to work and use returned token in
+     * {@link #barrierAwait(int)} method to wait until every thread arrive at the barrier.
+     *
+     * @return token of the barrier
+     */
+    public static int barrierArrive() {
+        return getGlobalGroup().barrierArrive();
+    }
+
+    /**
+     * Waits until every thread arrive at the barrier started by {@link #barrierArrive()}.
+     *
+     * @param token token of the barrier returned by {@link #barrierArrive()}
+     * @throws PcjRuntimeException contains wrapped exception (eg. InterruptedException)
+     */
+    public static void barrierAwait(int token) throws PcjRuntimeException {
+        getGlobalGroup().barrierAwait(token);
+    }
+
+    /**
+     * Arrives at the barrier without waiting for other PCJ Threads and
+     * registers action to execute when every thread arrive at the barrier.
+     * <p>
+     * The action is executed by asynchronous worker of the PCJ Thread, like
+     * tasks sent using {@link #asyncAt(int, AsyncTask)}.
+     *
+     * @param action action to execute after completion of the barrier
+     */
+    public static void onBarrierComplete(Runnable action) {
+        getGlobalGroup().onBarrierComplete(action);
     }
 
     /**
@@ -250,6 +288,22 @@ public final class PCJ {
         return PcjThread.getCurrentThreadData().getStorages().monitor(variable);
     }
 
+    /**
+     * Clear modification count of the element of the shareable variable.
+     * <p>
+     * When indices are provided, clears the modification count of the pointed element.
+     * Modification counts of elements are independent of the modification count
+     * of the whole variable and count only modifications that affect the element.
+     * The element is monitored until {@code waitFor} consumes all its modifications.
+     *
+     * @param variable shareable variable
+     * @param indices  (optional) indices for array variable
+     * @return modification count before clearing
+     */
+    public static int monitor(Enum<?> variable, int... indices) {
+        return PcjThread.getCurrentThreadData().getStorages().monitor(variable, indices);
+    }
+
     /**
      * Checks and optionally waits for one modification of the shareable variable.
      * Decrease number of modification count by one.
@@ -274,6 +328,24 @@ public final class PCJ {
         return PcjThread.getCurrentThreadData().getStorages().waitFor(variable, count);
     }
 
+    /**
+     * Checks and optionally waits for many ({@code count}) modifications of the element
+     * of the shareable variable.
+     * <p>
+     * Decrease number of modification count.
+     * When indices are provided, waits only for modifications that affect the pointed element
+     * and decreases its modification count. Modifications of the element are counted
+     * from the first call of {@code monitor} or {@code waitFor} for the element.
+     *
+     * @param variable shareable variable
+     * @param count    number of modifications
+     * @param indices  (optional) indices for array variable
+     * @return remaining modification count
+     */
+    public static int waitFor(Enum<?> variable, int count, int... indices) {
+        return PcjThread.getCurrentThreadData().getStorages().waitFor(variable, count, indices);
+    }
+
     /**
      * Checks and optionally waits for many ({@code count}) modifications of the shareable variable.
      * <p>
@@ -291,6 +363,58 @@ public final class PCJ {
         return PcjThread.getCurrentThreadData().getStorages().waitFor(variable, count, timeout, unit);
     }
 
+    /**
+     * Waits until value of the shareable variable fulfills the predicate.
+     * <p>
+     * The predicate is checked immediately and then only after modifications that affect
+     * the variable (or the element pointed by indices), so the PCJ Thread is not woken up
+     * by unrelated modifications. The predicate is evaluated by the thread that modifies
+     * the variable, so it should be short and side-effect free.
+     * <p>
+     * Modification count is not changed.
+     *
+     * @param <T>       type of value
+     * @param variable  shareable variable
+     * @param predicate condition to fulfill
+     * @param indices   (optional) indices for array variable
+     * @return value that fulfilled the predicate
+     */
+    public static <T> T waitUntil(Enum<?> variable, Predicate<T> predicate, int... indices) {
+        return PcjThread.getCurrentThreadData().getStorages().waitUntil(variable, predicate, indices);
+    }
+
+    /**
+     * Waits until value of the shareable variable fulfills the predicate or the timeout elapses.
+     * <p>
+     * Modification count is not changed.
+     *
+     * @param <T>       type of value
+     * @param variable  shareable variable
+     * @param predicate condition to fulfill
+     * @param timeout   timeout
+     * @param unit      unit of time
+     * @param indices   (optional) indices for array variable
+     * @return value that fulfilled the predicate
+     * @throws TimeoutException when predicate is not fulfilled till timeout
+     */
+    public static <T> T waitUntil(Enum<?> variable, Predicate<T> predicate,
+                                  long timeout, TimeUnit unit, int... indices) throws TimeoutException {
+        return PcjThread.getCurrentThreadData().getStorages().waitUntil(variable, predicate, timeout, unit, indices);
+    }
+
+    /**
+     * Waits for modification of any of the shareable variables.
+     * <p>
+     * Decrease number of modification count of the returned variable by one.
+     * When many variables have been already modified, the first one in order of arguments is returned.
+     *
+     * @param variables shareable variables
+     * @return modified variable
+     */
+    public static Enum<?> waitForAny(Enum<?>... variables) {
+        return PcjThread.getCurrentThreadData().getStorages().waitForAny(variables);
+    }
+
     /**
      * Gets reference to shareable variable of current PCJ Thread.
      *
@@ -376,6 +500,44 @@ public final class PCJ {
         return PCJ.<T>asyncGet(threadId, variable, indices).get();
     }
 
+    /**
+     * Asynchronous get range operation.
+     * <p>
+     * Gets part of shareable array variable from PCJ Thread from the global group.
+     * For off-heap array variable, the content is sent directly from the off-heap memory
+     * (or from the memory-mapped file).
+     *
+     * @param <T>       type of value (array or {@link OffHeapArray})
+     * @param threadId  global PCJ Thread id
+     * @param variable  variable name
+     * @param fromIndex index of the first element
+     * @param count     number of elements
+     * @return {@link PcjFuture} that will contain the array of the same type as the variable with {@code count} elements
+     */
+    public static <T> PcjFuture<T> asyncGetRange(int threadId, Enum<?> variable, long fromIndex, long count) {
+        return getGlobalGroup().asyncGetRange(threadId, variable, fromIndex, count);
+    }
+
+    /**
+     * Synchronous get range operation.
+     * <p>
+     * Wrapper for {@link #asyncGetRange(int, Enum, long, long)}.
+     * <p>
+     * It is the equivalent to call:
+     * <blockquote>{@code PCJ.<T>asyncGetRange(threadId, variable, fromIndex, count).get();}</blockquote>
+     *
+     * @param <T>       type of value (array or {@link OffHeapArray})
+     * @param threadId  global PCJ Thread id
+     * @param variable  variable name
+     * @param fromIndex index of the first element
+     * @param count     number of elements
+     * @return array of the same type as the variable with {@code count} elements
+     * @throws PcjRuntimeException contains wrapped exception (eg. ArrayOutOfBoundException).
+     */
+    public static <T> T getRange(int threadId, Enum<?> variable, long fromIndex, long count) throws PcjRuntimeException {
+        return PCJ.<T>asyncGetRange(threadId, variable, fromIndex, count).get();
+    }
+
     /**
      * Asynchronous collect operation.
      * <p>
@@ -440,6 +602,256 @@ public final class PCJ {
         return PCJ.asyncReduce(function, variable, indices).get();
     }
 
+    /**
+     * Asynchronous allreduce operation.
+     * <p>
+     * Reduces value of shareable variable from all PCJ Threads from the global group
+     * and returns the reduced value to every PCJ Thread.
+     * It is collective operation: it has to be called by all PCJ Threads.
+     *
+     * @param <T>      type of value
+     * @param function reduce function
+     * @param variable variable name
+     * @param indices  (optional) indices for array variable
+     * @return {@link org.pcj.PcjFuture} that will contain reduced shareable variable value
+     */
+    public static <T> PcjFuture<T> asyncAllReduce(ReduceOperation<T> function, Enum<?> variable, int... indices) {
+        return getGlobalGroup().asyncAllReduce(function, variable, indices);
+    }
+
+    /**
+     * Synchronous allreduce operation.
+     * <p>
+     * Wrapper for {@link #asyncAllReduce(ReduceOperation, Enum, int...)}.
+     * <p>
+     * It is the equivalent to call:
+     * <blockquote>{@code PCJ.<T>asyncAllReduce(function, variable, indices).get();}</blockquote>
+     *
+     * @param <T>      type of value
+     * @param function reduce function
+     * @param variable variable name
+     * @param indices  (optional) indices for array variable
+     * @return reduced shareable variable value
+     */
+    public static <T> T allReduce(ReduceOperation<T> function, Enum<?> variable, int... indices) {
+        return PCJ.asyncAllReduce(function, variable, indices).get();
+    }
+
+    /**
+     * Asynchronous reduce-scatter operation.
+     * <p>
+     * Reduces element-wise arrays from source shareable variable of all PCJ Threads
+     * and stores block {@code i} of the reduced array (of {@code counts[i]} elements)
+     * into target shareable variable of PCJ Thread {@code i}.
+     * It is collective operation: it has to be called by all PCJ Threads.
+     * <p>
+     * The function combines whole arrays (or their parts), so {@code T} is the array type,
+     * eg. {@code PCJ.<double[]>reduceScatter(ReduceOperation.sum(), ...)}.
+     *
+     * @param <T>            type of array
+     * @param function       element-wise reduce function
+     * @param sourceVariable source variable name
+     * @param targetVariable target variable name
+     * @param counts         number of elements of block for each PCJ Thread
+     * @return {@link org.pcj.PcjFuture} to check if the operation is completed
+     * @throws IllegalArgumentException when the function does not accept arrays of type of the source variable
+     */
+    public static <T> PcjFuture<Void> asyncReduceScatter(ReduceOperation<T> function, Enum<?> sourceVariable, Enum<?> targetVariable, int[] counts) {
+        return getGlobalGroup().asyncReduceScatter(function, sourceVariable, targetVariable, counts);
+    }
+
+    /**
+     * Synchronous reduce-scatter operation.
+     * <p>
+     * Wrapper for {@link #asyncReduceScatter(ReduceOperation, Enum, Enum, int[])}.
+     * <p>
+     * It is the equivalent to call:
+     * <blockquote>{@code PCJ.asyncReduceScatter(function, sourceVariable, targetVariable, counts).get();}</blockquote>
+     *
+     * @param <T>            type of array
+     * @param function       element-wise reduce function
+     * @param sourceVariable source variable name
+     * @param targetVariable target variable name
+     * @param counts         number of elements of block for each PCJ Thread
+     * @throws IllegalArgumentException when the function does not accept arrays of type of the source variable
+     */
+    public static <T> void reduceScatter(ReduceOperation<T> function, Enum<?> sourceVariable, Enum<?> targetVariable, int[] counts) {
+        PCJ.asyncReduceScatter(function, sourceVariable, targetVariable, counts).get();
+    }
+
+    /**
+     * Asynchronous allgather operation.
+     * <p>
+     * Gets value of shareable variable from all PCJ Threads by all PCJ Threads.
+     * It is collective operation: it has to be called by all PCJ Threads.
+     *
+     * @param <T>      type of array
+     * @param variable variable name
+     * @param indices  (optional) indices for array variable
+     * @return {@link org.pcj.PcjFuture} that will contain shareable variable values in form of array
+     */
+    public static <T> PcjFuture<T> asyncAllGather(Enum<?> variable, int... indices) {
+        return getGlobalGroup().asyncAllGather(variable, indices);
+    }
+
+    /**
+     * Synchronous allgather operation.
+     * <p>
+     * Wrapper for {@link #asyncAllGather(Enum, int...)}.
+     * <p>
+     * It is the equivalent to call:
+     * <blockquote>{@code PCJ.<T>asyncAllGather(variable, indices).get();}</blockquote>
+     *
+     * @param <T>      type of array
+     * @param variable variable name
+     * @param indices  (optional) indices for array variable
+     * @return shareable variable values in form of array
+     */
+    public static <T> T allGather(Enum<?> variable, int... indices) {
+        return PCJ.<T>asyncAllGather(variable, indices).get();
+    }
+
+    /**
+     * Asynchronous allgather operation into the output array.
+     * <p>
+     * Gets value of shareable variable from all PCJ Threads by all PCJ Threads
+     * and stores them into the output array of length equal to number of PCJ Threads.
+     * It is collective operation: it has to be called by all PCJ Threads.
+     *
+     * @param <T>      type of array
+     * @param output   array for values, or {@code null} to create new one
+     * @param variable variable name
+     * @param indices  (optional) indices for array variable
+     * @return {@link org.pcj.PcjFuture} that will contain the output array
+     */
+    public static <T> PcjFuture<T> asyncAllGather(T output, Enum<?> variable, int... indices) {
+        return getGlobalGroup().asyncAllGather(output, variable, indices);
+    }
+
+    /**
+     * Synchronous allgather operation into the output array.
+     * <p>
+     * Wrapper for {@link #asyncAllGather(Object, Enum, int...)}.
+     * <p>
+     * It is the equivalent to call:
+     * <blockquote>{@code PCJ.asyncAllGather(output, variable, indices).get();}</blockquote>
+     *
+     * @param <T>      type of array
+     * @param output   array for values, or {@code null} to create new one
+     * @param variable variable name
+     * @param indices  (optional) indices for array variable
+     * @return the output array
+     */
+    public static <T> T allGather(T output, Enum<?> variable, int... indices) {
+        return PCJ.asyncAllGather(output, variable, indices).get();
+    }
+
+    /**
+     * Asynchronous all-to-all operation.
+     * <p>
+     * Sends block {@code j} of the array from send shareable variable
+     * (of {@code sendCounts[j]} elements) to PCJ Thread {@code j} and stores
+     * blocks received from all PCJ Threads (of {@code recvCounts[j]} elements
+     * from PCJ Thread {@code j}) into receive shareable variable.
+     * It is collective operation: it has to be called by all PCJ Threads.
+     *
+     * @param sendVariable send variable name
+     * @param recvVariable receive variable name
+     * @param sendCounts   number of elements sent to each PCJ Thread
+     * @param recvCounts   number of elements received from each PCJ Thread
+     * @return {@link org.pcj.PcjFuture} to check if the operation is completed
+     */
+    public static PcjFuture<Void> asyncAllToAll(Enum<?> sendVariable, Enum<?> recvVariable, int[] sendCounts, int[] recvCounts) {
+        return getGlobalGroup().asyncAllToAll(sendVariable, recvVariable, sendCounts, recvCounts);
+    }
+
+    /**
+     * Synchronous all-to-all operation.
+     * <p>
+     * Wrapper for {@link #asyncAllToAll(Enum, Enum, int[], int[])}.
+     * <p>
+     * It is the equivalent to call:
+     * <blockquote>{@code PCJ.asyncAllToAll(sendVariable, recvVariable, sendCounts, recvCounts).get();}</blockquote>
+     *
+     * @param sendVariable send variable name
+     * @param recvVariable receive variable name
+     * @param sendCounts   number of elements sent to each PCJ Thread
+     * @param recvCounts   number of elements received from each PCJ Thread
+     */
+    public static void allToAll(Enum<?> sendVariable, Enum<?> recvVariable, int[] sendCounts, int[] recvCounts) {
+        PCJ.asyncAllToAll(sendVariable, recvVariable, sendCounts, recvCounts).get();
+    }
+
+    /**
+     * Asynchronous inclusive scan operation.
+     * <p>
+     * Reduces values of shareable variable of PCJ Threads {@code 0..i}
+     * and returns the result to PCJ Thread {@code i}.
+     * It is collective operation: it has to be called by all PCJ Threads.
+     *
+     * @param <T>      type of value
+     * @param function associative reduce function
+     * @param variable variable name
+     * @param indices  (optional) indices for array variable
+     * @return {@link org.pcj.PcjFuture} that will contain reduced value of PCJ Threads up to the current one
+     */
+    public static <T> PcjFuture<T> asyncScan(ReduceOperation<T> function, Enum<?> variable, int... indices) {
+        return getGlobalGroup().asyncScan(function, variable, indices);
+    }
+
+    /**
+     * Synchronous inclusive scan operation.
+     * <p>
+     * Wrapper for {@link #asyncScan(ReduceOperation, Enum, int...)}.
+     * <p>
+     * It is the equivalent to call:
+     * <blockquote>{@code PCJ.<T>asyncScan(function, variable, indices).get();}</blockquote>
+     *
+     * @param <T>      type of value
+     * @param function associative reduce function
+     * @param variable variable name
+     * @param indices  (optional) indices for array variable
+     * @return reduced value of PCJ Threads up to the current one
+     */
+    public static <T> T scan(ReduceOperation<T> function, Enum<?> variable, int... indices) {
+        return PCJ.asyncScan(function, variable, indices).get();
+    }
+
+    /**
+     * Asynchronous exclusive scan operation.
+     * <p>
+     * Reduces values of shareable variable of PCJ Threads {@code 0..i-1}
+     * and returns the result to PCJ Thread {@code i} ({@code null} to PCJ Thread {@code 0}).
+     * It is collective operation: it has to be called by all PCJ Threads.
+     *
+     * @param <T>      type of value
+     * @param function associative reduce function
+     * @param variable variable name
+     * @param indices  (optional) indices for array variable
+     * @return {@link org.pcj.PcjFuture} that will contain reduced value of PCJ Threads before the current one
+     */
+    public static <T> PcjFuture<T> asyncExscan(ReduceOperation<T> function, Enum<?> variable, int... indices) {
+        return getGlobalGroup().asyncExscan(function, variable, indices);
+    }
+
+    /**
+     * Synchronous exclusive scan operation.
+     * <p>
+     * Wrapper for {@link #asyncExscan(ReduceOperation, Enum, int...)}.
+     * <p>
+     * It is the equivalent to call:
+     * <blockquote>{@code PCJ.<T>asyncExscan(function, variable, indices).get();}</blockquote>
+     *
+     * @param <T>      type of value
+     * @param function associative reduce function
+     * @param variable variable name
+     * @param indices  (optional) indices for array variable
+     * @return reduced value of PCJ Threads before the current one
+     */
+    public static <T> T exscan(ReduceOperation<T> function, Enum<?> variable, int... indices) {
+        return PCJ.asyncExscan(function, variable, indices).get();
+    }
+
     /**
      * Asynchronous put operation.
      * <p>
@@ -476,6 +888,44 @@ public final class PCJ {
         PCJ.asyncPut(newValue, threadId, variable, indices).get();
     }
 
+    /**
+     * Asynchronous put range operation.
+     * <p>
+     * Puts values into part of shareable array variable, starting at {@code fromIndex},
+     * to PCJ Thread from the global group. For off-heap array variable, the values can also
+     * be a primitive array of the element type.
+     * Upon successful completion increases modification count of the shareable variable by one.
+     *
+     * @param <T>       type of value (array or {@link OffHeapArray})
+     * @param values    new values
+     * @param threadId  global PCJ Thread id
+     * @param variable  variable name
+     * @param fromIndex index of the first element to put
+     * @return {@link org.pcj.PcjFuture} for checking the operation state
+     */
+    public static <T> PcjFuture<Void> asyncPutRange(T values, int threadId, Enum<?> variable, long fromIndex) {
+        return getGlobalGroup().asyncPutRange(values, threadId, variable, fromIndex);
+    }
+
+    /**
+     * Synchronous put range operation.
+     * <p>
+     * Wrapper for {@link #asyncPutRange(Object, int, Enum, long)}.
+     * <p>
+     * It is the equivalent to call:
+     * <blockquote>{@code PCJ.<T>asyncPutRange(values, threadId, variable, fromIndex).get();}</blockquote>
+     *
+     * @param <T>       type of value (array or {@link OffHeapArray})
+     * @param values    new values
+     * @param threadId  global PCJ Thread id
+     * @param variable  variable name
+     * @param fromIndex index of the first element to put
+     * @throws PcjRuntimeException contains wrapped exception (eg. ArrayOutOfBoundException).
+     */
+    public static <T> void putRange(T values, int threadId, Enum<?> variable, long fromIndex) throws PcjRuntimeException {
+        PCJ.asyncPutRange(values, threadId, variable, fromIndex).get();
+    }
+
     /**
      * Asynchronous accumulate operation.
      * <p>
@@ -514,6 +964,163 @@ public final class PCJ {
         PCJ.asyncAccumulate(function, newValue, threadId, variable, indices).get();
     }
 
+    /**
+     * Asynchronous gather operation.
+     * <p>
+     * Gets values of shareable array variable at many positions from PCJ Thread from the global group
+     * using single request.
+     *
+     * @param <T>      type of value (array)
+     * @param threadId global PCJ Thread id
+     * @param variable variable name
+     * @param indices  positions in the array variable
+     * @return {@link PcjFuture} that will contain packed array of values in order of {@code indices}
+     */
+    public static <T> PcjFuture<T> asyncGather(int threadId, Enum<?> variable, int[] indices) {
+        return getGlobalGroup().asyncGather(threadId, variable, indices);
+    }
+
+    /**
+     * Synchronous gather operation.
+     * <p>
+     * Wrapper for {@link #asyncGather(int, Enum, int[])}.
+     * <p>
+     * It is the equivalent to call:
+     * <blockquote>{@code PCJ.<T>asyncGather(threadId, variable, indices).get();}</blockquote>
+     *
+     * @param <T>      type of value (array)
+     * @param threadId global PCJ Thread id
+     * @param variable variable name
+     * @param indices  positions in the array variable
+     * @return packed array of values in order of {@code indices}
+     * @throws PcjRuntimeException contains wrapped exception (eg. ArrayOutOfBoundException).
+     */
+    public static <T> T gather(int threadId, Enum<?> variable, int[] indices) throws PcjRuntimeException {
+        return PCJ.<T>asyncGather(threadId, variable, indices).get();
+    }
+
+    /**
+     * Asynchronous scatter operation.
+     * <p>
+     * Puts values into shareable array variable at many positions to PCJ Thread from the global group
+     * using single request. The {@code values} array has to have the same length as {@code indices}.
+     * Upon successful completion increases modification count of the shareable variable by one.
+     * <p>
+     * It is one-sided operation on one PCJ Thread. Collective distribution of blocks
+     * of an array to all PCJ Threads is done by {@link #asyncScatterBlocks(Object, Enum, int[], int[])}.
+     *
+     * @param <T>      type of value (array)
+     * @param values   packed array of new values
+     * @param threadId global PCJ Thread id
+     * @param variable variable name
+     * @param indices  positions in the array variable
+     * @return {@link org.pcj.PcjFuture} for checking the operation state
+     */
+    public static <T> PcjFuture<Void> asyncScatter(T values, int threadId, Enum<?> variable, int[] indices) {
+        return getGlobalGroup().asyncScatter(values, threadId, variable, indices);
+    }
+
+    /**
+     * Synchronous scatter operation.
+     * <p>
+     * Wrapper for {@link #asyncScatter(Object, int, Enum, int[])}.
+     * <p>
+     * It is the equivalent to call:
+     * <blockquote>{@code PCJ.<T>asyncScatter(values, threadId, variable, indices).get();}</blockquote>
+     *
+     * @param <T>      type of value (array)
+     * @param values   packed array of new values
+     * @param threadId global PCJ Thread id
+     * @param variable variable name
+     * @param indices  positions in the array variable
+     * @throws PcjRuntimeException contains wrapped exception (eg. ArrayOutOfBoundException).
+     */
+    public static <T> void scatter(T values, int threadId, Enum<?> variable, int[] indices) throws PcjRuntimeException {
+        PCJ.asyncScatter(values, threadId, variable, indices).get();
+    }
+
+    /**
+     * Asynchronous collective scatter operation.
+     * <p>
+     * Puts block of {@code counts[i]} elements of {@code values} array, starting at
+     * {@code displacements[i]}, into shareable variable of PCJ Thread {@code i}.
+     * Blocks are sent down the communication tree and each node receives only blocks
+     * of PCJ Threads placed in its subtree.
+     * <p>
+     * Like broadcast, it is called by one PCJ Thread that distributes its array to all
+     * PCJ Threads. Putting values at many positions of a single PCJ Thread is done by
+     * {@link #asyncScatter(Object, int, Enum, int[])}.
+     *
+     * @param <T>           type of value (array)
+     * @param values        array of values
+     * @param variable      variable name
+     * @param counts        number of elements of block for each PCJ Thread
+     * @param displacements (optional, may be null) index of the first element of block
+     *                      for each PCJ Thread, blocks are placed one after another by default
+     * @return {@link org.pcj.PcjFuture} for checking the operation state
+     */
+    public static <T> PcjFuture<Void> asyncScatterBlocks(T values, Enum<?> variable, int[] counts, int[] displacements) {
+        return getGlobalGroup().asyncScatterBlocks(values, variable, counts, displacements);
+    }
+
+    /**
+     * Synchronous collective scatter operation.
+     * <p>
+     * Wrapper for {@link #asyncScatterBlocks(Object, Enum, int[], int[])}.
+     * <p>
+     * It is the equivalent to call:
+     * <blockquote>{@code PCJ.<T>asyncScatterBlocks(values, variable, counts, displacements).get();}</blockquote>
+     *
+     * @param <T>           type of value (array)
+     * @param values        array of values
+     * @param variable      variable name
+     * @param counts        number of elements of block for each PCJ Thread
+     * @param displacements (optional, may be null) index of the first element of block for each PCJ Thread
+     * @throws PcjRuntimeException contains wrapped exception
+     */
+    public static <T> void scatterBlocks(T values, Enum<?> variable, int[] counts, int[] displacements) throws PcjRuntimeException {
+        PCJ.asyncScatterBlocks(values, variable, counts, displacements).get();
+    }
+
+    /**
+     * Asynchronous scatter accumulate operation.
+     * <p>
+     * Accumulates values into shareable array variable at many positions to PCJ Thread from the global group
+     * using single request. The {@code values} array has to have the same length as {@code indices}.
+     * Upon successful completion increases modification count of the shareable variable by one.
+     *
+     * @param <T>      type of array element
+     * @param function reduce function
+     * @param values   packed array of new values
+     * @param threadId global PCJ Thread id
+     * @param variable variable name
+     * @param indices  positions in the array variable
+     * @return {@link org.pcj.PcjFuture} for checking the operation state
+     */
+    public static <T> PcjFuture<Void> asyncScatterAccumulate(ReduceOperation<T> function, Object values, int threadId, Enum<?> variable, int[] indices) {
+        return getGlobalGroup().asyncScatterAccumulate(function, values, threadId, variable, indices);
+    }
+
+    /**
+     * Synchronous scatter accumulate operation.
+     * <p>
+     * Wrapper for {@link #asyncScatterAccumulate(ReduceOperation, Object, int, Enum, int[])}.
+     * <p>
+     * It is the equivalent to call:
+     * <blockquote>{@code PCJ.<T>asyncScatterAccumulate(function, values, threadId, variable, indices).get();}</blockquote>
+     *
+     * @param <T>      type of array element
+     * @param function reduce function
+     * @param values   packed array of new values
+     * @param threadId global PCJ Thread id
+     * @param variable variable name
+     * @param indices  positions in the array variable
+     * @throws PcjRuntimeException contains wrapped exception (eg. ArrayOutOfBoundException).
+     */
+    public static <T> void scatterAccumulate(ReduceOperation<T> function, Object values, int threadId, Enum<?> variable, int[] indices) throws PcjRuntimeException {
+        PCJ.asyncScatterAccumulate(function, values, threadId, variable, indices).get();
+    }
+
     /**
      * Asynchronous broadcast operation.
      * <p>
@@ -623,6 +1230,20 @@ public final class PCJ {
         return InternalGroup.joinGroup(myThreadId, name);
     }
 
+    /**
+     * Splits the global group into new groups. Collective operation - every PCJ
+     * Thread has to call the method.
+     * <p>
+     * Wrapper for {@link Group#split(int, int)} of the global group.
+     *
+     * @param color color of the new group
+     * @param key   key used to order PCJ Threads in the new group
+     * @return new group of current PCJ Thread or {@code null} if {@code color} is negative
+     */
+    public static Group splitGroup(int color, int key) {
+        return getGlobalGroup().split(color, key);
+    }
+
     /**
      * This function will be removed.
      *
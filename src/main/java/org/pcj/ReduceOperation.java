@@ -10,10 +10,121 @@ package org.pcj;
 
 import java.io.Serializable;
 import java.util.function.BinaryOperator;
+import org.pcj.internal.BuiltinReduceOperation;
 
 /**
+ * Reduce operation used by reduce, allreduce and accumulate operations.
+ * <p>
+ * Built-in operations (eg. {@link #sum()}) are recognised by the runtime:
+ * they are sent as id instead of serialized lambda, and arrays of primitive
+ * elements are combined element-wise in place of the first argument, without
+ * boxing. Built-in operations support {@code double}, {@code float}, {@code long}
+ * and {@code int} values and arrays; bitwise operations support {@code long},
+ * {@code int} and {@code boolean} values and arrays.
+ *
  * @author Marek Nowicki (faramir@mat.umk.pl)
  */
 @FunctionalInterface
 public interface ReduceOperation<T> extends Serializable, BinaryOperator<T> {
-}
\ No newline at end of file
+
+    /**
+     * Sum of values.
+     *
+     * @param <T> type of value
+     * @return built-in reduce operation
+     */
+    @SuppressWarnings("unchecked")
+    static <T> ReduceOperation<T> sum() {
+        return (ReduceOperation<T>) BuiltinReduceOperation.SUM;
+    }
+
+    /**
+     * Product of values.
+     *
+     * @param <T> type of value
+     * @return built-in reduce operation
+     */
+    @SuppressWarnings("unchecked")
+    static <T> ReduceOperation<T> prod() {
+        return (ReduceOperation<T>) BuiltinReduceOperation.PROD;
+    }
+
+    /**
+     * Minimum of values.
+     *
+     * @param <T> type of value
+     * @return built-in reduce operation
+     */
+    @SuppressWarnings("unchecked")
+    static <T> ReduceOperation<T> min() {
+        return (ReduceOperation<T>) BuiltinReduceOperation.MIN;
+    }
+
+    /**
+     * Maximum of values.
+     *
+     * @param <T> type of value
+     * @return built-in reduce operation
+     */
+    @SuppressWarnings("unchecked")
+    static <T> ReduceOperation<T> max() {
+        return (ReduceOperation<T>) BuiltinReduceOperation.MAX;
+    }
+
+    /**
+     * Bitwise (or logical for booleans) AND of values.
+     *
+     * @param <T> type of value
+     * @return built-in reduce operation
+     */
+    @SuppressWarnings("unchecked")
+    static <T> ReduceOperation<T> band() {
+        return (ReduceOperation<T>) BuiltinReduceOperation.BAND;
+    }
+
+    /**
+     * Bitwise (or logical for booleans) OR of values.
+     *
+     * @param <T> type of value
+     * @return built-in reduce operation
+     */
+    @SuppressWarnings("unchecked")
+    static <T> ReduceOperation<T> bor() {
+        return (ReduceOperation<T>) BuiltinReduceOperation.BOR;
+    }
+
+    /**
+     * Bitwise (or logical for booleans) XOR of values.
+     *
+     * @param <T> type of value
+     * @return built-in reduce operation
+     */
+    @SuppressWarnings("unchecked")
+    static <T> ReduceOperation<T> bxor() {
+        return (ReduceOperation<T>) BuiltinReduceOperation.BXOR;
+    }
+
+    /**
+     * Minimum with location. Values are arrays of pairs {@code value, location};
+     * for each pair the pair with smaller value is kept (smaller location on ties).
+     *
+     * @param <T> type of value (array of {@code double}, {@code long} or {@code int})
+     * @return built-in reduce operation
+     */
+    @SuppressWarnings("unchecked")
+    static <T> ReduceOperation<T> minLoc() {
+        return (ReduceOperation<T>) BuiltinReduceOperation.MINLOC;
+    }
+
+    /**
+     * Maximum with location. Values are arrays of pairs {@code value, location};
+     * for each pair the pair with greater value is kept (smaller location on ties).
+     *
+     * @param <T> type of value (array of {@code double}, {@code long} or {@code int})
+     * @return built-in reduce operation
+     */
+    @SuppressWarnings("unchecked")
+    static <T> ReduceOperation<T> maxLoc() {
+        return (ReduceOperation<T>) BuiltinReduceOperation.MAXLOC;
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2011-2019, PCJ Library, Marek Nowicki
+ * All rights reserved.
+ *
+ * Licensed under New BSD License (3-clause license).
+ *
+ * See the file "LICENSE" for the full license governing this code.
+ */
+package org.pcj.internal;
+
+import java.util.Locale;
+
+/**
+ * Algorithm of synchronization of nodes in the group barrier.
+ * <p>
+ * PCJ Threads of the node are always synchronized locally, and then the node
+ * takes part in the synchronization of nodes.
+ *
+ * @author Marek Nowicki (faramir@mat.umk.pl)
+ */
+public enum BarrierAlgorithm {
+    /**
+     * Nodes notify parents in the communication tree of the barrier
+     * (see {@code pcj.tree.shape.barrier}) and the master node releases
+     * nodes down the tree: 2 * depth of the tree message latencies.
+     */
+    TREE,
+    /**
+     * Dissemination barrier: in round {@code k} node at position {@code i}
+     * notifies node {@code i+2^k} (mod P) and waits for notification from
+     * node {@code i-2^k}: ceil(log P) message latencies, without root node.
+     */
+    DISSEMINATION,
+    /**
+     * Tournament barrier: node at position {@code i} waits for nodes it wins
+     * with ({@code i+2^j} for {@code 2^j} lower than the lowest set bit of
+     * {@code i}), then notifies the node it loses to (the lowest set bit cleared).
+     * The champion (the first node) releases nodes in the same static pairs.
+     */
+    TOURNAMENT;
+
+    /**
+     * Parses name of the algorithm (case insensitive).
+     *
+     * @param name name of the algorithm
+     * @return algorithm
+     * @throws IllegalArgumentException unknown algorithm name
+     */
+    public static BarrierAlgorithm parse(String name) throws IllegalArgumentException {
+        return BarrierAlgorithm.valueOf(name.trim().toUpperCase(Locale.ENGLISH));
+    }
+}
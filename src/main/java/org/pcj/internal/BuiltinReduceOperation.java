@@ -0,0 +1,580 @@
+/*
+ * Copyright (c) 2011-2019, PCJ Library, Marek Nowicki
+ * All rights reserved.
+ *
+ * Licensed under New BSD License (3-clause license).
+ *
+ * See the file "LICENSE" for the full license governing this code.
+ */
+package org.pcj.internal;
+
+import java.lang.reflect.Array;
+import org.pcj.ReduceOperation;
+
+/**
+ * Built-in reduce operations recognised by the runtime.
+ * <p>
+ * Operations are sent in messages as one byte id instead of serialized lambda.
+ * Arrays of primitive elements are combined element-wise, in place of the first
+ * argument, in loops without boxing. Scalars (boxed primitives) are combined
+ * into new boxed value.
+ * <p>
+ * {@link #MINLOC} and {@link #MAXLOC} work on arrays of pairs
+ * {@code value, location} (array of even length) and on ties keep the smaller location.
+ *
+ * @author Marek Nowicki (faramir@mat.umk.pl)
+ */
+public enum BuiltinReduceOperation implements ReduceOperation<Object> {
+    SUM, PROD, MIN, MAX, BAND, BOR, BXOR, MINLOC, MAXLOC;
+
+    private static final BuiltinReduceOperation[] VALUES = values();
+
+    /**
+     * Gets operation by id.
+     *
+     * @param id id of operation
+     * @return operation
+     * @throws IllegalArgumentException unknown id
+     */
+    public static BuiltinReduceOperation fromId(byte id) throws IllegalArgumentException {
+        if (id < 0 || id >= VALUES.length) {
+            throw new IllegalArgumentException("Unknown reduce operation id: " + id);
+        }
+        return VALUES[id];
+    }
+
+    /**
+     * Gets id of the operation.
+     *
+     * @return id of the operation
+     */
+    public byte getId() {
+        return (byte) ordinal();
+    }
+
+    /**
+     * Gets number of consecutive array elements that are combined together
+     * (2 for pairs of value and location, 1 otherwise).
+     *
+     * @return number of elements in one combined unit
+     */
+    public int getElementGroupSize() {
+        return this == MINLOC || this == MAXLOC ? 2 : 1;
+    }
+
+    /**
+     * Gets value that can be used as the first argument of {@link #apply(Object, Object)}
+     * without modifying the value: copy of array, as arrays are combined in place.
+     *
+     * @param value value
+     * @return copy of array or the value
+     */
+    public static Object accumulatorOf(Object value) {
+        if (value != null && value.getClass().isArray()) {
+            int length = Array.getLength(value);
+            Object copy = Array.newInstance(value.getClass().getComponentType(), length);
+            System.arraycopy(value, 0, copy, 0, length);
+            return copy;
+        }
+        return value;
+    }
+
+    @Override
+    public Object apply(Object a, Object b) {
+        if (a != null && a.getClass().isArray()) {
+            combine(a, 0, b, 0, Array.getLength(a));
+            return a;
+        }
+        return applyScalar(a, b);
+    }
+
+    /**
+     * Combines elements of source array into target array in place.
+     *
+     * @param target       target array
+     * @param targetOffset index of the first element in target array
+     * @param source       source array
+     * @param sourceOffset index of the first element in source array
+     * @param length       number of elements
+     * @throws UnsupportedOperationException operation is not supported for the array type
+     */
+    public void combine(Object target, int targetOffset, Object source, int sourceOffset, int length) throws UnsupportedOperationException {
+        if (target instanceof double[]) {
+            combine((double[]) target, targetOffset, (double[]) source, sourceOffset, length);
+        } else if (target instanceof float[]) {
+            combine((float[]) target, targetOffset, (float[]) source, sourceOffset, length);
+        } else if (target instanceof long[]) {
+            combine((long[]) target, targetOffset, (long[]) source, sourceOffset, length);
+        } else if (target instanceof int[]) {
+            combine((int[]) target, targetOffset, (int[]) source, sourceOffset, length);
+        } else if (target instanceof boolean[]) {
+            combine((boolean[]) target, targetOffset, (boolean[]) source, sourceOffset, length);
+        } else {
+            throw unsupported(target);
+        }
+    }
+
+    private void combine(double[] t, int to, double[] s, int so, int length) {
+        switch (this) {
+            case SUM:
+                for (int i = 0; i < length; ++i) {
+                    t[to + i] += s[so + i];
+                }
+                break;
+            case PROD:
+                for (int i = 0; i < length; ++i) {
+                    t[to + i] *= s[so + i];
+                }
+                break;
+            case MIN:
+                for (int i = 0; i < length; ++i) {
+                    t[to + i] = Math.min(t[to + i], s[so + i]);
+                }
+                break;
+            case MAX:
+                for (int i = 0; i < length; ++i) {
+                    t[to + i] = Math.max(t[to + i], s[so + i]);
+                }
+                break;
+            case MINLOC:
+            case MAXLOC:
+                for (int i = 0; i + 1 < length; i += 2) {
+                    double tv = t[to + i];
+                    double sv = s[so + i];
+                    if ((this == MINLOC ? sv < tv : sv > tv) || (sv == tv && s[so + i + 1] < t[to + i + 1])) {
+                        t[to + i] = sv;
+                        t[to + i + 1] = s[so + i + 1];
+                    }
+                }
+                break;
+            default:
+                throw unsupported(t);
+        }
+    }
+
+    private void combine(float[] t, int to, float[] s, int so, int length) {
+        switch (this) {
+            case SUM:
+                for (int i = 0; i < length; ++i) {
+                    t[to + i] += s[so + i];
+                }
+                break;
+            case PROD:
+                for (int i = 0; i < length; ++i) {
+                    t[to + i] *= s[so + i];
+                }
+                break;
+            case MIN:
+                for (int i = 0; i < length; ++i) {
+                    t[to + i] = Math.min(t[to + i], s[so + i]);
+                }
+                break;
+            case MAX:
+                for (int i = 0; i < length; ++i) {
+                    t[to + i] = Math.max(t[to + i], s[so + i]);
+                }
+                break;
+            default:
+                throw unsupported(t);
+        }
+    }
+
+    private void combine(long[] t, int to, long[] s, int so, int length) {
+        switch (this) {
+            case SUM:
+                for (int i = 0; i < length; ++i) {
+                    t[to + i] += s[so + i];
+                }
+                break;
+            case PROD:
+                for (int i = 0; i < length; ++i) {
+                    t[to + i] *= s[so + i];
+                }
+                break;
+            case MIN:
+                for (int i = 0; i < length; ++i) {
+                    t[to + i] = Math.min(t[to + i], s[so + i]);
+                }
+                break;
+            case MAX:
+                for (int i = 0; i < length; ++i) {
+                    t[to + i] = Math.max(t[to + i], s[so + i]);
+                }
+                break;
+            case BAND:
+                for (int i = 0; i < length; ++i) {
+                    t[to + i] &= s[so + i];
+                }
+                break;
+            case BOR:
+                for (int i = 0; i < length; ++i) {
+                    t[to + i] |= s[so + i];
+                }
+                break;
+            case BXOR:
+                for (int i = 0; i < length; ++i) {
+                    t[to + i] ^= s[so + i];
+                }
+                break;
+            case MINLOC:
+            case MAXLOC:
+                for (int i = 0; i + 1 < length; i += 2) {
+                    long tv = t[to + i];
+                    long sv = s[so + i];
+                    if ((this == MINLOC ? sv < tv : sv > tv) || (sv == tv && s[so + i + 1] < t[to + i + 1])) {
+                        t[to + i] = sv;
+                        t[to + i + 1] = s[so + i + 1];
+                    }
+                }
+                break;
+            default:
+                throw unsupported(t);
+        }
+    }
+
+    private void combine(int[] t, int to, int[] s, int so, int length) {
+        switch (this) {
+            case SUM:
+                for (int i = 0; i < length; ++i) {
+                    t[to + i] += s[so + i];
+                }
+                break;
+            case PROD:
+                for (int i = 0; i < length; ++i) {
+                    t[to + i] *= s[so + i];
+                }
+                break;
+            case MIN:
+                for (int i = 0; i < length; ++i) {
+                    t[to + i] = Math.min(t[to + i], s[so + i]);
+                }
+                break;
+            case MAX:
+                for (int i = 0; i < length; ++i) {
+                    t[to + i] = Math.max(t[to + i], s[so + i]);
+                }
+                break;
+            case BAND:
+                for (int i = 0; i < length; ++i) {
+                    t[to + i] &= s[so + i];
+                }
+                break;
+            case BOR:
+                for (int i = 0; i < length; ++i) {
+                    t[to + i] |= s[so + i];
+                }
+                break;
+            case BXOR:
+                for (int i = 0; i < length; ++i) {
+                    t[to + i] ^= s[so + i];
+                }
+                break;
+            case MINLOC:
+            case MAXLOC:
+                for (int i = 0; i + 1 < length; i += 2) {
+                    int tv = t[to + i];
+                    int sv = s[so + i];
+                    if ((this == MINLOC ? sv < tv : sv > tv) || (sv == tv && s[so + i + 1] < t[to + i + 1])) {
+                        t[to + i] = sv;
+                        t[to + i + 1] = s[so + i + 1];
+                    }
+                }
+                break;
+            default:
+                throw unsupported(t);
+        }
+    }
+
+    private void combine(boolean[] t, int to, boolean[] s, int so, int length) {
+        switch (this) {
+            case BAND:
+                for (int i = 0; i < length; ++i) {
+                    t[to + i] &= s[so + i];
+                }
+                break;
+            case BOR:
+                for (int i = 0; i < length; ++i) {
+                    t[to + i] |= s[so + i];
+                }
+                break;
+            case BXOR:
+                for (int i = 0; i < length; ++i) {
+                    t[to + i] ^= s[so + i];
+                }
+                break;
+            default:
+                throw unsupported(t);
+        }
+    }
+
+    /**
+     * Combines elements of source array into target array in place,
+     * at positions given by indices: {@code target[indices[i]]} with {@code source[i]}.
+     * Pairs of value and location are not supported.
+     *
+     * @param target  target array
+     * @param indices positions in target array
+     * @param source  source array of the same type as target array
+     * @throws UnsupportedOperationException operation is not supported for the array type
+     */
+    public void combineAt(Object target, int[] indices, Object source) throws UnsupportedOperationException {
+        if (target instanceof double[]) {
+            combineAt((double[]) target, indices, (double[]) source);
+        } else if (target instanceof float[]) {
+            combineAt((float[]) target, indices, (float[]) source);
+        } else if (target instanceof long[]) {
+            combineAt((long[]) target, indices, (long[]) source);
+        } else if (target instanceof int[]) {
+            combineAt((int[]) target, indices, (int[]) source);
+        } else if (target instanceof boolean[]) {
+            combineAt((boolean[]) target, indices, (boolean[]) source);
+        } else {
+            throw unsupported(target);
+        }
+    }
+
+    private void combineAt(double[] t, int[] indices, double[] s) {
+        switch (this) {
+            case SUM:
+                for (int i = 0; i < indices.length; ++i) {
+                    t[indices[i]] += s[i];
+                }
+                break;
+            case PROD:
+                for (int i = 0; i < indices.length; ++i) {
+                    t[indices[i]] *= s[i];
+                }
+                break;
+            case MIN:
+                for (int i = 0; i < indices.length; ++i) {
+                    t[indices[i]] = Math.min(t[indices[i]], s[i]);
+                }
+                break;
+            case MAX:
+                for (int i = 0; i < indices.length; ++i) {
+                    t[indices[i]] = Math.max(t[indices[i]], s[i]);
+                }
+                break;
+            default:
+                throw unsupported(t);
+        }
+    }
+
+    private void combineAt(float[] t, int[] indices, float[] s) {
+        switch (this) {
+            case SUM:
+                for (int i = 0; i < indices.length; ++i) {
+                    t[indices[i]] += s[i];
+                }
+                break;
+            case PROD:
+                for (int i = 0; i < indices.length; ++i) {
+                    t[indices[i]] *= s[i];
+                }
+                break;
+            case MIN:
+                for (int i = 0; i < indices.length; ++i) {
+                    t[indices[i]] = Math.min(t[indices[i]], s[i]);
+                }
+                break;
+            case MAX:
+                for (int i = 0; i < indices.length; ++i) {
+                    t[indices[i]] = Math.max(t[indices[i]], s[i]);
+                }
+                break;
+            default:
+                throw unsupported(t);
+        }
+    }
+
+    private void combineAt(long[] t, int[] indices, long[] s) {
+        switch (this) {
+            case SUM:
+                for (int i = 0; i < indices.length; ++i) {
+                    t[indices[i]] += s[i];
+                }
+                break;
+            case PROD:
+                for (int i = 0; i < indices.length; ++i) {
+                    t[indices[i]] *= s[i];
+                }
+                break;
+            case MIN:
+                for (int i = 0; i < indices.length; ++i) {
+                    t[indices[i]] = Math.min(t[indices[i]], s[i]);
+                }
+                break;
+            case MAX:
+                for (int i = 0; i < indices.length; ++i) {
+                    t[indices[i]] = Math.max(t[indices[i]], s[i]);
+                }
+                break;
+            case BAND:
+                for (int i = 0; i < indices.length; ++i) {
+                    t[indices[i]] &= s[i];
+                }
+                break;
+            case BOR:
+                for (int i = 0; i < indices.length; ++i) {
+                    t[indices[i]] |= s[i];
+                }
+                break;
+            case BXOR:
+                for (int i = 0; i < indices.length; ++i) {
+                    t[indices[i]] ^= s[i];
+                }
+                break;
+            default:
+                throw unsupported(t);
+        }
+    }
+
+    private void combineAt(int[] t, int[] indices, int[] s) {
+        switch (this) {
+            case SUM:
+                for (int i = 0; i < indices.length; ++i) {
+                    t[indices[i]] += s[i];
+                }
+                break;
+            case PROD:
+                for (int i = 0; i < indices.length; ++i) {
+                    t[indices[i]] *= s[i];
+                }
+                break;
+            case MIN:
+                for (int i = 0; i < indices.length; ++i) {
+                    t[indices[i]] = Math.min(t[indices[i]], s[i]);
+                }
+                break;
+            case MAX:
+                for (int i = 0; i < indices.length; ++i) {
+                    t[indices[i]] = Math.max(t[indices[i]], s[i]);
+                }
+                break;
+            case BAND:
+                for (int i = 0; i < indices.length; ++i) {
+                    t[indices[i]] &= s[i];
+                }
+                break;
+            case BOR:
+                for (int i = 0; i < indices.length; ++i) {
+                    t[indices[i]] |= s[i];
+                }
+                break;
+            case BXOR:
+                for (int i = 0; i < indices.length; ++i) {
+                    t[indices[i]] ^= s[i];
+                }
+                break;
+            default:
+                throw unsupported(t);
+        }
+    }
+
+    private void combineAt(boolean[] t, int[] indices, boolean[] s) {
+        switch (this) {
+            case BAND:
+                for (int i = 0; i < indices.length; ++i) {
+                    t[indices[i]] &= s[i];
+                }
+                break;
+            case BOR:
+                for (int i = 0; i < indices.length; ++i) {
+                    t[indices[i]] |= s[i];
+                }
+                break;
+            case BXOR:
+                for (int i = 0; i < indices.length; ++i) {
+                    t[indices[i]] ^= s[i];
+                }
+                break;
+            default:
+                throw unsupported(t);
+        }
+    }
+
+    private Object applyScalar(Object a, Object b) {
+        if (a instanceof Double) {
+            double x = (Double) a;
+            double y = (Double) b;
+            switch (this) {
+                case SUM:
+                    return x + y;
+                case PROD:
+                    return x * y;
+                case MIN:
+                    return Math.min(x, y);
+                case MAX:
+                    return Math.max(x, y);
+            }
+        } else if (a instanceof Float) {
+            float x = (Float) a;
+            float y = (Float) b;
+            switch (this) {
+                case SUM:
+                    return x + y;
+                case PROD:
+                    return x * y;
+                case MIN:
+                    return Math.min(x, y);
+                case MAX:
+                    return Math.max(x, y);
+            }
+        } else if (a instanceof Long) {
+            long x = (Long) a;
+            long y = (Long) b;
+            switch (this) {
+                case SUM:
+                    return x + y;
+                case PROD:
+                    return x * y;
+                case MIN:
+                    return Math.min(x, y);
+                case MAX:
+                    return Math.max(x, y);
+                case BAND:
+                    return x & y;
+                case BOR:
+                    return x | y;
+                case BXOR:
+                    return x ^ y;
+            }
+        } else if (a instanceof Integer) {
+            int x = (Integer) a;
+            int y = (Integer) b;
+            switch (this) {
+                case SUM:
+                    return x + y;
+                case PROD:
+                    return x * y;
+                case MIN:
+                    return Math.min(x, y);
+                case MAX:
+                    return Math.max(x, y);
+                case BAND:
+                    return x & y;
+                case BOR:
+                    return x | y;
+                case BXOR:
+                    return x ^ y;
+            }
+        } else if (a instanceof Boolean) {
+            boolean x = (Boolean) a;
+            boolean y = (Boolean) b;
+            switch (this) {
+                case BAND:
+                    return x & y;
+                case BOR:
+                    return x | y;
+                case BXOR:
+                    return x ^ y;
+            }
+        }
+        throw unsupported(a);
+    }
+
+    private UnsupportedOperationException unsupported(Object value) {
+        return new UnsupportedOperationException("Reduce operation " + this + " is not supported for "
+                                                         + (value == null ? null : value.getClass().getSimpleName()));
+    }
+}
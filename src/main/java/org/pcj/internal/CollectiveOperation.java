@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2011-2019, PCJ Library, Marek Nowicki
+ * All rights reserved.
+ *
+ * Licensed under New BSD License (3-clause license).
+ *
+ * See the file "LICENSE" for the full license governing this code.
+ */
+package org.pcj.internal;
+
+import java.util.Locale;
+
+/**
+ * Collective operations that use own communication tree of the group.
+ *
+ * @author Marek Nowicki (faramir@mat.umk.pl)
+ */
+public enum CollectiveOperation {
+    BARRIER,
+    BROADCAST,
+    SCATTER,
+    COLLECT,
+    REDUCE,
+    ALLREDUCE,
+    ALLGATHER,
+    REDUCESCATTER,
+    ALLTOALL;
+
+    /**
+     * Gets name of the operation used in configuration properties.
+     *
+     * @return name of the operation
+     */
+    public String getPropertyName() {
+        return name().toLowerCase(Locale.ENGLISH);
+    }
+}
@@ -88,6 +88,109 @@ public final class Configuration {
      * pcj.alive.timeout (int in seconds) default: 60
      */
     public final int ALIVE_TIMEOUT;
+    /**
+     * pcj.tree.shape (string: binary, kary, binomial, flat) default: binary
+     * <p>
+     * Shape of communication tree used by collective operations. It can be overridden
+     * for operation ({@code pcj.tree.shape.<operation>}, eg. {@code pcj.tree.shape.barrier}),
+     * for group ({@code pcj.tree.shape.group.<groupName>}) or for operation in the group
+     * ({@code pcj.tree.shape.<operation>.group.<groupName>}). The most specific setting is used.
+     */
+    public final TreeShape TREE_SHAPE;
+    /**
+     * pcj.tree.arity (int) default: 4
+     * <p>
+     * Arity of k-ary communication tree.
+     */
+    public final int TREE_ARITY;
+    /**
+     * pcj.tree.topology (boolean) default: false
+     * <p>
+     * When set, communication trees are built hierarchically: nodes are grouped
+     * by topology label and then by host, and only the leaders of the groups
+     * (the first nodes of the groups) communicate between the groups.
+     * The tree shape is used on every level of the hierarchy.
+     */
+    public final boolean TREE_TOPOLOGY;
+    /**
+     * pcj.topology.label (string) default: value of {@code PCJ_TOPOLOGY_LABEL}
+     * environment variable or empty
+     * <p>
+     * User-supplied label of the node location (eg. rack or switch name).
+     * It is usually set per JVM as system property.
+     */
+    public final String TOPOLOGY_LABEL;
+    /**
+     * pcj.broadcast.pipeline.threshold (int in bytes) default: 4*1024*1024
+     * <p>
+     * Serialized values of at least this size are broadcast in segments
+     * that are forwarded down the tree as soon as they arrive.
+     * Negative value disables pipelined broadcast.
+     */
+    public final int BROADCAST_PIPELINE_THRESHOLD;
+    /**
+     * pcj.broadcast.pipeline.segmentsize (int in bytes) default: 1024*1024
+     */
+    public final int BROADCAST_SEGMENT_SIZE;
+    /**
+     * pcj.broadcast.scatter.threshold (int in bytes) default: 256*1024*1024
+     * <p>
+     * Serialized values of at least this size are broadcast using
+     * scatter-allgather algorithm: the group master node sends 1/P of the value
+     * to each of P nodes, and then the parts are circulated in the ring of nodes,
+     * so every link carries the value only once. Zero selects the algorithm for
+     * all values, negative value disables it. It takes precedence over pipelined
+     * broadcast.
+     */
+    public final int BROADCAST_SCATTER_THRESHOLD;
+    /**
+     * pcj.allreduce.ring.threshold (int in elements) default: 1024*1024
+     * <p>
+     * Allreduce of arrays of primitive numeric elements of at least this length
+     * uses ring algorithm (reduce-scatter and allgather of chunks) instead of
+     * the communication tree, when the group has more than two nodes. The reduce
+     * function is then applied on chunks of arrays, so it has to be element-wise.
+     * Negative value disables the ring algorithm.
+     */
+    public final int ALLREDUCE_RING_THRESHOLD;
+    /**
+     * pcj.local.parallel.threshold (int in threads) default: 8
+     * <p>
+     * Local phase of reduce and collect (getting and combining values of PCJ
+     * Threads of the group on the node) is done in parallel, as fork/join tree
+     * over the threads, when the node has at least this many threads of the
+     * group. Negative value disables parallel local phase.
+     */
+    public final int LOCAL_PARALLEL_THRESHOLD;
+    /**
+     * pcj.reducescatter.ring.threshold (int in elements) default: 1024*1024
+     * <p>
+     * Reduce-scatter of arrays of at least this length uses ring algorithm
+     * (P-1 steps, each node sends to and receives from one neighbour) instead
+     * of pairwise exchange (each node sends parts directly to all other nodes
+     * in one step), when the group has more than two nodes. Negative value
+     * disables the ring algorithm.
+     */
+    public final int REDUCESCATTER_RING_THRESHOLD;
+    /**
+     * pcj.allgather.ring.threshold (int in bytes) default: 1024*1024
+     * <p>
+     * Allgather of values which total size (size of the value times number
+     * of PCJ Threads) is at least this number of bytes uses ring algorithm
+     * (P-1 steps), smaller values use recursive doubling (log P steps). Size is
+     * known for primitive values and arrays of primitive numeric elements,
+     * other values always use recursive doubling. Negative value disables the
+     * ring algorithm.
+     */
+    public final int ALLGATHER_RING_THRESHOLD;
+    /**
+     * pcj.barrier.algorithm (string: tree, dissemination, tournament) default: tree
+     * <p>
+     * Algorithm of synchronization of nodes in the group barrier.
+     *
+     * @see BarrierAlgorithm
+     */
+    public final BarrierAlgorithm BARRIER_ALGORITHM;
 
     Configuration(Properties properties) {
         this.properties = properties;
@@ -106,6 +209,18 @@ public final class Configuration {
         ASYNC_WORKERS_QUEUE_SIZE = getPropertyInt("pcj.async.workers.queuesize", -1);
         ALIVE_HEARTBEAT = getPropertyInt("pcj.alive.heartbeat", 20);
         ALIVE_TIMEOUT = getPropertyInt("pcj.alive.timeout", 60);
+        TREE_SHAPE = getPropertyTreeShape("pcj.tree.shape", TreeShape.BINARY);
+        TREE_ARITY = Math.max(2, getPropertyInt("pcj.tree.arity", 4));
+        TREE_TOPOLOGY = Boolean.parseBoolean(getProperty("pcj.tree.topology", "false"));
+        TOPOLOGY_LABEL = getProperty("pcj.topology.label", System.getenv().getOrDefault("PCJ_TOPOLOGY_LABEL", ""));
+        BROADCAST_PIPELINE_THRESHOLD = getPropertyInt("pcj.broadcast.pipeline.threshold", 4 * 1024 * 1024);
+        BROADCAST_SEGMENT_SIZE = Math.max(1, getPropertyInt("pcj.broadcast.pipeline.segmentsize", 1024 * 1024));
+        BROADCAST_SCATTER_THRESHOLD = getPropertyInt("pcj.broadcast.scatter.threshold", 256 * 1024 * 1024);
+        ALLREDUCE_RING_THRESHOLD = getPropertyInt("pcj.allreduce.ring.threshold", 1024 * 1024);
+        LOCAL_PARALLEL_THRESHOLD = getPropertyInt("pcj.local.parallel.threshold", 8);
+        REDUCESCATTER_RING_THRESHOLD = getPropertyInt("pcj.reducescatter.ring.threshold", 1024 * 1024);
+        ALLGATHER_RING_THRESHOLD = getPropertyInt("pcj.allgather.ring.threshold", 1024 * 1024);
+        BARRIER_ALGORITHM = getPropertyBarrierAlgorithm("pcj.barrier.algorithm", BarrierAlgorithm.TREE);
 
         LOGGER.log(Level.CONFIG, "pcj.port:                     {0,number,#}", DEFAULT_PORT);
         LOGGER.log(Level.CONFIG, "pcj.init.backlog:             {0,number,#}", INIT_BACKLOG_COUNT);
@@ -121,6 +236,56 @@ public final class Configuration {
         LOGGER.log(Level.CONFIG, "pcj.async.workers.queuesize:  {0,number,#}", ASYNC_WORKERS_QUEUE_SIZE);
         LOGGER.log(Level.CONFIG, "pcj.alive.heartbeat:          {0,number,#}", ALIVE_HEARTBEAT);
         LOGGER.log(Level.CONFIG, "pcj.alive.timeout:            {0,number,#}", ALIVE_TIMEOUT);
+        LOGGER.log(Level.CONFIG, "pcj.tree.shape:               {0}", TREE_SHAPE);
+        LOGGER.log(Level.CONFIG, "pcj.tree.arity:               {0,number,#}", TREE_ARITY);
+        LOGGER.log(Level.CONFIG, "pcj.tree.topology:            {0}", TREE_TOPOLOGY);
+        LOGGER.log(Level.CONFIG, "pcj.topology.label:           {0}", TOPOLOGY_LABEL);
+        LOGGER.log(Level.CONFIG, "pcj.broadcast.pipeline.threshold: {0,number,#}", BROADCAST_PIPELINE_THRESHOLD);
+        LOGGER.log(Level.CONFIG, "pcj.broadcast.pipeline.segmentsize: {0,number,#}", BROADCAST_SEGMENT_SIZE);
+        LOGGER.log(Level.CONFIG, "pcj.broadcast.scatter.threshold: {0,number,#}", BROADCAST_SCATTER_THRESHOLD);
+        LOGGER.log(Level.CONFIG, "pcj.allreduce.ring.threshold: {0,number,#}", ALLREDUCE_RING_THRESHOLD);
+        LOGGER.log(Level.CONFIG, "pcj.local.parallel.threshold: {0,number,#}", LOCAL_PARALLEL_THRESHOLD);
+        LOGGER.log(Level.CONFIG, "pcj.reducescatter.ring.threshold: {0,number,#}", REDUCESCATTER_RING_THRESHOLD);
+        LOGGER.log(Level.CONFIG, "pcj.allgather.ring.threshold: {0,number,#}", ALLGATHER_RING_THRESHOLD);
+        LOGGER.log(Level.CONFIG, "pcj.barrier.algorithm:        {0}", BARRIER_ALGORITHM);
+    }
+
+    /**
+     * Gets shape of communication tree for the operation in the group.
+     *
+     * @param groupName name of the group
+     * @param operation collective operation
+     * @return shape of communication tree
+     */
+    public TreeShape getTreeShape(String groupName, CollectiveOperation operation) {
+        String operationName = "pcj.tree.shape." + operation.getPropertyName();
+        TreeShape shape = getPropertyTreeShape("pcj.tree.shape.group." + groupName, TREE_SHAPE);
+        shape = getPropertyTreeShape(operationName, shape);
+        return getPropertyTreeShape(operationName + ".group." + groupName, shape);
+    }
+
+    private TreeShape getPropertyTreeShape(String name, TreeShape defaultValue) {
+        String value = getProperty(name, null);
+        if (value != null) {
+            try {
+                return TreeShape.parse(value);
+            } catch (IllegalArgumentException ex) {
+                LOGGER.log(Level.CONFIG, "Unable to parse to tree shape: " + name, ex);
+            }
+        }
+        return defaultValue;
+    }
+
+    private BarrierAlgorithm getPropertyBarrierAlgorithm(String name, BarrierAlgorithm defaultValue) {
+        String value = getProperty(name, null);
+        if (value != null) {
+            try {
+                return BarrierAlgorithm.parse(value);
+            } catch (IllegalArgumentException ex) {
+                LOGGER.log(Level.CONFIG, "Unable to parse to barrier algorithm: " + name, ex);
+            }
+        }
+        return defaultValue;
     }
 
     private int getPropertyInt(String name, int defaultValue) {
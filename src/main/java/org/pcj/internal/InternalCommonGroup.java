@@ -9,7 +9,11 @@
 package org.pcj.internal;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -18,11 +22,19 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.pcj.internal.message.allgather.AllGatherStates;
+import org.pcj.internal.message.allreduce.AllReduceStates;
+import org.pcj.internal.message.alltoall.AllToAllStates;
 import org.pcj.internal.message.barrier.BarrierStates;
 import org.pcj.internal.message.broadcast.BroadcastStates;
 import org.pcj.internal.message.collect.CollectStates;
 import org.pcj.internal.message.join.GroupJoinStates;
 import org.pcj.internal.message.reduce.ReduceStates;
+import org.pcj.internal.message.reducescatter.ReduceScatterStates;
+import org.pcj.internal.message.scan.ScanStates;
+import org.pcj.internal.message.scatter.ScatterStates;
+import org.pcj.internal.message.split.GroupSplitStates;
 
 /**
  * Internal (with common ClassLoader) representation of Group. It contains
@@ -37,46 +49,95 @@ public class InternalCommonGroup {
 
     private final int groupId;
     private final String groupName;
+    private final boolean joinable;
     private final ConcurrentHashMap<Integer, Integer> threadsMap; // groupThreadId, globalThreadId
+    private final AtomicReference<ThreadIdsMapping> threadIdsMapping;
     private final AtomicInteger threadsCounter;
     private final Set<Integer> localIds;
     private final CommunicationTree communicationTree;
+    private final Map<CollectiveOperation, CommunicationTree> collectiveTrees;
     private final BarrierStates barrierStates;
     private final BroadcastStates broadcastStates;
+    private final ScatterStates scatterStates;
     private final CollectStates collectStates;
     private final ReduceStates reduceStates;
+    private final AllReduceStates allReduceStates;
+    private final ReduceScatterStates reduceScatterStates;
+    private final AllGatherStates allGatherStates;
+    private final AllToAllStates allToAllStates;
+    private final ScanStates scanStates;
     private final GroupJoinStates groupJoinStates;
+    private final GroupSplitStates groupSplitStates;
 
     public InternalCommonGroup(InternalCommonGroup g) {
         this.groupId = g.groupId;
         this.groupName = g.groupName;
+        this.joinable = g.joinable;
         this.communicationTree = g.communicationTree;
+        this.collectiveTrees = g.collectiveTrees;
 
         this.threadsMap = g.threadsMap;
+        this.threadIdsMapping = g.threadIdsMapping;
         this.threadsCounter = g.threadsCounter;
         this.localIds = g.localIds;
 
         this.barrierStates = g.barrierStates;
         this.broadcastStates = g.broadcastStates;
+        this.scatterStates = g.scatterStates;
         this.collectStates = g.collectStates;
         this.reduceStates = g.reduceStates;
+        this.allReduceStates = g.allReduceStates;
+        this.reduceScatterStates = g.reduceScatterStates;
+        this.allGatherStates = g.allGatherStates;
+        this.allToAllStates = g.allToAllStates;
+        this.scanStates = g.scanStates;
         this.groupJoinStates = g.groupJoinStates;
+        this.groupSplitStates = g.groupSplitStates;
     }
 
     public InternalCommonGroup(int groupMasterNode, int groupId, String groupName) {
+        this(groupMasterNode, groupId, groupName, true);
+    }
+
+    /**
+     * Creates the group.
+     *
+     * @param joinable whether the group is registered under its name in node 0
+     *                 and can be joined by the name, false for groups created by split
+     */
+    public InternalCommonGroup(int groupMasterNode, int groupId, String groupName, boolean joinable) {
         this.groupId = groupId;
         this.groupName = groupName;
-        this.communicationTree = new CommunicationTree(groupMasterNode);
+        this.joinable = joinable;
+        Configuration configuration = InternalPCJ.getConfiguration();
+        this.communicationTree = new CommunicationTree(groupMasterNode, configuration.TREE_SHAPE, configuration.TREE_ARITY, configuration.TREE_TOPOLOGY);
+        this.collectiveTrees = new EnumMap<>(CollectiveOperation.class);
+        for (CollectiveOperation operation : CollectiveOperation.values()) {
+            TreeShape shape = configuration.getTreeShape(groupName, operation);
+            if (shape == communicationTree.getShape()) {
+                collectiveTrees.put(operation, communicationTree);
+            } else {
+                collectiveTrees.put(operation, new CommunicationTree(groupMasterNode, shape, configuration.TREE_ARITY, configuration.TREE_TOPOLOGY));
+            }
+        }
 
         this.threadsMap = new ConcurrentHashMap<>();
+        this.threadIdsMapping = new AtomicReference<>(new ThreadIdsMapping(new int[0], new int[0]));
         this.threadsCounter = new AtomicInteger(0);
         this.localIds = ConcurrentHashMap.newKeySet();
 
         this.barrierStates = new BarrierStates();
         this.broadcastStates = new BroadcastStates();
+        this.scatterStates = new ScatterStates();
         this.collectStates = new CollectStates();
         this.reduceStates = new ReduceStates();
+        this.allReduceStates = new AllReduceStates();
+        this.reduceScatterStates = new ReduceScatterStates();
+        this.allGatherStates = new AllGatherStates();
+        this.allToAllStates = new AllToAllStates();
+        this.scanStates = new ScanStates();
         this.groupJoinStates = new GroupJoinStates();
+        this.groupSplitStates = new GroupSplitStates();
     }
 
     public final int getGroupId() {
@@ -87,6 +148,10 @@ public class InternalCommonGroup {
         return groupName;
     }
 
+    public final boolean isJoinable() {
+        return joinable;
+    }
+
     public final int threadCount() {
         return threadsMap.size();
     }
@@ -96,47 +161,97 @@ public class InternalCommonGroup {
     }
 
     public final int getGlobalThreadId(int groupThreadId) throws NoSuchElementException {
-        Integer globalThreadId = threadsMap.get(groupThreadId);
-        if (globalThreadId == null) {
+        int globalThreadId = threadIdsMapping.get().getGlobalThreadId(groupThreadId);
+        if (globalThreadId < 0) {
             throw new NoSuchElementException("Group threadId not found: " + groupThreadId);
         }
         return globalThreadId;
     }
 
     public final int getGroupThreadId(int globalThreadId) throws NoSuchElementException {
-        return threadsMap.entrySet().stream()
-                       .filter(entry -> entry.getValue() == globalThreadId)
-                       .mapToInt(Map.Entry::getKey)
-                       .findFirst()
-                       .orElseThrow(() -> new NoSuchElementException("Global threadId not found: " + globalThreadId));
+        int groupThreadId = threadIdsMapping.get().getGroupThreadId(globalThreadId);
+        if (groupThreadId < 0) {
+            throw new NoSuchElementException("Global threadId not found: " + globalThreadId);
+        }
+        return groupThreadId;
     }
 
-    public final void addNewThread(int globalThreadId) {
-        int groupThreadId;
-        do {
-            groupThreadId = threadsCounter.getAndIncrement();
-        } while (threadsMap.putIfAbsent(groupThreadId, globalThreadId) != null);
+    /**
+     * Adds PCJ Threads to the group and updates local threads and communication
+     * trees once for all of them.
+     *
+     * @param globalThreadIds global ids of new PCJ Threads
+     */
+    public final void addNewThreads(int[] globalThreadIds) {
+        Map<Integer, Integer> newThreads = new HashMap<>();
+        synchronized (threadIdsMapping) {
+            ThreadIdsMapping mapping = threadIdsMapping.get();
+            for (int globalThreadId : globalThreadIds) {
+                int groupThreadId;
+                do {
+                    groupThreadId = threadsCounter.getAndIncrement();
+                } while (mapping.getGlobalThreadId(groupThreadId) >= 0);
+                newThreads.put(groupThreadId, globalThreadId);
+            }
+            addThreads(mapping, newThreads);
+        }
 
-        updateLocalThreads();
-        communicationTree.update(threadsMap);
+        updateLocalThreads(newThreads);
+        updateCommunicationTrees();
     }
 
     public final void updateThreadsMap(Map<Integer, Integer> newThreadsMap) { // groupId, globalId
-        threadsMap.putAll(newThreadsMap);
+        Map<Integer, Integer> newThreads = new HashMap<>();
+        synchronized (threadIdsMapping) {
+            ThreadIdsMapping mapping = threadIdsMapping.get();
+            newThreadsMap.forEach((groupThreadId, globalThreadId) -> {
+                if (mapping.getGlobalThreadId(groupThreadId) != globalThreadId) {
+                    newThreads.put(groupThreadId, globalThreadId);
+                }
+            });
+            addThreads(mapping, newThreads);
+        }
 
-        updateLocalThreads();
-        communicationTree.update(this.threadsMap);
+        updateLocalThreads(newThreads);
+        updateCommunicationTrees();
     }
 
-    private void updateLocalThreads() {
+    /*
+     * the mapping is published before the map, so every thread counted
+     * in threadCount() can be found in the mapping
+     */
+    private void addThreads(ThreadIdsMapping mapping, Map<Integer, Integer> newThreads) {
+        threadIdsMapping.set(mapping.with(newThreads));
+        threadsMap.putAll(newThreads);
+    }
+
+    private void updateLocalThreads(Map<Integer, Integer> newThreads) {
         NodeData nodeData = InternalPCJ.getNodeData();
         int currentPhysicalId = nodeData.getCurrentNodePhysicalId();
-        threadsMap.entrySet()
-                .stream()
-                .filter(entry -> nodeData.getPhysicalId(entry.getValue()) == currentPhysicalId)
-                .map(Map.Entry::getKey)
-                .sorted()
-                .forEach(localIds::add);
+        newThreads.forEach((groupThreadId, globalThreadId) -> {
+            if (nodeData.getPhysicalId(globalThreadId) == currentPhysicalId) {
+                localIds.add(groupThreadId);
+            }
+        });
+    }
+
+    private synchronized void updateCommunicationTrees() {
+        NodeData nodeData = InternalPCJ.getNodeData();
+
+        Set<Integer> physicalIdsSet = new LinkedHashSet<>();
+        physicalIdsSet.add(communicationTree.getMasterNode());
+        for (int globalThreadId : threadIdsMapping.get().groupToGlobal) {
+            if (globalThreadId >= 0) {
+                physicalIdsSet.add(nodeData.getPhysicalId(globalThreadId));
+            }
+        }
+        List<Integer> physicalIds = new ArrayList<>(physicalIdsSet);
+
+        communicationTree.update(physicalIds);
+        collectiveTrees.values().stream()
+                .distinct()
+                .filter(tree -> tree != communicationTree)
+                .forEach(tree -> tree.update(physicalIds));
     }
 
     public Map<Integer, Integer> getThreadsMap() {
@@ -151,6 +266,10 @@ public class InternalCommonGroup {
         return broadcastStates;
     }
 
+    public final ScatterStates getScatterStates() {
+        return scatterStates;
+    }
+
     public final CollectStates getCollectStates() {
         return collectStates;
     }
@@ -159,30 +278,128 @@ public class InternalCommonGroup {
         return reduceStates;
     }
 
+    public final AllReduceStates getAllReduceStates() {
+        return allReduceStates;
+    }
+
+    public final ReduceScatterStates getReduceScatterStates() {
+        return reduceScatterStates;
+    }
+
+    public final AllGatherStates getAllGatherStates() {
+        return allGatherStates;
+    }
+
+    public final AllToAllStates getAllToAllStates() {
+        return allToAllStates;
+    }
+
+    public final ScanStates getScanStates() {
+        return scanStates;
+    }
+
     public GroupJoinStates getGroupJoinStates() {
         return groupJoinStates;
     }
 
+    public GroupSplitStates getGroupSplitStates() {
+        return groupSplitStates;
+    }
+
     public CommunicationTree getCommunicationTree() {
         return communicationTree;
     }
 
+    /**
+     * Gets communication tree used by the collective operation.
+     *
+     * @param operation collective operation
+     * @return communication tree
+     */
+    public CommunicationTree getCommunicationTree(CollectiveOperation operation) {
+        return collectiveTrees.get(operation);
+    }
+
+    /**
+     * Immutable mapping between group and global ids of PCJ Threads, stored in
+     * arrays indexed by the id ({@code -1} when there is no such PCJ Thread).
+     * Modifications create new mapping, so it can be read without locking.
+     */
+    private static final class ThreadIdsMapping {
+
+        private final int[] groupToGlobal;
+        private final int[] globalToGroup;
+
+        private ThreadIdsMapping(int[] groupToGlobal, int[] globalToGroup) {
+            this.groupToGlobal = groupToGlobal;
+            this.globalToGroup = globalToGroup;
+        }
+
+        private int getGlobalThreadId(int groupThreadId) {
+            if (groupThreadId < 0 || groupThreadId >= groupToGlobal.length) {
+                return -1;
+            }
+            return groupToGlobal[groupThreadId];
+        }
+
+        private int getGroupThreadId(int globalThreadId) {
+            if (globalThreadId < 0 || globalThreadId >= globalToGroup.length) {
+                return -1;
+            }
+            return globalToGroup[globalThreadId];
+        }
+
+        private ThreadIdsMapping with(Map<Integer, Integer> newThreads) {
+            int groupLength = groupToGlobal.length;
+            int globalLength = globalToGroup.length;
+            for (Map.Entry<Integer, Integer> entry : newThreads.entrySet()) {
+                groupLength = Math.max(groupLength, entry.getKey() + 1);
+                globalLength = Math.max(globalLength, entry.getValue() + 1);
+            }
+
+            int[] newGroupToGlobal = Arrays.copyOf(groupToGlobal, groupLength);
+            Arrays.fill(newGroupToGlobal, groupToGlobal.length, groupLength, -1);
+            int[] newGlobalToGroup = Arrays.copyOf(globalToGroup, globalLength);
+            Arrays.fill(newGlobalToGroup, globalToGroup.length, globalLength, -1);
+
+            for (Map.Entry<Integer, Integer> entry : newThreads.entrySet()) {
+                newGroupToGlobal[entry.getKey()] = entry.getValue();
+                newGlobalToGroup[entry.getValue()] = entry.getKey();
+            }
+            return new ThreadIdsMapping(newGroupToGlobal, newGlobalToGroup);
+        }
+    }
+
     public static class CommunicationTree {
 
         private final int masterNode;
-        private int parentNode;
+        private final TreeShape shape;
+        private final int arity;
+        private final boolean topologyAware;
+        private volatile int parentNode;
         private final Set<Integer> childrenNodes;
+        private volatile List<Integer> nodes;
+        private volatile Map<Integer, Integer> parentNodes;
 
-        private CommunicationTree(int masterNode) {
+        private CommunicationTree(int masterNode, TreeShape shape, int arity, boolean topologyAware) {
             this.masterNode = masterNode;
+            this.shape = shape;
+            this.arity = arity;
+            this.topologyAware = topologyAware;
             this.parentNode = -1;
             this.childrenNodes = new CopyOnWriteArraySet<>();
+            this.nodes = Collections.singletonList(masterNode);
+            this.parentNodes = Collections.emptyMap();
         }
 
         public final int getMasterNode() {
             return masterNode;
         }
 
+        public final TreeShape getShape() {
+            return shape;
+        }
+
         public final int getParentNode() {
             return parentNode;
         }
@@ -191,33 +408,140 @@ public class InternalCommonGroup {
             return Collections.unmodifiableSet(childrenNodes);
         }
 
-        private void update(Map<Integer, Integer> threadsMapping) {
-            NodeData nodeData = InternalPCJ.getNodeData();
+        /**
+         * Gets physical ids of all nodes of the group in order used to build the tree
+         * (the group master node is first).
+         *
+         * @return ordered list of physical ids
+         */
+        public final List<Integer> getNodes() {
+            return nodes;
+        }
+
+        /**
+         * Gets parent of any node of the tree.
+         *
+         * @param physicalId physical id of the node
+         * @return physical id of the parent node or -1 for the master node
+         */
+        public final int getParentNode(int physicalId) {
+            return parentNodes.getOrDefault(physicalId, -1);
+        }
 
-            Set<Integer> physicalIdsSet = new LinkedHashSet<>();
-            physicalIdsSet.add(masterNode);
-            threadsMapping.keySet().stream()
-                    .sorted()
-                    .map(threadsMapping::get)
-                    .map(nodeData::getPhysicalId)
-                    .forEach(physicalIdsSet::add);
-            List<Integer> physicalIds = new ArrayList<>(physicalIdsSet);
+        private void update(List<Integer> physicalIds) {
+            nodes = Collections.unmodifiableList(new ArrayList<>(physicalIds));
+            parentNodes = computeParentNodes(physicalIds);
 
             int currentPhysicalId = InternalPCJ.getNodeData().getCurrentNodePhysicalId();
-            int currentIndex = physicalIds.indexOf(currentPhysicalId);
-            if (currentIndex < 0) {
+            if (!physicalIds.contains(currentPhysicalId)) {
                 return;
             }
 
-            if (currentIndex > 0) {
-                parentNode = physicalIds.get((currentIndex - 1) / 2);
+            if (topologyAware) {
+                updateHierarchical(physicalIds, currentPhysicalId);
+            } else {
+                updateLevel(physicalIds, currentPhysicalId);
             }
-            if (currentIndex * 2 + 1 < physicalIds.size()) {
-                childrenNodes.add(physicalIds.get(currentIndex * 2 + 1));
+        }
+
+        /*
+         * Nodes are grouped by topology label and then by host (in order of first
+         * occurrence, so the master node is the leader of its groups). The tree is built
+         * among label leaders, among host leaders within the label, and among nodes
+         * within the host. The node has parent only on the highest level it is not a leader.
+         */
+        private void updateHierarchical(List<Integer> physicalIds, int currentPhysicalId) {
+            Map<String, Map<String, List<Integer>>> nodesByLabelAndHost = groupByLabelAndHost(physicalIds);
+
+            List<Integer> labelLeaders = new ArrayList<>();
+            nodesByLabelAndHost.values().forEach(hosts -> labelLeaders.add(hosts.values().iterator().next().get(0)));
+
+            Map<String, List<Integer>> currentLabelHosts = null;
+            List<Integer> hostNodes = null;
+            for (Map<String, List<Integer>> hosts : nodesByLabelAndHost.values()) {
+                for (List<Integer> nodes : hosts.values()) {
+                    if (nodes.contains(currentPhysicalId)) {
+                        currentLabelHosts = hosts;
+                        hostNodes = nodes;
+                    }
+                }
             }
-            if (currentIndex * 2 + 2 < physicalIds.size()) {
-                childrenNodes.add(physicalIds.get(currentIndex * 2 + 2));
+
+            List<Integer> hostLeaders = new ArrayList<>();
+            currentLabelHosts.values().forEach(nodes -> hostLeaders.add(nodes.get(0)));
+
+            if (labelLeaders.contains(currentPhysicalId)) {
+                updateLevel(labelLeaders, currentPhysicalId);
+            }
+            if (hostLeaders.contains(currentPhysicalId)) {
+                updateLevel(hostLeaders, currentPhysicalId);
+            }
+            updateLevel(hostNodes, currentPhysicalId);
+        }
+
+        private Map<String, Map<String, List<Integer>>> groupByLabelAndHost(List<Integer> physicalIds) {
+            NodeData nodeData = InternalPCJ.getNodeData();
+
+            Map<String, Map<String, List<Integer>>> nodesByLabelAndHost = new LinkedHashMap<>();
+            for (int physicalId : physicalIds) {
+                NodeInfo nodeInfo = nodeData.getNodeInfo(physicalId);
+                String label = nodeInfo == null ? null : nodeInfo.getTopologyLabel();
+                String host = nodeInfo == null ? null : nodeInfo.getHostIdentity();
+                if (label == null) {
+                    label = "";
+                }
+                if (host == null) {
+                    host = "#" + physicalId;
+                }
+
+                nodesByLabelAndHost.computeIfAbsent(label, key -> new LinkedHashMap<>())
+                        .computeIfAbsent(host, key -> new ArrayList<>())
+                        .add(physicalId);
+            }
+            return nodesByLabelAndHost;
+        }
+
+        /*
+         * Parents of all nodes, computed as each node computes its own parent
+         * (in hierarchical tree the lowest level, on which the node is not a leader, wins).
+         */
+        private Map<Integer, Integer> computeParentNodes(List<Integer> physicalIds) {
+            Map<Integer, Integer> parents = new HashMap<>();
+            if (topologyAware) {
+                Map<String, Map<String, List<Integer>>> nodesByLabelAndHost = groupByLabelAndHost(physicalIds);
+
+                List<Integer> labelLeaders = new ArrayList<>();
+                nodesByLabelAndHost.values().forEach(hosts -> labelLeaders.add(hosts.values().iterator().next().get(0)));
+                putParents(parents, labelLeaders);
+
+                for (Map<String, List<Integer>> hosts : nodesByLabelAndHost.values()) {
+                    List<Integer> hostLeaders = new ArrayList<>();
+                    hosts.values().forEach(nodes -> hostLeaders.add(nodes.get(0)));
+                    putParents(parents, hostLeaders);
+
+                    hosts.values().forEach(nodes -> putParents(parents, nodes));
+                }
+            } else {
+                putParents(parents, physicalIds);
+            }
+            return Collections.unmodifiableMap(parents);
+        }
+
+        private void putParents(Map<Integer, Integer> parents, List<Integer> physicalIds) {
+            for (int index = 1; index < physicalIds.size(); ++index) {
+                parents.put(physicalIds.get(index), physicalIds.get(shape.getParentIndex(index, arity)));
+            }
+        }
+
+        private void updateLevel(List<Integer> physicalIds, int currentPhysicalId) {
+            int currentIndex = physicalIds.indexOf(currentPhysicalId);
+
+            if (currentIndex > 0) {
+                parentNode = physicalIds.get(shape.getParentIndex(currentIndex, arity));
             }
+            shape.getChildrenIndices(currentIndex, physicalIds.size(), arity).stream()
+                    .map(physicalIds::get)
+                    .forEach(childrenNodes::add);
         }
 
         public void setParentNode(int parentNode) {
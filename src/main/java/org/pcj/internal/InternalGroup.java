@@ -8,9 +8,11 @@
  */
 package org.pcj.internal;
 
+import java.lang.reflect.Array;
 import java.nio.channels.SocketChannel;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.pcj.AsyncTask;
 import org.pcj.Group;
 import org.pcj.PcjFuture;
@@ -18,6 +20,9 @@ import org.pcj.PcjRuntimeException;
 import org.pcj.ReduceOperation;
 import org.pcj.internal.message.accumulate.ValueAccumulateRequestMessage;
 import org.pcj.internal.message.accumulate.ValueAccumulateStates;
+import org.pcj.internal.message.allgather.AllGatherStates;
+import org.pcj.internal.message.allreduce.AllReduceStates;
+import org.pcj.internal.message.alltoall.AllToAllStates;
 import org.pcj.internal.message.at.AsyncAtRequestMessage;
 import org.pcj.internal.message.at.AsyncAtStates;
 import org.pcj.internal.message.barrier.BarrierStates;
@@ -25,18 +30,28 @@ import org.pcj.internal.message.broadcast.BroadcastRequestMessage;
 import org.pcj.internal.message.broadcast.BroadcastStates;
 import org.pcj.internal.message.collect.CollectRequestMessage;
 import org.pcj.internal.message.collect.CollectStates;
+import org.pcj.internal.message.gather.ValueGatherRequestMessage;
+import org.pcj.internal.message.gather.ValueGatherStates;
+import org.pcj.internal.message.get.ValueGetRangeRequestMessage;
 import org.pcj.internal.message.get.ValueGetRequestMessage;
 import org.pcj.internal.message.get.ValueGetStates;
-import org.pcj.internal.message.join.GroupJoinRequestMessage;
 import org.pcj.internal.message.join.GroupJoinStates;
 import org.pcj.internal.message.join.GroupQueryMessage;
 import org.pcj.internal.message.join.GroupQueryStates;
 import org.pcj.internal.message.peerbarrier.PeerBarrierMessage;
 import org.pcj.internal.message.peerbarrier.PeerBarrierStates;
+import org.pcj.internal.message.put.ValuePutRangeRequestMessage;
 import org.pcj.internal.message.put.ValuePutRequestMessage;
 import org.pcj.internal.message.put.ValuePutStates;
 import org.pcj.internal.message.reduce.ReduceRequestMessage;
 import org.pcj.internal.message.reduce.ReduceStates;
+import org.pcj.internal.message.reducescatter.ReduceScatterStates;
+import org.pcj.internal.message.scan.ScanStates;
+import org.pcj.internal.message.scatter.ScatterRequestMessage;
+import org.pcj.internal.message.scatter.ScatterStates;
+import org.pcj.internal.message.scatter.ValueScatterRequestMessage;
+import org.pcj.internal.message.scatter.ValueScatterStates;
+import org.pcj.internal.message.split.GroupSplitStates;
 
 /**
  * External class that represents group for grouped communication.
@@ -49,8 +64,11 @@ public final class InternalGroup extends InternalCommonGroup implements Group {
     private final ValueGetStates valueGetStates;
     private final ValuePutStates valuePutStates;
     private final ValueAccumulateStates valueAccumulateStates;
+    private final ValueGatherStates valueGatherStates;
+    private final ValueScatterStates valueScatterStates;
     private final AsyncAtStates asyncAtStates;
     private final PeerBarrierStates peerBarrierStates;
+    private final AtomicInteger barrierRoundCounter;
 
     public InternalGroup(int threadId, InternalCommonGroup internalGroup) {
         super(internalGroup);
@@ -60,8 +78,11 @@ public final class InternalGroup extends InternalCommonGroup implements Group {
         this.valueGetStates = new ValueGetStates();
         this.valuePutStates = new ValuePutStates();
         this.valueAccumulateStates = new ValueAccumulateStates();
+        this.valueGatherStates = new ValueGatherStates();
+        this.valueScatterStates = new ValueScatterStates();
         this.asyncAtStates = new AsyncAtStates();
         this.peerBarrierStates = new PeerBarrierStates();
+        this.barrierRoundCounter = new AtomicInteger(0);
     }
 
     public static InternalGroup joinGroup(int globalThreadId, String groupName) {
@@ -72,47 +93,86 @@ public final class InternalGroup extends InternalCommonGroup implements Group {
         }
 
         NodeData nodeData = InternalPCJ.getNodeData();
-        Networker networker = InternalPCJ.getNetworker();
-
-        InternalCommonGroup commonGroup = nodeData.getInternalCommonGroupByName(groupName);
-        if (commonGroup == null) {
-            GroupQueryStates groupQueryStates = nodeData.getGroupQueryStates();
-            GroupQueryStates.State state = groupQueryStates.create();
-
-            GroupQueryMessage message = new GroupQueryMessage(state.getRequestNum(), nodeData.getCurrentNodePhysicalId(), groupName);
-
-            networker.send(nodeData.getNode0Socket(), message);
-
-            PcjFuture<InternalCommonGroup> future = state.getFuture();
-            commonGroup = future.get();
-        }
 
         GroupJoinStates groupJoinStates = nodeData.getGroupJoinStates();
         GroupJoinStates.Notification notification = groupJoinStates.createNotification(globalThreadId);
 
-        GroupJoinRequestMessage message = new GroupJoinRequestMessage(
-                notification.getRequestNum(), groupName, commonGroup.getGroupId(), nodeData.getCurrentNodePhysicalId(), globalThreadId);
+        /* only the first PCJ Thread sends the request, other local PCJ Threads join in the same request */
+        if (groupJoinStates.queue(groupName, notification)) {
+            InternalCommonGroup commonGroup = nodeData.getInternalCommonGroupByName(groupName);
+            if (commonGroup == null) {
+                GroupQueryStates groupQueryStates = nodeData.getGroupQueryStates();
+                GroupQueryStates.State state = groupQueryStates.create();
+
+                GroupQueryMessage message = new GroupQueryMessage(state.getRequestNum(), nodeData.getCurrentNodePhysicalId(), groupName);
 
-        SocketChannel groupMasterSocketChannel = nodeData.getSocketChannelByPhysicalId(commonGroup.getCommunicationTree().getMasterNode());
+                InternalPCJ.getNetworker().send(nodeData.getNode0Socket(), message);
 
-        networker.send(groupMasterSocketChannel, message);
+                PcjFuture<InternalCommonGroup> future = state.getFuture();
+                commonGroup = future.get();
+            }
+
+            groupJoinStates.sendRequest(commonGroup);
+        }
 
         PcjFuture<InternalGroup> future = notification.getFuture();
         return future.get();
     }
 
+    @Override
+    public Group split(int color, int key) {
+        GroupSplitStates states = super.getGroupSplitStates();
+        int round = states.getNextRound(myThreadId);
+        GroupSplitStates.State state = states.getOrCreate(round, this);
+        PcjFuture<InternalGroup> future = state.processLocal(this, myThreadId, color, key);
+        InternalGroup group = future.get();
+
+        /* every node knows about the new groups before PCJ Threads start to use them */
+        barrierAwait(barrierArrive());
+
+        return group;
+    }
+
     public int myId() {
         return myThreadId;
     }
 
     @Override
     public PcjFuture<Void> asyncBarrier() {
+        int round = barrierArrive();
+
+        return super.getBarrierStates().getFuture(round);
+    }
+
+    @Override
+    public int barrierArrive() {
         BarrierStates states = super.getBarrierStates();
-        int round = states.getNextRound(myThreadId);
+        int round = barrierRoundCounter.incrementAndGet();
         BarrierStates.State state = states.getOrCreate(round, this);
         state.processLocal(this);
 
-        return state.getFuture();
+        return round;
+    }
+
+    @Override
+    public void barrierAwait(int token) {
+        if (token <= 0 || token - barrierRoundCounter.get() > 0) {
+            throw new IllegalArgumentException("Not arrived at the barrier: " + token);
+        }
+        try {
+            super.getBarrierStates().await(token);
+        } catch (InterruptedException ex) {
+            throw new PcjRuntimeException(ex);
+        }
+    }
+
+    @Override
+    public void onBarrierComplete(Runnable action) {
+        int round = barrierArrive();
+
+        PcjThread pcjThread = InternalPCJ.getNodeData().getPcjThread(super.getGroupId(), myThreadId);
+        PcjThread.AsyncWorkers asyncWorkers = pcjThread.getAsyncWorkers();
+        super.getBarrierStates().onCompleted(round, asyncWorkers::execute, action);
     }
 
     @Override
@@ -155,6 +215,27 @@ public final class InternalGroup extends InternalCommonGroup implements Group {
         return state.getFuture();
     }
 
+    @Override
+    public <T> PcjFuture<T> asyncGetRange(int threadId, Enum<?> variable, long fromIndex, long count) {
+        ValueGetStates.State<T> state = valueGetStates.create();
+
+        int globalThreadId = super.getGlobalThreadId(threadId);
+        int physicalId = InternalPCJ.getNodeData().getPhysicalId(globalThreadId);
+        SocketChannel socket = InternalPCJ.getNodeData().getSocketChannelByPhysicalId(physicalId);
+
+        ValueGetRangeRequestMessage message = new ValueGetRangeRequestMessage(
+                super.getGroupId(), state.getRequestNum(), myThreadId, threadId,
+                variable.getDeclaringClass().getName(), variable.name(), fromIndex, count);
+
+        try {
+            InternalPCJ.getNetworker().send(socket, message);
+        } catch (PcjRuntimeException ex) {
+            state.signal(null, ex);
+        }
+
+        return state.getFuture();
+    }
+
     @Override
     public <T> PcjFuture<T> asyncCollect(Enum<?> variable, int... indices) {
         String sharedEnumClassName = variable.getDeclaringClass().getName();
@@ -196,6 +277,74 @@ public final class InternalGroup extends InternalCommonGroup implements Group {
         return state.getFuture();
     }
 
+    @Override
+    public <T> PcjFuture<T> asyncAllReduce(ReduceOperation<T> function, Enum<?> variable, int... indices) {
+        String sharedEnumClassName = variable.getDeclaringClass().getName();
+        String variableName = variable.name();
+
+        AllReduceStates states = super.getAllReduceStates();
+        int round = states.getNextRound(myThreadId);
+        AllReduceStates.State<T> state = states.getOrCreate(round, this);
+
+        return state.processLocal(this, myThreadId, function, sharedEnumClassName, variableName, indices);
+    }
+
+    @Override
+    public <T> PcjFuture<Void> asyncReduceScatter(ReduceOperation<T> function, Enum<?> sourceVariable, Enum<?> targetVariable, int[] counts) {
+        ReduceScatterStates.checkFunction(function, PcjThread.getCurrentThreadData().getStorages().get(sourceVariable));
+
+        ReduceScatterStates states = super.getReduceScatterStates();
+        int round = states.getNextRound(myThreadId);
+        ReduceScatterStates.State<T> state = states.getOrCreate(round, this);
+
+        return state.processLocal(this, myThreadId, function,
+                sourceVariable.getDeclaringClass().getName(), sourceVariable.name(),
+                targetVariable.getDeclaringClass().getName(), targetVariable.name(), counts);
+    }
+
+    @Override
+    public <T> PcjFuture<T> asyncAllGather(Enum<?> variable, int... indices) {
+        return asyncAllGather(null, variable, indices);
+    }
+
+    @Override
+    public <T> PcjFuture<T> asyncAllGather(T output, Enum<?> variable, int... indices) {
+        AllGatherStates states = super.getAllGatherStates();
+        int round = states.getNextRound(myThreadId);
+        AllGatherStates.State state = states.getOrCreate(round, this);
+
+        return state.processLocal(this, myThreadId, output, variable.getDeclaringClass().getName(), variable.name(), indices);
+    }
+
+    @Override
+    public PcjFuture<Void> asyncAllToAll(Enum<?> sendVariable, Enum<?> recvVariable, int[] sendCounts, int[] recvCounts) {
+        AllToAllStates states = super.getAllToAllStates();
+        int round = states.getNextRound(myThreadId);
+        AllToAllStates.State state = states.getOrCreate(round, this);
+
+        return state.processLocal(this, myThreadId,
+                sendVariable.getDeclaringClass().getName(), sendVariable.name(),
+                recvVariable.getDeclaringClass().getName(), recvVariable.name(), sendCounts, recvCounts);
+    }
+
+    @Override
+    public <T> PcjFuture<T> asyncScan(ReduceOperation<T> function, Enum<?> variable, int... indices) {
+        return scan(function, false, variable, indices);
+    }
+
+    @Override
+    public <T> PcjFuture<T> asyncExscan(ReduceOperation<T> function, Enum<?> variable, int... indices) {
+        return scan(function, true, variable, indices);
+    }
+
+    private <T> PcjFuture<T> scan(ReduceOperation<T> function, boolean exclusive, Enum<?> variable, int[] indices) {
+        ScanStates states = super.getScanStates();
+        int round = states.getNextRound(myThreadId);
+        ScanStates.State<T> state = states.getOrCreate(round, this);
+
+        return state.processLocal(this, myThreadId, function, exclusive, variable.getDeclaringClass().getName(), variable.name(), indices);
+    }
+
     public ValueGetStates getValueGetStates() {
         return valueGetStates;
     }
@@ -221,6 +370,27 @@ public final class InternalGroup extends InternalCommonGroup implements Group {
         return state.getFuture();
     }
 
+    @Override
+    public <T> PcjFuture<Void> asyncPutRange(T values, int threadId, Enum<?> variable, long fromIndex) {
+        ValuePutStates.State state = valuePutStates.create();
+
+        int globalThreadId = super.getGlobalThreadId(threadId);
+        int physicalId = InternalPCJ.getNodeData().getPhysicalId(globalThreadId);
+        SocketChannel socket = InternalPCJ.getNodeData().getSocketChannelByPhysicalId(physicalId);
+
+        ValuePutRangeRequestMessage message = new ValuePutRangeRequestMessage(
+                super.getGroupId(), state.getRequestNum(), myThreadId, threadId,
+                variable.getDeclaringClass().getName(), variable.name(), fromIndex, values);
+
+        try {
+            InternalPCJ.getNetworker().send(socket, message);
+        } catch (PcjRuntimeException ex) {
+            state.signal(ex);
+        }
+
+        return state.getFuture();
+    }
+
     public ValuePutStates getValuePutStates() {
         return valuePutStates;
     }
@@ -250,6 +420,68 @@ public final class InternalGroup extends InternalCommonGroup implements Group {
         return valueAccumulateStates;
     }
 
+    @Override
+    public <T> PcjFuture<T> asyncGather(int threadId, Enum<?> variable, int[] indices) {
+        ValueGatherStates.State<T> state = valueGatherStates.create();
+
+        int globalThreadId = super.getGlobalThreadId(threadId);
+        int physicalId = InternalPCJ.getNodeData().getPhysicalId(globalThreadId);
+        SocketChannel socket = InternalPCJ.getNodeData().getSocketChannelByPhysicalId(physicalId);
+
+        ValueGatherRequestMessage message = new ValueGatherRequestMessage(
+                super.getGroupId(), state.getRequestNum(), myThreadId, threadId,
+                variable.getDeclaringClass().getName(), variable.name(), indices);
+
+        try {
+            InternalPCJ.getNetworker().send(socket, message);
+        } catch (PcjRuntimeException ex) {
+            state.signal(null, ex);
+        }
+
+        return state.getFuture();
+    }
+
+    public ValueGatherStates getValueGatherStates() {
+        return valueGatherStates;
+    }
+
+    @Override
+    public <T> PcjFuture<Void> asyncScatter(T values, int threadId, Enum<?> variable, int[] indices) {
+        return scatter0(null, values, threadId, variable, indices);
+    }
+
+    @Override
+    public <T> PcjFuture<Void> asyncScatterAccumulate(ReduceOperation<T> function, Object values, int threadId, Enum<?> variable, int[] indices) {
+        if (function == null) {
+            throw new NullPointerException("Function cannot be null");
+        }
+        return scatter0(function, values, threadId, variable, indices);
+    }
+
+    private <T> PcjFuture<Void> scatter0(ReduceOperation<T> function, Object values, int threadId, Enum<?> variable, int[] indices) {
+        ValueScatterStates.State state = valueScatterStates.create();
+
+        int globalThreadId = super.getGlobalThreadId(threadId);
+        int physicalId = InternalPCJ.getNodeData().getPhysicalId(globalThreadId);
+        SocketChannel socket = InternalPCJ.getNodeData().getSocketChannelByPhysicalId(physicalId);
+
+        ValueScatterRequestMessage<T> message = new ValueScatterRequestMessage<>(
+                super.getGroupId(), state.getRequestNum(), myThreadId, threadId,
+                variable.getDeclaringClass().getName(), variable.name(), indices, function, values);
+
+        try {
+            InternalPCJ.getNetworker().send(socket, message);
+        } catch (PcjRuntimeException ex) {
+            state.signal(ex);
+        }
+
+        return state.getFuture();
+    }
+
+    public ValueScatterStates getValueScatterStates() {
+        return valueScatterStates;
+    }
+
     @Override
     public <T> PcjFuture<Void> asyncBroadcast(T newValue, Enum<?> variable, int... indices) {
         BroadcastStates states = super.getBroadcastStates();
@@ -273,6 +505,54 @@ public final class InternalGroup extends InternalCommonGroup implements Group {
         return state.getFuture();
     }
 
+    @Override
+    public <T> PcjFuture<Void> asyncScatterBlocks(T values, Enum<?> variable, int[] counts, int[] displacements) {
+        int threadCount = super.threadCount();
+        if (counts.length != threadCount) {
+            throw new IllegalArgumentException("Number of counts (" + counts.length
+                                                       + ") is not equal to number of threads: " + threadCount);
+        }
+        if (displacements != null && displacements.length != threadCount) {
+            throw new IllegalArgumentException("Number of displacements (" + displacements.length
+                                                       + ") is not equal to number of threads: " + threadCount);
+        }
+        int length = Array.getLength(values);
+        int[] threadIds = new int[threadCount];
+        Object[] arrays = new Object[threadCount];
+        int[] offsets = new int[threadCount];
+        int offset = 0;
+        for (int threadId = 0; threadId < threadCount; ++threadId) {
+            threadIds[threadId] = threadId;
+            arrays[threadId] = values;
+            offsets[threadId] = displacements == null ? offset : displacements[threadId];
+            if (counts[threadId] < 0 || offsets[threadId] < 0 || offsets[threadId] + counts[threadId] > length) {
+                throw new ArrayIndexOutOfBoundsException("Block of thread " + threadId + " is out of array bounds");
+            }
+            offset += counts[threadId];
+        }
+
+        ScatterStates states = super.getScatterStates();
+        ScatterStates.State state = states.create(myThreadId, this);
+
+        ScatterRequestMessage message = new ScatterRequestMessage(
+                super.getGroupId(), state.getRequestNum(), myThreadId,
+                variable.getDeclaringClass().getName(), variable.name(),
+                threadIds, arrays, offsets, counts.clone());
+
+        int physicalMasterId = super.getCommunicationTree(CollectiveOperation.SCATTER).getMasterNode();
+        SocketChannel masterSocket = InternalPCJ.getNodeData().getSocketChannelByPhysicalId(physicalMasterId);
+
+        try {
+            InternalPCJ.getNetworker().send(masterSocket, message);
+        } catch (PcjRuntimeException ex) {
+            Queue<Exception> queue = new ConcurrentLinkedQueue<>();
+            queue.add(ex);
+            state.signal(queue);
+        }
+
+        return state.getFuture();
+    }
+
     @Override
     public <T> PcjFuture<T> asyncAt(int threadId, AsyncTask<T> asyncTask) {
         AsyncAtStates.State<T> state = asyncAtStates.create();
@@ -237,7 +237,8 @@ public abstract class InternalPCJ {
         try {
             HelloState state = nodeData.getHelloState();
 
-            HelloMessage helloMessage = new HelloMessage(port, threadIds.stream().mapToInt(Integer::intValue).toArray());
+            HelloMessage helloMessage = new HelloMessage(port, threadIds.stream().mapToInt(Integer::intValue).toArray(),
+                    NodeInfo.getLocalHostIdentity(), InternalPCJ.getConfiguration().TOPOLOGY_LABEL);
 
             networker.send(nodeData.getNode0Socket(), helloMessage);
 
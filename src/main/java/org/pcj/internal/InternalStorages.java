@@ -8,25 +8,24 @@
  */
 package org.pcj.internal;
 
-import java.io.Serializable;
 import java.lang.reflect.Array;
-import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Modifier;
 import java.util.Arrays;
-import java.util.HashSet;
-import java.util.Optional;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import org.pcj.OffHeapArray;
 import org.pcj.PcjRuntimeException;
 import org.pcj.ReduceOperation;
-import org.pcj.Storage;
 
 /**
  * External class with methods do handle shared variables.
@@ -35,19 +34,59 @@ import org.pcj.Storage;
  */
 public class InternalStorages {
 
+    /**
+     * Describes which part of the variable was modified.
+     */
+    @FunctionalInterface
+    private interface ModifiedIndices {
+
+        /**
+         * Checks if the modification affects watched element.
+         *
+         * @param watched indices of watched element (empty list for whole variable)
+         * @return true if the watched element may have changed
+         */
+        boolean affects(List<Integer> watched);
+
+        /**
+         * Releases counters of the affected elements.
+         *
+         * @param counters counters of monitored elements
+         * @param maxDepth maximal number of indices of monitored elements
+         */
+        default void releaseCounters(Map<List<Integer>, Semaphore> counters, int maxDepth) {
+            counters.forEach((indices, counter) -> {
+                if (affects(indices)) {
+                    counter.release();
+                }
+            });
+        }
+    }
+
+    /**
+     * Watcher notified, in the modifying thread, about every modification of the variable.
+     */
+    @FunctionalInterface
+    private interface StorageWatcher {
+
+        void modified(ModifiedIndices modified);
+    }
+
     private static class StorageField {
 
         private final Field field;
         private final Object storageObject;
         private final Semaphore modificationCounter;
+        private final ConcurrentMap<List<Integer>, Semaphore> indexModificationCounters;
+        private volatile int indexModificationCountersDepth;
+        private final Set<StorageWatcher> watchers;
 
         StorageField(Field field, Object storageObject) {
             this.field = field;
             this.storageObject = storageObject;
-
-            field.setAccessible(true);
-
             this.modificationCounter = new Semaphore(0);
+            this.indexModificationCounters = new ConcurrentHashMap<>();
+            this.watchers = ConcurrentHashMap.newKeySet();
         }
 
         Class<?> getType() {
@@ -70,8 +109,14 @@ public class InternalStorages {
             }
         }
 
-        void incrementModificationCounter() {
+        void incrementModificationCounter(ModifiedIndices modified) {
             modificationCounter.release();
+            if (!indexModificationCounters.isEmpty()) {
+                modified.releaseCounters(indexModificationCounters, indexModificationCountersDepth);
+            }
+            if (!watchers.isEmpty()) {
+                watchers.forEach(watcher -> watcher.modified(modified));
+            }
         }
 
         int resetModificationCounter() {
@@ -88,9 +133,188 @@ public class InternalStorages {
             }
         }
 
+        boolean tryDecrementModificationCounter() {
+            return modificationCounter.tryAcquire();
+        }
+
         int getModificationCounter() {
             return modificationCounter.availablePermits();
         }
+
+        Semaphore getIndexModificationCounter(int[] indices) {
+            if (indices.length > indexModificationCountersDepth) {
+                synchronized (this) {
+                    indexModificationCountersDepth = Math.max(indexModificationCountersDepth, indices.length);
+                }
+            }
+            return indexModificationCounters.computeIfAbsent(asList(indices), key -> new Semaphore(0));
+        }
+
+        void addWatcher(StorageWatcher watcher) {
+            watchers.add(watcher);
+        }
+
+        void removeWatcher(StorageWatcher watcher) {
+            watchers.remove(watcher);
+        }
+    }
+
+    /**
+     * Modification of element pointed by indices. The watched element is affected
+     * when it is the modified element, is inside it or contains it.
+     */
+    private static ModifiedIndices modifiedAt(int[] indices) {
+        return new ModifiedIndices() {
+            @Override
+            public boolean affects(List<Integer> watched) {
+                int length = Math.min(indices.length, watched.size());
+                for (int i = 0; i < length; ++i) {
+                    if (watched.get(i) != indices[i]) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+
+            @Override
+            public void releaseCounters(Map<List<Integer>, Semaphore> counters, int maxDepth) {
+                if (indices.length == 0 || maxDepth > indices.length) {
+                    ModifiedIndices.super.releaseCounters(counters, maxDepth);
+                    return;
+                }
+                // only the element and elements containing it can be monitored
+                for (int length = 1; length <= indices.length; ++length) {
+                    Semaphore counter = counters.get(asList(Arrays.copyOf(indices, length)));
+                    if (counter != null) {
+                        counter.release();
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * Modification of elements of one-dimensional array at many positions.
+     */
+    private static ModifiedIndices modifiedPositions(int[] positions) {
+        return new ModifiedIndices() {
+            private int[] sorted;
+
+            @Override
+            public boolean affects(List<Integer> watched) {
+                if (watched.isEmpty()) {
+                    return true;
+                }
+                if (sorted == null) {
+                    sorted = positions.clone();
+                    Arrays.sort(sorted);
+                }
+                return Arrays.binarySearch(sorted, watched.get(0)) >= 0;
+            }
+
+            @Override
+            public void releaseCounters(Map<List<Integer>, Semaphore> counters, int maxDepth) {
+                if (maxDepth > 1) {
+                    ModifiedIndices.super.releaseCounters(counters, maxDepth);
+                    return;
+                }
+                for (int position : positions) {
+                    Semaphore counter = counters.get(Collections.singletonList(position));
+                    if (counter != null) {
+                        counter.release();
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * Modification of elements of one-dimensional array from {@code fromIndex} (inclusive)
+     * to {@code toIndex} (exclusive).
+     */
+    private static ModifiedIndices modifiedRange(long fromIndex, long toIndex) {
+        return new ModifiedIndices() {
+            @Override
+            public boolean affects(List<Integer> watched) {
+                return watched.isEmpty() || (watched.get(0) >= fromIndex && watched.get(0) < toIndex);
+            }
+
+            @Override
+            public void releaseCounters(Map<List<Integer>, Semaphore> counters, int maxDepth) {
+                if (maxDepth > 1 || toIndex - fromIndex > counters.size()) {
+                    ModifiedIndices.super.releaseCounters(counters, maxDepth);
+                    return;
+                }
+                for (long index = fromIndex; index < toIndex; ++index) {
+                    Semaphore counter = counters.get(Collections.singletonList((int) index));
+                    if (counter != null) {
+                        counter.release();
+                    }
+                }
+            }
+        };
+    }
+
+    private static List<Integer> asList(int[] indices) {
+        return Arrays.stream(indices).boxed().collect(Collectors.toList());
+    }
+
+    /**
+     * Watcher that is signaled when the watched element fulfills the predicate.
+     * The predicate is evaluated in the modifying thread, only when the modification
+     * affects the watched element.
+     */
+    private static class PredicateWatcher<T> extends InternalFuture<T> implements StorageWatcher {
+
+        private final List<Integer> indices;
+        private final Supplier<T> valueSupplier;
+        private final Predicate<T> predicate;
+        private T value;
+        private RuntimeException exception;
+
+        PredicateWatcher(int[] indices, Supplier<T> valueSupplier, Predicate<T> predicate) {
+            this.indices = asList(indices);
+            this.valueSupplier = valueSupplier;
+            this.predicate = predicate;
+        }
+
+        @Override
+        public void modified(ModifiedIndices modified) {
+            if (!modified.affects(indices) || isSignaled()) {
+                return;
+            }
+            try {
+                T currentValue = valueSupplier.get();
+                if (predicate.test(currentValue)) {
+                    synchronized (this) {
+                        value = currentValue;
+                    }
+                    signal();
+                }
+            } catch (RuntimeException ex) {
+                synchronized (this) {
+                    exception = ex;
+                }
+                signal();
+            }
+        }
+
+        synchronized T getValue() {
+            if (exception != null) {
+                throw exception;
+            }
+            return value;
+        }
+
+        T await0() throws InterruptedException {
+            await();
+            return getValue();
+        }
+
+        T await0(long timeout, TimeUnit unit) throws InterruptedException, TimeoutException {
+            await(timeout, unit);
+            return getValue();
+        }
     }
 
     private final transient ConcurrentMap<String, String> enumToStorageMap;
@@ -116,77 +340,36 @@ public class InternalStorages {
     }
 
     private Object registerStorage0(Class<? extends Enum<?>> storageEnumClass, Object storageObject) throws NoSuchFieldException, IllegalArgumentException {
-        if (!storageEnumClass.isEnum()) {
-            throw new IllegalArgumentException("Class is not enum: " + storageEnumClass.getName());
-        }
-        if (!storageEnumClass.isAnnotationPresent(Storage.class)) {
-            throw new IllegalArgumentException("Enum is not annotated by @Storage annotation: " + storageEnumClass.getName());
-        }
-
-        Storage annotation = storageEnumClass.getAnnotation(Storage.class);
-        Class<?> storageClass = annotation.value();
+        StorageMetadata metadata = StorageMetadata.of(storageEnumClass);
+        Class<?> storageClass = metadata.getStorageClass();
 
         if (storageObject != null && !storageClass.isAssignableFrom(storageObject.getClass())) {
             throw new ClassCastException(storageObject.getClass() + " cannot be cast to " + storageClass);
         }
 
-        String storageClassName = storageClass.getName();
-
-        Set<String> fieldNames = Arrays.stream(storageClass.getDeclaredFields())
-                                         .map(Field::getName)
-                                         .collect(Collectors.toCollection(HashSet::new));
-
-        Optional<String> notFoundName = Arrays.stream(storageEnumClass.getEnumConstants())
-                                                .map(Enum::name)
-                                                .filter(enumName -> !fieldNames.contains(enumName))
-                                                .findFirst();
-        if (notFoundName.isPresent()) {
-            throw new NoSuchFieldException("Field not found in " + storageClassName + ": " + notFoundName.get());
-        }
+        String storageClassName = metadata.getStorageClassName();
 
         Object storage = storageObjectsMap.computeIfAbsent(storageClassName, key -> {
             if (storageObject == null) {
-                try {
-                    Constructor<?> storageConstructor = storageClass.getConstructor();
-                    storageConstructor.setAccessible(true);
-                    return storageConstructor.newInstance();
-                } catch (NoSuchMethodException | InstantiationException | IllegalAccessException | InvocationTargetException e) {
-                    throw new PcjRuntimeException(e);
-                }
+                return metadata.newStorageObject();
             } else {
                 return storageObject;
             }
         });
 
-        if (enumToStorageMap.putIfAbsent(storageEnumClass.getName(), storageClassName) != null) {
+        if (enumToStorageMap.putIfAbsent(metadata.getEnumClassName(), storageClassName) != null) {
             return storage;
         }
 
-        for (Enum<?> enumConstant : storageEnumClass.getEnumConstants()) {
-            String name = enumConstant.name();
-            Field field = storageClass.getDeclaredField(name);
-
-            createShared0(storageClassName, name, field, storage);
+        ConcurrentMap<String, StorageField> sharedObjects
+                = sharedObjectsMap.computeIfAbsent(storageClassName, key -> new ConcurrentHashMap<>());
+        for (int i = 0; i < metadata.getFieldCount(); ++i) {
+            sharedObjects.putIfAbsent(metadata.getName(i), new StorageField(metadata.getField(i), storage));
         }
 
         return storage;
     }
 
-    private void createShared0(String parent, String name, Field field, Object storageObject)
-            throws NullPointerException, IllegalArgumentException, IllegalStateException {
-        Class<?> type = field.getType();
-
-        if (!type.isPrimitive() && !Serializable.class.isAssignableFrom(type) && Modifier.isFinal(type.getModifiers())) {
-            throw new IllegalArgumentException("Type of '" + name + "' (" + type.getCanonicalName() + ") from class '" + parent + "' is not serializable but final");
-        }
-
-        ConcurrentMap<String, StorageField> storage
-                = sharedObjectsMap.computeIfAbsent(parent, key -> new ConcurrentHashMap<>());
-        StorageField storageField = new StorageField(field, storageObject);
-
-        storage.putIfAbsent(name, storageField);
-    }
-
     public Object getStorage(Class<? extends Enum<?>> sharedEnumClass) {
         String sharedEnumClassName = sharedEnumClass.getName();
         if (!enumToStorageMap.containsKey(sharedEnumClassName)) {
@@ -260,13 +443,13 @@ public class InternalStorages {
             Object array = getArrayElement(field.getValue(), indices, indices.length - 1);
             if (array == null) {
                 throw new NullPointerException("Cannot get value from: " + parent + "." + name + Arrays.toString(indices));
-            } else if (!array.getClass().isArray()) {
+            } else if (!isArray(array)) {
                 throw new ClassCastException("Cannot get value from " + parent + "." + name + Arrays.toString(indices));
-            } else if (Array.getLength(array) <= indices[indices.length - 1]) {
+            } else if (getLength(array) <= indices[indices.length - 1]) {
                 throw new ArrayIndexOutOfBoundsException("Cannot get value from " + parent + "." + name + Arrays.toString(indices));
             }
 
-            return (T) Array.get(array, indices[indices.length - 1]);
+            return (T) getElement(array, indices[indices.length - 1]);
         }
     }
 
@@ -325,18 +508,18 @@ public class InternalStorages {
             Object array = getArrayElement(field.getValue(), indices, indices.length - 1);
             if (array == null) {
                 throw new NullPointerException("Cannot get value from: " + parent + "." + name + Arrays.toString(indices));
-            } else if (!array.getClass().isArray()) {
+            } else if (!isArray(array)) {
                 throw new ClassCastException("Cannot get value from " + parent + "." + name + Arrays.toString(indices));
-            } else if (Array.getLength(array) <= indices[indices.length - 1]) {
+            } else if (getLength(array) <= indices[indices.length - 1]) {
                 throw new ArrayIndexOutOfBoundsException("Cannot get value from " + parent + "." + name + Arrays.toString(indices));
             }
 
             synchronized (field) {
-                Array.set(array, indices[indices.length - 1],
-                        function.apply((T) Array.get(array, indices[indices.length - 1]), (T) updateValue));
+                setElement(array, indices[indices.length - 1],
+                        function.apply((T) getElement(array, indices[indices.length - 1]), (T) updateValue));
             }
         }
-        field.incrementModificationCounter();
+        field.incrementModificationCounter(modifiedAt(indices));
     }
 
     private Object getArrayElement(Object array, int[] indices, int length) throws ArrayIndexOutOfBoundsException, IllegalArgumentException, ClassCastException {
@@ -406,15 +589,436 @@ public class InternalStorages {
 
             if (array == null) {
                 throw new NullPointerException("Cannot put value to: " + parent + "." + name + Arrays.toString(indices));
-            } else if (!array.getClass().isArray()) {
+            } else if (!isArray(array)) {
                 throw new ClassCastException("Cannot put value to " + parent + "." + name + Arrays.toString(indices));
-            } else if (Array.getLength(array) <= indices[indices.length - 1]) {
+            } else if (getLength(array) <= indices[indices.length - 1]) {
                 throw new ArrayIndexOutOfBoundsException("Cannot put value to " + parent + "." + name + Arrays.toString(indices));
             }
 
-            Array.set(array, indices[indices.length - 1], newValue);
+            setElement(array, indices[indices.length - 1], newValue);
+        }
+        field.incrementModificationCounter(modifiedAt(indices));
+    }
+
+    /**
+     * Gathers values of the array variable from the given positions into
+     * newly created, packed array
+     *
+     * @param variable name of shared variable
+     * @param indices  positions in the array
+     * @return array with values of variable[indices[0]], variable[indices[1]], ...
+     * @throws ClassCastException             variable is not an array
+     * @throws ArrayIndexOutOfBoundsException one of indices is out of bound
+     */
+    public final Object gather(Enum<?> variable, int[] indices) throws ArrayIndexOutOfBoundsException, ClassCastException, NullPointerException {
+        return gather0(getParent(variable), variable.name(), indices);
+    }
+
+    public final Object gather(String sharedEnumClassName, String name, int[] indices) throws ArrayIndexOutOfBoundsException, ClassCastException, NullPointerException {
+        return gather0(getParent(sharedEnumClassName), name, indices);
+    }
+
+    private Object gather0(String parent, String name, int[] indices) throws ArrayIndexOutOfBoundsException, ClassCastException, NullPointerException {
+        ConcurrentMap<String, StorageField> storage = sharedObjectsMap.get(parent);
+
+        StorageField field = storage.get(name);
+        if (field == null) {
+            throw new IllegalArgumentException("Variable not found: " + parent + "." + name);
+        }
+
+        Object array = field.getValue();
+        if (array == null) {
+            throw new NullPointerException("Cannot gather values from: " + parent + "." + name);
+        } else if (!isArray(array)) {
+            throw new ClassCastException("Cannot gather values from " + parent + "." + name);
+        }
+        checkIndices(array, indices, parent, name);
+
+        if (array instanceof OffHeapArray) {
+            return OffHeapArrays.gather((OffHeapArray) array, indices);
+        }
+        return gatherArray(array, indices);
+    }
+
+    private static Object gatherArray(Object array, int[] indices) {
+        int length = indices.length;
+        if (array instanceof double[]) {
+            double[] source = (double[]) array;
+            double[] target = new double[length];
+            for (int i = 0; i < length; ++i) {
+                target[i] = source[indices[i]];
+            }
+            return target;
+        } else if (array instanceof float[]) {
+            float[] source = (float[]) array;
+            float[] target = new float[length];
+            for (int i = 0; i < length; ++i) {
+                target[i] = source[indices[i]];
+            }
+            return target;
+        } else if (array instanceof long[]) {
+            long[] source = (long[]) array;
+            long[] target = new long[length];
+            for (int i = 0; i < length; ++i) {
+                target[i] = source[indices[i]];
+            }
+            return target;
+        } else if (array instanceof int[]) {
+            int[] source = (int[]) array;
+            int[] target = new int[length];
+            for (int i = 0; i < length; ++i) {
+                target[i] = source[indices[i]];
+            }
+            return target;
+        } else if (array instanceof short[]) {
+            short[] source = (short[]) array;
+            short[] target = new short[length];
+            for (int i = 0; i < length; ++i) {
+                target[i] = source[indices[i]];
+            }
+            return target;
+        } else if (array instanceof char[]) {
+            char[] source = (char[]) array;
+            char[] target = new char[length];
+            for (int i = 0; i < length; ++i) {
+                target[i] = source[indices[i]];
+            }
+            return target;
+        } else if (array instanceof byte[]) {
+            byte[] source = (byte[]) array;
+            byte[] target = new byte[length];
+            for (int i = 0; i < length; ++i) {
+                target[i] = source[indices[i]];
+            }
+            return target;
+        } else if (array instanceof boolean[]) {
+            boolean[] source = (boolean[]) array;
+            boolean[] target = new boolean[length];
+            for (int i = 0; i < length; ++i) {
+                target[i] = source[indices[i]];
+            }
+            return target;
+        } else {
+            Object[] source = (Object[]) array;
+            Object[] target = (Object[]) Array.newInstance(array.getClass().getComponentType(), length);
+            for (int i = 0; i < length; ++i) {
+                target[i] = source[indices[i]];
+            }
+            return target;
+        }
+    }
+
+    /**
+     * Scatters values into the array variable at the given positions. The
+     * {@code values} array has to have the same length as {@code indices}.
+     * <p>
+     * Modification counter is increased by one for whole operation.
+     *
+     * @param values   array of new values
+     * @param variable name of shared variable
+     * @param indices  positions in the array
+     * @throws ClassCastException             variable is not an array
+     *                                        or value cannot be assigned to the variable
+     * @throws ArrayIndexOutOfBoundsException one of indices is out of bound
+     */
+    public final void scatter(Object values, Enum<?> variable, int[] indices) throws ArrayIndexOutOfBoundsException, ClassCastException, NullPointerException {
+        scatter0(null, values, getParent(variable), variable.name(), indices);
+    }
+
+    public final void scatter(Object values, String sharedEnumClassName, String name, int[] indices) throws ArrayIndexOutOfBoundsException, ClassCastException, NullPointerException {
+        scatter0(null, values, getParent(sharedEnumClassName), name, indices);
+    }
+
+    /**
+     * Accumulates values into the array variable at the given positions. The
+     * {@code values} array has to have the same length as {@code indices}.
+     * <p>
+     * Modification counter is increased by one for whole operation.
+     *
+     * @param function accumulate function
+     * @param values   array of new values
+     * @param variable name of shared variable
+     * @param indices  positions in the array
+     * @throws ClassCastException             variable is not an array
+     *                                        or value cannot be assigned to the variable
+     * @throws ArrayIndexOutOfBoundsException one of indices is out of bound
+     */
+    public final <T> void scatterAccumulate(ReduceOperation<T> function, Object values, Enum<?> variable, int[] indices) throws ArrayIndexOutOfBoundsException, ClassCastException, NullPointerException {
+        scatter0(function, values, getParent(variable), variable.name(), indices);
+    }
+
+    public final <T> void scatterAccumulate(ReduceOperation<T> function, Object values, String sharedEnumClassName, String name, int[] indices) throws ArrayIndexOutOfBoundsException, ClassCastException, NullPointerException {
+        scatter0(function, values, getParent(sharedEnumClassName), name, indices);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> void scatter0(ReduceOperation<T> function, Object values, String parent, String name, int[] indices) throws ArrayIndexOutOfBoundsException, ClassCastException, NullPointerException {
+        ConcurrentMap<String, StorageField> storage = sharedObjectsMap.get(parent);
+
+        StorageField field = storage.get(name);
+        if (field == null) {
+            throw new IllegalArgumentException("Variable not found: " + parent + "." + name);
+        }
+
+        if (values == null || !values.getClass().isArray()) {
+            throw new ClassCastException("Values to scatter into " + parent + "." + name + " are not an array");
+        } else if (Array.getLength(values) != indices.length) {
+            throw new IllegalArgumentException("Number of values (" + Array.getLength(values) + ") "
+                                                       + "differs from number of indices (" + indices.length + ")");
+        }
+
+        Object array = field.getValue();
+        if (array == null) {
+            throw new NullPointerException("Cannot scatter values to: " + parent + "." + name);
+        } else if (!isArray(array)) {
+            throw new ClassCastException("Cannot scatter values to " + parent + "." + name);
+        }
+        checkIndices(array, indices, parent, name);
+
+        Class<?> targetClass = getTargetClass(array.getClass(), 1);
+        if (function == null && values.getClass().equals(array.getClass()) && targetClass.isPrimitive()) {
+            scatterPrimitiveArray(values, array, indices);
+        } else if (function == null && array instanceof OffHeapArray && OffHeapArrays.scatter((OffHeapArray) array, values, indices)) {
+            // values of the same primitive type stored directly
+        } else if (isTypedAccumulate(function, values, array, targetClass)) {
+            synchronized (field) {
+                ((BuiltinReduceOperation) function).combineAt(array, indices, values);
+            }
+        } else {
+            Class<?> fromClass = values.getClass().getComponentType();
+            if (!isAssignableFrom(targetClass, fromClass) && !isAssignableFrom(targetClass, PrimitiveTypes.makeBoxedFromPrimitive(fromClass))) {
+                throw new ClassCastException("Cannot cast " + fromClass.getName()
+                                                     + " to the type of variable "
+                                                     + "'" + parent + "." + name + "'"
+                                                     + ": " + targetClass);
+            }
+
+            boolean convert = targetClass.isPrimitive() || PrimitiveTypes.isBoxedClass(targetClass);
+            synchronized (field) {
+                for (int i = 0; i < indices.length; ++i) {
+                    Object newValue = Array.get(values, i);
+                    if (convert && newValue != null) {
+                        newValue = PrimitiveTypes.convert(targetClass, newValue);
+                    }
+                    if (function != null) {
+                        newValue = function.apply((T) getElement(array, indices[i]), (T) newValue);
+                    }
+                    setElement(array, indices[i], newValue);
+                }
+            }
+        }
+        field.incrementModificationCounter(modifiedPositions(indices));
+    }
+
+    /*
+     * built-in operations combine primitive elements in place,
+     * without boxing every element for the reduce function
+     */
+    private static boolean isTypedAccumulate(ReduceOperation<?> function, Object values, Object array, Class<?> targetClass) {
+        if (!(function instanceof BuiltinReduceOperation) || !targetClass.isPrimitive() || !values.getClass().equals(array.getClass())) {
+            return false;
+        }
+        BuiltinReduceOperation operation = (BuiltinReduceOperation) function;
+        return operation.getElementGroupSize() == 1
+                       && (array instanceof double[] || array instanceof float[]
+                                   || array instanceof long[] || array instanceof int[]
+                                   || array instanceof boolean[]);
+    }
+
+    private static void scatterPrimitiveArray(Object values, Object array, int[] indices) {
+        int length = indices.length;
+        if (array instanceof double[]) {
+            double[] source = (double[]) values;
+            double[] target = (double[]) array;
+            for (int i = 0; i < length; ++i) {
+                target[indices[i]] = source[i];
+            }
+        } else if (array instanceof float[]) {
+            float[] source = (float[]) values;
+            float[] target = (float[]) array;
+            for (int i = 0; i < length; ++i) {
+                target[indices[i]] = source[i];
+            }
+        } else if (array instanceof long[]) {
+            long[] source = (long[]) values;
+            long[] target = (long[]) array;
+            for (int i = 0; i < length; ++i) {
+                target[indices[i]] = source[i];
+            }
+        } else if (array instanceof int[]) {
+            int[] source = (int[]) values;
+            int[] target = (int[]) array;
+            for (int i = 0; i < length; ++i) {
+                target[indices[i]] = source[i];
+            }
+        } else if (array instanceof short[]) {
+            short[] source = (short[]) values;
+            short[] target = (short[]) array;
+            for (int i = 0; i < length; ++i) {
+                target[indices[i]] = source[i];
+            }
+        } else if (array instanceof char[]) {
+            char[] source = (char[]) values;
+            char[] target = (char[]) array;
+            for (int i = 0; i < length; ++i) {
+                target[indices[i]] = source[i];
+            }
+        } else if (array instanceof byte[]) {
+            byte[] source = (byte[]) values;
+            byte[] target = (byte[]) array;
+            for (int i = 0; i < length; ++i) {
+                target[indices[i]] = source[i];
+            }
+        } else {
+            boolean[] source = (boolean[]) values;
+            boolean[] target = (boolean[]) array;
+            for (int i = 0; i < length; ++i) {
+                target[indices[i]] = source[i];
+            }
+        }
+    }
+
+    /**
+     * Gets copy of the part of the array variable. For off-heap array
+     * variable, the view of the part of the array is returned.
+     *
+     * @param variable  name of shared variable
+     * @param fromIndex index of the first element
+     * @param count     number of elements
+     * @return array of the same type as variable with the elements
+     * @throws ClassCastException             variable is not an array
+     * @throws ArrayIndexOutOfBoundsException range is out of bound
+     */
+    public final Object getRange(Enum<?> variable, long fromIndex, long count) throws ArrayIndexOutOfBoundsException, ClassCastException, NullPointerException {
+        return getRange0(getParent(variable), variable.name(), fromIndex, count);
+    }
+
+    public final Object getRange(String sharedEnumClassName, String name, long fromIndex, long count) throws ArrayIndexOutOfBoundsException, ClassCastException, NullPointerException {
+        return getRange0(getParent(sharedEnumClassName), name, fromIndex, count);
+    }
+
+    private Object getRange0(String parent, String name, long fromIndex, long count) throws ArrayIndexOutOfBoundsException, ClassCastException, NullPointerException {
+        ConcurrentMap<String, StorageField> storage = sharedObjectsMap.get(parent);
+
+        StorageField field = storage.get(name);
+        if (field == null) {
+            throw new IllegalArgumentException("Variable not found: " + parent + "." + name);
+        }
+
+        Object array = field.getValue();
+        if (array == null) {
+            throw new NullPointerException("Cannot get range from: " + parent + "." + name);
+        } else if (!isArray(array)) {
+            throw new ClassCastException("Cannot get range from " + parent + "." + name);
+        }
+        checkRange(array, fromIndex, count, parent, name);
+
+        if (array instanceof OffHeapArray) {
+            return OffHeapArrays.slice((OffHeapArray) array, fromIndex, fromIndex + count);
+        }
+
+        Object target = Array.newInstance(array.getClass().getComponentType(), (int) count);
+        System.arraycopy(array, (int) fromIndex, target, 0, (int) count);
+        return target;
+    }
+
+    /**
+     * Puts values into the array variable starting at {@code fromIndex}. The
+     * {@code values} has to be an array of the same type as the variable, or
+     * for off-heap array variable, primitive array of element type.
+     * <p>
+     * Modification counter is increased by one for whole operation.
+     *
+     * @param values    array of new values
+     * @param variable  name of shared variable
+     * @param fromIndex index of the first element to put
+     * @throws ClassCastException             variable is not an array
+     *                                        or values cannot be assigned to the variable
+     * @throws ArrayIndexOutOfBoundsException range is out of bound
+     */
+    public final void putRange(Object values, Enum<?> variable, long fromIndex) throws ArrayIndexOutOfBoundsException, ClassCastException, NullPointerException {
+        putRange0(values, getParent(variable), variable.name(), fromIndex);
+    }
+
+    public final void putRange(Object values, String sharedEnumClassName, String name, long fromIndex) throws ArrayIndexOutOfBoundsException, ClassCastException, NullPointerException {
+        putRange0(values, getParent(sharedEnumClassName), name, fromIndex);
+    }
+
+    private void putRange0(Object values, String parent, String name, long fromIndex) throws ArrayIndexOutOfBoundsException, ClassCastException, NullPointerException {
+        ConcurrentMap<String, StorageField> storage = sharedObjectsMap.get(parent);
+
+        StorageField field = storage.get(name);
+        if (field == null) {
+            throw new IllegalArgumentException("Variable not found: " + parent + "." + name);
+        }
+
+        if (values == null || !isArray(values)) {
+            throw new ClassCastException("Values to put into " + parent + "." + name + " are not an array");
+        }
+
+        Object array = field.getValue();
+        if (array == null) {
+            throw new NullPointerException("Cannot put range to: " + parent + "." + name);
+        } else if (!isArray(array)) {
+            throw new ClassCastException("Cannot put range to " + parent + "." + name);
+        }
+        long count = getLength(values);
+        checkRange(array, fromIndex, count, parent, name);
+
+        if (array instanceof OffHeapArray) {
+            OffHeapArrays.copy(values, (OffHeapArray) array, fromIndex);
+        } else if (array.getClass().equals(values.getClass())) {
+            System.arraycopy(values, 0, array, (int) fromIndex, (int) count);
+        } else {
+            throw new ClassCastException("Cannot cast " + values.getClass().getName()
+                                                 + " to the type of variable "
+                                                 + "'" + parent + "." + name + "'"
+                                                 + ": " + array.getClass());
+        }
+        field.incrementModificationCounter(modifiedRange(fromIndex, fromIndex + count));
+    }
+
+    private void checkRange(Object array, long fromIndex, long count, String parent, String name) throws ArrayIndexOutOfBoundsException {
+        long length = getLength(array);
+        if (fromIndex < 0 || count < 0 || fromIndex > length - count) {
+            throw new ArrayIndexOutOfBoundsException("Range [" + fromIndex + ", " + (fromIndex + count) + ") "
+                                                             + "out of bound of " + parent + "." + name);
+        }
+    }
+
+    private void checkIndices(Object array, int[] indices, String parent, String name) throws ArrayIndexOutOfBoundsException {
+        long length = getLength(array);
+        for (int index : indices) {
+            if (index < 0 || index >= length) {
+                throw new ArrayIndexOutOfBoundsException("Index " + index + " out of bound of " + parent + "." + name);
+            }
+        }
+    }
+
+    private static boolean isArray(Object array) {
+        return array.getClass().isArray() || array instanceof OffHeapArray;
+    }
+
+    private static long getLength(Object array) {
+        if (array instanceof OffHeapArray) {
+            return ((OffHeapArray) array).length();
+        }
+        return Array.getLength(array);
+    }
+
+    private static Object getElement(Object array, int index) {
+        if (array instanceof OffHeapArray) {
+            return OffHeapArrays.get((OffHeapArray) array, index);
+        }
+        return Array.get(array, index);
+    }
+
+    private static void setElement(Object array, int index, Object value) {
+        if (array instanceof OffHeapArray) {
+            OffHeapArrays.set((OffHeapArray) array, index, value);
+        } else {
+            Array.set(array, index, value);
         }
-        field.incrementModificationCounter();
     }
 
     private Class<?> getFieldClass(StorageField field, int depth) {
@@ -443,6 +1047,9 @@ public class InternalStorages {
     private Class<?> getTargetClass(Class<?> variableClass, int depth) {
         for (int index = 0; index < depth; ++index) {
             if (!variableClass.isArray()) {
+                if (index == depth - 1) {
+                    return OffHeapArrays.getElementType(variableClass);
+                }
                 return null;
             }
             variableClass = variableClass.getComponentType();
@@ -486,37 +1093,51 @@ public class InternalStorages {
 
     /**
      * Tells to monitor variable. Set the variable modification counter to zero.
+     * <p>
+     * When indices are provided, the modification counter of the pointed element
+     * is used. The counter is created on first use and counts only modifications
+     * that affect the element, until they all are consumed by {@link #waitFor}.
      *
      * @param variable name of shared variable
+     * @param indices  (optional) indices into the array
      */
-    public final int monitor(Enum<?> variable) {
-        return monitor0(getParent(variable), variable.name());
+    public final int monitor(Enum<?> variable, int... indices) {
+        return monitor0(getParent(variable), variable.name(), indices);
     }
 
-    private int monitor0(String parent, String name) {
+    private int monitor0(String parent, String name, int... indices) {
         ConcurrentMap<String, StorageField> storage = sharedObjectsMap.get(parent);
 
         StorageField field = storage.get(name);
         if (field == null) {
             throw new IllegalArgumentException("Variable not found: " + parent + "." + name);
         }
-        return field.resetModificationCounter();
+        if (indices.length == 0) {
+            return field.resetModificationCounter();
+        } else {
+            return field.getIndexModificationCounter(indices).drainPermits();
+        }
     }
 
     /**
      * Pauses current Thread and wait for {@code count} modifications of
      * variable. After modification decreases the variable modification counter
      * by {@code count}.
+     * <p>
+     * When indices are provided, the method waits only for modifications
+     * that affect the pointed element. Like modifications of the variable,
+     * modifications of the element are counted until the end of the execution.
      *
      * @param variable name of shared variable
      * @param count    number of modifications. If 0 - the method exits
      *                 immediately.
+     * @param indices  (optional) indices into the array
      */
-    public final int waitFor(Enum<?> variable, int count) {
-        return waitFor0(getParent(variable), variable.name(), count);
+    public final int waitFor(Enum<?> variable, int count, int... indices) {
+        return waitFor0(getParent(variable), variable.name(), count, indices);
     }
 
-    private int waitFor0(String parent, String name, int count) {
+    private int waitFor0(String parent, String name, int count, int... indices) {
         if (count < 0) {
             throw new IllegalArgumentException("Value count is less than zero:" + count);
         }
@@ -527,6 +1148,18 @@ public class InternalStorages {
             throw new IllegalArgumentException("Variable not found: " + parent + "." + name);
         }
 
+        if (indices.length > 0) {
+            Semaphore counter = field.getIndexModificationCounter(indices);
+            if (count > 0) {
+                try {
+                    counter.acquire(count);
+                } catch (InterruptedException ex) {
+                    throw new PcjRuntimeException(ex);
+                }
+            }
+            return counter.availablePermits();
+        }
+
         if (count > 0) {
             try {
                 field.decrementModificationCounter(count);
@@ -537,6 +1170,118 @@ public class InternalStorages {
         return field.getModificationCounter();
     }
 
+    /**
+     * Pauses current Thread until value of the variable (or its element pointed
+     * by indices) fulfills the predicate.
+     * <p>
+     * The predicate is checked immediately and then only after modifications
+     * that affect the watched element. It is evaluated by the thread that
+     * modifies the variable, so it should be short and side-effect free.
+     * The method does not change modification counters.
+     *
+     * @param variable  name of shared variable
+     * @param predicate condition to fulfill
+     * @param indices   (optional) indices into the array
+     * @return value that fulfilled the predicate
+     */
+    public final <T> T waitUntil(Enum<?> variable, Predicate<T> predicate, int... indices) {
+        try {
+            return waitUntil0(getParent(variable), variable.name(), predicate, indices, 0, null);
+        } catch (TimeoutException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Pauses current Thread until value of the variable (or its element pointed
+     * by indices) fulfills the predicate or the timeout elapses.
+     *
+     * @param variable  name of shared variable
+     * @param predicate condition to fulfill
+     * @param timeout   timeout
+     * @param unit      unit of time
+     * @param indices   (optional) indices into the array
+     * @return value that fulfilled the predicate
+     * @throws TimeoutException when predicate is not fulfilled till timeout
+     */
+    public final <T> T waitUntil(Enum<?> variable, Predicate<T> predicate, long timeout, TimeUnit unit, int... indices) throws TimeoutException {
+        return waitUntil0(getParent(variable), variable.name(), predicate, indices, timeout, unit);
+    }
+
+    private <T> T waitUntil0(String parent, String name, Predicate<T> predicate, int[] indices, long timeout, TimeUnit unit) throws TimeoutException {
+        ConcurrentMap<String, StorageField> storage = sharedObjectsMap.get(parent);
+
+        StorageField field = storage.get(name);
+        if (field == null) {
+            throw new IllegalArgumentException("Variable not found: " + parent + "." + name);
+        }
+
+        PredicateWatcher<T> watcher = new PredicateWatcher<>(indices, () -> get0(parent, name, indices), predicate);
+        field.addWatcher(watcher);
+        try {
+            T value = get0(parent, name, indices);
+            if (predicate.test(value)) {
+                return value;
+            }
+            if (unit == null) {
+                return watcher.await0();
+            } else {
+                return watcher.await0(timeout, unit);
+            }
+        } catch (InterruptedException ex) {
+            throw new PcjRuntimeException(ex);
+        } finally {
+            field.removeWatcher(watcher);
+        }
+    }
+
+    /**
+     * Pauses current Thread until any of the variables is modified.
+     * Decreases the modification counter of the returned variable by one.
+     * <p>
+     * When many variables have been already modified, the first one
+     * in order of arguments is returned.
+     *
+     * @param variables names of shared variables
+     * @return modified variable
+     */
+    public final Enum<?> waitForAny(Enum<?>... variables) {
+        if (variables.length == 0) {
+            throw new IllegalArgumentException("No variables to wait for");
+        }
+        StorageField[] fields = new StorageField[variables.length];
+        for (int i = 0; i < variables.length; ++i) {
+            String parent = getParent(variables[i]);
+            fields[i] = sharedObjectsMap.get(parent).get(variables[i].name());
+            if (fields[i] == null) {
+                throw new IllegalArgumentException("Variable not found: " + parent + "." + variables[i].name());
+            }
+        }
+
+        Semaphore notification = new Semaphore(0);
+        StorageWatcher watcher = modified -> notification.release();
+        for (StorageField field : fields) {
+            field.addWatcher(watcher);
+        }
+        try {
+            while (true) {
+                for (int i = 0; i < fields.length; ++i) {
+                    if (fields[i].tryDecrementModificationCounter()) {
+                        return variables[i];
+                    }
+                }
+                notification.acquire();
+                notification.drainPermits();
+            }
+        } catch (InterruptedException ex) {
+            throw new PcjRuntimeException(ex);
+        } finally {
+            for (StorageField field : fields) {
+                field.removeWatcher(watcher);
+            }
+        }
+    }
+
     /**
      * Pauses current Thread and wait for {@code count} modifications of
      * variable. After modification decreases the variable modification counter
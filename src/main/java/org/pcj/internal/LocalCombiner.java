@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2011-2019, PCJ Library, Marek Nowicki
+ * All rights reserved.
+ *
+ * Licensed under New BSD License (3-clause license).
+ *
+ * See the file "LICENSE" for the full license governing this code.
+ */
+package org.pcj.internal;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntFunction;
+import java.util.function.UnaryOperator;
+import org.pcj.ReduceOperation;
+
+/**
+ * Local phase of collective operations: getting and combining values
+ * of PCJ Threads of the group that are placed on the current node.
+ * <p>
+ * When there are enough local threads (see {@code pcj.local.parallel.threshold})
+ * the work is split into fork/join tree over the threads. Threads are always
+ * processed in ascending order of group thread ids and partial results are
+ * combined left-to-right, so the result does not depend on scheduling and
+ * is deterministic also for non-commutative (but associative) operations.
+ *
+ * @author Marek Nowicki (faramir@mat.umk.pl)
+ */
+public final class LocalCombiner {
+
+    private LocalCombiner() {
+    }
+
+    /**
+     * Gets sorted group thread ids of the threads placed on the current node.
+     *
+     * @param group group
+     * @return sorted group thread ids
+     */
+    public static int[] getLocalThreadIds(InternalCommonGroup group) {
+        return group.getLocalThreadsId().stream().mapToInt(Integer::intValue).sorted().toArray();
+    }
+
+    private static boolean isParallel(int threadCount) {
+        int threshold = InternalPCJ.getConfiguration().LOCAL_PARALLEL_THRESHOLD;
+        return threshold >= 0 && threadCount > 1 && threadCount >= threshold
+                       && ForkJoinPool.getCommonPoolParallelism() > 1;
+    }
+
+    /*
+     * every leaf task of reduce makes own accumulator, so there are
+     * no more leaves than workers that can run them
+     */
+    private static int leafSize(int threadCount) {
+        int parallelism = ForkJoinPool.getCommonPoolParallelism();
+        return Math.max(2, (threadCount + parallelism - 1) / parallelism);
+    }
+
+    /**
+     * Reduces values of threads in order of thread ids.
+     *
+     * @param threadIds     sorted thread ids
+     * @param valueOf       function returning value of thread
+     * @param accumulatorOf function returning value that can be used as the first argument of reduce function
+     * @param function      reduce function
+     * @param <T>           type of value
+     * @return reduced value or null if there are no threads
+     */
+    public static <T> T reduce(int[] threadIds, IntFunction<T> valueOf, UnaryOperator<T> accumulatorOf, ReduceOperation<T> function) {
+        if (threadIds.length == 0) {
+            return null;
+        }
+        ReduceTask<T> task = new ReduceTask<>(threadIds, 0, threadIds.length, leafSize(threadIds.length),
+                valueOf, accumulatorOf, function);
+        if (isParallel(threadIds.length)) {
+            return ForkJoinPool.commonPool().invoke(task);
+        } else {
+            return task.reduceSequentially();
+        }
+    }
+
+    /**
+     * Gets values of threads.
+     *
+     * @param threadIds thread ids
+     * @param valueOf   function returning value of thread
+     * @return values of threads, in order of thread ids
+     */
+    public static Object[] getValues(int[] threadIds, IntFunction<?> valueOf) {
+        Object[] values = new Object[threadIds.length];
+        GetValuesTask task = new GetValuesTask(threadIds, 0, threadIds.length, leafSize(threadIds.length), valueOf, values);
+        if (isParallel(threadIds.length)) {
+            ForkJoinPool.commonPool().invoke(task);
+        } else {
+            task.getSequentially();
+        }
+        return values;
+    }
+
+    private static class ReduceTask<T> extends RecursiveTask<T> {
+
+        private static final long serialVersionUID = 1L;
+        private final int[] threadIds;
+        private final int from;
+        private final int to;
+        private final int leafSize;
+        private final transient IntFunction<T> valueOf;
+        private final transient UnaryOperator<T> accumulatorOf;
+        private final transient ReduceOperation<T> function;
+
+        private ReduceTask(int[] threadIds, int from, int to, int leafSize,
+                           IntFunction<T> valueOf, UnaryOperator<T> accumulatorOf, ReduceOperation<T> function) {
+            this.threadIds = threadIds;
+            this.from = from;
+            this.to = to;
+            this.leafSize = leafSize;
+            this.valueOf = valueOf;
+            this.accumulatorOf = accumulatorOf;
+            this.function = function;
+        }
+
+        @Override
+        protected T compute() {
+            if (to - from <= leafSize) {
+                return reduceSequentially();
+            }
+            int middle = (from + to) >>> 1;
+            ReduceTask<T> left = new ReduceTask<>(threadIds, from, middle, leafSize, valueOf, accumulatorOf, function);
+            ReduceTask<T> right = new ReduceTask<>(threadIds, middle, to, leafSize, valueOf, accumulatorOf, function);
+
+            right.fork();
+            T leftValue = left.compute();
+            T rightValue = right.join();
+
+            return function.apply(leftValue, rightValue);
+        }
+
+        private T reduceSequentially() {
+            T reducedValue = accumulatorOf.apply(valueOf.apply(threadIds[from]));
+            for (int i = from + 1; i < to; ++i) {
+                reducedValue = function.apply(reducedValue, valueOf.apply(threadIds[i]));
+            }
+            return reducedValue;
+        }
+    }
+
+    private static class GetValuesTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+        private final int[] threadIds;
+        private final int from;
+        private final int to;
+        private final int leafSize;
+        private final transient IntFunction<?> valueOf;
+        private final Object[] values;
+
+        private GetValuesTask(int[] threadIds, int from, int to, int leafSize, IntFunction<?> valueOf, Object[] values) {
+            this.threadIds = threadIds;
+            this.from = from;
+            this.to = to;
+            this.leafSize = leafSize;
+            this.valueOf = valueOf;
+            this.values = values;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= leafSize) {
+                getSequentially();
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new GetValuesTask(threadIds, from, middle, leafSize, valueOf, values),
+                    new GetValuesTask(threadIds, middle, to, leafSize, valueOf, values));
+        }
+
+        private void getSequentially() {
+            for (int i = from; i < to; ++i) {
+                values[i] = valueOf.apply(threadIds[i]);
+            }
+        }
+    }
+}
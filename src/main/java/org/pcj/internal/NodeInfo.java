@@ -36,6 +36,8 @@ public class NodeInfo implements Serializable {
     private String hostname;
     private int port;
     private SortedSet<Integer> threadIds;
+    private String hostIdentity;
+    private String topologyLabel;
 
     NodeInfo(String hostname, int port) {
         this.hostname = hostname;
@@ -48,6 +50,12 @@ public class NodeInfo implements Serializable {
         Arrays.stream(threadIds).forEach(this.threadIds::add);
     }
 
+    public NodeInfo(String hostname, int port, int[] threadIds, String hostIdentity, String topologyLabel) {
+        this(hostname, port, threadIds);
+        this.hostIdentity = hostIdentity;
+        this.topologyLabel = topologyLabel;
+    }
+
     @Override
     public int hashCode() {
         return hostname.hashCode() * port;
@@ -78,6 +86,25 @@ public class NodeInfo implements Serializable {
         return port;
     }
 
+    /**
+     * Gets name of the host as reported by the node itself. Nodes with the same host identity
+     * are run on the same machine.
+     *
+     * @return host identity or null if not known
+     */
+    public String getHostIdentity() {
+        return hostIdentity;
+    }
+
+    /**
+     * Gets user-supplied topology label of the node (eg. rack or switch name).
+     *
+     * @return topology label or null if not known
+     */
+    public String getTopologyLabel() {
+        return topologyLabel;
+    }
+
     public Set<Integer> getThreadIds() {
         return Collections.unmodifiableSet(threadIds);
     }
@@ -101,21 +128,7 @@ public class NodeInfo implements Serializable {
     }
 
     private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
-        int length = in.readInt();
-        if (length < 0) {
-            hostname = null;
-        } else {
-            byte[] b = new byte[length];
-            int offset = 0;
-            while (offset < length) {
-                int bytesRead = in.read(b, offset, length - offset);
-                if (bytesRead < 0) {
-                    throw new EOFException("Unexpectedly reached end of stream.");
-                }
-                offset += bytesRead;
-            }
-            hostname = new String(b, StandardCharsets.UTF_8);
-        }
+        hostname = readString(in);
         port = in.readInt();
 
         threadIds = new ConcurrentSkipListSet<>();
@@ -124,21 +137,60 @@ public class NodeInfo implements Serializable {
         while ((threadId = in.readInt()) != -1) {
             threadIds.add(threadId);
         }
+
+        hostIdentity = readString(in);
+        topologyLabel = readString(in);
     }
 
-    private void writeObject(ObjectOutputStream out) throws IOException {
-        if (hostname == null) {
-            out.writeInt(-1);
-        } else {
-            byte[] b = hostname.getBytes(StandardCharsets.UTF_8);
-            out.writeInt(b.length);
-            out.write(b);
+    private static String readString(ObjectInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] b = new byte[length];
+        int offset = 0;
+        while (offset < length) {
+            int bytesRead = in.read(b, offset, length - offset);
+            if (bytesRead < 0) {
+                throw new EOFException("Unexpectedly reached end of stream.");
+            }
+            offset += bytesRead;
         }
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        writeString(out, hostname);
         out.writeInt(port);
         for (Integer threadId : threadIds) {
             out.writeInt(threadId);
         }
         out.writeInt(-1);
+
+        writeString(out, hostIdentity);
+        writeString(out, topologyLabel);
     }
 
+    private static void writeString(ObjectOutputStream out, String string) throws IOException {
+        if (string == null) {
+            out.writeInt(-1);
+        } else {
+            byte[] b = string.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(b.length);
+            out.write(b);
+        }
+    }
+
+    /**
+     * Gets name of the local host used as host identity of the node.
+     *
+     * @return name of the local host or null if it cannot be determined
+     */
+    static String getLocalHostIdentity() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException ex) {
+            return null;
+        }
+    }
 }
@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2011-2019, PCJ Library, Marek Nowicki
+ * All rights reserved.
+ *
+ * Licensed under New BSD License (3-clause license).
+ *
+ * See the file "LICENSE" for the full license governing this code.
+ */
+package org.pcj.internal;
+
+import java.nio.ByteBuffer;
+import org.pcj.OffHeapArray;
+import org.pcj.OffHeapDoubleArray;
+import org.pcj.OffHeapIntArray;
+import org.pcj.OffHeapLongArray;
+
+/**
+ * Helper methods for accessing elements of {@link OffHeapArray} in generic way.
+ *
+ * @author Marek Nowicki (faramir@mat.umk.pl)
+ */
+public final class OffHeapArrays {
+
+    public static final byte DOUBLE_TYPE = 'D';
+    public static final byte LONG_TYPE = 'J';
+    public static final byte INT_TYPE = 'I';
+
+    /* Suppress default constructor for noninstantiability */
+    private OffHeapArrays() {
+        throw new AssertionError();
+    }
+
+    public static Class<?> getElementType(Class<?> offHeapArrayClass) {
+        if (OffHeapDoubleArray.class.isAssignableFrom(offHeapArrayClass)) {
+            return double.class;
+        } else if (OffHeapLongArray.class.isAssignableFrom(offHeapArrayClass)) {
+            return long.class;
+        } else if (OffHeapIntArray.class.isAssignableFrom(offHeapArrayClass)) {
+            return int.class;
+        }
+        return null;
+    }
+
+    public static byte getTypeCode(OffHeapArray array) {
+        if (array instanceof OffHeapDoubleArray) {
+            return DOUBLE_TYPE;
+        } else if (array instanceof OffHeapLongArray) {
+            return LONG_TYPE;
+        } else if (array instanceof OffHeapIntArray) {
+            return INT_TYPE;
+        }
+        throw new IllegalArgumentException("Unsupported off-heap array: " + array.getClass().getName());
+    }
+
+    public static OffHeapArray allocate(byte typeCode, long length) {
+        switch (typeCode) {
+            case DOUBLE_TYPE:
+                return new OffHeapDoubleArray(length);
+            case LONG_TYPE:
+                return new OffHeapLongArray(length);
+            case INT_TYPE:
+                return new OffHeapIntArray(length);
+            default:
+                throw new IllegalArgumentException("Unknown off-heap array type: " + typeCode);
+        }
+    }
+
+    public static Object get(OffHeapArray array, long index) {
+        if (array instanceof OffHeapDoubleArray) {
+            return ((OffHeapDoubleArray) array).get(index);
+        } else if (array instanceof OffHeapLongArray) {
+            return ((OffHeapLongArray) array).get(index);
+        } else {
+            return ((OffHeapIntArray) array).get(index);
+        }
+    }
+
+    public static void set(OffHeapArray array, long index, Object value) {
+        if (array instanceof OffHeapDoubleArray) {
+            ((OffHeapDoubleArray) array).set(index, PrimitiveTypes.convertToDouble(value));
+        } else if (array instanceof OffHeapLongArray) {
+            ((OffHeapLongArray) array).set(index, PrimitiveTypes.convertToLong(value));
+        } else {
+            ((OffHeapIntArray) array).set(index, PrimitiveTypes.convertToInt(value));
+        }
+    }
+
+    public static OffHeapArray slice(OffHeapArray array, long fromIndex, long toIndex) {
+        if (array instanceof OffHeapDoubleArray) {
+            return ((OffHeapDoubleArray) array).slice(fromIndex, toIndex);
+        } else if (array instanceof OffHeapLongArray) {
+            return ((OffHeapLongArray) array).slice(fromIndex, toIndex);
+        } else {
+            return ((OffHeapIntArray) array).slice(fromIndex, toIndex);
+        }
+    }
+
+    /**
+     * Copies values from other off-heap array of the same type or from primitive
+     * array of the element type into the array starting at {@code index}.
+     */
+    public static void copy(Object values, OffHeapArray array, long index) {
+        if (values instanceof OffHeapArray && getTypeCode((OffHeapArray) values) == getTypeCode(array)) {
+            OffHeapArray source = (OffHeapArray) values;
+            ByteBuffer[] targetBuffers = array.byteBuffers(index, index + source.length());
+            int targetIndex = 0;
+            for (ByteBuffer sourceBuffer : source.byteBuffers(0, source.length())) {
+                while (sourceBuffer.hasRemaining()) {
+                    ByteBuffer targetBuffer = targetBuffers[targetIndex];
+                    if (!targetBuffer.hasRemaining()) {
+                        ++targetIndex;
+                        continue;
+                    }
+                    ByteBuffer part = sourceBuffer.duplicate();
+                    part.limit(part.position() + Math.min(part.remaining(), targetBuffer.remaining()));
+                    sourceBuffer.position(part.limit());
+                    targetBuffer.put(part);
+                }
+            }
+        } else if (array instanceof OffHeapDoubleArray && values instanceof double[]) {
+            ((OffHeapDoubleArray) array).set(index, (double[]) values);
+        } else if (array instanceof OffHeapLongArray && values instanceof long[]) {
+            ((OffHeapLongArray) array).set(index, (long[]) values);
+        } else if (array instanceof OffHeapIntArray && values instanceof int[]) {
+            ((OffHeapIntArray) array).set(index, (int[]) values);
+        } else {
+            throw new ClassCastException("Cannot copy " + (values == null ? "null" : values.getClass().getName())
+                                                 + " into " + array.getClass().getName());
+        }
+    }
+
+    public static Object gather(OffHeapArray array, int[] indices) {
+        int length = indices.length;
+        if (array instanceof OffHeapDoubleArray) {
+            OffHeapDoubleArray source = (OffHeapDoubleArray) array;
+            double[] target = new double[length];
+            for (int i = 0; i < length; ++i) {
+                target[i] = source.get(indices[i]);
+            }
+            return target;
+        } else if (array instanceof OffHeapLongArray) {
+            OffHeapLongArray source = (OffHeapLongArray) array;
+            long[] target = new long[length];
+            for (int i = 0; i < length; ++i) {
+                target[i] = source.get(indices[i]);
+            }
+            return target;
+        } else {
+            OffHeapIntArray source = (OffHeapIntArray) array;
+            int[] target = new int[length];
+            for (int i = 0; i < length; ++i) {
+                target[i] = source.get(indices[i]);
+            }
+            return target;
+        }
+    }
+
+    /**
+     * Puts values into the array. Returns {@code false} when the type of values array
+     * does not match element type of the off-heap array.
+     */
+    public static boolean scatter(OffHeapArray array, Object values, int[] indices) {
+        int length = indices.length;
+        if (array instanceof OffHeapDoubleArray && values instanceof double[]) {
+            OffHeapDoubleArray target = (OffHeapDoubleArray) array;
+            double[] source = (double[]) values;
+            for (int i = 0; i < length; ++i) {
+                target.set(indices[i], source[i]);
+            }
+        } else if (array instanceof OffHeapLongArray && values instanceof long[]) {
+            OffHeapLongArray target = (OffHeapLongArray) array;
+            long[] source = (long[]) values;
+            for (int i = 0; i < length; ++i) {
+                target.set(indices[i], source[i]);
+            }
+        } else if (array instanceof OffHeapIntArray && values instanceof int[]) {
+            OffHeapIntArray target = (OffHeapIntArray) array;
+            int[] source = (int[]) values;
+            for (int i = 0; i < length; ++i) {
+                target.set(indices[i], source[i]);
+            }
+        } else {
+            return false;
+        }
+        return true;
+    }
+}
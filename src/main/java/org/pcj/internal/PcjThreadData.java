@@ -51,7 +51,7 @@ public final class PcjThreadData {
     InternalGroup getInternalGroupByName(String name) {
         return groupById.values()
                        .stream()
-                       .filter(groups -> name.equals(groups.getName()))
+                       .filter(groups -> groups.isJoinable() && name.equals(groups.getName()))
                        .findFirst().orElse(null);
     }
 }
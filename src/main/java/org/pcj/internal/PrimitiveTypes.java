@@ -224,4 +224,99 @@ public final class PrimitiveTypes {
         }
         throw new ClassCastException("Unable to cast: " + value.getClass().getName());
     }
+
+    /**
+     * Gets type code of array of primitive numeric or char elements, used
+     * when the array is written into a message without Java serialization.
+     *
+     * @param array array
+     * @return type code of the array
+     * @throws IllegalArgumentException array is not array of primitive numeric or char elements
+     */
+    public static byte getArrayTypeCode(Object array) throws IllegalArgumentException {
+        if (array instanceof double[]) {
+            return 'D';
+        } else if (array instanceof float[]) {
+            return 'F';
+        } else if (array instanceof long[]) {
+            return 'J';
+        } else if (array instanceof int[]) {
+            return 'I';
+        } else if (array instanceof short[]) {
+            return 'S';
+        } else if (array instanceof char[]) {
+            return 'C';
+        } else if (array instanceof byte[]) {
+            return 'B';
+        }
+        throw new IllegalArgumentException("Not an array of primitive numeric or char elements: "
+                                                   + (array == null ? null : array.getClass().getName()));
+    }
+
+    /**
+     * Gets element type for the array type code.
+     *
+     * @param typeCode type code of the array
+     * @return primitive element type
+     * @throws IllegalArgumentException unknown type code
+     * @see #getArrayTypeCode(Object)
+     */
+    public static Class<?> getArrayElementType(byte typeCode) throws IllegalArgumentException {
+        switch (typeCode) {
+            case 'D':
+                return double.class;
+            case 'F':
+                return float.class;
+            case 'J':
+                return long.class;
+            case 'I':
+                return int.class;
+            case 'S':
+                return short.class;
+            case 'C':
+                return char.class;
+            case 'B':
+                return byte.class;
+            default:
+                throw new IllegalArgumentException("Unknown array type code: " + typeCode);
+        }
+    }
+
+    /**
+     * Gets size in bytes of element for the array type code.
+     *
+     * @param typeCode type code of the array
+     * @return size of element in bytes
+     * @throws IllegalArgumentException unknown type code
+     */
+    public static int getArrayElementSize(byte typeCode) throws IllegalArgumentException {
+        switch (typeCode) {
+            case 'D':
+            case 'J':
+                return 8;
+            case 'F':
+            case 'I':
+                return 4;
+            case 'S':
+            case 'C':
+                return 2;
+            case 'B':
+                return 1;
+            default:
+                throw new IllegalArgumentException("Unknown array type code: " + typeCode);
+        }
+    }
+
+    /**
+     * Checks if the object is array that can be written into a message without Java serialization.
+     *
+     * @param object object
+     * @return true if the object is array of primitive numeric or char elements
+     */
+    public static boolean isNumericArray(Object object) {
+        return object instanceof double[] || object instanceof float[]
+                       || object instanceof long[] || object instanceof int[]
+                       || object instanceof short[] || object instanceof char[]
+                       || object instanceof byte[];
+    }
 }
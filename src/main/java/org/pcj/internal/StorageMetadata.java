@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2011-2019, PCJ Library, Marek Nowicki
+ * All rights reserved.
+ *
+ * Licensed under New BSD License (3-clause license).
+ *
+ * See the file "LICENSE" for the full license governing this code.
+ */
+package org.pcj.internal;
+
+import java.io.Serializable;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+import org.pcj.PcjRuntimeException;
+import org.pcj.Storage;
+
+/**
+ * Immutable, validated metadata of storage enum class.
+ * <p>
+ * Metadata is computed once per JVM for each storage enum class and shared
+ * by all PCJ Threads, so registering storage by next PCJ Thread does not
+ * use reflection to look up and validate fields again.
+ *
+ * @author Marek Nowicki (faramir@mat.umk.pl)
+ */
+final class StorageMetadata {
+
+    private static final ClassValue<StorageMetadata> CACHE = new ClassValue<StorageMetadata>() {
+        @Override
+        protected StorageMetadata computeValue(Class<?> type) {
+            return new StorageMetadata(type);
+        }
+    };
+
+    /* failures are cached as messages, so every call throws a new exception with its own stack trace */
+    private final String validationMessage;
+    private final boolean fieldMissing;
+    private final String enumClassName;
+    private final Class<?> storageClass;
+    private final String storageClassName;
+    private final String[] names;
+    private final Field[] fields;
+    private final Constructor<?> constructor;
+    private final String constructorMessage;
+
+    private StorageMetadata(Class<?> storageEnumClass) {
+        String validationMessage = null;
+        boolean fieldMissing = false;
+        Class<?> storageClass = null;
+        String[] names = new String[0];
+        Field[] fields = new Field[0];
+        try {
+            if (!storageEnumClass.isEnum()) {
+                throw new IllegalArgumentException("Class is not enum: " + storageEnumClass.getName());
+            }
+            if (!storageEnumClass.isAnnotationPresent(Storage.class)) {
+                throw new IllegalArgumentException("Enum is not annotated by @Storage annotation: " + storageEnumClass.getName());
+            }
+            storageClass = storageEnumClass.getAnnotation(Storage.class).value();
+
+            Object[] enumConstants = storageEnumClass.getEnumConstants();
+            names = new String[enumConstants.length];
+            fields = new Field[enumConstants.length];
+            for (int i = 0; i < enumConstants.length; ++i) {
+                names[i] = ((Enum<?>) enumConstants[i]).name();
+                try {
+                    fields[i] = storageClass.getDeclaredField(names[i]);
+                } catch (NoSuchFieldException ex) {
+                    throw new NoSuchFieldException("Field not found in " + storageClass.getName() + ": " + names[i]);
+                }
+
+                Class<?> type = fields[i].getType();
+                if (!type.isPrimitive() && !Serializable.class.isAssignableFrom(type) && Modifier.isFinal(type.getModifiers())) {
+                    throw new IllegalArgumentException("Type of '" + names[i] + "' (" + type.getCanonicalName() + ") from class '" + storageClass.getName() + "' is not serializable but final");
+                }
+                fields[i].setAccessible(true);
+            }
+        } catch (NoSuchFieldException ex) {
+            validationMessage = ex.getMessage();
+            fieldMissing = true;
+        } catch (IllegalArgumentException ex) {
+            validationMessage = ex.getMessage();
+        } catch (RuntimeException ex) {
+            validationMessage = ex.toString();
+        }
+
+        Constructor<?> constructor = null;
+        String constructorMessage = null;
+        if (validationMessage == null) {
+            try {
+                constructor = storageClass.getConstructor();
+                constructor.setAccessible(true);
+            } catch (NoSuchMethodException ex) {
+                constructorMessage = ex.getMessage();
+            }
+        }
+
+        this.validationMessage = validationMessage;
+        this.fieldMissing = fieldMissing;
+        this.enumClassName = storageEnumClass.getName();
+        this.storageClass = storageClass;
+        this.storageClassName = storageClass == null ? null : storageClass.getName();
+        this.names = names;
+        this.fields = fields;
+        this.constructor = constructor;
+        this.constructorMessage = constructorMessage;
+    }
+
+    /**
+     * Gets validated metadata of the storage enum class.
+     *
+     * @param storageEnumClass storage enum class
+     * @return metadata of the storage enum class
+     * @throws NoSuchFieldException     storage class does not contain field named as enum constant
+     * @throws IllegalArgumentException class is not valid storage enum class
+     */
+    static StorageMetadata of(Class<? extends Enum<?>> storageEnumClass) throws NoSuchFieldException, IllegalArgumentException {
+        StorageMetadata metadata = CACHE.get(storageEnumClass);
+        if (metadata.fieldMissing) {
+            throw new NoSuchFieldException(metadata.validationMessage);
+        } else if (metadata.validationMessage != null) {
+            throw new IllegalArgumentException(metadata.validationMessage);
+        }
+        return metadata;
+    }
+
+    String getEnumClassName() {
+        return enumClassName;
+    }
+
+    Class<?> getStorageClass() {
+        return storageClass;
+    }
+
+    String getStorageClassName() {
+        return storageClassName;
+    }
+
+    int getFieldCount() {
+        return fields.length;
+    }
+
+    String getName(int index) {
+        return names[index];
+    }
+
+    Field getField(int index) {
+        return fields[index];
+    }
+
+    Object newStorageObject() throws PcjRuntimeException {
+        if (constructorMessage != null) {
+            throw new PcjRuntimeException(new NoSuchMethodException(constructorMessage));
+        }
+        try {
+            return constructor.newInstance();
+        } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
+            throw new PcjRuntimeException(e);
+        }
+    }
+}
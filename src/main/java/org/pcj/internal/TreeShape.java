@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2011-2019, PCJ Library, Marek Nowicki
+ * All rights reserved.
+ *
+ * Licensed under New BSD License (3-clause license).
+ *
+ * See the file "LICENSE" for the full license governing this code.
+ */
+package org.pcj.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Shape of communication tree used by collective operations.
+ * <p>
+ * Nodes of the group are ordered (the group master node is first) and the
+ * shape describes parent and children of node at given position. For every
+ * shape the parent of node is at lower position than the node, and depends
+ * only on the position of the node, so adding new nodes at the end of order
+ * only adds children to the existing nodes.
+ *
+ * @author Marek Nowicki (faramir@mat.umk.pl)
+ */
+public enum TreeShape {
+    /**
+     * Binary tree: children of node {@code i} are {@code 2i+1} and {@code 2i+2}.
+     */
+    BINARY {
+        @Override
+        public int getParentIndex(int index, int arity) {
+            return KARY.getParentIndex(index, 2);
+        }
+
+        @Override
+        public List<Integer> getChildrenIndices(int index, int size, int arity) {
+            return KARY.getChildrenIndices(index, size, 2);
+        }
+    },
+    /**
+     * K-ary tree: children of node {@code i} are {@code k*i+1}, ..., {@code k*i+k}.
+     */
+    KARY {
+        @Override
+        public int getParentIndex(int index, int arity) {
+            return index == 0 ? -1 : (index - 1) / arity;
+        }
+
+        @Override
+        public List<Integer> getChildrenIndices(int index, int size, int arity) {
+            List<Integer> children = new ArrayList<>(arity);
+            for (long child = (long) index * arity + 1; child <= (long) index * arity + arity && child < size; ++child) {
+                children.add((int) child);
+            }
+            return children;
+        }
+    },
+    /**
+     * Binomial tree: parent of node {@code i} is {@code i} with the lowest set bit
+     * cleared. Children with the largest subtrees are returned first.
+     */
+    BINOMIAL {
+        @Override
+        public int getParentIndex(int index, int arity) {
+            return index == 0 ? -1 : index & (index - 1);
+        }
+
+        @Override
+        public List<Integer> getChildrenIndices(int index, int size, int arity) {
+            int limit = index == 0 ? Integer.highestOneBit(Math.max(size - 1, 1)) << 1 : Integer.lowestOneBit(index);
+            List<Integer> children = new ArrayList<>();
+            for (int step = limit >>> 1; step > 0; step >>>= 1) {
+                if ((long) index + step < size) {
+                    children.add(index + step);
+                }
+            }
+            return children;
+        }
+    },
+    /**
+     * Flat tree: the first node is parent of all other nodes.
+     */
+    FLAT {
+        @Override
+        public int getParentIndex(int index, int arity) {
+            return index == 0 ? -1 : 0;
+        }
+
+        @Override
+        public List<Integer> getChildrenIndices(int index, int size, int arity) {
+            List<Integer> children = new ArrayList<>();
+            if (index == 0) {
+                for (int child = 1; child < size; ++child) {
+                    children.add(child);
+                }
+            }
+            return children;
+        }
+    };
+
+    /**
+     * Gets position of the parent node.
+     *
+     * @param index position of the node
+     * @param arity arity of the tree (used only by k-ary tree)
+     * @return position of the parent node or -1 for the first node
+     */
+    public abstract int getParentIndex(int index, int arity);
+
+    /**
+     * Gets positions of the children nodes.
+     *
+     * @param index position of the node
+     * @param size  number of nodes
+     * @param arity arity of the tree (used only by k-ary tree)
+     * @return positions of the children nodes
+     */
+    public abstract List<Integer> getChildrenIndices(int index, int size, int arity);
+
+    /**
+     * Parses name of the shape (case insensitive, {@code k-ary} is accepted).
+     *
+     * @param name name of the shape
+     * @return shape
+     * @throws IllegalArgumentException unknown shape name
+     */
+    public static TreeShape parse(String name) throws IllegalArgumentException {
+        return TreeShape.valueOf(name.trim().replace("-", "").toUpperCase(Locale.ENGLISH));
+    }
+}
@@ -15,19 +15,34 @@ import org.pcj.internal.message.accumulate.ValueAccumulateRequestMessage;
 import org.pcj.internal.message.accumulate.ValueAccumulateResponseMessage;
 import org.pcj.internal.message.alive.AbortMessage;
 import org.pcj.internal.message.alive.AliveMessage;
+import org.pcj.internal.message.allgather.AllGatherBlocksMessage;
+import org.pcj.internal.message.allgather.AllGatherSizeMessage;
+import org.pcj.internal.message.allreduce.AllReduceChunkMessage;
+import org.pcj.internal.message.allreduce.AllReduceResultMessage;
+import org.pcj.internal.message.allreduce.AllReduceRingOfferMessage;
+import org.pcj.internal.message.allreduce.AllReduceRingStartMessage;
+import org.pcj.internal.message.allreduce.AllReduceValueMessage;
+import org.pcj.internal.message.allreduce.AllReduceValueRequestMessage;
+import org.pcj.internal.message.alltoall.AllToAllBlocksMessage;
 import org.pcj.internal.message.at.AsyncAtRequestMessage;
 import org.pcj.internal.message.at.AsyncAtResponseMessage;
 import org.pcj.internal.message.barrier.GroupBarrierGoMessage;
+import org.pcj.internal.message.barrier.GroupBarrierSignalMessage;
 import org.pcj.internal.message.barrier.GroupBarrierWaitingMessage;
 import org.pcj.internal.message.broadcast.BroadcastBytesMessage;
 import org.pcj.internal.message.broadcast.BroadcastInformMessage;
 import org.pcj.internal.message.broadcast.BroadcastRequestMessage;
 import org.pcj.internal.message.broadcast.BroadcastResponseMessage;
+import org.pcj.internal.message.broadcast.BroadcastScatterMessage;
+import org.pcj.internal.message.broadcast.BroadcastSegmentMessage;
 import org.pcj.internal.message.bye.ByeCompletedMessage;
 import org.pcj.internal.message.bye.ByeNotifyMessage;
 import org.pcj.internal.message.collect.CollectRequestMessage;
 import org.pcj.internal.message.collect.CollectResponseMessage;
 import org.pcj.internal.message.collect.CollectValueMessage;
+import org.pcj.internal.message.gather.ValueGatherRequestMessage;
+import org.pcj.internal.message.gather.ValueGatherResponseMessage;
+import org.pcj.internal.message.get.ValueGetRangeRequestMessage;
 import org.pcj.internal.message.get.ValueGetRequestMessage;
 import org.pcj.internal.message.get.ValueGetResponseMessage;
 import org.pcj.internal.message.hello.HelloBonjourMessage;
@@ -42,11 +57,23 @@ import org.pcj.internal.message.join.GroupJoinResponseMessage;
 import org.pcj.internal.message.join.GroupQueryAnswerMessage;
 import org.pcj.internal.message.join.GroupQueryMessage;
 import org.pcj.internal.message.peerbarrier.PeerBarrierMessage;
+import org.pcj.internal.message.put.ValuePutRangeRequestMessage;
 import org.pcj.internal.message.put.ValuePutRequestMessage;
 import org.pcj.internal.message.put.ValuePutResponseMessage;
 import org.pcj.internal.message.reduce.ReduceRequestMessage;
 import org.pcj.internal.message.reduce.ReduceResponseMessage;
 import org.pcj.internal.message.reduce.ReduceValueMessage;
+import org.pcj.internal.message.reducescatter.ReduceScatterChunkMessage;
+import org.pcj.internal.message.scan.ScanValuesMessage;
+import org.pcj.internal.message.scatter.ScatterInformMessage;
+import org.pcj.internal.message.scatter.ScatterRequestMessage;
+import org.pcj.internal.message.scatter.ScatterResponseMessage;
+import org.pcj.internal.message.scatter.ValueScatterRequestMessage;
+import org.pcj.internal.message.scatter.ValueScatterResponseMessage;
+import org.pcj.internal.message.split.GroupSplitAnswerMessage;
+import org.pcj.internal.message.split.GroupSplitInformMessage;
+import org.pcj.internal.message.split.GroupSplitQueryMessage;
+import org.pcj.internal.message.split.GroupSplitValuesMessage;
 
 /**
  * @author Marek Nowicki (faramir@mat.umk.pl)
@@ -65,6 +92,7 @@ public enum MessageType {
     BYE_COMPLETED(ByeCompletedMessage::new),
     GROUP_BARRIER_WAITING(GroupBarrierWaitingMessage::new),
     GROUP_BARRIER_GO(GroupBarrierGoMessage::new),
+    GROUP_BARRIER_SIGNAL(GroupBarrierSignalMessage::new),
     PEER_BARRIER(PeerBarrierMessage::new),
     GROUP_JOIN_QUERY(GroupQueryMessage::new),
     GROUP_JOIN_ANSWER(GroupQueryAnswerMessage::new),
@@ -72,6 +100,10 @@ public enum MessageType {
     GROUP_JOIN_INFORM(GroupJoinInformMessage::new),
     GROUP_JOIN_CONFIRM(GroupJoinConfirmMessage::new),
     GROUP_JOIN_RESPONSE(GroupJoinResponseMessage::new),
+    GROUP_SPLIT_VALUES(GroupSplitValuesMessage::new),
+    GROUP_SPLIT_QUERY(GroupSplitQueryMessage::new),
+    GROUP_SPLIT_ANSWER(GroupSplitAnswerMessage::new),
+    GROUP_SPLIT_INFORM(GroupSplitInformMessage::new),
     VALUE_GET_REQUEST(ValueGetRequestMessage::new),
     VALUE_GET_RESPONSE(ValueGetResponseMessage::new),
     VALUE_PUT_REQUEST(ValuePutRequestMessage::new),
@@ -80,6 +112,8 @@ public enum MessageType {
     VALUE_ACCUMULATE_RESPONSE(ValueAccumulateResponseMessage::new),
     VALUE_BROADCAST_REQUEST(BroadcastRequestMessage::new),
     VALUE_BROADCAST_BYTES(BroadcastBytesMessage::new),
+    VALUE_BROADCAST_SEGMENT(BroadcastSegmentMessage::new),
+    VALUE_BROADCAST_SCATTER(BroadcastScatterMessage::new),
     VALUE_BROADCAST_INFORM(BroadcastInformMessage::new),
     VALUE_BROADCAST_RESPONSE(BroadcastResponseMessage::new),
     COLLECT_REQUEST(CollectRequestMessage::new),
@@ -88,8 +122,28 @@ public enum MessageType {
     REDUCE_REQUEST(ReduceRequestMessage::new),
     REDUCE_VALUE(ReduceValueMessage::new),
     REDUCE_RESPONSE(ReduceResponseMessage::new),
+    ALLREDUCE_VALUE(AllReduceValueMessage::new),
+    ALLREDUCE_RESULT(AllReduceResultMessage::new),
+    ALLREDUCE_CHUNK(AllReduceChunkMessage::new),
+    ALLREDUCE_RING_OFFER(AllReduceRingOfferMessage::new),
+    ALLREDUCE_RING_START(AllReduceRingStartMessage::new),
+    ALLREDUCE_VALUE_REQUEST(AllReduceValueRequestMessage::new),
+    REDUCESCATTER_CHUNK(ReduceScatterChunkMessage::new),
+    SCATTER_REQUEST(ScatterRequestMessage::new),
+    SCATTER_INFORM(ScatterInformMessage::new),
+    SCATTER_RESPONSE(ScatterResponseMessage::new),
+    ALLGATHER_BLOCKS(AllGatherBlocksMessage::new),
+    ALLGATHER_SIZE(AllGatherSizeMessage::new),
+    ALLTOALL_BLOCKS(AllToAllBlocksMessage::new),
+    SCAN_VALUES(ScanValuesMessage::new),
     ASYNC_AT_REQUEST(AsyncAtRequestMessage::new),
     ASYNC_AT_RESPONSE(AsyncAtResponseMessage::new),
+    VALUE_GATHER_REQUEST(ValueGatherRequestMessage::new),
+    VALUE_GATHER_RESPONSE(ValueGatherResponseMessage::new),
+    VALUE_SCATTER_REQUEST(ValueScatterRequestMessage::new),
+    VALUE_SCATTER_RESPONSE(ValueScatterResponseMessage::new),
+    VALUE_GET_RANGE_REQUEST(ValueGetRangeRequestMessage::new),
+    VALUE_PUT_RANGE_REQUEST(ValuePutRangeRequestMessage::new),
     ;
     /* **************************************************** */
     private static final Map<Byte, MessageType> map;
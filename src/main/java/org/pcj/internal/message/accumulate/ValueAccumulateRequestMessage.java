@@ -62,7 +62,7 @@ public final class ValueAccumulateRequestMessage<T> extends Message {
         out.writeString(sharedEnumClassName);
         out.writeString(name);
         out.writeIntArray(indices);
-        out.writeObject(function);
+        out.writeReduceOperation(function);
         out.writeObject(newValue);
     }
 
@@ -84,7 +84,7 @@ public final class ValueAccumulateRequestMessage<T> extends Message {
 
         ValueAccumulateResponseMessage valueAccumulateResponseMessage = new ValueAccumulateResponseMessage(groupId, requestNum, requesterThreadId);
         try {
-            function = (ReduceOperation<T>) in.readObject();
+            function = in.readReduceOperation();
             newValue = (T) in.readObject();
             storage.accumulate(function, newValue, sharedEnumClassName, name, indices);
         } catch (Exception ex) {
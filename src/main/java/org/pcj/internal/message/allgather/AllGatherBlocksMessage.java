@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2011-2019, PCJ Library, Marek Nowicki
+ * All rights reserved.
+ *
+ * Licensed under New BSD License (3-clause license).
+ *
+ * See the file "LICENSE" for the full license governing this code.
+ */
+package org.pcj.internal.message.allgather;
+
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.nio.channels.SocketChannel;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import org.pcj.internal.InternalCommonGroup;
+import org.pcj.internal.InternalPCJ;
+import org.pcj.internal.NodeData;
+import org.pcj.internal.PrimitiveTypes;
+import org.pcj.internal.message.Message;
+import org.pcj.internal.message.MessageType;
+import org.pcj.internal.network.MessageDataInputStream;
+import org.pcj.internal.network.MessageDataOutputStream;
+
+/**
+ * Message with node blocks (values of PCJ Threads of nodes) sent between
+ * nodes in allgather.
+ * <p>
+ * Blocks of primitive numeric elements are written without Java serialization.
+ *
+ * @author Marek Nowicki (faramir@mat.umk.pl)
+ */
+public final class AllGatherBlocksMessage extends Message {
+
+    private int groupId;
+    private int round;
+    private int step;
+    private Object[] blocks;
+    private Queue<Exception> exceptions;
+
+    public AllGatherBlocksMessage() {
+        super(MessageType.ALLGATHER_BLOCKS);
+    }
+
+    AllGatherBlocksMessage(int groupId, int round, int step, Object[] blocks, Queue<Exception> exceptions) {
+        this();
+
+        this.groupId = groupId;
+        this.round = round;
+        this.step = step;
+        this.blocks = blocks;
+        this.exceptions = exceptions;
+    }
+
+    @Override
+    public void write(MessageDataOutputStream out) throws IOException {
+        out.writeInt(groupId);
+        out.writeInt(round);
+        out.writeInt(step);
+
+        boolean exception = ((exceptions != null) && (!exceptions.isEmpty()));
+        out.writeBoolean(exception);
+        if (exception) {
+            out.writeObject(exceptions);
+        } else {
+            out.writeInt(blocks.length);
+            boolean numeric = blocks.length > 0 && PrimitiveTypes.isNumericArray(blocks[0]);
+            out.writeBoolean(numeric);
+            for (Object block : blocks) {
+                if (numeric) {
+                    out.writePrimitiveArray(block, 0, Array.getLength(block));
+                } else {
+                    out.writeObject(block);
+                }
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void onReceive(SocketChannel sender, MessageDataInputStream in) throws IOException {
+        groupId = in.readInt();
+        round = in.readInt();
+        step = in.readInt();
+
+        boolean exceptionOccurred = in.readBoolean();
+        try {
+            if (exceptionOccurred) {
+                exceptions = (Queue<Exception>) in.readObject();
+            } else {
+                blocks = new Object[in.readInt()];
+                boolean numeric = in.readBoolean();
+                for (int i = 0; i < blocks.length; ++i) {
+                    blocks[i] = numeric ? in.readPrimitiveArray() : in.readObject();
+                }
+            }
+        } catch (Exception ex) {
+            exceptions = new ConcurrentLinkedQueue<>();
+            exceptions.add(ex);
+        }
+
+        NodeData nodeData = InternalPCJ.getNodeData();
+        InternalCommonGroup commonGroup = nodeData.getCommonGroupById(groupId);
+
+        AllGatherStates states = commonGroup.getAllGatherStates();
+        AllGatherStates.State state = states.getOrCreate(round, commonGroup);
+
+        state.blocksReceived(commonGroup, step, blocks, exceptions);
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2011-2019, PCJ Library, Marek Nowicki
+ * All rights reserved.
+ *
+ * Licensed under New BSD License (3-clause license).
+ *
+ * See the file "LICENSE" for the full license governing this code.
+ */
+package org.pcj.internal.message.allgather;
+
+import java.io.IOException;
+import java.nio.channels.SocketChannel;
+import org.pcj.internal.InternalCommonGroup;
+import org.pcj.internal.InternalPCJ;
+import org.pcj.internal.NodeData;
+import org.pcj.internal.message.Message;
+import org.pcj.internal.message.MessageType;
+import org.pcj.internal.network.MessageDataInputStream;
+import org.pcj.internal.network.MessageDataOutputStream;
+
+/**
+ * Message with the smallest size of values known to the node, sent between
+ * nodes in allgather of arrays, before the exchange of blocks, to agree on
+ * the algorithm.
+ *
+ * @author Marek Nowicki (faramir@mat.umk.pl)
+ */
+public final class AllGatherSizeMessage extends Message {
+
+    private int groupId;
+    private int round;
+    private int step;
+    private long size;
+
+    public AllGatherSizeMessage() {
+        super(MessageType.ALLGATHER_SIZE);
+    }
+
+    AllGatherSizeMessage(int groupId, int round, int step, long size) {
+        this();
+
+        this.groupId = groupId;
+        this.round = round;
+        this.step = step;
+        this.size = size;
+    }
+
+    @Override
+    public void write(MessageDataOutputStream out) throws IOException {
+        out.writeInt(groupId);
+        out.writeInt(round);
+        out.writeInt(step);
+        out.writeLong(size);
+    }
+
+    @Override
+    public void onReceive(SocketChannel sender, MessageDataInputStream in) throws IOException {
+        groupId = in.readInt();
+        round = in.readInt();
+        step = in.readInt();
+        size = in.readLong();
+
+        NodeData nodeData = InternalPCJ.getNodeData();
+        InternalCommonGroup commonGroup = nodeData.getCommonGroupById(groupId);
+
+        AllGatherStates states = commonGroup.getAllGatherStates();
+        AllGatherStates.State state = states.getOrCreate(round, commonGroup);
+
+        state.sizeReceived(commonGroup, step, size);
+    }
+}
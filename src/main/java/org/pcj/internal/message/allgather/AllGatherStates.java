@@ -0,0 +1,430 @@
+/*
+ * Copyright (c) 2011-2019, PCJ Library, Marek Nowicki
+ * All rights reserved.
+ *
+ * Licensed under New BSD License (3-clause license).
+ *
+ * See the file "LICENSE" for the full license governing this code.
+ */
+package org.pcj.internal.message.allgather;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.pcj.PcjFuture;
+import org.pcj.PcjRuntimeException;
+import org.pcj.internal.CollectiveOperation;
+import org.pcj.internal.InternalCommonGroup;
+import org.pcj.internal.InternalPCJ;
+import org.pcj.internal.InternalStorages;
+import org.pcj.internal.NodeData;
+import org.pcj.internal.PrimitiveTypes;
+import org.pcj.internal.message.Message;
+
+/**
+ * States of allgather operations.
+ * <p>
+ * All PCJ Threads of the group take part in the operation. Values of local
+ * PCJ Threads are put into the node block (array of values ordered by thread
+ * id), then nodes exchange blocks, so that each node has blocks of all nodes
+ * and local PCJ Threads get the assembled array.
+ * <p>
+ * Blocks are exchanged using recursive doubling (ceil(log P) steps, in step
+ * {@code k} the node sends all blocks it has, but at most {@code 2^k}, to the
+ * node {@code 2^k} positions before it) or, for large values (see
+ * {@code pcj.allgather.ring.threshold}), in the ring of nodes (P-1 steps,
+ * each node sends one block to the previous node). The ring is used only for
+ * variables of primitive numeric arrays: before the exchange of blocks, nodes
+ * find the smallest size of values in the group (ceil(log P) steps of the
+ * recursive doubling), so all nodes choose the same algorithm even if sizes
+ * of arrays differ or getting the value failed on some nodes.
+ *
+ * @author Marek Nowicki (faramir@mat.umk.pl)
+ */
+public class AllGatherStates {
+
+    private final ConcurrentMap<Integer, AtomicInteger> counterMap;
+    private final ConcurrentMap<Integer, State> stateMap;
+
+    public AllGatherStates() {
+        counterMap = new ConcurrentHashMap<>();
+        stateMap = new ConcurrentHashMap<>();
+    }
+
+    public int getNextRound(int threadId) {
+        AtomicInteger roundCounter = counterMap.computeIfAbsent(threadId, key -> new AtomicInteger(0));
+        return roundCounter.incrementAndGet();
+    }
+
+    public State getOrCreate(int round, InternalCommonGroup commonGroup) {
+        return stateMap.computeIfAbsent(round,
+                key -> new State(round, commonGroup.getLocalThreadsId().size()));
+    }
+
+    public State remove(int round) {
+        return stateMap.remove(round);
+    }
+
+    public class State {
+
+        private final int round;
+        private final AtomicInteger localCount;
+        private final Map<Integer, Object> localValues;
+        private final Map<Integer, AllGatherFuture<Object>> futures;
+        private final Map<Integer, Object> outputs;
+        private final Map<Integer, Object[]> pendingSteps;
+        private final Map<Integer, Long> pendingSizes;
+        private final Queue<Exception> exceptions;
+        private Class<?> variableClass;
+        private Class<?> valueClass;
+        private List<Integer> nodes;
+        private int nodeIndex;
+        private int[] threadNodeIndices;
+        private int[] threadPositions;
+        private Object[] nodeBlocks;
+        private boolean ring;
+        private int stepCount;
+        private boolean started;
+        private int nextStep;
+        private long agreedSize;
+        private int sizeStepCount;
+        private boolean sizesStarted;
+        private int nextSizeStep;
+
+        private State(int round, int localCount) {
+            this.round = round;
+
+            this.localCount = new AtomicInteger(localCount);
+            localValues = new TreeMap<>();
+            futures = new TreeMap<>();
+            outputs = new HashMap<>();
+            pendingSteps = new HashMap<>();
+            pendingSizes = new HashMap<>();
+            exceptions = new ConcurrentLinkedQueue<>();
+        }
+
+        @SuppressWarnings("unchecked")
+        public <T> PcjFuture<T> processLocal(InternalCommonGroup group, int threadId, T output,
+                                             String sharedEnumClassName, String variableName, int[] indices) {
+            AllGatherFuture<Object> future = new AllGatherFuture<>();
+
+            Object value = null;
+            Class<?> declaredClass = null;
+            Class<?> clazz = null;
+            try {
+                int globalThreadId = group.getGlobalThreadId(threadId);
+                InternalStorages storage = InternalPCJ.getNodeData().getPcjThread(globalThreadId).getThreadData().getStorages();
+                declaredClass = storage.getClass(sharedEnumClassName, variableName, 0);
+                clazz = storage.getClass(sharedEnumClassName, variableName, indices.length);
+                value = storage.get(sharedEnumClassName, variableName, indices);
+            } catch (Exception ex) {
+                exceptions.add(ex);
+            }
+
+            synchronized (this) {
+                if (declaredClass != null) {
+                    variableClass = declaredClass;
+                }
+                if (clazz != null) {
+                    valueClass = clazz;
+                }
+                futures.put(threadId, future);
+                localValues.put(threadId, value);
+                if (output != null) {
+                    outputs.put(threadId, output);
+                }
+            }
+
+            if (localCount.decrementAndGet() == 0) {
+                start(group);
+            }
+
+            return (PcjFuture<T>) future;
+        }
+
+        private void start(InternalCommonGroup group) {
+            List<Outgoing> messages = new ArrayList<>();
+            synchronized (this) {
+                NodeData nodeData = InternalPCJ.getNodeData();
+                nodes = group.getCommunicationTree(CollectiveOperation.ALLGATHER).getNodes();
+                nodeIndex = nodes.indexOf(nodeData.getCurrentNodePhysicalId());
+                nodeBlocks = new Object[nodes.size()];
+
+                long valueSize = -1;
+                try {
+                    computePositions(group);
+                    nodeBlocks[nodeIndex] = packLocalValues();
+                    valueSize = estimateSize(localValues.values());
+                } catch (Exception ex) {
+                    exceptions.add(ex);
+                }
+
+                int nodeCount = nodes.size();
+                int threshold = InternalPCJ.getConfiguration().ALLGATHER_RING_THRESHOLD;
+                if (threshold >= 0 && nodeCount > 2 && isNumericArrayVariable()) {
+                    agreedSize = exceptions.isEmpty() ? valueSize : -1;
+                    sizeStepCount = 32 - Integer.numberOfLeadingZeros(nodeCount - 1);
+                    messages.add(createSizeMessage(group, 0));
+                    sizesStarted = true;
+                    processPendingSizes(group, messages);
+                } else {
+                    startBlocks(group, false, messages);
+                }
+            }
+            sendMessages(messages);
+        }
+
+        /*
+         * variable class is the same on all nodes, unlike sizes of values
+         */
+        private boolean isNumericArrayVariable() {
+            if (variableClass == null || !variableClass.isArray()) {
+                return false;
+            }
+            Class<?> elementClass = variableClass.getComponentType();
+            while (elementClass.isArray()) {
+                elementClass = elementClass.getComponentType();
+            }
+            return elementClass.isPrimitive() && elementClass != boolean.class;
+        }
+
+        void sizeReceived(InternalCommonGroup group, int step, long size) {
+            List<Outgoing> messages = new ArrayList<>();
+            synchronized (this) {
+                pendingSizes.put(step, size);
+                if (sizesStarted) {
+                    processPendingSizes(group, messages);
+                }
+            }
+            sendMessages(messages);
+        }
+
+        /*
+         * In step k the node sends the smallest size known to it to the node
+         * 2^k positions before it, so after ceil(log P) steps every node knows
+         * the smallest size in the group (-1 when any size is unknown).
+         */
+        private void processPendingSizes(InternalCommonGroup group, List<Outgoing> messages) {
+            Long size;
+            while ((size = pendingSizes.remove(nextSizeStep)) != null) {
+                int step = nextSizeStep++;
+                agreedSize = agreedSize < 0 || size < 0 ? -1 : Math.min(agreedSize, size);
+
+                if (step + 1 < sizeStepCount) {
+                    messages.add(createSizeMessage(group, step + 1));
+                } else {
+                    int threshold = InternalPCJ.getConfiguration().ALLGATHER_RING_THRESHOLD;
+                    startBlocks(group, agreedSize >= 0 && agreedSize * group.threadCount() >= threshold, messages);
+                }
+            }
+        }
+
+        private Outgoing createSizeMessage(InternalCommonGroup group, int step) {
+            int physicalId = nodes.get(Math.floorMod(nodeIndex - (1 << step), nodes.size()));
+            return new Outgoing(physicalId, new AllGatherSizeMessage(group.getGroupId(), round, step, agreedSize));
+        }
+
+        private void startBlocks(InternalCommonGroup group, boolean ring, List<Outgoing> messages) {
+            int nodeCount = nodes.size();
+            this.ring = ring;
+            if (ring) {
+                stepCount = nodeCount - 1;
+            } else {
+                stepCount = 32 - Integer.numberOfLeadingZeros(nodeCount - 1);
+            }
+
+            if (stepCount == 0) {
+                finish(group);
+            } else {
+                messages.add(createMessage(group, 0));
+            }
+            started = true;
+            processPendingSteps(group, messages);
+        }
+
+        /*
+         * threadNodeIndices - position of node of the thread in order of nodes,
+         * threadPositions - position of value of the thread in the node block
+         */
+        private void computePositions(InternalCommonGroup group) {
+            NodeData nodeData = InternalPCJ.getNodeData();
+            Map<Integer, Integer> nodeIndices = new HashMap<>();
+            for (int i = 0; i < nodes.size(); ++i) {
+                nodeIndices.put(nodes.get(i), i);
+            }
+            int threadCount = group.threadCount();
+            int[] blockLengths = new int[nodes.size()];
+            threadNodeIndices = new int[threadCount];
+            threadPositions = new int[threadCount];
+            for (int threadId = 0; threadId < threadCount; ++threadId) {
+                int physicalId = nodeData.getPhysicalId(group.getGlobalThreadId(threadId));
+                int index = nodeIndices.get(physicalId);
+                threadNodeIndices[threadId] = index;
+                threadPositions[threadId] = blockLengths[index]++;
+            }
+        }
+
+        private Object packLocalValues() {
+            if (!exceptions.isEmpty()) {
+                return null;
+            }
+            Object block = Array.newInstance(valueClass, localValues.size());
+            int position = 0;
+            for (Object value : localValues.values()) {
+                Array.set(block, position++, value);
+            }
+            return block;
+        }
+
+        /*
+         * size in bytes of the smallest value, or -1 when size of any value is unknown
+         */
+        private long estimateSize(Collection<Object> values) {
+            long size = Long.MAX_VALUE;
+            for (Object value : values) {
+                if (!PrimitiveTypes.isNumericArray(value)) {
+                    return -1;
+                }
+                byte typeCode = PrimitiveTypes.getArrayTypeCode(value);
+                size = Math.min(size, (long) Array.getLength(value) * PrimitiveTypes.getArrayElementSize(typeCode));
+            }
+            return size;
+        }
+
+        void blocksReceived(InternalCommonGroup group, int step, Object[] blocks, Queue<Exception> messageExceptions) {
+            List<Outgoing> messages = new ArrayList<>();
+            synchronized (this) {
+                if ((messageExceptions != null) && (!messageExceptions.isEmpty())) {
+                    exceptions.addAll(messageExceptions);
+                    pendingSteps.put(step, new Object[0]);
+                } else {
+                    pendingSteps.put(step, blocks);
+                }
+                if (started) {
+                    processPendingSteps(group, messages);
+                }
+            }
+            sendMessages(messages);
+        }
+
+        /*
+         * Blocks received in the step are blocks of nodes placed directly after
+         * blocks sent in the step, so they are needed in the next step.
+         */
+        private void processPendingSteps(InternalCommonGroup group, List<Outgoing> messages) {
+            Object[] blocks;
+            while ((blocks = pendingSteps.remove(nextStep)) != null) {
+                int step = nextStep++;
+                int first = firstSentBlock(step) + (ring ? 1 : 1 << step);
+                for (int i = 0; i < blocks.length; ++i) {
+                    nodeBlocks[(nodeIndex + first + i) % nodes.size()] = blocks[i];
+                }
+
+                if (step + 1 < stepCount) {
+                    messages.add(createMessage(group, step + 1));
+                } else {
+                    finish(group);
+                }
+            }
+        }
+
+        /*
+         * blocks are numbered relatively to the current node
+         */
+        private int firstSentBlock(int step) {
+            return ring ? step : 0;
+        }
+
+        private int sentBlockCount(int step) {
+            return ring ? 1 : Math.min(1 << step, nodes.size() - (1 << step));
+        }
+
+        private Outgoing createMessage(InternalCommonGroup group, int step) {
+            int nodeCount = nodes.size();
+            int physicalId = nodes.get(Math.floorMod(nodeIndex - (ring ? 1 : 1 << step), nodeCount));
+
+            AllGatherBlocksMessage message;
+            if (exceptions.isEmpty()) {
+                int first = firstSentBlock(step);
+                Object[] blocks = new Object[sentBlockCount(step)];
+                for (int i = 0; i < blocks.length; ++i) {
+                    blocks[i] = nodeBlocks[(nodeIndex + first + i) % nodeCount];
+                }
+                message = new AllGatherBlocksMessage(group.getGroupId(), round, step, blocks, null);
+            } else {
+                // finish() can take exceptions from the queue before the message is sent
+                message = new AllGatherBlocksMessage(group.getGroupId(), round, step, null, new ConcurrentLinkedQueue<>(exceptions));
+            }
+            return new Outgoing(physicalId, message);
+        }
+
+        private void sendMessages(List<Outgoing> messages) {
+            NodeData nodeData = InternalPCJ.getNodeData();
+            for (Outgoing outgoing : messages) {
+                InternalPCJ.getNetworker().send(nodeData.getSocketChannelByPhysicalId(outgoing.physicalId), outgoing.message);
+            }
+        }
+
+        private void finish(InternalCommonGroup group) {
+            AllGatherStates.this.remove(round);
+
+            if (!exceptions.isEmpty()) {
+                PcjRuntimeException ex = new PcjRuntimeException("Allgather failed", exceptions.poll());
+                exceptions.forEach(ex::addSuppressed);
+                futures.values().forEach(future -> future.signalException(ex));
+                return;
+            }
+
+            int threadCount = group.threadCount();
+            Object array = Array.newInstance(valueClass, threadCount);
+            for (int threadId = 0; threadId < threadCount; ++threadId) {
+                System.arraycopy(nodeBlocks[threadNodeIndices[threadId]], threadPositions[threadId], array, threadId, 1);
+            }
+
+            boolean arrayUsed = false;
+            for (Map.Entry<Integer, AllGatherFuture<Object>> entry : futures.entrySet()) {
+                AllGatherFuture<Object> future = entry.getValue();
+                Object output = outputs.get(entry.getKey());
+                try {
+                    if (output != null) {
+                        if (!output.getClass().isArray() || Array.getLength(output) != threadCount) {
+                            throw new IllegalArgumentException("Output is not an array of length equal to number of threads ("
+                                                                       + threadCount + "): " + output);
+                        }
+                        System.arraycopy(array, 0, output, 0, threadCount);
+                        future.signalDone(output);
+                    } else if (!arrayUsed) {
+                        arrayUsed = true;
+                        future.signalDone(array);
+                    } else {
+                        Object copy = Array.newInstance(valueClass, threadCount);
+                        System.arraycopy(array, 0, copy, 0, threadCount);
+                        future.signalDone(copy);
+                    }
+                } catch (Exception ex) {
+                    future.signalException(new PcjRuntimeException("Allgather failed", ex));
+                }
+            }
+        }
+    }
+
+    private static final class Outgoing {
+
+        private final int physicalId;
+        private final Message message;
+
+        private Outgoing(int physicalId, Message message) {
+            this.physicalId = physicalId;
+            this.message = message;
+        }
+    }
+}
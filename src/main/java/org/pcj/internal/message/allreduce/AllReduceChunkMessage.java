@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2011-2019, PCJ Library, Marek Nowicki
+ * All rights reserved.
+ *
+ * Licensed under New BSD License (3-clause license).
+ *
+ * See the file "LICENSE" for the full license governing this code.
+ */
+package org.pcj.internal.message.allreduce;
+
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.nio.channels.SocketChannel;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import org.pcj.internal.InternalCommonGroup;
+import org.pcj.internal.InternalPCJ;
+import org.pcj.internal.NodeData;
+import org.pcj.internal.message.Message;
+import org.pcj.internal.message.MessageType;
+import org.pcj.internal.network.MessageDataInputStream;
+import org.pcj.internal.network.MessageDataOutputStream;
+
+/**
+ * Message with chunk of array sent to the next node in the ring
+ * in ring allreduce. The chunk is written without Java serialization.
+ * Exceptions that occurred on nodes of the ring, keyed by the physical id
+ * of the node, are passed along with chunks, so every node can abort.
+ *
+ * @author Marek Nowicki (faramir@mat.umk.pl)
+ */
+public final class AllReduceChunkMessage extends Message {
+
+    private int groupId;
+    private int round;
+    private int step;
+    private Object chunk;
+    private Map<Integer, Queue<Exception>> exceptions;
+
+    public AllReduceChunkMessage() {
+        super(MessageType.ALLREDUCE_CHUNK);
+    }
+
+    AllReduceChunkMessage(int groupId, int round, int step, Object chunk, Map<Integer, Queue<Exception>> exceptions) {
+        this();
+
+        this.groupId = groupId;
+        this.round = round;
+        this.step = step;
+        this.chunk = chunk;
+        this.exceptions = exceptions;
+    }
+
+    @Override
+    public void write(MessageDataOutputStream out) throws IOException {
+        out.writeInt(groupId);
+        out.writeInt(round);
+        out.writeInt(step);
+        out.writePrimitiveArray(chunk, 0, Array.getLength(chunk));
+        boolean exception = ((exceptions != null) && (!exceptions.isEmpty()));
+        out.writeBoolean(exception);
+        if (exception) {
+            out.writeObject(exceptions);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void onReceive(SocketChannel sender, MessageDataInputStream in) throws IOException {
+        groupId = in.readInt();
+        round = in.readInt();
+        step = in.readInt();
+        chunk = in.readPrimitiveArray();
+        boolean exceptionOccurred = in.readBoolean();
+        if (exceptionOccurred) {
+            try {
+                exceptions = (Map<Integer, Queue<Exception>>) in.readObject();
+            } catch (Exception ex) {
+                Queue<Exception> queue = new ConcurrentLinkedQueue<>();
+                queue.add(ex);
+                exceptions = new HashMap<>();
+                exceptions.put(-1, queue);
+            }
+        }
+
+        NodeData nodeData = InternalPCJ.getNodeData();
+        InternalCommonGroup commonGroup = nodeData.getCommonGroupById(groupId);
+
+        AllReduceStates states = commonGroup.getAllReduceStates();
+        AllReduceStates.State<?> state = states.getOrCreate(round, commonGroup);
+
+        state.chunkReceived(commonGroup, step, chunk, exceptions);
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2011-2019, PCJ Library, Marek Nowicki
+ * All rights reserved.
+ *
+ * Licensed under New BSD License (3-clause license).
+ *
+ * See the file "LICENSE" for the full license governing this code.
+ */
+package org.pcj.internal.message.allreduce;
+
+import java.io.IOException;
+import java.nio.channels.SocketChannel;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import org.pcj.internal.CollectiveOperation;
+import org.pcj.internal.InternalCommonGroup;
+import org.pcj.internal.InternalPCJ;
+import org.pcj.internal.Networker;
+import org.pcj.internal.NodeData;
+import org.pcj.internal.message.Message;
+import org.pcj.internal.message.MessageType;
+import org.pcj.internal.network.InputStreamCloner;
+import org.pcj.internal.network.MessageDataInputStream;
+import org.pcj.internal.network.MessageDataOutputStream;
+
+/**
+ * Message with reduced value sent down the tree. The serialized value
+ * is forwarded to children nodes as is, without deserializing it.
+ *
+ * @author Marek Nowicki (faramir@mat.umk.pl)
+ */
+public final class AllReduceResultMessage extends Message {
+
+    private int groupId;
+    private int round;
+    private InputStreamCloner valueBytes;
+    private Queue<Exception> exceptions;
+
+    public AllReduceResultMessage() {
+        super(MessageType.ALLREDUCE_RESULT);
+    }
+
+    AllReduceResultMessage(int groupId, int round, InputStreamCloner valueBytes, Queue<Exception> exceptions) {
+        this();
+
+        this.groupId = groupId;
+        this.round = round;
+        this.valueBytes = valueBytes;
+        this.exceptions = exceptions;
+    }
+
+    @Override
+    public void write(MessageDataOutputStream out) throws IOException {
+        out.writeInt(groupId);
+        out.writeInt(round);
+        boolean exception = ((exceptions != null) && (!exceptions.isEmpty()));
+        out.writeBoolean(exception);
+        if (exception) {
+            out.writeObject(exceptions);
+        } else {
+            valueBytes.writeInto(out);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void onReceive(SocketChannel sender, MessageDataInputStream in) throws IOException {
+        groupId = in.readInt();
+        round = in.readInt();
+
+        boolean exceptionOccurred = in.readBoolean();
+        try {
+            if (!exceptionOccurred) {
+                valueBytes = InputStreamCloner.readFrom(in);
+            } else {
+                exceptions = (Queue<Exception>) in.readObject();
+            }
+        } catch (Exception ex) {
+            exceptions = new ConcurrentLinkedQueue<>();
+            exceptions.add(ex);
+        }
+
+        NodeData nodeData = InternalPCJ.getNodeData();
+        Networker networker = InternalPCJ.getNetworker();
+        InternalCommonGroup commonGroup = nodeData.getCommonGroupById(groupId);
+
+        commonGroup.getCommunicationTree(CollectiveOperation.ALLREDUCE).getChildrenNodes()
+                .stream()
+                .map(nodeData::getSocketChannelByPhysicalId)
+                .forEach(socket -> networker.send(socket, this));
+
+        AllReduceStates states = commonGroup.getAllReduceStates();
+        AllReduceStates.State<?> state = states.remove(round);
+        state.signal(valueBytes, exceptions);
+    }
+}
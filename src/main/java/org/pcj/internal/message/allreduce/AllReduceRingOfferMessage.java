@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2011-2019, PCJ Library, Marek Nowicki
+ * All rights reserved.
+ *
+ * Licensed under New BSD License (3-clause license).
+ *
+ * See the file "LICENSE" for the full license governing this code.
+ */
+package org.pcj.internal.message.allreduce;
+
+import java.io.IOException;
+import java.nio.channels.SocketChannel;
+import org.pcj.internal.InternalCommonGroup;
+import org.pcj.internal.InternalPCJ;
+import org.pcj.internal.NodeData;
+import org.pcj.internal.message.Message;
+import org.pcj.internal.message.MessageType;
+import org.pcj.internal.network.MessageDataInputStream;
+import org.pcj.internal.network.MessageDataOutputStream;
+
+/**
+ * Message sent up the tree instead of the value, when all values in the
+ * subtree of the node are arrays of the same type and length that can be
+ * reduced using ring algorithm.
+ *
+ * @author Marek Nowicki (faramir@mat.umk.pl)
+ */
+public final class AllReduceRingOfferMessage extends Message {
+
+    private int groupId;
+    private int round;
+    private int physicalId;
+    private long offer;
+
+    public AllReduceRingOfferMessage() {
+        super(MessageType.ALLREDUCE_RING_OFFER);
+    }
+
+    AllReduceRingOfferMessage(int groupId, int round, int physicalId, long offer) {
+        this();
+
+        this.groupId = groupId;
+        this.round = round;
+        this.physicalId = physicalId;
+        this.offer = offer;
+    }
+
+    @Override
+    public void write(MessageDataOutputStream out) throws IOException {
+        out.writeInt(groupId);
+        out.writeInt(round);
+        out.writeInt(physicalId);
+        out.writeLong(offer);
+    }
+
+    @Override
+    public void onReceive(SocketChannel sender, MessageDataInputStream in) throws IOException {
+        groupId = in.readInt();
+        round = in.readInt();
+        physicalId = in.readInt();
+        offer = in.readLong();
+
+        NodeData nodeData = InternalPCJ.getNodeData();
+        InternalCommonGroup commonGroup = nodeData.getCommonGroupById(groupId);
+
+        AllReduceStates states = commonGroup.getAllReduceStates();
+        AllReduceStates.State<?> state = states.getOrCreate(round, commonGroup);
+
+        state.upProcessOffer(commonGroup, physicalId, offer);
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2011-2019, PCJ Library, Marek Nowicki
+ * All rights reserved.
+ *
+ * Licensed under New BSD License (3-clause license).
+ *
+ * See the file "LICENSE" for the full license governing this code.
+ */
+package org.pcj.internal.message.allreduce;
+
+import java.io.IOException;
+import java.nio.channels.SocketChannel;
+import org.pcj.internal.CollectiveOperation;
+import org.pcj.internal.InternalCommonGroup;
+import org.pcj.internal.InternalPCJ;
+import org.pcj.internal.Networker;
+import org.pcj.internal.NodeData;
+import org.pcj.internal.message.Message;
+import org.pcj.internal.message.MessageType;
+import org.pcj.internal.network.MessageDataInputStream;
+import org.pcj.internal.network.MessageDataOutputStream;
+
+/**
+ * Message sent down the tree by the group master node, when every node
+ * offered its values for ring algorithm. Every node starts the ring.
+ *
+ * @author Marek Nowicki (faramir@mat.umk.pl)
+ */
+public final class AllReduceRingStartMessage extends Message {
+
+    private int groupId;
+    private int round;
+
+    public AllReduceRingStartMessage() {
+        super(MessageType.ALLREDUCE_RING_START);
+    }
+
+    AllReduceRingStartMessage(int groupId, int round) {
+        this();
+
+        this.groupId = groupId;
+        this.round = round;
+    }
+
+    @Override
+    public void write(MessageDataOutputStream out) throws IOException {
+        out.writeInt(groupId);
+        out.writeInt(round);
+    }
+
+    @Override
+    public void onReceive(SocketChannel sender, MessageDataInputStream in) throws IOException {
+        groupId = in.readInt();
+        round = in.readInt();
+
+        NodeData nodeData = InternalPCJ.getNodeData();
+        Networker networker = InternalPCJ.getNetworker();
+        InternalCommonGroup commonGroup = nodeData.getCommonGroupById(groupId);
+
+        commonGroup.getCommunicationTree(CollectiveOperation.ALLREDUCE).getChildrenNodes()
+                .stream()
+                .map(nodeData::getSocketChannelByPhysicalId)
+                .forEach(socket -> networker.send(socket, this));
+
+        AllReduceStates states = commonGroup.getAllReduceStates();
+        AllReduceStates.State<?> state = states.getOrCreate(round, commonGroup);
+        state.startRing(commonGroup);
+    }
+}
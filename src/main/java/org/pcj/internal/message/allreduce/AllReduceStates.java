@@ -0,0 +1,494 @@
+/*
+ * Copyright (c) 2011-2019, PCJ Library, Marek Nowicki
+ * All rights reserved.
+ *
+ * Licensed under New BSD License (3-clause license).
+ *
+ * See the file "LICENSE" for the full license governing this code.
+ */
+package org.pcj.internal.message.allreduce;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.lang.reflect.Array;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.pcj.PcjFuture;
+import org.pcj.PcjRuntimeException;
+import org.pcj.ReduceOperation;
+import org.pcj.internal.BuiltinReduceOperation;
+import org.pcj.internal.CollectiveOperation;
+import org.pcj.internal.InternalCommonGroup;
+import org.pcj.internal.InternalPCJ;
+import org.pcj.internal.InternalStorages;
+import org.pcj.internal.NodeData;
+import org.pcj.internal.PrimitiveTypes;
+import org.pcj.internal.message.Message;
+import org.pcj.internal.network.InputStreamCloner;
+
+/**
+ * States of allreduce operations.
+ * <p>
+ * All PCJ Threads of the group take part in the operation. Values of local
+ * PCJ Threads are reduced in order of thread ids, then values received from
+ * children nodes are reduced in order of the tree, and the result is sent up
+ * the tree. The group master node sends the reduced value down the same tree,
+ * and each PCJ Thread gets its own copy of the value.
+ * <p>
+ * Large arrays of primitive numeric elements are reduced using ring algorithm
+ * (see {@code pcj.allreduce.ring.threshold}): each of P nodes splits locally
+ * reduced array into P chunks, then reduce-scatter and allgather phases pass
+ * the chunks around the ring of the group nodes. Each chunk is combined as soon
+ * as it is received, so all nodes compute and all links carry 2(P-1)/P of the
+ * array. The reduce function is applied on chunks, so it has to be element-wise.
+ * <p>
+ * The ring is used only when all nodes agree: node with such arrays sends
+ * up the tree the offer (type and length of arrays) instead of the value.
+ * When the group master node gets the same offer from all children, it starts
+ * the ring down the tree. Otherwise nodes that offered are asked for their
+ * values, and the values are reduced in the tree. Exceptions that occurred
+ * in the ring are passed along with chunks, so all nodes finish the ring
+ * and report them.
+ *
+ * @author Marek Nowicki (faramir@mat.umk.pl)
+ */
+public class AllReduceStates {
+
+    private final ConcurrentMap<Integer, AtomicInteger> counterMap;
+    private final ConcurrentMap<Integer, State<?>> stateMap;
+
+    public AllReduceStates() {
+        counterMap = new ConcurrentHashMap<>();
+        stateMap = new ConcurrentHashMap<>();
+    }
+
+    public int getNextRound(int threadId) {
+        AtomicInteger roundCounter = counterMap.computeIfAbsent(threadId, key -> new AtomicInteger(0));
+        return roundCounter.incrementAndGet();
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> State<T> getOrCreate(int round, InternalCommonGroup commonGroup) {
+        return (State<T>) stateMap.computeIfAbsent(round,
+                key -> new State<>(round, commonGroup.getLocalThreadsId().size(),
+                        commonGroup.getCommunicationTree(CollectiveOperation.ALLREDUCE).getChildrenNodes().size()));
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> State<T> remove(int round) {
+        return (State<T>) stateMap.remove(round);
+    }
+
+    public class State<T> {
+
+        private final int round;
+        private final AtomicInteger localCount;
+        private final AtomicInteger notificationCount;
+        private final Map<Integer, T> localValues;
+        private final ConcurrentMap<Integer, T> receivedValues;
+        private final Queue<AllReduceFuture<T>> futures;
+        private final Queue<Exception> exceptions;
+        private volatile ReduceOperation<T> function;
+        private final ConcurrentMap<Integer, Long> childrenOffers;
+        private volatile long localOffer;
+        private volatile boolean ringDeclined;
+        private final Map<Integer, Object> pendingChunks;
+        private final Map<Integer, Queue<Exception>> ringExceptions;
+        private Object ringArray;
+        private List<Integer> ringNodes;
+        private int ringIndex;
+        private int nextStep;
+
+        private State(int round, int localCount, int childrenCount) {
+            this.round = round;
+
+            this.localCount = new AtomicInteger(localCount);
+            // notification from children and from itself
+            notificationCount = new AtomicInteger(childrenCount + 1);
+            childrenOffers = new ConcurrentHashMap<>();
+            localOffer = -1;
+            pendingChunks = new HashMap<>();
+            ringExceptions = new TreeMap<>();
+            localValues = new TreeMap<>();
+            receivedValues = new ConcurrentHashMap<>();
+            futures = new ConcurrentLinkedQueue<>();
+            exceptions = new ConcurrentLinkedQueue<>();
+        }
+
+        public PcjFuture<T> processLocal(InternalCommonGroup group, int threadId, ReduceOperation<T> function,
+                                         String sharedEnumClassName, String variableName, int[] indices) {
+            AllReduceFuture<T> future = new AllReduceFuture<>();
+            futures.add(future);
+            this.function = function;
+
+            try {
+                int globalThreadId = group.getGlobalThreadId(threadId);
+                InternalStorages storage = InternalPCJ.getNodeData().getPcjThread(globalThreadId).getThreadData().getStorages();
+                T value = storage.get(sharedEnumClassName, variableName, indices);
+                synchronized (localValues) {
+                    localValues.put(threadId, value);
+                }
+            } catch (Exception ex) {
+                exceptions.add(ex);
+            }
+
+            if (localCount.decrementAndGet() == 0) {
+                if (exceptions.isEmpty()) {
+                    localOffer = ringOffer(group.getCommunicationTree(CollectiveOperation.ALLREDUCE).getNodes().size());
+                }
+                nodeProcessed(group);
+            }
+
+            return future;
+        }
+
+        /*
+         * returns type code and length of local arrays, when they can be reduced
+         * using ring algorithm, or -1 otherwise
+         */
+        private long ringOffer(int nodeCount) {
+            int threshold = InternalPCJ.getConfiguration().ALLREDUCE_RING_THRESHOLD;
+            if (threshold < 0 || nodeCount <= 2) {
+                return -1;
+            }
+            Object first = localValues.values().iterator().next();
+            if (!PrimitiveTypes.isNumericArray(first)) {
+                return -1;
+            }
+            int length = Array.getLength(first);
+            if (length < threshold || length < nodeCount) {
+                return -1;
+            }
+            boolean sameArrays = localValues.values().stream()
+                                         .allMatch(value -> value != null && value.getClass() == first.getClass() && Array.getLength(value) == length);
+            if (!sameArrays) {
+                return -1;
+            }
+            return ((PrimitiveTypes.getArrayTypeCode(first) & 0xFFL) << 32) | length;
+        }
+
+        @SuppressWarnings("unchecked")
+        void startRing(InternalCommonGroup group) {
+            List<Integer> nodes = group.getCommunicationTree(CollectiveOperation.ALLREDUCE).getNodes();
+            List<AllReduceChunkMessage> messages = new ArrayList<>();
+            synchronized (this) {
+                ringNodes = nodes;
+                ringIndex = nodes.indexOf(InternalPCJ.getNodeData().getCurrentNodePhysicalId());
+
+                Iterator<T> iterator = localValues.values().iterator();
+                T first = iterator.next();
+                T reducedValue = (T) copyOfRange(first, 0, Array.getLength(first));
+                try {
+                    while (iterator.hasNext()) {
+                        reducedValue = function.apply(reducedValue, iterator.next());
+                    }
+                } catch (Exception ex) {
+                    ringFailed(ex);
+                }
+                ringArray = reducedValue;
+
+                messages.add(createChunkMessage(group, 0, ringIndex));
+                processPendingChunks(group, messages);
+            }
+            sendChunkMessages(group, messages);
+        }
+
+        private void ringFailed(Exception ex) {
+            ringExceptions.computeIfAbsent(InternalPCJ.getNodeData().getCurrentNodePhysicalId(),
+                    key -> new ConcurrentLinkedQueue<>()).add(ex);
+        }
+
+        void chunkReceived(InternalCommonGroup group, int step, Object chunk, Map<Integer, Queue<Exception>> chunkExceptions) {
+            List<AllReduceChunkMessage> messages = new ArrayList<>();
+            synchronized (this) {
+                if (chunkExceptions != null) {
+                    chunkExceptions.forEach(ringExceptions::putIfAbsent);
+                }
+                pendingChunks.put(step, chunk);
+                if (ringArray != null) {
+                    processPendingChunks(group, messages);
+                }
+            }
+            sendChunkMessages(group, messages);
+        }
+
+        /*
+         * In step s the node at position k of the ring sends chunk (k-s) mod P
+         * and receives chunk (k-s-1) mod P. In the first P-1 steps (reduce-scatter)
+         * the received chunk is combined with the local one, in the next P-1 steps
+         * (allgather) it is fully reduced and replaces the local one.
+         */
+        @SuppressWarnings("unchecked")
+        private void processPendingChunks(InternalCommonGroup group, List<AllReduceChunkMessage> messages) {
+            int nodeCount = ringNodes.size();
+            Object chunk;
+            while ((chunk = pendingChunks.remove(nextStep)) != null) {
+                int step = nextStep++;
+                int chunkIndex = Math.floorMod(ringIndex - step - 1, nodeCount);
+                int from = chunkFrom(chunkIndex);
+                int length = chunkFrom(chunkIndex + 1) - from;
+
+                if (step < nodeCount - 1) {
+                    try {
+                        if (function instanceof BuiltinReduceOperation) {
+                            ((BuiltinReduceOperation) function).combine(ringArray, from, chunk, 0, length);
+                        } else {
+                            Object combined = function.apply((T) copyOfRange(ringArray, from, length), (T) chunk);
+                            System.arraycopy(combined, 0, ringArray, from, length);
+                        }
+                    } catch (Exception ex) {
+                        ringFailed(ex);
+                    }
+                } else {
+                    System.arraycopy(chunk, 0, ringArray, from, length);
+                }
+
+                if (step + 1 < 2 * (nodeCount - 1)) {
+                    messages.add(createChunkMessage(group, step + 1, chunkIndex));
+                } else {
+                    finishRing();
+                }
+            }
+        }
+
+        private AllReduceChunkMessage createChunkMessage(InternalCommonGroup group, int step, int chunkIndex) {
+            int from = chunkFrom(chunkIndex);
+            int length = chunkFrom(chunkIndex + 1) - from;
+            return new AllReduceChunkMessage(group.getGroupId(), round, step, copyOfRange(ringArray, from, length),
+                    ringExceptions.isEmpty() ? null : new HashMap<>(ringExceptions));
+        }
+
+        private void sendChunkMessages(InternalCommonGroup group, List<AllReduceChunkMessage> messages) {
+            if (messages.isEmpty()) {
+                return;
+            }
+            NodeData nodeData = InternalPCJ.getNodeData();
+            int nextPhysicalId = ringNodes.get((ringIndex + 1) % ringNodes.size());
+            SocketChannel socket = nodeData.getSocketChannelByPhysicalId(nextPhysicalId);
+            messages.forEach(message -> InternalPCJ.getNetworker().send(socket, message));
+        }
+
+        private int chunkFrom(int chunkIndex) {
+            int length = Array.getLength(ringArray);
+            if (chunkIndex == ringNodes.size()) {
+                return length;
+            }
+            // chunks do not split pairs of value and location
+            int groupSize = function instanceof BuiltinReduceOperation ? ((BuiltinReduceOperation) function).getElementGroupSize() : 1;
+            return (int) ((long) chunkIndex * (length / groupSize) / ringNodes.size()) * groupSize;
+        }
+
+        private Object copyOfRange(Object array, int from, int length) {
+            Object copy = Array.newInstance(array.getClass().getComponentType(), length);
+            System.arraycopy(array, from, copy, 0, length);
+            return copy;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void finishRing() {
+            AllReduceStates.this.remove(round);
+
+            if (!ringExceptions.isEmpty()) {
+                Queue<Exception> allExceptions = new ConcurrentLinkedQueue<>();
+                ringExceptions.values().forEach(allExceptions::addAll);
+                PcjRuntimeException ex = new PcjRuntimeException("Reducing values failed", allExceptions.poll());
+                allExceptions.forEach(ex::addSuppressed);
+                futures.forEach(future -> future.signalException(ex));
+                return;
+            }
+
+            boolean first = true;
+            for (AllReduceFuture<T> future : futures) {
+                if (first) {
+                    first = false;
+                    future.signalDone((T) ringArray);
+                } else {
+                    future.signalDone((T) copyOfRange(ringArray, 0, Array.getLength(ringArray)));
+                }
+            }
+        }
+
+        void upProcessNode(InternalCommonGroup group, int childPhysicalId, T receivedValue, Queue<Exception> messageExceptions) {
+            if ((messageExceptions != null) && (!messageExceptions.isEmpty())) {
+                exceptions.addAll(messageExceptions);
+            } else {
+                receivedValues.put(childPhysicalId, receivedValue);
+            }
+
+            nodeProcessed(group);
+        }
+
+        void upProcessOffer(InternalCommonGroup group, int childPhysicalId, long offer) {
+            childrenOffers.put(childPhysicalId, offer);
+
+            nodeProcessed(group);
+        }
+
+        void valueRequested(InternalCommonGroup group) {
+            ringDeclined = true;
+
+            nodeDone(group);
+        }
+
+        private void nodeProcessed(InternalCommonGroup group) {
+            int leftPhysical = notificationCount.decrementAndGet();
+            if (leftPhysical == 0) {
+                nodeDone(group);
+            }
+        }
+
+        /*
+         * local PCJ Threads and all children nodes are processed: the node offers
+         * ring algorithm, asks children nodes that offered it for their values,
+         * or sends the value (or exceptions) up the tree
+         */
+        private void nodeDone(InternalCommonGroup group) {
+            InternalCommonGroup.CommunicationTree tree = group.getCommunicationTree(CollectiveOperation.ALLREDUCE);
+            NodeData nodeData = InternalPCJ.getNodeData();
+            int physicalId = nodeData.getCurrentNodePhysicalId();
+
+            if (exceptions.isEmpty() && !ringDeclined && localOffer >= 0
+                        && childrenOffers.size() == tree.getChildrenNodes().size()
+                        && childrenOffers.values().stream().allMatch(offer -> offer == localOffer)) {
+                if (physicalId == tree.getMasterNode()) {
+                    AllReduceRingStartMessage message = new AllReduceRingStartMessage(group.getGroupId(), round);
+                    tree.getChildrenNodes()
+                            .stream()
+                            .map(nodeData::getSocketChannelByPhysicalId)
+                            .forEach(socket -> InternalPCJ.getNetworker().send(socket, message));
+                    startRing(group);
+                } else {
+                    SocketChannel socket = nodeData.getSocketChannelByPhysicalId(tree.getParentNode());
+                    InternalPCJ.getNetworker().send(socket,
+                            new AllReduceRingOfferMessage(group.getGroupId(), round, physicalId, localOffer));
+                }
+                return;
+            }
+
+            if (exceptions.isEmpty() && !childrenOffers.isEmpty()) {
+                ringDeclined = true;
+                List<Integer> offeringChildren = new ArrayList<>(childrenOffers.keySet());
+                childrenOffers.clear();
+                notificationCount.set(offeringChildren.size());
+
+                AllReduceValueRequestMessage message = new AllReduceValueRequestMessage(group.getGroupId(), round);
+                offeringChildren.stream()
+                        .map(nodeData::getSocketChannelByPhysicalId)
+                        .forEach(socket -> InternalPCJ.getNetworker().send(socket, message));
+                return;
+            }
+
+            sendValue(group);
+        }
+
+        private void sendValue(InternalCommonGroup group) {
+            NodeData nodeData = InternalPCJ.getNodeData();
+
+            T reducedValue = null;
+            if (exceptions.isEmpty()) {
+                try {
+                    reducedValue = reduceValues(group);
+                } catch (Exception ex) {
+                    exceptions.add(ex);
+                }
+            }
+
+            Message message;
+            SocketChannel socket;
+
+            int physicalId = nodeData.getCurrentNodePhysicalId();
+            if (physicalId != group.getCommunicationTree(CollectiveOperation.ALLREDUCE).getMasterNode()) {
+                int parentId = group.getCommunicationTree(CollectiveOperation.ALLREDUCE).getParentNode();
+                socket = nodeData.getSocketChannelByPhysicalId(parentId);
+
+                message = new AllReduceValueMessage<>(group.getGroupId(), round, physicalId, reducedValue, exceptions);
+            } else {
+                socket = nodeData.getSocketChannelByPhysicalId(physicalId);
+
+                InputStreamCloner valueBytes = null;
+                if (exceptions.isEmpty()) {
+                    try {
+                        valueBytes = serialize(reducedValue);
+                    } catch (IOException ex) {
+                        exceptions.add(ex);
+                    }
+                }
+                message = new AllReduceResultMessage(group.getGroupId(), round, valueBytes, exceptions);
+            }
+
+            InternalPCJ.getNetworker().send(socket, message);
+        }
+
+        private T reduceValues(InternalCommonGroup group) {
+            boolean foundAny = false;
+            T reducedValue = null;
+            for (T value : localValues.values()) {
+                if (!foundAny) {
+                    foundAny = true;
+                    reducedValue = accumulatorOf(value);
+                } else {
+                    reducedValue = function.apply(reducedValue, value);
+                }
+            }
+            // values of children are combined in order of the tree, not in order of arrival
+            for (int childPhysicalId : group.getCommunicationTree(CollectiveOperation.ALLREDUCE).getChildrenNodes()) {
+                T value = receivedValues.get(childPhysicalId);
+                reducedValue = foundAny ? function.apply(reducedValue, value) : value;
+                foundAny = true;
+            }
+            return reducedValue;
+        }
+
+        /*
+         * built-in operations combine arrays in place of the first argument,
+         * so they get a copy instead of the value of shareable variable
+         */
+        @SuppressWarnings("unchecked")
+        private T accumulatorOf(T value) {
+            if (function instanceof BuiltinReduceOperation) {
+                return (T) BuiltinReduceOperation.accumulatorOf(value);
+            }
+            return value;
+        }
+
+        private InputStreamCloner serialize(T value) throws IOException {
+            ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+            try (ObjectOutputStream objectOutputStream = new ObjectOutputStream(byteArrayOutputStream)) {
+                objectOutputStream.writeUnshared(value);
+            }
+            return InputStreamCloner.clone(new ByteArrayInputStream(byteArrayOutputStream.toByteArray()));
+        }
+
+        @SuppressWarnings("unchecked")
+        void signal(InputStreamCloner valueBytes, Queue<Exception> messageExceptions) {
+            if ((messageExceptions != null) && (!messageExceptions.isEmpty())) {
+                PcjRuntimeException ex = new PcjRuntimeException("Reducing values failed", messageExceptions.poll());
+                messageExceptions.forEach(ex::addSuppressed);
+                futures.forEach(future -> future.signalException(ex));
+                return;
+            }
+
+            for (AllReduceFuture<T> future : futures) {
+                try {
+                    T value = (T) new ObjectInputStream(valueBytes.newInputStream()).readObject();
+                    future.signalDone(value);
+                } catch (IOException | ClassNotFoundException ex) {
+                    future.signalException(new PcjRuntimeException("Reducing values failed", ex));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2011-2019, PCJ Library, Marek Nowicki
+ * All rights reserved.
+ *
+ * Licensed under New BSD License (3-clause license).
+ *
+ * See the file "LICENSE" for the full license governing this code.
+ */
+package org.pcj.internal.message.alltoall;
+
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import org.pcj.internal.InternalCommonGroup;
+import org.pcj.internal.InternalPCJ;
+import org.pcj.internal.NodeData;
+import org.pcj.internal.PrimitiveTypes;
+import org.pcj.internal.message.Message;
+import org.pcj.internal.message.MessageType;
+import org.pcj.internal.network.MessageDataInputStream;
+import org.pcj.internal.network.MessageDataOutputStream;
+
+/**
+ * Message with blocks sent by PCJ Threads of one node to PCJ Threads of another
+ * node in all-to-all.
+ * <p>
+ * Blocks of primitive numeric elements are written without Java serialization,
+ * directly from the range of the source array.
+ *
+ * @author Marek Nowicki (faramir@mat.umk.pl)
+ */
+public final class AllToAllBlocksMessage extends Message {
+
+    private int groupId;
+    private int round;
+    private List<AllToAllStates.Block> blocks;
+    private Queue<Exception> exceptions;
+
+    public AllToAllBlocksMessage() {
+        super(MessageType.ALLTOALL_BLOCKS);
+    }
+
+    AllToAllBlocksMessage(int groupId, int round, List<AllToAllStates.Block> blocks, Queue<Exception> exceptions) {
+        this();
+
+        this.groupId = groupId;
+        this.round = round;
+        this.blocks = blocks;
+        this.exceptions = exceptions;
+    }
+
+    @Override
+    public void write(MessageDataOutputStream out) throws IOException {
+        out.writeInt(groupId);
+        out.writeInt(round);
+
+        boolean exception = ((exceptions != null) && (!exceptions.isEmpty()));
+        out.writeBoolean(exception);
+        if (exception) {
+            out.writeObject(exceptions);
+            return;
+        }
+
+        out.writeInt(blocks.size());
+        boolean numeric = !blocks.isEmpty() && PrimitiveTypes.isNumericArray(blocks.get(0).array);
+        out.writeBoolean(numeric);
+        for (AllToAllStates.Block block : blocks) {
+            out.writeInt(block.sourceThreadId);
+            out.writeInt(block.targetThreadId);
+            if (numeric) {
+                out.writePrimitiveArray(block.array, block.offset, block.length);
+            } else {
+                Object array = Array.newInstance(block.array.getClass().getComponentType(), block.length);
+                System.arraycopy(block.array, block.offset, array, 0, block.length);
+                out.writeObject(array);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void onReceive(SocketChannel sender, MessageDataInputStream in) throws IOException {
+        groupId = in.readInt();
+        round = in.readInt();
+
+        boolean exceptionOccurred = in.readBoolean();
+        try {
+            if (exceptionOccurred) {
+                exceptions = (Queue<Exception>) in.readObject();
+            } else {
+                int count = in.readInt();
+                boolean numeric = in.readBoolean();
+                blocks = new ArrayList<>(count);
+                for (int i = 0; i < count; ++i) {
+                    int sourceThreadId = in.readInt();
+                    int targetThreadId = in.readInt();
+                    Object array = numeric ? in.readPrimitiveArray() : in.readObject();
+                    blocks.add(new AllToAllStates.Block(sourceThreadId, targetThreadId, array, 0, Array.getLength(array)));
+                }
+            }
+        } catch (Exception ex) {
+            exceptions = new ConcurrentLinkedQueue<>();
+            exceptions.add(ex);
+        }
+
+        NodeData nodeData = InternalPCJ.getNodeData();
+        InternalCommonGroup commonGroup = nodeData.getCommonGroupById(groupId);
+
+        AllToAllStates states = commonGroup.getAllToAllStates();
+        AllToAllStates.State state = states.getOrCreate(round, commonGroup);
+
+        state.blocksReceived(commonGroup, blocks, exceptions);
+    }
+}
@@ -0,0 +1,320 @@
+/*
+ * Copyright (c) 2011-2019, PCJ Library, Marek Nowicki
+ * All rights reserved.
+ *
+ * Licensed under New BSD License (3-clause license).
+ *
+ * See the file "LICENSE" for the full license governing this code.
+ */
+package org.pcj.internal.message.alltoall;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.pcj.PcjFuture;
+import org.pcj.PcjRuntimeException;
+import org.pcj.internal.CollectiveOperation;
+import org.pcj.internal.InternalCommonGroup;
+import org.pcj.internal.InternalPCJ;
+import org.pcj.internal.InternalStorages;
+import org.pcj.internal.NodeData;
+
+/**
+ * States of all-to-all operations.
+ * <p>
+ * All PCJ Threads of the group take part in the operation. Each PCJ Thread
+ * sends distinct block of its array to every PCJ Thread. Blocks of all local
+ * PCJ Threads addressed to PCJ Threads placed on the same node are sent in one
+ * message, and blocks for local PCJ Threads are copied without messages.
+ * <p>
+ * Messages are sent in pairwise exchange order: node at position {@code i}
+ * sends to nodes {@code i+1, i+2, ..., i+P-1} (mod P), so in every moment
+ * each node is a target of messages from different node.
+ *
+ * @author Marek Nowicki (faramir@mat.umk.pl)
+ */
+public class AllToAllStates {
+
+    private final ConcurrentMap<Integer, AtomicInteger> counterMap;
+    private final ConcurrentMap<Integer, State> stateMap;
+
+    public AllToAllStates() {
+        counterMap = new ConcurrentHashMap<>();
+        stateMap = new ConcurrentHashMap<>();
+    }
+
+    public int getNextRound(int threadId) {
+        AtomicInteger roundCounter = counterMap.computeIfAbsent(threadId, key -> new AtomicInteger(0));
+        return roundCounter.incrementAndGet();
+    }
+
+    public State getOrCreate(int round, InternalCommonGroup commonGroup) {
+        return stateMap.computeIfAbsent(round,
+                key -> new State(round, commonGroup.getLocalThreadsId().size(), commonGroup.threadCount()));
+    }
+
+    public State remove(int round) {
+        return stateMap.remove(round);
+    }
+
+    public class State {
+
+        private final int round;
+        private final int threadCount;
+        private final AtomicInteger localCount;
+        private final Map<Integer, Object> sendValues;
+        private final Map<Integer, int[]> sendCounts;
+        private final Map<Integer, int[]> recvCounts;
+        private final Map<Integer, AllToAllFuture> futures;
+        private final Map<Integer, Block[]> receivedBlocks;
+        private final Queue<Exception> exceptions;
+        private String recvEnumClassName;
+        private String recvVariableName;
+        private int nodeCount;
+        private int receivedMessages;
+        private boolean started;
+
+        private State(int round, int localCount, int threadCount) {
+            this.round = round;
+            this.threadCount = threadCount;
+
+            this.localCount = new AtomicInteger(localCount);
+            sendValues = new TreeMap<>();
+            sendCounts = new HashMap<>();
+            recvCounts = new HashMap<>();
+            futures = new TreeMap<>();
+            receivedBlocks = new HashMap<>();
+            exceptions = new ConcurrentLinkedQueue<>();
+        }
+
+        public PcjFuture<Void> processLocal(InternalCommonGroup group, int threadId,
+                                            String sendEnumClassName, String sendVariableName,
+                                            String recvEnumClassName, String recvVariableName,
+                                            int[] sendCounts, int[] recvCounts) {
+            AllToAllFuture future = new AllToAllFuture();
+
+            Object value = null;
+            try {
+                int globalThreadId = group.getGlobalThreadId(threadId);
+                InternalStorages storage = InternalPCJ.getNodeData().getPcjThread(globalThreadId).getThreadData().getStorages();
+                value = storage.get(sendEnumClassName, sendVariableName);
+                validate(value, sendCounts, recvCounts);
+            } catch (Exception ex) {
+                exceptions.add(ex);
+            }
+
+            synchronized (this) {
+                this.recvEnumClassName = recvEnumClassName;
+                this.recvVariableName = recvVariableName;
+                futures.put(threadId, future);
+                sendValues.put(threadId, value);
+                this.sendCounts.put(threadId, sendCounts);
+                this.recvCounts.put(threadId, recvCounts);
+            }
+
+            if (localCount.decrementAndGet() == 0) {
+                start(group);
+            }
+
+            return future;
+        }
+
+        private void validate(Object value, int[] sendCounts, int[] recvCounts) {
+            if (sendCounts.length != threadCount || recvCounts.length != threadCount) {
+                throw new IllegalArgumentException("Number of counts is not equal to number of threads: " + threadCount);
+            }
+            long length = 0;
+            for (int count : sendCounts) {
+                if (count < 0) {
+                    throw new IllegalArgumentException("Negative count: " + count);
+                }
+                length += count;
+            }
+            if (value == null || !value.getClass().isArray() || Array.getLength(value) < length) {
+                throw new IllegalArgumentException("Value is not an array of length at least equal to sum of send counts ("
+                                                           + length + "): " + value);
+            }
+        }
+
+        private void start(InternalCommonGroup group) {
+            List<Outgoing> messages = new ArrayList<>();
+            synchronized (this) {
+                NodeData nodeData = InternalPCJ.getNodeData();
+                List<Integer> nodes = group.getCommunicationTree(CollectiveOperation.ALLTOALL).getNodes();
+                nodeCount = nodes.size();
+                int nodeIndex = nodes.indexOf(nodeData.getCurrentNodePhysicalId());
+
+                List<List<Integer>> nodeThreadIds = new ArrayList<>();
+                nodes.forEach(node -> nodeThreadIds.add(new ArrayList<>()));
+                Map<Integer, Integer> nodeIndices = new HashMap<>();
+                for (int i = 0; i < nodeCount; ++i) {
+                    nodeIndices.put(nodes.get(i), i);
+                }
+                for (int threadId = 0; threadId < threadCount; ++threadId) {
+                    int physicalId = nodeData.getPhysicalId(group.getGlobalThreadId(threadId));
+                    nodeThreadIds.get(nodeIndices.get(physicalId)).add(threadId);
+                }
+
+                if (exceptions.isEmpty()) {
+                    storeBlocks(createBlocks(nodeThreadIds.get(nodeIndex)));
+                }
+
+                for (int step = 1; step < nodeCount; ++step) {
+                    int targetIndex = (nodeIndex + step) % nodeCount;
+                    AllToAllBlocksMessage message;
+                    if (exceptions.isEmpty()) {
+                        message = new AllToAllBlocksMessage(group.getGroupId(), round,
+                                createBlocks(nodeThreadIds.get(targetIndex)), null);
+                    } else {
+                        message = new AllToAllBlocksMessage(group.getGroupId(), round, null, exceptions);
+                    }
+                    messages.add(new Outgoing(nodes.get(targetIndex), message));
+                }
+
+                started = true;
+                checkCompleted(group);
+            }
+
+            NodeData nodeData = InternalPCJ.getNodeData();
+            for (Outgoing outgoing : messages) {
+                InternalPCJ.getNetworker().send(nodeData.getSocketChannelByPhysicalId(outgoing.physicalId), outgoing.message);
+            }
+        }
+
+        /*
+         * blocks of all local threads addressed to the threads
+         */
+        private List<Block> createBlocks(List<Integer> targetThreadIds) {
+            List<Block> blocks = new ArrayList<>();
+            for (Map.Entry<Integer, Object> entry : sendValues.entrySet()) {
+                int sourceThreadId = entry.getKey();
+                int[] counts = sendCounts.get(sourceThreadId);
+                int offset = 0;
+                int targetIndex = 0;
+                for (int threadId = 0; threadId < counts.length; ++threadId) {
+                    if (targetIndex < targetThreadIds.size() && targetThreadIds.get(targetIndex) == threadId) {
+                        blocks.add(new Block(sourceThreadId, threadId, entry.getValue(), offset, counts[threadId]));
+                        ++targetIndex;
+                    }
+                    offset += counts[threadId];
+                }
+            }
+            return blocks;
+        }
+
+        private void storeBlocks(List<Block> blocks) {
+            for (Block block : blocks) {
+                Block[] blocksOfThread = receivedBlocks.computeIfAbsent(block.targetThreadId, key -> new Block[threadCount]);
+                blocksOfThread[block.sourceThreadId] = block;
+            }
+        }
+
+        void blocksReceived(InternalCommonGroup group, List<Block> blocks, Queue<Exception> messageExceptions) {
+            synchronized (this) {
+                if ((messageExceptions != null) && (!messageExceptions.isEmpty())) {
+                    exceptions.addAll(messageExceptions);
+                } else {
+                    storeBlocks(blocks);
+                }
+                ++receivedMessages;
+                if (started) {
+                    checkCompleted(group);
+                }
+            }
+        }
+
+        private void checkCompleted(InternalCommonGroup group) {
+            if (receivedMessages == nodeCount - 1) {
+                finish(group);
+            }
+        }
+
+        private void finish(InternalCommonGroup group) {
+            AllToAllStates.this.remove(round);
+
+            if (!exceptions.isEmpty()) {
+                PcjRuntimeException ex = new PcjRuntimeException("All-to-all failed", exceptions.poll());
+                exceptions.forEach(ex::addSuppressed);
+                futures.values().forEach(future -> future.signalException(ex));
+                return;
+            }
+
+            NodeData nodeData = InternalPCJ.getNodeData();
+            for (Map.Entry<Integer, AllToAllFuture> entry : futures.entrySet()) {
+                int threadId = entry.getKey();
+                AllToAllFuture future = entry.getValue();
+                try {
+                    Object value = assemble(threadId);
+                    int globalThreadId = group.getGlobalThreadId(threadId);
+                    InternalStorages storage = nodeData.getPcjThread(globalThreadId).getThreadData().getStorages();
+                    storage.put(value, recvEnumClassName, recvVariableName);
+                    future.signalDone();
+                } catch (Exception ex) {
+                    future.signalException(new PcjRuntimeException("All-to-all failed", ex));
+                }
+            }
+        }
+
+        private Object assemble(int threadId) {
+            int[] counts = recvCounts.get(threadId);
+            Block[] blocks = receivedBlocks.get(threadId);
+            int length = 0;
+            for (int sourceThreadId = 0; sourceThreadId < counts.length; ++sourceThreadId) {
+                int blockLength = blocks == null || blocks[sourceThreadId] == null ? 0 : blocks[sourceThreadId].length;
+                if (blockLength != counts[sourceThreadId]) {
+                    throw new IllegalStateException("Number of elements received from thread " + sourceThreadId
+                                                            + " (" + blockLength + ") is not equal to receive count: "
+                                                            + counts[sourceThreadId]);
+                }
+                length += blockLength;
+            }
+
+            Object value = Array.newInstance(sendValues.get(threadId).getClass().getComponentType(), length);
+            int position = 0;
+            for (int sourceThreadId = 0; sourceThreadId < counts.length; ++sourceThreadId) {
+                if (counts[sourceThreadId] > 0) {
+                    Block block = blocks[sourceThreadId];
+                    System.arraycopy(block.array, block.offset, value, position, block.length);
+                    position += block.length;
+                }
+            }
+            return value;
+        }
+    }
+
+    static final class Block {
+
+        final int sourceThreadId;
+        final int targetThreadId;
+        final Object array;
+        final int offset;
+        final int length;
+
+        Block(int sourceThreadId, int targetThreadId, Object array, int offset, int length) {
+            this.sourceThreadId = sourceThreadId;
+            this.targetThreadId = targetThreadId;
+            this.array = array;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    private static final class Outgoing {
+
+        private final int physicalId;
+        private final AllToAllBlocksMessage message;
+
+        private Outgoing(int physicalId, AllToAllBlocksMessage message) {
+            this.physicalId = physicalId;
+            this.message = message;
+        }
+    }
+}
@@ -12,29 +12,29 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import org.pcj.PcjFuture;
 import org.pcj.PcjRuntimeException;
-import org.pcj.internal.InternalFuture;
 
 /*
  * @author Marek Nowicki (faramir@mat.umk.pl)
  */
-public class BarrierFuture extends InternalFuture<Void> implements PcjFuture<Void> {
+public class BarrierFuture implements PcjFuture<Void> {
 
-    BarrierFuture() {
-    }
+    private final BarrierStates states;
+    private final int round;
 
-    protected void signalDone() {
-        super.signal();
+    BarrierFuture(BarrierStates states, int round) {
+        this.states = states;
+        this.round = round;
     }
 
     @Override
     public boolean isDone() {
-        return super.isSignaled();
+        return states.isCompleted(round);
     }
 
     @Override
     public Void get() throws PcjRuntimeException {
         try {
-            super.await();
+            states.await(round);
         } catch (InterruptedException ex) {
             throw new PcjRuntimeException(ex);
         }
@@ -44,7 +44,7 @@ public class BarrierFuture extends InternalFuture<Void> implements PcjFuture<Voi
     @Override
     public Void get(long timeout, TimeUnit unit) throws TimeoutException, PcjRuntimeException {
         try {
-            super.await(timeout, unit);
+            states.await(round, timeout, unit);
         } catch (InterruptedException ex) {
             throw new PcjRuntimeException(ex);
         }
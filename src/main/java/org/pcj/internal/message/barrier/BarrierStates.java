@@ -9,89 +9,344 @@
 package org.pcj.internal.message.barrier;
 
 import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
 import org.pcj.PcjFuture;
+import org.pcj.internal.BarrierAlgorithm;
+import org.pcj.internal.CollectiveOperation;
 import org.pcj.internal.InternalCommonGroup;
 import org.pcj.internal.InternalPCJ;
 import org.pcj.internal.NodeData;
+import org.pcj.internal.TreeShape;
 import org.pcj.internal.message.Message;
 
-/*
+/**
+ * States of barrier operations.
+ * <p>
+ * States are kept in the fixed ring of slots indexed by the round number and
+ * reused in later rounds, so barriers called many times in the loop do not
+ * allocate new states. Slots are taken and released by atomic updates of
+ * the slot owner (round and status of the slot), without locking. A new state
+ * is created, under lock, only when the slot is still occupied by the unfinished
+ * round, that can happen when asynchronous barriers are started without
+ * waiting for the previous ones.
+ * <p>
+ * PCJ Threads placed on the same node decrement the common counter of the
+ * state and only the last-arriving PCJ Thread communicates with other nodes.
+ * Waiting PCJ Threads spin for a while before they register themselves and
+ * park; completion of the round unparks registered PCJ Threads. Actions
+ * registered for the round are executed after its completion.
+ *
  * @author Marek Nowicki (faramir@mat.umk.pl)
  */
 public class BarrierStates {
 
-    private final ConcurrentMap<Integer, AtomicInteger> counterMap;
-    private final ConcurrentMap<Integer, State> stateMap;
+    private static final int SLOT_COUNT = 64;
+    private static final int SPIN_COUNT = 1 << 12;
+    /* status of the slot, stored in the slot owner together with the round */
+    private static final int FREE = 0;
+    private static final int ACTIVATING = 1;
+    private static final int ACTIVE = 2;
+    /* later rounds of the slot are kept in the overflow map */
+    private static final int ACTIVE_OVERFLOWED = 3;
+    private static final int RELEASED_OVERFLOWED = 4;
+    private final State[] slots;
+    private final ConcurrentMap<Integer, State> overflowStateMap;
+    private final Queue<Thread> waiters;
+    private final Queue<Callback> callbacks;
+    private final AtomicInteger completedRound;
 
     public BarrierStates() {
-        counterMap = new ConcurrentHashMap<>();
-        stateMap = new ConcurrentHashMap<>();
+        slots = new State[SLOT_COUNT];
+        for (int i = 0; i < SLOT_COUNT; ++i) {
+            slots[i] = new State(new AtomicLong(owner(0, FREE)));
+        }
+        overflowStateMap = new ConcurrentHashMap<>();
+        waiters = new ConcurrentLinkedQueue<>();
+        callbacks = new ConcurrentLinkedQueue<>();
+        completedRound = new AtomicInteger(0);
+    }
+
+    private static long owner(int round, int status) {
+        return ((long) round << 32) | status;
+    }
+
+    private static int roundOf(long owner) {
+        return (int) (owner >>> 32);
+    }
+
+    private static int statusOf(long owner) {
+        return (int) owner;
+    }
+
+    public PcjFuture<Void> getFuture(int round) {
+        return new BarrierFuture(this, round);
     }
 
-    public int getNextRound(int threadId) {
-        AtomicInteger roundCounter = counterMap.computeIfAbsent(threadId, key -> new AtomicInteger(0));
-        return roundCounter.incrementAndGet();
+    /*
+     * all PCJ Threads count rounds in the same way, so completion of the round
+     * means that all PCJ Threads have arrived also at every previous round
+     */
+    public boolean isCompleted(int round) {
+        return completedRound.get() - round >= 0;
+    }
+
+    public void await(int round) throws InterruptedException {
+        for (int i = 0; i < SPIN_COUNT; ++i) {
+            if (isCompleted(round)) {
+                return;
+            }
+        }
+        Thread thread = Thread.currentThread();
+        waiters.add(thread);
+        try {
+            while (!isCompleted(round)) {
+                LockSupport.park(this);
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+        } finally {
+            waiters.remove(thread);
+        }
+    }
+
+    public void await(int round, long timeout, TimeUnit unit) throws TimeoutException, InterruptedException {
+        long nanosTimeout = unit.toNanos(timeout);
+        final long deadline = System.nanoTime() + nanosTimeout;
+
+        for (int i = 0; i < SPIN_COUNT; ++i) {
+            if (isCompleted(round)) {
+                return;
+            }
+        }
+        Thread thread = Thread.currentThread();
+        waiters.add(thread);
+        try {
+            while (!isCompleted(round)) {
+                if (nanosTimeout <= 0L) {
+                    throw new TimeoutException("Not done yet.");
+                }
+                LockSupport.parkNanos(this, nanosTimeout);
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+                nanosTimeout = deadline - System.nanoTime();
+            }
+        } finally {
+            waiters.remove(thread);
+        }
+    }
+
+    /**
+     * Executes the action using the executor after completion of the round.
+     * If the round is already completed, the action is executed immediately.
+     *
+     * @param round    round of the barrier
+     * @param executor executor used to execute the action
+     * @param action   action to execute
+     */
+    public void onCompleted(int round, Executor executor, Runnable action) {
+        if (isCompleted(round)) {
+            executor.execute(action);
+            return;
+        }
+        callbacks.add(new Callback(round, executor, action));
+        // the round could be completed before the callback was added
+        if (isCompleted(round)) {
+            executeCompletedCallbacks();
+        }
+    }
+
+    private void executeCompletedCallbacks() {
+        for (Callback callback : callbacks) {
+            if (isCompleted(callback.round) && callbacks.remove(callback)) {
+                callback.executor.execute(callback.action);
+            }
+        }
     }
 
     public State getOrCreate(int round, InternalCommonGroup commonGroup) {
-        return stateMap.computeIfAbsent(round,
-                _round -> new State(_round, commonGroup.getLocalThreadsId().size(), commonGroup.getCommunicationTree().getChildrenNodes().size(), new BarrierFuture()));
+        State slot = slots[round & (SLOT_COUNT - 1)];
+        while (true) {
+            long owner = slot.owner.get();
+            int status = statusOf(owner);
+            if (roundOf(owner) == round && (status == ACTIVE || status == ACTIVE_OVERFLOWED)) {
+                return slot;
+            } else if (status == FREE) {
+                if (slot.owner.compareAndSet(owner, owner(round, ACTIVATING))) {
+                    slot.activate(round, commonGroup, InternalPCJ.getConfiguration().BARRIER_ALGORITHM);
+                    slot.owner.set(owner(round, ACTIVE));
+                    return slot;
+                }
+            } else if (status == ACTIVATING) {
+                Thread.yield();
+            } else {
+                State state = getOrCreateOverflow(round, commonGroup, slot);
+                if (state != null) {
+                    return state;
+                }
+            }
+        }
     }
 
-    public State remove(int round) {
-        return stateMap.remove(round);
+    /*
+     * slot is occupied by other round; returns null when the slot
+     * has changed and should be checked again
+     */
+    private State getOrCreateOverflow(int round, InternalCommonGroup commonGroup, State slot) {
+        synchronized (overflowStateMap) {
+            State state = overflowStateMap.get(round);
+            if (state != null) {
+                return state;
+            }
+
+            long owner = slot.owner.get();
+            int status = statusOf(owner);
+            if (roundOf(owner) == round && (status == ACTIVE || status == ACTIVE_OVERFLOWED)) {
+                return slot;
+            } else if (status == ACTIVE) {
+                if (!slot.owner.compareAndSet(owner, owner(roundOf(owner), ACTIVE_OVERFLOWED))) {
+                    return null;
+                }
+            } else if (status != ACTIVE_OVERFLOWED && status != RELEASED_OVERFLOWED) {
+                return null;
+            }
+
+            state = new State(null);
+            state.activate(round, commonGroup, InternalPCJ.getConfiguration().BARRIER_ALGORITHM);
+            overflowStateMap.put(round, state);
+            return state;
+        }
     }
 
-    public static class State {
-        private final int round;
-        private final AtomicReference<NotificationCount> notificationCount;
-        private final BarrierFuture future;
+    private void complete(State state) {
+        int round = state.round;
+        int completed;
+        do {
+            completed = completedRound.get();
+        } while (round - completed > 0 && !completedRound.compareAndSet(completed, round));
 
-        private State(int round, int localCount, int physicalCount, BarrierFuture future) {
-            this.round = round;
-            this.future = future;
+        if (state.owner != null) {
+            long owner = state.owner.get();
+            if (statusOf(owner) != ACTIVE || !state.owner.compareAndSet(owner, owner(round, FREE))) {
+                releaseOverflowedSlot(state);
+            }
+        } else {
+            releaseOverflowState(state);
+        }
 
-            notificationCount = new AtomicReference<>(new NotificationCount(localCount, physicalCount));
+        for (Thread waiter : waiters) {
+            LockSupport.unpark(waiter);
+        }
+        if (!callbacks.isEmpty()) {
+            executeCompletedCallbacks();
         }
+    }
 
-        public PcjFuture<Void> getFuture() {
-            return future;
+    private void releaseOverflowedSlot(State slot) {
+        synchronized (overflowStateMap) {
+            long owner = slot.owner.get();
+            int status = statusOf(owner) == ACTIVE ? FREE : RELEASED_OVERFLOWED;
+            slot.owner.set(owner(roundOf(owner), status));
         }
+    }
 
-        public void processLocal(InternalCommonGroup group) {
-            NotificationCount count = notificationCount.updateAndGet(
-                    old -> new NotificationCount(old.local - 1, old.physical));
+    private void releaseOverflowState(State state) {
+        synchronized (overflowStateMap) {
+            overflowStateMap.remove(state.round, state);
+
+            int slotIndex = state.round & (SLOT_COUNT - 1);
+            for (int round : overflowStateMap.keySet()) {
+                if ((round & (SLOT_COUNT - 1)) == slotIndex) {
+                    return;
+                }
+            }
+
+            State slot = slots[slotIndex];
+            long owner = slot.owner.get();
+            if (statusOf(owner) == ACTIVE_OVERFLOWED) {
+                slot.owner.set(owner(roundOf(owner), ACTIVE));
+            } else if (statusOf(owner) == RELEASED_OVERFLOWED) {
+                slot.owner.set(owner(roundOf(owner), FREE));
+            }
+        }
+    }
 
-            if (count.isDone()) {
+    public class State {
+        private final AtomicLong owner;
+        private final AtomicInteger notificationCount;
+        private int round;
+        private BarrierAlgorithm algorithm;
+        private boolean nodeDone;
+        private int receivedSteps;
+        private int sentSteps;
+        private boolean finished;
+
+        private State(AtomicLong owner) {
+            this.owner = owner;
+            notificationCount = new AtomicInteger();
+        }
+
+        private void activate(int round, InternalCommonGroup group, BarrierAlgorithm algorithm) {
+            synchronized (this) {
+                this.round = round;
+                this.algorithm = algorithm;
+                nodeDone = false;
+                receivedSteps = 0;
+                sentSteps = 0;
+                finished = false;
+            }
+
+            int localCount = group.getLocalThreadsId().size();
+            int physicalCount = algorithm == BarrierAlgorithm.DISSEMINATION ? 0 : getChildrenNodes(group).size();
+            notificationCount.set(localCount + physicalCount);
+        }
+
+        public void processLocal(InternalCommonGroup group) {
+            if (notificationCount.decrementAndGet() == 0) {
                 nodeProcessed(group);
             }
         }
 
         public void processPhysical(InternalCommonGroup group) {
-            NotificationCount count = notificationCount.updateAndGet(
-                    old -> new NotificationCount(old.local, old.physical - 1));
-
-            if (count.isDone()) {
+            if (notificationCount.decrementAndGet() == 0) {
                 nodeProcessed(group);
             }
         }
 
         private void nodeProcessed(InternalCommonGroup group) {
+            if (algorithm == BarrierAlgorithm.DISSEMINATION) {
+                synchronized (this) {
+                    nodeDone = true;
+                }
+                disseminate(group);
+                return;
+            }
+
             Message message;
             SocketChannel socket;
             NodeData nodeData = InternalPCJ.getNodeData();
 
             int physicalId = nodeData.getCurrentNodePhysicalId();
-            if (physicalId == group.getCommunicationTree().getMasterNode()) {
+            int parentId = getParentNode(group);
+            if (parentId < 0) {
                 socket = nodeData.getSocketChannelByPhysicalId(physicalId);
 
                 message = new GroupBarrierGoMessage(group.getGroupId(), round);
             } else {
-                int parentId = group.getCommunicationTree().getParentNode();
                 socket = nodeData.getSocketChannelByPhysicalId(parentId);
 
                 message = new GroupBarrierWaitingMessage(group.getGroupId(), round);
@@ -100,23 +355,99 @@ public class BarrierStates {
             InternalPCJ.getNetworker().send(socket, message);
         }
 
-        public void signalDone() {
-            future.signalDone();
+        private int getParentNode(InternalCommonGroup group) {
+            if (algorithm == BarrierAlgorithm.TOURNAMENT) {
+                List<Integer> nodes = group.getCommunicationTree(CollectiveOperation.BARRIER).getNodes();
+                int index = nodes.indexOf(InternalPCJ.getNodeData().getCurrentNodePhysicalId());
+                int parentIndex = TreeShape.BINOMIAL.getParentIndex(index, 2);
+                return parentIndex < 0 ? -1 : nodes.get(parentIndex);
+            }
+            InternalCommonGroup.CommunicationTree tree = group.getCommunicationTree(CollectiveOperation.BARRIER);
+            return InternalPCJ.getNodeData().getCurrentNodePhysicalId() == tree.getMasterNode() ? -1 : tree.getParentNode();
         }
 
-        private static class NotificationCount {
+        /**
+         * Gets nodes that notify the current node about reaching the barrier
+         * and are released by the current node.
+         *
+         * @param group group of the barrier
+         * @return physical ids of nodes
+         */
+        public Collection<Integer> getChildrenNodes(InternalCommonGroup group) {
+            if (algorithm == BarrierAlgorithm.TOURNAMENT) {
+                List<Integer> nodes = group.getCommunicationTree(CollectiveOperation.BARRIER).getNodes();
+                int index = nodes.indexOf(InternalPCJ.getNodeData().getCurrentNodePhysicalId());
+                return TreeShape.BINOMIAL.getChildrenIndices(index, nodes.size(), 2).stream()
+                               .map(nodes::get)
+                               .collect(Collectors.toList());
+            }
+            return group.getCommunicationTree(CollectiveOperation.BARRIER).getChildrenNodes();
+        }
 
-            private final int local;
-            private final int physical;
+        public void processSignal(InternalCommonGroup group, int step) {
+            synchronized (this) {
+                receivedSteps |= 1 << step;
+            }
+            disseminate(group);
+        }
+
+        /*
+         * notification of step k is sent when the node is ready and
+         * the notification of step k-1 is received
+         */
+        private void disseminate(InternalCommonGroup group) {
+            List<Integer> nodes = group.getCommunicationTree(CollectiveOperation.BARRIER).getNodes();
+            int stepCount = 32 - Integer.numberOfLeadingZeros(nodes.size() - 1);
 
-            public NotificationCount(int local, int physical) {
-                this.local = local;
-                this.physical = physical;
+            List<Integer> steps = new ArrayList<>();
+            boolean done = false;
+            int stepRound;
+            synchronized (this) {
+                if (!nodeDone || finished) {
+                    return;
+                }
+                stepRound = round;
+                while (sentSteps < stepCount && (sentSteps == 0 || (receivedSteps & (1 << (sentSteps - 1))) != 0)) {
+                    steps.add(sentSteps++);
+                }
+                if (sentSteps == stepCount && (stepCount == 0 || (receivedSteps & (1 << (stepCount - 1))) != 0)) {
+                    finished = true;
+                    done = true;
+                }
+            }
+
+            NodeData nodeData = InternalPCJ.getNodeData();
+            int index = nodes.indexOf(nodeData.getCurrentNodePhysicalId());
+            for (int step : steps) {
+                int physicalId = nodes.get((index + (1 << step)) % nodes.size());
+                GroupBarrierSignalMessage message = new GroupBarrierSignalMessage(group.getGroupId(), stepRound, step);
+                InternalPCJ.getNetworker().send(nodeData.getSocketChannelByPhysicalId(physicalId), message);
             }
 
-            boolean isDone() {
-                return local == 0 && physical == 0;
+            if (done) {
+                signalDone();
             }
         }
+
+        /**
+         * Marks the round as completed, wakes up waiting PCJ Threads and
+         * releases the state, so it can be reused in later rounds.
+         */
+        public void signalDone() {
+            complete(this);
+        }
+    }
+
+    private static class Callback {
+
+        private final int round;
+        private final Executor executor;
+        private final Runnable action;
+
+        private Callback(int round, Executor executor, Runnable action) {
+            this.round = round;
+            this.executor = executor;
+            this.action = action;
+        }
     }
 }
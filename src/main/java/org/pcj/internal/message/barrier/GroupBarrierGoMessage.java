@@ -54,12 +54,13 @@ public final class GroupBarrierGoMessage extends Message {
 
         InternalCommonGroup commonGroup = nodeData.getCommonGroupById(groupId);
 
-        commonGroup.getCommunicationTree().getChildrenNodes().stream()
+        BarrierStates states = commonGroup.getBarrierStates();
+        BarrierStates.State state = states.getOrCreate(round, commonGroup);
+
+        state.getChildrenNodes(commonGroup).stream()
                 .map(nodeData::getSocketChannelByPhysicalId)
                 .forEach(socket -> InternalPCJ.getNetworker().send(socket, this));
 
-        BarrierStates states = commonGroup.getBarrierStates();
-        BarrierStates.State state = states.remove(round);
         state.signalDone();
     }
 }
@@ -10,6 +10,7 @@ package org.pcj.internal.message.broadcast;
 
 import java.io.IOException;
 import java.nio.channels.SocketChannel;
+import org.pcj.internal.CollectiveOperation;
 import org.pcj.internal.InternalCommonGroup;
 import org.pcj.internal.InternalPCJ;
 import org.pcj.internal.Networker;
@@ -81,7 +82,7 @@ public final class BroadcastBytesMessage extends Message {
                 = new BroadcastBytesMessage(groupId, requestNum, requesterThreadId, sharedEnumClassName, variableName, indices, inputStreamCloner);
 
         InternalCommonGroup commonGroup = nodeData.getCommonGroupById(groupId);
-        commonGroup.getCommunicationTree().getChildrenNodes()
+        commonGroup.getCommunicationTree(CollectiveOperation.BROADCAST).getChildrenNodes()
                 .stream()
                 .map(nodeData::getSocketChannelByPhysicalId)
                 .forEach(socket -> networker.send(socket, broadcastBytesMessage));
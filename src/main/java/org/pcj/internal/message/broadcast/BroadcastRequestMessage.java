@@ -10,7 +10,13 @@ package org.pcj.internal.message.broadcast;
 
 import java.io.IOException;
 import java.nio.channels.SocketChannel;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.pcj.OffHeapArray;
+import org.pcj.internal.CollectiveOperation;
+import org.pcj.internal.Configuration;
 import org.pcj.internal.InternalCommonGroup;
+import org.pcj.internal.InternalCommonGroup.CommunicationTree;
 import org.pcj.internal.InternalPCJ;
 import org.pcj.internal.Networker;
 import org.pcj.internal.NodeData;
@@ -57,7 +63,13 @@ public final class BroadcastRequestMessage extends Message {
         out.writeString(sharedEnumClassName);
         out.writeString(variableName);
         out.writeIntArray(indices);
-        out.writeObject(newValue);
+        if (newValue instanceof OffHeapArray) {
+            out.writeBoolean(true);
+            out.writeOffHeapArray((OffHeapArray) newValue);
+        } else {
+            out.writeBoolean(false);
+            out.writeObject(newValue);
+        }
     }
 
     @Override
@@ -74,15 +86,40 @@ public final class BroadcastRequestMessage extends Message {
 
         NodeData nodeData = InternalPCJ.getNodeData();
         Networker networker = InternalPCJ.getNetworker();
-
-        BroadcastBytesMessage broadcastBytesMessage
-                = new BroadcastBytesMessage(groupId, requestNum, requesterThreadId, sharedEnumClassName, variableName, indices, inputStreamCloner);
+        Configuration configuration = InternalPCJ.getConfiguration();
 
         InternalCommonGroup commonGroup = nodeData.getCommonGroupById(groupId);
-        commonGroup.getCommunicationTree().getChildrenNodes()
-                .stream()
-                .map(nodeData::getSocketChannelByPhysicalId)
-                .forEach(socket -> networker.send(socket, broadcastBytesMessage));
+        CommunicationTree communicationTree = commonGroup.getCommunicationTree(CollectiveOperation.BROADCAST);
+        List<SocketChannel> childrenSockets = communicationTree.getChildrenNodes()
+                                                      .stream()
+                                                      .map(nodeData::getSocketChannelByPhysicalId)
+                                                      .collect(Collectors.toList());
+        List<Integer> nodes = communicationTree.getNodes();
+
+        if (configuration.BROADCAST_SCATTER_THRESHOLD >= 0 && nodes.size() > 2
+                    && inputStreamCloner.getLength() >= configuration.BROADCAST_SCATTER_THRESHOLD) {
+            List<InputStreamCloner> segments = inputStreamCloner.splitEvenly(nodes.size());
+            for (int segmentIndex = 0; segmentIndex < segments.size(); ++segmentIndex) {
+                BroadcastScatterMessage broadcastScatterMessage
+                        = new BroadcastScatterMessage(groupId, requestNum, requesterThreadId, sharedEnumClassName, variableName, indices,
+                        segmentIndex, segments.size(), segments.get(segmentIndex));
+                int physicalId = nodes.get(segmentIndex == 0 ? 1 : segmentIndex);
+                networker.send(nodeData.getSocketChannelByPhysicalId(physicalId), broadcastScatterMessage);
+            }
+        } else if (configuration.BROADCAST_PIPELINE_THRESHOLD >= 0
+                    && inputStreamCloner.getLength() >= configuration.BROADCAST_PIPELINE_THRESHOLD) {
+            List<InputStreamCloner> segments = inputStreamCloner.split(configuration.BROADCAST_SEGMENT_SIZE);
+            for (int segmentIndex = 0; segmentIndex < segments.size(); ++segmentIndex) {
+                BroadcastSegmentMessage broadcastSegmentMessage
+                        = new BroadcastSegmentMessage(groupId, requestNum, requesterThreadId, sharedEnumClassName, variableName, indices,
+                        segmentIndex, segments.size(), segments.get(segmentIndex));
+                childrenSockets.forEach(socket -> networker.send(socket, broadcastSegmentMessage));
+            }
+        } else {
+            BroadcastBytesMessage broadcastBytesMessage
+                    = new BroadcastBytesMessage(groupId, requestNum, requesterThreadId, sharedEnumClassName, variableName, indices, inputStreamCloner);
+            childrenSockets.forEach(socket -> networker.send(socket, broadcastBytesMessage));
+        }
 
         BroadcastStates states = commonGroup.getBroadcastStates();
         BroadcastStates.State state = states.getOrCreate(requestNum, requesterThreadId, commonGroup);
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2011-2019, PCJ Library, Marek Nowicki
+ * All rights reserved.
+ *
+ * Licensed under New BSD License (3-clause license).
+ *
+ * See the file "LICENSE" for the full license governing this code.
+ */
+package org.pcj.internal.message.broadcast;
+
+import java.io.IOException;
+import java.nio.channels.SocketChannel;
+import java.util.List;
+import org.pcj.internal.CollectiveOperation;
+import org.pcj.internal.InternalCommonGroup;
+import org.pcj.internal.InternalPCJ;
+import org.pcj.internal.NodeData;
+import org.pcj.internal.message.Message;
+import org.pcj.internal.message.MessageType;
+import org.pcj.internal.network.InputStreamCloner;
+import org.pcj.internal.network.MessageDataInputStream;
+import org.pcj.internal.network.MessageDataOutputStream;
+
+/**
+ * Message with one part of serialized value in scatter-allgather broadcast.
+ * <p>
+ * The group master node sends part {@code i} to the node at position {@code i}
+ * of the group nodes order (scatter), and part {@code 0} to the next node.
+ * Then each node sends every received part to the next node in the ring,
+ * unless the next node is the one the part was scattered to (allgather).
+ * The group master node has the whole value, so it only passes the parts on.
+ *
+ * @author Marek Nowicki (faramir@mat.umk.pl)
+ */
+public final class BroadcastScatterMessage extends Message {
+
+    private int groupId;
+    private int requestNum;
+    private int requesterThreadId;
+    private String sharedEnumClassName;
+    private String variableName;
+    private int[] indices;
+    private int segmentIndex;
+    private int segmentCount;
+    private InputStreamCloner segment;
+
+    public BroadcastScatterMessage() {
+        super(MessageType.VALUE_BROADCAST_SCATTER);
+    }
+
+    public BroadcastScatterMessage(int groupId, int requestNum, int requesterThreadId, String storageName, String variableName, int[] indices,
+                                   int segmentIndex, int segmentCount, InputStreamCloner segment) {
+        this();
+
+        this.groupId = groupId;
+        this.requestNum = requestNum;
+        this.requesterThreadId = requesterThreadId;
+        this.sharedEnumClassName = storageName;
+        this.variableName = variableName;
+        this.indices = indices;
+        this.segmentIndex = segmentIndex;
+        this.segmentCount = segmentCount;
+
+        this.segment = segment;
+    }
+
+    @Override
+    public void write(MessageDataOutputStream out) throws IOException {
+        out.writeInt(groupId);
+        out.writeInt(requestNum);
+        out.writeInt(requesterThreadId);
+        out.writeString(sharedEnumClassName);
+        out.writeString(variableName);
+        out.writeIntArray(indices);
+        out.writeInt(segmentIndex);
+        out.writeInt(segmentCount);
+
+        segment.writeInto(out);
+    }
+
+    @Override
+    public void onReceive(SocketChannel sender, MessageDataInputStream in) throws IOException {
+        groupId = in.readInt();
+        requestNum = in.readInt();
+        requesterThreadId = in.readInt();
+
+        sharedEnumClassName = in.readString();
+        variableName = in.readString();
+        indices = in.readIntArray();
+        segmentIndex = in.readInt();
+        segmentCount = in.readInt();
+
+        segment = InputStreamCloner.readFrom(in);
+
+        NodeData nodeData = InternalPCJ.getNodeData();
+
+        InternalCommonGroup commonGroup = nodeData.getCommonGroupById(groupId);
+        List<Integer> nodes = commonGroup.getCommunicationTree(CollectiveOperation.BROADCAST).getNodes();
+        int currentIndex = nodes.indexOf(nodeData.getCurrentNodePhysicalId());
+        int nextIndex = (currentIndex + 1) % segmentCount;
+
+        if (nextIndex != segmentIndex) {
+            SocketChannel nextSocket = nodeData.getSocketChannelByPhysicalId(nodes.get(nextIndex));
+            InternalPCJ.getNetworker().send(nextSocket, this);
+        }
+
+        if (currentIndex != 0) {
+            BroadcastStates states = commonGroup.getBroadcastStates();
+            BroadcastStates.State state = states.getOrCreate(requestNum, requesterThreadId, commonGroup);
+            state.segmentReceived(commonGroup, segmentIndex, segmentCount, segment, sharedEnumClassName, variableName, indices);
+        }
+    }
+}
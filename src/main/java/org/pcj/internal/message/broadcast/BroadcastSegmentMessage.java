@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2011-2019, PCJ Library, Marek Nowicki
+ * All rights reserved.
+ *
+ * Licensed under New BSD License (3-clause license).
+ *
+ * See the file "LICENSE" for the full license governing this code.
+ */
+package org.pcj.internal.message.broadcast;
+
+import java.io.IOException;
+import java.nio.channels.SocketChannel;
+import org.pcj.internal.CollectiveOperation;
+import org.pcj.internal.InternalCommonGroup;
+import org.pcj.internal.InternalPCJ;
+import org.pcj.internal.Networker;
+import org.pcj.internal.NodeData;
+import org.pcj.internal.message.Message;
+import org.pcj.internal.message.MessageType;
+import org.pcj.internal.network.InputStreamCloner;
+import org.pcj.internal.network.MessageDataInputStream;
+import org.pcj.internal.network.MessageDataOutputStream;
+
+/**
+ * Message with one segment of serialized value in pipelined broadcast.
+ * <p>
+ * Each node forwards the segment to its children as soon as the segment
+ * is received, and puts the value into the variable after receiving all segments.
+ *
+ * @author Marek Nowicki (faramir@mat.umk.pl)
+ */
+public final class BroadcastSegmentMessage extends Message {
+
+    private int groupId;
+    private int requestNum;
+    private int requesterThreadId;
+    private String sharedEnumClassName;
+    private String variableName;
+    private int[] indices;
+    private int segmentIndex;
+    private int segmentCount;
+    private InputStreamCloner segment;
+
+    public BroadcastSegmentMessage() {
+        super(MessageType.VALUE_BROADCAST_SEGMENT);
+    }
+
+    public BroadcastSegmentMessage(int groupId, int requestNum, int requesterThreadId, String storageName, String variableName, int[] indices,
+                                   int segmentIndex, int segmentCount, InputStreamCloner segment) {
+        this();
+
+        this.groupId = groupId;
+        this.requestNum = requestNum;
+        this.requesterThreadId = requesterThreadId;
+        this.sharedEnumClassName = storageName;
+        this.variableName = variableName;
+        this.indices = indices;
+        this.segmentIndex = segmentIndex;
+        this.segmentCount = segmentCount;
+
+        this.segment = segment;
+    }
+
+    @Override
+    public void write(MessageDataOutputStream out) throws IOException {
+        out.writeInt(groupId);
+        out.writeInt(requestNum);
+        out.writeInt(requesterThreadId);
+        out.writeString(sharedEnumClassName);
+        out.writeString(variableName);
+        out.writeIntArray(indices);
+        out.writeInt(segmentIndex);
+        out.writeInt(segmentCount);
+
+        segment.writeInto(out);
+    }
+
+    @Override
+    public void onReceive(SocketChannel sender, MessageDataInputStream in) throws IOException {
+        groupId = in.readInt();
+        requestNum = in.readInt();
+        requesterThreadId = in.readInt();
+
+        sharedEnumClassName = in.readString();
+        variableName = in.readString();
+        indices = in.readIntArray();
+        segmentIndex = in.readInt();
+        segmentCount = in.readInt();
+
+        segment = InputStreamCloner.readFrom(in);
+
+        NodeData nodeData = InternalPCJ.getNodeData();
+        Networker networker = InternalPCJ.getNetworker();
+
+        InternalCommonGroup commonGroup = nodeData.getCommonGroupById(groupId);
+        commonGroup.getCommunicationTree(CollectiveOperation.BROADCAST).getChildrenNodes()
+                .stream()
+                .map(nodeData::getSocketChannelByPhysicalId)
+                .forEach(socket -> networker.send(socket, this));
+
+        BroadcastStates states = commonGroup.getBroadcastStates();
+        BroadcastStates.State state = states.getOrCreate(requestNum, requesterThreadId, commonGroup);
+        state.segmentReceived(commonGroup, segmentIndex, segmentCount, segment, sharedEnumClassName, variableName, indices);
+    }
+}
@@ -8,7 +8,6 @@
  */
 package org.pcj.internal.message.broadcast;
 
-import java.io.ObjectInputStream;
 import java.nio.channels.SocketChannel;
 import java.util.Arrays;
 import java.util.List;
@@ -20,6 +19,7 @@ import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import org.pcj.PcjFuture;
 import org.pcj.PcjRuntimeException;
+import org.pcj.internal.CollectiveOperation;
 import org.pcj.internal.InternalCommonGroup;
 import org.pcj.internal.InternalPCJ;
 import org.pcj.internal.InternalStorages;
@@ -27,6 +27,7 @@ import org.pcj.internal.NodeData;
 import org.pcj.internal.PcjThread;
 import org.pcj.internal.message.Message;
 import org.pcj.internal.network.InputStreamCloner;
+import org.pcj.internal.network.MessageDataInputStream;
 
 /**
  * @author Marek Nowicki (faramir@mat.umk.pl)
@@ -45,7 +46,7 @@ public class BroadcastStates {
         int requestNum = counter.incrementAndGet();
 
         BroadcastFuture future = new BroadcastFuture();
-        State state = new State(requestNum, threadId, commonGroup.getCommunicationTree().getChildrenNodes().size(), future);
+        State state = new State(requestNum, threadId, commonGroup.getCommunicationTree(CollectiveOperation.BROADCAST).getChildrenNodes().size(), future);
 
         stateMap.put(Arrays.asList(requestNum, threadId), state);
 
@@ -54,7 +55,7 @@ public class BroadcastStates {
 
     public State getOrCreate(int requestNum, int requesterThreadId, InternalCommonGroup commonGroup) {
         return stateMap.computeIfAbsent(Arrays.asList(requestNum, requesterThreadId),
-                key -> new State(requestNum, requesterThreadId, commonGroup.getCommunicationTree().getChildrenNodes().size()));
+                key -> new State(requestNum, requesterThreadId, commonGroup.getCommunicationTree(CollectiveOperation.BROADCAST).getChildrenNodes().size()));
     }
 
     public State remove(int requestNum, int threadId) {
@@ -68,6 +69,8 @@ public class BroadcastStates {
         private final AtomicInteger notificationCount;
         private final BroadcastFuture future;
         private final Queue<Exception> exceptions;
+        private InputStreamCloner[] segments;
+        private int segmentsLeft;
 
         private State(int requestNum, int requesterThreadId, int childrenCount, BroadcastFuture future) {
             this.requestNum = requestNum;
@@ -100,8 +103,9 @@ public class BroadcastStates {
                 InternalStorages storage = pcjThread.getThreadData().getStorages();
 
                 try {
-                    InputStreamCloner.ClonedInputStream clonedInputStream = inputStreamCloner.newInputStream();
-                    Object newValue = new ObjectInputStream(clonedInputStream).readObject();
+                    MessageDataInputStream valueInputStream = new MessageDataInputStream(inputStreamCloner.newInputStream());
+                    boolean offHeap = valueInputStream.readBoolean();
+                    Object newValue = offHeap ? valueInputStream.readOffHeapArray() : valueInputStream.readObject();
 
                     storage.put(newValue, sharedEnumClassName, name, indices);
                 } catch (Exception ex) {
@@ -112,6 +116,26 @@ public class BroadcastStates {
             nodeProcessed(group);
         }
 
+        void segmentReceived(InternalCommonGroup group, int segmentIndex, int segmentCount, InputStreamCloner segment,
+                             String sharedEnumClassName, String name, int[] indices) {
+            InputStreamCloner inputStreamCloner = null;
+            synchronized (this) {
+                if (segments == null) {
+                    segments = new InputStreamCloner[segmentCount];
+                    segmentsLeft = segmentCount;
+                }
+                segments[segmentIndex] = segment;
+                if (--segmentsLeft == 0) {
+                    inputStreamCloner = InputStreamCloner.concat(segments);
+                    segments = null;
+                }
+            }
+
+            if (inputStreamCloner != null) {
+                downProcessNode(group, inputStreamCloner, sharedEnumClassName, name, indices);
+            }
+        }
+
         void upProcessNode(InternalCommonGroup group, Queue<Exception> messageExceptions) {
             if ((messageExceptions != null) && (!messageExceptions.isEmpty())) {
                 exceptions.addAll(messageExceptions);
@@ -135,8 +159,8 @@ public class BroadcastStates {
                 SocketChannel socket;
 
                 int physicalId = nodeData.getCurrentNodePhysicalId();
-                if (physicalId != group.getCommunicationTree().getMasterNode()) {
-                    int parentId = group.getCommunicationTree().getParentNode();
+                if (physicalId != group.getCommunicationTree(CollectiveOperation.BROADCAST).getMasterNode()) {
+                    int parentId = group.getCommunicationTree(CollectiveOperation.BROADCAST).getParentNode();
                     socket = nodeData.getSocketChannelByPhysicalId(parentId);
 
                     message = new BroadcastInformMessage(group.getGroupId(), requestNum, requesterThreadId, exceptions);
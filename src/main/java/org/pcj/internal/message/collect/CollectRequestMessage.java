@@ -10,6 +10,7 @@ package org.pcj.internal.message.collect;
 
 import java.io.IOException;
 import java.nio.channels.SocketChannel;
+import org.pcj.internal.CollectiveOperation;
 import org.pcj.internal.InternalCommonGroup;
 import org.pcj.internal.InternalPCJ;
 import org.pcj.internal.Networker;
@@ -73,7 +74,7 @@ public final class CollectRequestMessage extends Message {
         CollectStates.State<?> state = states.getOrCreate(requestNum, requesterThreadId, commonGroup);
 
         Networker networker = InternalPCJ.getNetworker();
-        commonGroup.getCommunicationTree().getChildrenNodes()
+        commonGroup.getCommunicationTree(CollectiveOperation.COLLECT).getChildrenNodes()
                 .stream()
                 .map(nodeData::getSocketChannelByPhysicalId)
                 .forEach(socket -> networker.send(socket, this));
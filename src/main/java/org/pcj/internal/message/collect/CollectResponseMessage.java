@@ -10,12 +10,12 @@ package org.pcj.internal.message.collect;
 
 import java.io.IOException;
 import java.nio.channels.SocketChannel;
-import java.util.Map;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import org.pcj.internal.InternalCommonGroup;
 import org.pcj.internal.InternalPCJ;
 import org.pcj.internal.NodeData;
+import org.pcj.internal.PrimitiveTypes;
 import org.pcj.internal.message.Message;
 import org.pcj.internal.message.MessageType;
 import org.pcj.internal.network.MessageDataInputStream;
@@ -24,22 +24,24 @@ import org.pcj.internal.network.MessageDataOutputStream;
 /**
  * @author Marek Nowicki (faramir@mat.umk.pl)
  */
-public final class CollectResponseMessage<T> extends Message {
+public final class CollectResponseMessage extends Message {
     private int groupId;
     private int requestNum;
     private int requesterThreadId;
-    private Map<Integer, T> valueMap;
+    private int[] threadIds;
+    private Object values;
     private Queue<Exception> exceptions;
 
     public CollectResponseMessage() {
         super(MessageType.COLLECT_RESPONSE);
     }
 
-    CollectResponseMessage(int groupId, int requestNum, int requesterThreadId, Map<Integer, T> valueMap, Queue<Exception> exceptions) {
+    CollectResponseMessage(int groupId, int requestNum, int requesterThreadId, int[] threadIds, Object values, Queue<Exception> exceptions) {
         this();
 
         this.groupId = groupId;
-        this.valueMap = valueMap;
+        this.threadIds = threadIds;
+        this.values = values;
         this.requestNum = requestNum;
         this.requesterThreadId = requesterThreadId;
         this.exceptions = exceptions;
@@ -55,7 +57,14 @@ public final class CollectResponseMessage<T> extends Message {
         if (exceptionOccurred) {
             out.writeObject(exceptions);
         } else {
-            out.writeObject(valueMap);
+            out.writeIntArray(threadIds);
+            boolean numeric = PrimitiveTypes.isNumericArray(values);
+            out.writeBoolean(numeric);
+            if (numeric) {
+                out.writePrimitiveArray(values, 0, threadIds.length);
+            } else {
+                out.writeObject(values);
+            }
         }
     }
 
@@ -69,7 +78,8 @@ public final class CollectResponseMessage<T> extends Message {
         boolean exceptionOccurred = in.readBoolean();
         try {
             if (!exceptionOccurred) {
-                valueMap = (Map<Integer, T>) in.readObject();
+                threadIds = in.readIntArray();
+                values = in.readBoolean() ? in.readPrimitiveArray() : in.readObject();
             } else {
                 exceptions = (Queue<Exception>) in.readObject();
             }
@@ -82,9 +92,9 @@ public final class CollectResponseMessage<T> extends Message {
         InternalCommonGroup commonGroup = nodeData.getCommonGroupById(groupId);
 
         CollectStates states = commonGroup.getCollectStates();
-        CollectStates.State<T> state = (CollectStates.State<T>) states.remove(requestNum, requesterThreadId);
+        CollectStates.State<?> state = states.remove(requestNum, requesterThreadId);
 
-        state.signal(valueMap, exceptions);
+        state.signal(threadIds, values, exceptions);
     }
 
 
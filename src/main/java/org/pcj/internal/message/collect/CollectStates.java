@@ -10,27 +10,35 @@ package org.pcj.internal.message.collect;
 
 import java.lang.reflect.Array;
 import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
-import java.util.HashMap;
+import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
 import java.util.Queue;
-import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import org.pcj.PcjFuture;
 import org.pcj.PcjRuntimeException;
+import org.pcj.internal.CollectiveOperation;
 import org.pcj.internal.InternalCommonGroup;
 import org.pcj.internal.InternalPCJ;
 import org.pcj.internal.InternalStorages;
+import org.pcj.internal.LocalCombiner;
 import org.pcj.internal.NodeData;
 import org.pcj.internal.PcjThread;
 import org.pcj.internal.message.Message;
 
 /**
+ * States of collect operations.
+ * <p>
+ * Values are sent up the communication tree in buffers: array of thread ids
+ * and array of values of the variable type (array of primitive elements for
+ * primitive variable), both ordered by thread id in parts of subtrees. Each
+ * node concatenates its own buffer with buffers of children, and the
+ * requester copies values at once into the result array.
+ *
  * @author Marek Nowicki (faramir@mat.umk.pl)
  */
 public class CollectStates {
@@ -47,7 +55,7 @@ public class CollectStates {
         int requestNum = counter.incrementAndGet();
 
         CollectFuture<T> future = new CollectFuture<>();
-        State<T> state = new State<>(requestNum, threadId, commonGroup.getCommunicationTree().getChildrenNodes().size(), future);
+        State<T> state = new State<>(requestNum, threadId, commonGroup.getCommunicationTree(CollectiveOperation.COLLECT).getChildrenNodes().size(), future);
 
         stateMap.put(Arrays.asList(requestNum, threadId), state);
 
@@ -57,7 +65,7 @@ public class CollectStates {
     @SuppressWarnings("unchecked")
     public <T> State<T> getOrCreate(int requestNum, int requesterThreadId, InternalCommonGroup commonGroup) {
         return (State<T>) stateMap.computeIfAbsent(Arrays.asList(requestNum, requesterThreadId),
-                key -> new State<>(requestNum, requesterThreadId, commonGroup.getCommunicationTree().getChildrenNodes().size()));
+                key -> new State<>(requestNum, requesterThreadId, commonGroup.getCommunicationTree(CollectiveOperation.COLLECT).getChildrenNodes().size()));
     }
 
     public State remove(int requestNum, int threadId) {
@@ -71,7 +79,7 @@ public class CollectStates {
         private final AtomicInteger notificationCount;
         private final CollectFuture<T> future;
         private final Queue<Exception> exceptions;
-        private final Map<Integer, T> valueMap;
+        private final List<Part> parts;
         private String sharedEnumClassName;
         private String variableName;
         private int[] indices;
@@ -83,7 +91,7 @@ public class CollectStates {
 
             // notification from children and from itself
             notificationCount = new AtomicInteger(childrenCount + 1);
-            valueMap = Collections.synchronizedMap(new HashMap<>());
+            parts = new ArrayList<>();
             exceptions = new ConcurrentLinkedQueue<>();
         }
 
@@ -107,11 +115,13 @@ public class CollectStates {
             nodeProcessed(group);
         }
 
-        void upProcessNode(InternalCommonGroup group, Map<Integer, T> receivedValueMap, Queue<Exception> messageExceptions) {
+        void upProcessNode(InternalCommonGroup group, int[] threadIds, Object values, Queue<Exception> messageExceptions) {
             if ((messageExceptions != null) && (!messageExceptions.isEmpty())) {
                 exceptions.addAll(messageExceptions);
             } else {
-                valueMap.putAll(receivedValueMap);
+                synchronized (parts) {
+                    parts.add(new Part(threadIds, values));
+                }
             }
 
             nodeProcessed(group);
@@ -128,27 +138,31 @@ public class CollectStates {
                     CollectStates.this.remove(requestNum, requesterThreadId);
                 }
 
+                Part buffer = null;
                 if (exceptions.isEmpty()) {
                     try {
-                        fillValueMap(group);
+                        addLocalPart(group);
+                        buffer = concatenateParts();
                     } catch (Exception ex) {
                         exceptions.add(ex);
                     }
                 }
+                int[] threadIds = buffer == null ? null : buffer.threadIds;
+                Object values = buffer == null ? null : buffer.values;
 
                 Message message;
                 SocketChannel socket;
 
                 int physicalId = nodeData.getCurrentNodePhysicalId();
-                if (physicalId != group.getCommunicationTree().getMasterNode()) {
-                    int parentId = group.getCommunicationTree().getParentNode();
+                if (physicalId != group.getCommunicationTree(CollectiveOperation.COLLECT).getMasterNode()) {
+                    int parentId = group.getCommunicationTree(CollectiveOperation.COLLECT).getParentNode();
                     socket = nodeData.getSocketChannelByPhysicalId(parentId);
 
-                    message = new CollectValueMessage<>(group.getGroupId(), requestNum, requesterThreadId, valueMap, exceptions);
+                    message = new CollectValueMessage(group.getGroupId(), requestNum, requesterThreadId, threadIds, values, exceptions);
                 } else {
                     socket = nodeData.getSocketChannelByPhysicalId(requesterPhysicalId);
 
-                    message = new CollectResponseMessage<>(group.getGroupId(), requestNum, requesterThreadId, valueMap, exceptions);
+                    message = new CollectResponseMessage(group.getGroupId(), requestNum, requesterThreadId, threadIds, values, exceptions);
                 }
 
                 try {
@@ -160,50 +174,101 @@ public class CollectStates {
             }
         }
 
-        private void fillValueMap(InternalCommonGroup group) {
+        private void addLocalPart(InternalCommonGroup group) {
             NodeData nodeData = InternalPCJ.getNodeData();
-            Set<Integer> threadsId = group.getLocalThreadsId();
-            for (int threadId : threadsId) {
+            int[] threadsId = LocalCombiner.getLocalThreadIds(group);
+            Object[] values = LocalCombiner.getValues(threadsId, threadId -> {
                 int globalThreadId = group.getGlobalThreadId(threadId);
                 PcjThread pcjThread = nodeData.getPcjThread(globalThreadId);
                 InternalStorages storage = pcjThread.getThreadData().getStorages();
 
-                valueMap.put(threadId, storage.get(this.sharedEnumClassName, this.variableName, this.indices));
+                return storage.get(this.sharedEnumClassName, this.variableName, this.indices);
+            });
+
+            Class<?> clazz = getValueClass(group.getGlobalThreadId(threadsId[0]));
+            Object array = Array.newInstance(clazz, values.length);
+            for (int i = 0; i < values.length; ++i) {
+                Array.set(array, i, values[i]);
+            }
+            synchronized (parts) {
+                parts.add(new Part(threadsId, array));
+            }
+        }
+
+        /*
+         * parts are already ordered by thread id, so they are only ordered by
+         * first thread id and copied one after another
+         */
+        private Part concatenateParts() {
+            synchronized (parts) {
+                if (parts.size() == 1) {
+                    return parts.get(0);
+                }
+                parts.sort(Comparator.comparingInt(part -> part.threadIds.length == 0 ? Integer.MAX_VALUE : part.threadIds[0]));
+
+                int length = parts.stream().mapToInt(part -> part.threadIds.length).sum();
+                int[] threadIds = new int[length];
+                Object values = Array.newInstance(parts.get(0).values.getClass().getComponentType(), length);
+                int position = 0;
+                for (Part part : parts) {
+                    System.arraycopy(part.threadIds, 0, threadIds, position, part.threadIds.length);
+                    System.arraycopy(part.values, 0, values, position, part.threadIds.length);
+                    position += part.threadIds.length;
+                }
+                return new Part(threadIds, values);
             }
         }
 
-        public void signal(Map<Integer, T> valueMap, Queue<Exception> messageExceptions) {
+        public void signal(int[] threadIds, Object values, Queue<Exception> messageExceptions) {
             if ((messageExceptions != null) && (!messageExceptions.isEmpty())) {
                 PcjRuntimeException ex = new PcjRuntimeException("Collecting values failed", messageExceptions.poll());
                 messageExceptions.forEach(ex::addSuppressed);
                 future.signalException(ex);
             } else {
-                Object array = convertMapToArray(valueMap);
-                future.signalDone(array);
+                future.signalDone(placeValues(threadIds, values));
             }
         }
 
-        private Object convertMapToArray(Map<Integer, T> valueMap) {
-            Class<?> clazz = getValueClass();
-
-            int size = valueMap.size();
-            Object array = Array.newInstance(clazz, size);
-
-            for (Map.Entry<Integer, T> entry : valueMap.entrySet()) {
-                int index = entry.getKey();
-                T t = entry.getValue();
-
-                Array.set(array, index, t);
+        /*
+         * runs of consecutive thread ids are copied at once, and values
+         * already ordered by all thread ids are used as the result
+         */
+        private Object placeValues(int[] threadIds, Object values) {
+            int length = threadIds.length;
+            Object array = null;
+            int runStart = 0;
+            for (int i = 1; i <= length; ++i) {
+                if (i == length || threadIds[i] != threadIds[i - 1] + 1) {
+                    if (runStart == 0 && i == length && threadIds[0] == 0) {
+                        return values;
+                    }
+                    if (array == null) {
+                        array = Array.newInstance(values.getClass().getComponentType(), length);
+                    }
+                    System.arraycopy(values, runStart, array, threadIds[runStart], i - runStart);
+                    runStart = i;
+                }
             }
             return array;
         }
 
-        private Class<?> getValueClass() {
+        private Class<?> getValueClass(int globalThreadId) {
             NodeData nodeData = InternalPCJ.getNodeData();
-            PcjThread pcjThread = nodeData.getPcjThread(requesterThreadId);
+            PcjThread pcjThread = nodeData.getPcjThread(globalThreadId);
 
             InternalStorages storages = pcjThread.getThreadData().getStorages();
             return storages.getClass(this.sharedEnumClassName, this.variableName, this.indices.length);
         }
     }
+
+    private static final class Part {
+
+        private final int[] threadIds;
+        private final Object values;
+
+        private Part(int[] threadIds, Object values) {
+            this.threadIds = threadIds;
+            this.values = values;
+        }
+    }
 }
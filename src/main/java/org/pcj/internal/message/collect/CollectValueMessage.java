@@ -10,12 +10,12 @@ package org.pcj.internal.message.collect;
 
 import java.io.IOException;
 import java.nio.channels.SocketChannel;
-import java.util.Map;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import org.pcj.internal.InternalCommonGroup;
 import org.pcj.internal.InternalPCJ;
 import org.pcj.internal.NodeData;
+import org.pcj.internal.PrimitiveTypes;
 import org.pcj.internal.message.Message;
 import org.pcj.internal.message.MessageType;
 import org.pcj.internal.network.MessageDataInputStream;
@@ -24,24 +24,26 @@ import org.pcj.internal.network.MessageDataOutputStream;
 /**
  * @author Marek Nowicki (faramir@mat.umk.pl)
  */
-public final class CollectValueMessage<T> extends Message {
+public final class CollectValueMessage extends Message {
 
     private int groupId;
     private int requestNum;
     private int requesterThreadId;
-    private Map<Integer, T> valueMap;
+    private int[] threadIds;
+    private Object values;
     private Queue<Exception> exceptions;
 
     public CollectValueMessage() {
         super(MessageType.COLLECT_VALUE);
     }
 
-    CollectValueMessage(int groupId, int requestNum, int requesterThreadId, Map<Integer, T> valueMap, Queue<Exception> exceptions) {
+    CollectValueMessage(int groupId, int requestNum, int requesterThreadId, int[] threadIds, Object values, Queue<Exception> exceptions) {
         this();
         this.groupId = groupId;
         this.requestNum = requestNum;
         this.requesterThreadId = requesterThreadId;
-        this.valueMap = valueMap;
+        this.threadIds = threadIds;
+        this.values = values;
         this.exceptions = exceptions;
     }
 
@@ -55,7 +57,14 @@ public final class CollectValueMessage<T> extends Message {
         if (exception) {
             out.writeObject(exceptions);
         } else {
-            out.writeObject(valueMap);
+            out.writeIntArray(threadIds);
+            boolean numeric = PrimitiveTypes.isNumericArray(values);
+            out.writeBoolean(numeric);
+            if (numeric) {
+                out.writePrimitiveArray(values, 0, threadIds.length);
+            } else {
+                out.writeObject(values);
+            }
         }
     }
 
@@ -69,7 +78,8 @@ public final class CollectValueMessage<T> extends Message {
         boolean exceptionOccurred = in.readBoolean();
         try {
             if (!exceptionOccurred) {
-                valueMap = (Map<Integer, T>) in.readObject();
+                threadIds = in.readIntArray();
+                values = in.readBoolean() ? in.readPrimitiveArray() : in.readObject();
             } else {
                 exceptions = (Queue<Exception>) in.readObject();
             }
@@ -82,8 +92,8 @@ public final class CollectValueMessage<T> extends Message {
         InternalCommonGroup commonGroup = nodeData.getCommonGroupById(groupId);
 
         CollectStates states = commonGroup.getCollectStates();
-        CollectStates.State<T> state = states.getOrCreate(requestNum, requesterThreadId, commonGroup);
+        CollectStates.State<?> state = states.getOrCreate(requestNum, requesterThreadId, commonGroup);
 
-        state.upProcessNode(commonGroup, valueMap, exceptions);
+        state.upProcessNode(commonGroup, threadIds, values, exceptions);
     }
 }
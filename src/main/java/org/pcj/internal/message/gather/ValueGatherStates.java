@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2011-2019, PCJ Library, Marek Nowicki
+ * All rights reserved.
+ *
+ * Licensed under New BSD License (3-clause license).
+ *
+ * See the file "LICENSE" for the full license governing this code.
+ */
+package org.pcj.internal.message.gather;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.pcj.PcjFuture;
+import org.pcj.PcjRuntimeException;
+
+/**
+ * @author Marek Nowicki (faramir@mat.umk.pl)
+ */
+public class ValueGatherStates {
+
+    private final AtomicInteger counter;
+    private final ConcurrentMap<Integer, State<?>> stateMap;
+
+    public ValueGatherStates() {
+        counter = new AtomicInteger(0);
+        stateMap = new ConcurrentHashMap<>();
+    }
+
+    public <T> State<T> create() {
+        int requestNum = counter.incrementAndGet();
+
+        ValueGatherFuture<T> future = new ValueGatherFuture<>();
+        State<T> state = new State<>(requestNum, future);
+
+        stateMap.put(requestNum, state);
+
+        return state;
+    }
+
+    public State<?> remove(int requestNum) {
+        return stateMap.remove(requestNum);
+    }
+
+    public static class State<T> {
+
+        private final int requestNum;
+        private final ValueGatherFuture<T> future;
+
+        private State(int requestNum, ValueGatherFuture<T> future) {
+            this.requestNum = requestNum;
+
+            this.future = future;
+        }
+
+        public int getRequestNum() {
+            return requestNum;
+        }
+
+        public PcjFuture<T> getFuture() {
+            return future;
+        }
+
+        public void signal(Object variableValue, Exception exception) {
+            if (exception == null) {
+                future.signalDone(variableValue);
+            } else {
+                PcjRuntimeException ex = new PcjRuntimeException("Gathering values failed", exception);
+                future.signalException(ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2011-2019, PCJ Library, Marek Nowicki
+ * All rights reserved.
+ *
+ * Licensed under New BSD License (3-clause license).
+ *
+ * See the file "LICENSE" for the full license governing this code.
+ */
+package org.pcj.internal.message.get;
+
+import java.io.IOException;
+import java.nio.channels.SocketChannel;
+import org.pcj.internal.InternalPCJ;
+import org.pcj.internal.InternalStorages;
+import org.pcj.internal.Networker;
+import org.pcj.internal.NodeData;
+import org.pcj.internal.PcjThread;
+import org.pcj.internal.message.Message;
+import org.pcj.internal.message.MessageType;
+import org.pcj.internal.network.MessageDataInputStream;
+import org.pcj.internal.network.MessageDataOutputStream;
+
+/**
+ * Request for the part of the array variable. Response is sent using
+ * {@link ValueGetResponseMessage}.
+ *
+ * @author Marek Nowicki (faramir@mat.umk.pl)
+ */
+public class ValueGetRangeRequestMessage extends Message {
+
+    private int groupId;
+    private int requestNum;
+    private int requesterThreadId;
+    private int threadId;
+    private String sharedEnumClassName;
+    private String name;
+    private long fromIndex;
+    private long count;
+
+    public ValueGetRangeRequestMessage() {
+        super(MessageType.VALUE_GET_RANGE_REQUEST);
+    }
+
+    public ValueGetRangeRequestMessage(int groupId, int requestNum, int requesterThreadId, int threadId, String storageName, String name, long fromIndex, long count) {
+        this();
+
+        this.groupId = groupId;
+        this.requestNum = requestNum;
+        this.requesterThreadId = requesterThreadId;
+        this.threadId = threadId;
+        this.sharedEnumClassName = storageName;
+        this.name = name;
+        this.fromIndex = fromIndex;
+        this.count = count;
+    }
+
+    @Override
+    public void write(MessageDataOutputStream out) throws IOException {
+        out.writeInt(groupId);
+        out.writeInt(requestNum);
+        out.writeInt(requesterThreadId);
+        out.writeInt(threadId);
+        out.writeString(sharedEnumClassName);
+        out.writeString(name);
+        out.writeLong(fromIndex);
+        out.writeLong(count);
+    }
+
+    @Override
+    public void onReceive(SocketChannel sender, MessageDataInputStream in) throws IOException {
+        groupId = in.readInt();
+        requestNum = in.readInt();
+        requesterThreadId = in.readInt();
+        threadId = in.readInt();
+        sharedEnumClassName = in.readString();
+        name = in.readString();
+        fromIndex = in.readLong();
+        count = in.readLong();
+
+        NodeData nodeData = InternalPCJ.getNodeData();
+        PcjThread pcjThread = nodeData.getPcjThread(groupId, threadId);
+
+        InternalStorages storage = pcjThread.getThreadData().getStorages();
+
+        Networker networker = InternalPCJ.getNetworker();
+        try {
+            Object variableValue = storage.getRange(sharedEnumClassName, name, fromIndex, count);
+
+            ValueGetResponseMessage valueGetResponseMessage = new ValueGetResponseMessage(groupId, requestNum, requesterThreadId, variableValue);
+            networker.send(sender, valueGetResponseMessage);
+        } catch (Exception ex) {
+            ValueGetResponseMessage valueGetResponseMessage = new ValueGetResponseMessage(groupId, requestNum, requesterThreadId, ex);
+            networker.send(sender, valueGetResponseMessage);
+        }
+    }
+}
@@ -10,6 +10,7 @@ package org.pcj.internal.message.get;
 
 import java.io.IOException;
 import java.nio.channels.SocketChannel;
+import org.pcj.OffHeapArray;
 import org.pcj.internal.InternalGroup;
 import org.pcj.internal.InternalPCJ;
 import org.pcj.internal.NodeData;
@@ -62,7 +63,11 @@ public class ValueGetResponseMessage extends Message {
         out.writeBoolean(exception != null);
         if (exception != null) {
             out.writeObject(exception);
+        } else if (variableValue instanceof OffHeapArray) {
+            out.writeBoolean(true);
+            out.writeOffHeapArray((OffHeapArray) variableValue);
         } else {
+            out.writeBoolean(false);
             out.writeObject(variableValue);
         }
     }
@@ -76,7 +81,12 @@ public class ValueGetResponseMessage extends Message {
         boolean exceptionOccurred = in.readBoolean();
         try {
             if (!exceptionOccurred) {
-                variableValue = in.readObject();
+                boolean offHeap = in.readBoolean();
+                if (offHeap) {
+                    variableValue = in.readOffHeapArray();
+                } else {
+                    variableValue = in.readObject();
+                }
             } else {
                 exception = (Exception) in.readObject();
             }
@@ -35,28 +35,36 @@ public final class HelloMessage extends Message {
 
     private int port;
     private int[] threadIds;
+    private String hostIdentity;
+    private String topologyLabel;
 
     public HelloMessage() {
         super(MessageType.HELLO);
     }
 
-    public HelloMessage(int port, int[] threadIds) {
+    public HelloMessage(int port, int[] threadIds, String hostIdentity, String topologyLabel) {
         this();
 
         this.port = port;
         this.threadIds = threadIds;
+        this.hostIdentity = hostIdentity;
+        this.topologyLabel = topologyLabel;
     }
 
     @Override
     public void write(MessageDataOutputStream out) throws IOException {
         out.writeInt(port);
         out.writeIntArray(threadIds);
+        out.writeString(hostIdentity);
+        out.writeString(topologyLabel);
     }
 
     @Override
     public void onReceive(SocketChannel sender, MessageDataInputStream in) throws IOException {
         port = in.readInt();
         threadIds = in.readIntArray();
+        hostIdentity = in.readString();
+        topologyLabel = in.readString();
 
         String address;
         if (sender instanceof LoopbackSocketChannel) {
@@ -65,7 +73,7 @@ public final class HelloMessage extends Message {
             address = ((InetSocketAddress) sender.getRemoteAddress()).getHostString();
         }
 
-        NodeInfo currentNodeInfo = new NodeInfo(address, this.port, this.threadIds);
+        NodeInfo currentNodeInfo = new NodeInfo(address, this.port, this.threadIds, hostIdentity, topologyLabel);
 
         NodeData nodeData = InternalPCJ.getNodeData();
         HelloState state = nodeData.getHelloState();
@@ -90,6 +90,7 @@ public class HelloState {
             notificationCount.addAndGet(nodesCountDownTree);
         }
         nodeData.setByeState(new ByeState(childCount));
+        nodeData.updateNodeInfoByPhysicalId(nodeInfoByPhysicalId);
 
         createThreadsMapping(nodeInfoByPhysicalId);
 
@@ -25,39 +25,39 @@ public class GroupJoinConfirmMessage extends Message {
 
     private int requestNum;
     private int groupId;
-    private int requesterGlobalThreadId;
+    private int requesterPhysicalId;
 
     public GroupJoinConfirmMessage() {
         super(MessageType.GROUP_JOIN_CONFIRM);
     }
 
-    public GroupJoinConfirmMessage(int requestNum, int groupId, int requesterGlobalThreadId, int confirmerPhysicalId) {
+    public GroupJoinConfirmMessage(int requestNum, int groupId, int requesterPhysicalId) {
         this();
 
         this.requestNum = requestNum;
         this.groupId = groupId;
-        this.requesterGlobalThreadId = requesterGlobalThreadId;
+        this.requesterPhysicalId = requesterPhysicalId;
     }
 
     @Override
     public void write(MessageDataOutputStream out) throws IOException {
         out.writeInt(requestNum);
         out.writeInt(groupId);
-        out.writeInt(requesterGlobalThreadId);
+        out.writeInt(requesterPhysicalId);
     }
 
     @Override
     public void onReceive(SocketChannel sender, MessageDataInputStream in) throws IOException {
         requestNum = in.readInt();
         groupId = in.readInt();
-        requesterGlobalThreadId = in.readInt();
+        requesterPhysicalId = in.readInt();
 
         NodeData nodeData = InternalPCJ.getNodeData();
 
         InternalCommonGroup commonGroup = nodeData.getCommonGroupById(groupId);
 
         GroupJoinStates states = commonGroup.getGroupJoinStates();
-        GroupJoinStates.State state = states.get(requestNum, requesterGlobalThreadId);
+        GroupJoinStates.State state = states.get(requestNum, requesterPhysicalId);
         state.processNode(commonGroup);
     }
 
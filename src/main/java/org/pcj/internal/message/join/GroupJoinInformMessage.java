@@ -29,19 +29,19 @@ public class GroupJoinInformMessage extends Message {
 
     private int requestNum;
     private int groupId;
-    private int requesterGlobalThreadId;
+    private int requesterPhysicalId;
     private Map<Integer, Integer> groupThreadsMap;
 
     public GroupJoinInformMessage() {
         super(MessageType.GROUP_JOIN_INFORM);
     }
 
-    public GroupJoinInformMessage(int requestNum, int groupId, int requesterGlobalThreadId, Map<Integer, Integer> groupThreadsMap) {
+    public GroupJoinInformMessage(int requestNum, int groupId, int requesterPhysicalId, Map<Integer, Integer> groupThreadsMap) {
         this();
 
         this.requestNum = requestNum;
         this.groupId = groupId;
-        this.requesterGlobalThreadId = requesterGlobalThreadId;
+        this.requesterPhysicalId = requesterPhysicalId;
         this.groupThreadsMap = groupThreadsMap;
     }
 
@@ -49,7 +49,7 @@ public class GroupJoinInformMessage extends Message {
     public void write(MessageDataOutputStream out) throws IOException {
         out.writeInt(requestNum);
         out.writeInt(groupId);
-        out.writeInt(requesterGlobalThreadId);
+        out.writeInt(requesterPhysicalId);
         out.writeObject(groupThreadsMap);
     }
 
@@ -58,7 +58,7 @@ public class GroupJoinInformMessage extends Message {
     public void onReceive(SocketChannel sender, MessageDataInputStream in) throws IOException {
         requestNum = in.readInt();
         groupId = in.readInt();
-        requesterGlobalThreadId = in.readInt();
+        requesterPhysicalId = in.readInt();
 
         try {
             groupThreadsMap = (Map<Integer, Integer>) in.readObject();
@@ -77,7 +77,7 @@ public class GroupJoinInformMessage extends Message {
         List<Integer> childrenNodes = new ArrayList<>(commonGroup.getCommunicationTree().getChildrenNodes());
 
         GroupJoinStates states = commonGroup.getGroupJoinStates();
-        GroupJoinStates.State state = states.create(requestNum, requesterGlobalThreadId, childrenNodes.size());
+        GroupJoinStates.State state = states.create(requestNum, requesterPhysicalId, null, childrenNodes.size());
 
         childrenNodes.stream()
                 .map(nodeData::getSocketChannelByPhysicalId)
@@ -31,20 +31,20 @@ public class GroupJoinRequestMessage extends Message {
     private String groupName;
     private int groupId;
     private int physicalId;
-    private int requesterGlobalThreadId;
+    private int[] requesterGlobalThreadIds;
 
     public GroupJoinRequestMessage() {
         super(MessageType.GROUP_JOIN_REQUEST);
     }
 
-    public GroupJoinRequestMessage(int requestNum, String name, int groupId, int physicalId, int requesterGlobalThreadId) {
+    public GroupJoinRequestMessage(int requestNum, String name, int groupId, int physicalId, int[] requesterGlobalThreadIds) {
         this();
 
         this.requestNum = requestNum;
         this.groupName = name;
         this.groupId = groupId;
         this.physicalId = physicalId;
-        this.requesterGlobalThreadId = requesterGlobalThreadId;
+        this.requesterGlobalThreadIds = requesterGlobalThreadIds;
     }
 
     @Override
@@ -53,7 +53,7 @@ public class GroupJoinRequestMessage extends Message {
         out.writeString(groupName);
         out.writeInt(groupId);
         out.writeInt(physicalId);
-        out.writeInt(requesterGlobalThreadId);
+        out.writeIntArray(requesterGlobalThreadIds);
     }
 
     @Override
@@ -62,12 +62,12 @@ public class GroupJoinRequestMessage extends Message {
         this.groupName = in.readString();
         this.groupId = in.readInt();
         this.physicalId = in.readInt();
-        this.requesterGlobalThreadId = in.readInt();
+        this.requesterGlobalThreadIds = in.readIntArray();
 
         NodeData nodeData = InternalPCJ.getNodeData();
         InternalCommonGroup commonGroup = nodeData.getOrCreateGroup(nodeData.getCurrentNodePhysicalId(), groupId, groupName);
 
-        commonGroup.addNewThread(requesterGlobalThreadId);
+        commonGroup.addNewThreads(requesterGlobalThreadIds);
 
         Map<Integer, Integer> groupThreadsMap = new HashMap<>(commonGroup.getThreadsMap());
 
@@ -77,10 +77,10 @@ public class GroupJoinRequestMessage extends Message {
         List<Integer> childrenNodes = new ArrayList<>(commonGroup.getCommunicationTree().getChildrenNodes());
 
         GroupJoinInformMessage message
-                = new GroupJoinInformMessage(requestNum, groupId, requesterGlobalThreadId, groupThreadsMap);
+                = new GroupJoinInformMessage(requestNum, groupId, physicalId, groupThreadsMap);
 
         GroupJoinStates states = commonGroup.getGroupJoinStates();
-        GroupJoinStates.State state = states.create(requestNum, requesterGlobalThreadId, childrenNodes.size());
+        GroupJoinStates.State state = states.create(requestNum, physicalId, requesterGlobalThreadIds, childrenNodes.size());
 
         childrenNodes.stream()
                 .map(nodeData::getSocketChannelByPhysicalId)
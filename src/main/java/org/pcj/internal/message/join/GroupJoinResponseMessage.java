@@ -27,46 +27,51 @@ public class GroupJoinResponseMessage extends Message {
 
     private int requestNum;
     private int groupId;
-    private int requesterGlobalThreadId;
-    private int requesterGroupThreadId;
+    private int[] requesterGlobalThreadIds;
+    private int[] requesterGroupThreadIds;
 
     public GroupJoinResponseMessage() {
         super(MessageType.GROUP_JOIN_RESPONSE);
     }
 
-    public GroupJoinResponseMessage(int requestNum, int groupId, int requesterGlobalThreadId, int requesterGroupThreadId) {
+    public GroupJoinResponseMessage(int requestNum, int groupId, int[] requesterGlobalThreadIds, int[] requesterGroupThreadIds) {
         this();
 
         this.requestNum = requestNum;
         this.groupId = groupId;
-        this.requesterGlobalThreadId = requesterGlobalThreadId;
-        this.requesterGroupThreadId = requesterGroupThreadId;
+        this.requesterGlobalThreadIds = requesterGlobalThreadIds;
+        this.requesterGroupThreadIds = requesterGroupThreadIds;
     }
 
     @Override
     public void write(MessageDataOutputStream out) throws IOException {
         out.writeInt(requestNum);
         out.writeInt(groupId);
-        out.writeInt(requesterGlobalThreadId);
-        out.writeInt(requesterGroupThreadId);
+        out.writeIntArray(requesterGlobalThreadIds);
+        out.writeIntArray(requesterGroupThreadIds);
     }
 
     @Override
     public void onReceive(SocketChannel sender, MessageDataInputStream in) throws IOException {
         requestNum = in.readInt();
         groupId = in.readInt();
-        requesterGlobalThreadId = in.readInt();
-        requesterGroupThreadId = in.readInt();
+        requesterGlobalThreadIds = in.readIntArray();
+        requesterGroupThreadIds = in.readIntArray();
 
         NodeData nodeData = InternalPCJ.getNodeData();
+        GroupJoinStates states = nodeData.getGroupJoinStates();
 
         InternalCommonGroup commonGroup = nodeData.getCommonGroupById(groupId);
-        InternalGroup threadGroup = new InternalGroup(requesterGroupThreadId, commonGroup);
-        PcjThread pcjThread = nodeData.getPcjThread(requesterGlobalThreadId);
-        pcjThread.getThreadData().addGroup(threadGroup);
+        for (int i = 0; i < requesterGlobalThreadIds.length; ++i) {
+            InternalGroup threadGroup = new InternalGroup(requesterGroupThreadIds[i], commonGroup);
+            PcjThread pcjThread = nodeData.getPcjThread(requesterGlobalThreadIds[i]);
+            pcjThread.getThreadData().addGroup(threadGroup);
 
-        GroupJoinStates states = nodeData.getGroupJoinStates();
-        GroupJoinStates.Notification notification = states.removeNotification(requestNum, requesterGlobalThreadId);
-        notification.signal(threadGroup);
+            GroupJoinStates.Notification notification = states.removeNotification(requestNum, requesterGlobalThreadIds[i]);
+            notification.signal(threadGroup);
+        }
+
+        /* PCJ Threads queued during the request are sent in the next one */
+        states.sendRequest(commonGroup);
     }
 }
@@ -9,8 +9,13 @@
 package org.pcj.internal.message.join;
 
 import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -22,6 +27,14 @@ import org.pcj.internal.NodeData;
 import org.pcj.internal.message.Message;
 
 /**
+ * States of joining PCJ Threads to groups.
+ * <p>
+ * Joins of PCJ Threads placed on the same node are batched: when the request
+ * for the group is in progress, PCJ Threads joining the group are queued and
+ * sent in one request after completion of the current one. The group master
+ * node adds all PCJ Threads of the request at once, so thread maps and
+ * communication trees are updated once per request.
+ *
  * @author Marek Nowicki (faramir@mat.umk.pl)
  */
 public class GroupJoinStates {
@@ -29,55 +42,105 @@ public class GroupJoinStates {
     private final AtomicInteger counter;
     private final ConcurrentMap<List<Integer>, State> stateMap;
     private final ConcurrentMap<List<Integer>, Notification> notificationMap;
+    private final Map<String, Queue<Notification>> queuedNotificationsMap; // groupName -> notifications
 
     public GroupJoinStates() {
         counter = new AtomicInteger(0);
         stateMap = new ConcurrentHashMap<>();
         notificationMap = new ConcurrentHashMap<>();
+        queuedNotificationsMap = new HashMap<>();
     }
 
     public Notification createNotification(int threadId) {
+        GroupJoinFuture future = new GroupJoinFuture();
+        return new Notification(threadId, future);
+    }
+
+    /**
+     * Queues joining PCJ Thread.
+     *
+     * @param groupName    name of the group
+     * @param notification notification of joining PCJ Thread
+     * @return true if there is no request for the group in progress, and
+     * the caller should send the request using {@link #sendRequest(InternalCommonGroup)}
+     */
+    public boolean queue(String groupName, Notification notification) {
+        synchronized (queuedNotificationsMap) {
+            Queue<Notification> queuedNotifications = queuedNotificationsMap.get(groupName);
+            if (queuedNotifications != null) {
+                queuedNotifications.add(notification);
+                return false;
+            }
+            queuedNotifications = new ArrayDeque<>();
+            queuedNotifications.add(notification);
+            queuedNotificationsMap.put(groupName, queuedNotifications);
+            return true;
+        }
+    }
+
+    /**
+     * Sends one request with all queued PCJ Threads joining the group. If
+     * there is no queued PCJ Thread, the request for the group is no longer in
+     * progress.
+     *
+     * @param commonGroup group to join
+     */
+    public void sendRequest(InternalCommonGroup commonGroup) {
+        List<Notification> notifications = new ArrayList<>();
+        synchronized (queuedNotificationsMap) {
+            Queue<Notification> queuedNotifications = queuedNotificationsMap.get(commonGroup.getName());
+            if (queuedNotifications.isEmpty()) {
+                queuedNotificationsMap.remove(commonGroup.getName());
+                return;
+            }
+            notifications.addAll(queuedNotifications);
+            queuedNotifications.clear();
+        }
+
         int requestNum = counter.incrementAndGet();
+        int[] threadIds = new int[notifications.size()];
+        for (int i = 0; i < threadIds.length; ++i) {
+            Notification notification = notifications.get(i);
+            threadIds[i] = notification.threadId;
+            notificationMap.put(Arrays.asList(requestNum, notification.threadId), notification);
+        }
 
-        GroupJoinFuture future = new GroupJoinFuture();
-        Notification notification = new Notification(requestNum, future);
+        NodeData nodeData = InternalPCJ.getNodeData();
+        GroupJoinRequestMessage message = new GroupJoinRequestMessage(
+                requestNum, commonGroup.getName(), commonGroup.getGroupId(), nodeData.getCurrentNodePhysicalId(), threadIds);
 
-        notificationMap.put(Arrays.asList(requestNum, threadId), notification);
+        SocketChannel groupMasterSocketChannel = nodeData.getSocketChannelByPhysicalId(commonGroup.getCommunicationTree().getMasterNode());
 
-        return notification;
+        InternalPCJ.getNetworker().send(groupMasterSocketChannel, message);
     }
 
     public Notification removeNotification(int requestNum, int threadId) {
         return notificationMap.remove(Arrays.asList(requestNum, threadId));
     }
 
-    public State get(int requestNum, int requesterThreadId) {
-        return stateMap.get(Arrays.asList(requestNum, requesterThreadId));
+    public State get(int requestNum, int requesterPhysicalId) {
+        return stateMap.get(Arrays.asList(requestNum, requesterPhysicalId));
     }
 
-    public State create(int requestNum, int requesterThreadId, int childrenCount) {
-        return stateMap.computeIfAbsent(Arrays.asList(requestNum, requesterThreadId),
-                key -> new State(requestNum, requesterThreadId, childrenCount));
+    public State create(int requestNum, int requesterPhysicalId, int[] joinerGlobalThreadIds, int childrenCount) {
+        return stateMap.computeIfAbsent(Arrays.asList(requestNum, requesterPhysicalId),
+                key -> new State(requestNum, requesterPhysicalId, joinerGlobalThreadIds, childrenCount));
     }
 
-    public State remove(int requestNum, int threadId) {
-        return stateMap.remove(Arrays.asList(requestNum, threadId));
+    public State remove(int requestNum, int requesterPhysicalId) {
+        return stateMap.remove(Arrays.asList(requestNum, requesterPhysicalId));
     }
 
     public class Notification {
 
-        private final int requestNum;
+        private final int threadId;
         private final GroupJoinFuture future;
 
-        public Notification(int requestNum, GroupJoinFuture future) {
-            this.requestNum = requestNum;
+        public Notification(int threadId, GroupJoinFuture future) {
+            this.threadId = threadId;
             this.future = future;
         }
 
-        public int getRequestNum() {
-            return requestNum;
-        }
-
         public PcjFuture<InternalGroup> getFuture() {
             return future;
         }
@@ -90,12 +153,14 @@ public class GroupJoinStates {
     public class State {
 
         private final int requestNum;
-        private final int joinerGlobalThreadId;
+        private final int requesterPhysicalId;
+        private final int[] joinerGlobalThreadIds;
         private final AtomicInteger notificationCount;
 
-        private State(int requestNum, int joinerGlobalThreadId, int childrenCount) {
+        private State(int requestNum, int requesterPhysicalId, int[] joinerGlobalThreadIds, int childrenCount) {
             this.requestNum = requestNum;
-            this.joinerGlobalThreadId = joinerGlobalThreadId;
+            this.requesterPhysicalId = requesterPhysicalId;
+            this.joinerGlobalThreadIds = joinerGlobalThreadIds;
 
             this.notificationCount = new AtomicInteger(childrenCount + 1);
         }
@@ -105,22 +170,25 @@ public class GroupJoinStates {
 
             int leftPhysical = notificationCount.decrementAndGet();
             if (leftPhysical == 0) {
-                GroupJoinStates.this.remove(requestNum, joinerGlobalThreadId);
+                GroupJoinStates.this.remove(requestNum, requesterPhysicalId);
 
                 SocketChannel socket;
                 Message message;
                 int groupId = commonGroup.getGroupId();
 
                 if (nodeData.getCurrentNodePhysicalId() == commonGroup.getCommunicationTree().getMasterNode()) {
-                    int requesterPhysicalId = nodeData.getPhysicalId(joinerGlobalThreadId);
                     socket = nodeData.getSocketChannelByPhysicalId(requesterPhysicalId);
 
-                    message = new GroupJoinResponseMessage(requestNum, groupId, joinerGlobalThreadId, commonGroup.getGroupThreadId(joinerGlobalThreadId));
+                    int[] joinerGroupThreadIds = new int[joinerGlobalThreadIds.length];
+                    for (int i = 0; i < joinerGlobalThreadIds.length; ++i) {
+                        joinerGroupThreadIds[i] = commonGroup.getGroupThreadId(joinerGlobalThreadIds[i]);
+                    }
+                    message = new GroupJoinResponseMessage(requestNum, groupId, joinerGlobalThreadIds, joinerGroupThreadIds);
                 } else {
                     int parentId = commonGroup.getCommunicationTree().getParentNode();
                     socket = nodeData.getSocketChannelByPhysicalId(parentId);
 
-                    message = new GroupJoinConfirmMessage(requestNum, groupId, joinerGlobalThreadId, nodeData.getCurrentNodePhysicalId());
+                    message = new GroupJoinConfirmMessage(requestNum, groupId, requesterPhysicalId);
                 }
 
                 InternalPCJ.getNetworker().send(socket, message);
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2011-2019, PCJ Library, Marek Nowicki
+ * All rights reserved.
+ *
+ * Licensed under New BSD License (3-clause license).
+ *
+ * See the file "LICENSE" for the full license governing this code.
+ */
+package org.pcj.internal.message.put;
+
+import java.io.IOException;
+import java.nio.channels.SocketChannel;
+import org.pcj.OffHeapArray;
+import org.pcj.internal.InternalPCJ;
+import org.pcj.internal.InternalStorages;
+import org.pcj.internal.NodeData;
+import org.pcj.internal.PcjThread;
+import org.pcj.internal.message.Message;
+import org.pcj.internal.message.MessageType;
+import org.pcj.internal.network.MessageDataInputStream;
+import org.pcj.internal.network.MessageDataOutputStream;
+
+/**
+ * Request for putting values into the part of the array variable. Response
+ * is sent using {@link ValuePutResponseMessage}.
+ *
+ * @author Marek Nowicki (faramir@mat.umk.pl)
+ */
+public final class ValuePutRangeRequestMessage extends Message {
+
+    private int requestNum;
+    private int groupId;
+    private int requesterThreadId;
+    private int threadId;
+    private String sharedEnumClassName;
+    private String name;
+    private long fromIndex;
+    private Object newValue;
+
+    public ValuePutRangeRequestMessage() {
+        super(MessageType.VALUE_PUT_RANGE_REQUEST);
+    }
+
+    public ValuePutRangeRequestMessage(int groupId, int requestNum, int requesterThreadId, int threadId, String storageName, String name, long fromIndex, Object newValue) {
+        this();
+
+        this.groupId = groupId;
+        this.requestNum = requestNum;
+        this.requesterThreadId = requesterThreadId;
+        this.threadId = threadId;
+        this.sharedEnumClassName = storageName;
+        this.name = name;
+        this.fromIndex = fromIndex;
+        this.newValue = newValue;
+    }
+
+    @Override
+    public void write(MessageDataOutputStream out) throws IOException {
+        out.writeInt(groupId);
+        out.writeInt(requestNum);
+        out.writeInt(requesterThreadId);
+        out.writeInt(threadId);
+        out.writeString(sharedEnumClassName);
+        out.writeString(name);
+        out.writeLong(fromIndex);
+        if (newValue instanceof OffHeapArray) {
+            out.writeBoolean(true);
+            out.writeOffHeapArray((OffHeapArray) newValue);
+        } else {
+            out.writeBoolean(false);
+            out.writeObject(newValue);
+        }
+    }
+
+    @Override
+    public void onReceive(SocketChannel sender, MessageDataInputStream in) throws IOException {
+        groupId = in.readInt();
+        requestNum = in.readInt();
+        requesterThreadId = in.readInt();
+        threadId = in.readInt();
+        sharedEnumClassName = in.readString();
+        name = in.readString();
+        fromIndex = in.readLong();
+
+        NodeData nodeData = InternalPCJ.getNodeData();
+        PcjThread pcjThread = nodeData.getPcjThread(groupId, threadId);
+
+        InternalStorages storage = pcjThread.getThreadData().getStorages();
+
+        ValuePutResponseMessage valuePutResponseMessage = new ValuePutResponseMessage(groupId, requestNum, requesterThreadId);
+        try {
+            boolean offHeap = in.readBoolean();
+            if (offHeap) {
+                newValue = in.readOffHeapArray();
+            } else {
+                newValue = in.readObject();
+            }
+            storage.putRange(newValue, sharedEnumClassName, name, fromIndex);
+        } catch (Exception ex) {
+            valuePutResponseMessage.setException(ex);
+        }
+
+        InternalPCJ.getNetworker().send(sender, valuePutResponseMessage);
+    }
+}
@@ -10,6 +10,7 @@ package org.pcj.internal.message.put;
 
 import java.io.IOException;
 import java.nio.channels.SocketChannel;
+import org.pcj.OffHeapArray;
 import org.pcj.internal.InternalPCJ;
 import org.pcj.internal.InternalStorages;
 import org.pcj.internal.NodeData;
@@ -59,7 +60,13 @@ public final class ValuePutRequestMessage extends Message {
         out.writeString(sharedEnumClassName);
         out.writeString(name);
         out.writeIntArray(indices);
-        out.writeObject(newValue);
+        if (newValue instanceof OffHeapArray) {
+            out.writeBoolean(true);
+            out.writeOffHeapArray((OffHeapArray) newValue);
+        } else {
+            out.writeBoolean(false);
+            out.writeObject(newValue);
+        }
     }
 
     @Override
@@ -79,7 +86,12 @@ public final class ValuePutRequestMessage extends Message {
 
         ValuePutResponseMessage valuePutResponseMessage = new ValuePutResponseMessage(groupId, requestNum, requesterThreadId);
         try {
-            newValue = in.readObject();
+            boolean offHeap = in.readBoolean();
+            if (offHeap) {
+                newValue = in.readOffHeapArray();
+            } else {
+                newValue = in.readObject();
+            }
             storage.put(newValue, sharedEnumClassName, name, indices);
         } catch (Exception ex) {
             valuePutResponseMessage.setException(ex);
@@ -12,6 +12,7 @@ import java.io.IOException;
 import java.nio.channels.SocketChannel;
 import org.pcj.PcjRuntimeException;
 import org.pcj.ReduceOperation;
+import org.pcj.internal.CollectiveOperation;
 import org.pcj.internal.InternalCommonGroup;
 import org.pcj.internal.InternalPCJ;
 import org.pcj.internal.Networker;
@@ -58,7 +59,7 @@ public final class ReduceRequestMessage<T> extends Message {
         out.writeString(sharedEnumClassName);
         out.writeString(variableName);
         out.writeIntArray(indices);
-        out.writeObject(function);
+        out.writeReduceOperation(function);
     }
 
     @SuppressWarnings("unchecked")
@@ -72,7 +73,7 @@ public final class ReduceRequestMessage<T> extends Message {
         variableName = in.readString();
         indices = in.readIntArray();
         try {
-            function = (ReduceOperation<T>) in.readObject();
+            function = in.readReduceOperation();
         } catch (ClassNotFoundException e) {
             throw new PcjRuntimeException(e);
         }
@@ -84,7 +85,7 @@ public final class ReduceRequestMessage<T> extends Message {
         ReduceStates.State<T> state = states.getOrCreate(requestNum, requesterThreadId, commonGroup);
 
         Networker networker = InternalPCJ.getNetworker();
-        commonGroup.getCommunicationTree().getChildrenNodes()
+        commonGroup.getCommunicationTree(CollectiveOperation.REDUCE).getChildrenNodes()
                 .stream()
                 .map(nodeData::getSocketChannelByPhysicalId)
                 .forEach(socket -> networker.send(socket, this));
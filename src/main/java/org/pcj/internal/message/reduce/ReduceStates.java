@@ -12,7 +12,6 @@ import java.nio.channels.SocketChannel;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Queue;
-import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
@@ -20,9 +19,12 @@ import java.util.concurrent.atomic.AtomicInteger;
 import org.pcj.PcjFuture;
 import org.pcj.PcjRuntimeException;
 import org.pcj.ReduceOperation;
+import org.pcj.internal.BuiltinReduceOperation;
+import org.pcj.internal.CollectiveOperation;
 import org.pcj.internal.InternalCommonGroup;
 import org.pcj.internal.InternalPCJ;
 import org.pcj.internal.InternalStorages;
+import org.pcj.internal.LocalCombiner;
 import org.pcj.internal.NodeData;
 import org.pcj.internal.PcjThread;
 import org.pcj.internal.message.Message;
@@ -44,7 +46,7 @@ public class ReduceStates {
         int requestNum = counter.incrementAndGet();
 
         ReduceFuture<T> future = new ReduceFuture<>();
-        State<T> state = new State<>(requestNum, threadId, commonGroup.getCommunicationTree().getChildrenNodes().size(), future);
+        State<T> state = new State<>(requestNum, threadId, commonGroup.getCommunicationTree(CollectiveOperation.REDUCE).getChildrenNodes().size(), future);
 
         stateMap.put(Arrays.asList(requestNum, threadId), state);
 
@@ -54,7 +56,7 @@ public class ReduceStates {
     @SuppressWarnings("unchecked")
     public <T> State<T> getOrCreate(int requestNum, int requesterThreadId, InternalCommonGroup commonGroup) {
         return (State<T>) stateMap.computeIfAbsent(Arrays.asList(requestNum, requesterThreadId),
-                key -> new State<>(requestNum, requesterThreadId, commonGroup.getCommunicationTree().getChildrenNodes().size()));
+                key -> new State<>(requestNum, requesterThreadId, commonGroup.getCommunicationTree(CollectiveOperation.REDUCE).getChildrenNodes().size()));
     }
 
     public State remove(int requestNum, int threadId) {
@@ -67,7 +69,7 @@ public class ReduceStates {
         private final int requesterThreadId;
         private final AtomicInteger notificationCount;
         private final ReduceFuture<T> future;
-        private final Queue<T> receivedValues;
+        private final ConcurrentMap<Integer, T> receivedValues;
         private final Queue<Exception> exceptions;
         private String sharedEnumClassName;
         private String variableName;
@@ -81,7 +83,7 @@ public class ReduceStates {
 
             // notification from children and from itself
             notificationCount = new AtomicInteger(childrenCount + 1);
-            receivedValues = new ConcurrentLinkedQueue<>();
+            receivedValues = new ConcurrentHashMap<>();
             exceptions = new ConcurrentLinkedQueue<>();
         }
 
@@ -106,11 +108,11 @@ public class ReduceStates {
             nodeProcessed(group);
         }
 
-        void upProcessNode(InternalCommonGroup group, T receivedValue, Queue<Exception> messageExceptions) {
+        void upProcessNode(InternalCommonGroup group, int childPhysicalId, T receivedValue, Queue<Exception> messageExceptions) {
             if ((messageExceptions != null) && (!messageExceptions.isEmpty())) {
                 exceptions.addAll(messageExceptions);
             } else {
-                receivedValues.add(receivedValue);
+                receivedValues.put(childPhysicalId, receivedValue);
             }
 
             nodeProcessed(group);
@@ -131,8 +133,10 @@ public class ReduceStates {
                 if (exceptions.isEmpty()) {
                     try {
                         reducedValue = getValue(group);
-                        for (T value : receivedValues) {
-                            reducedValue = function.apply(reducedValue, value);
+                        // values of children are combined in order of the tree, not in order of arrival
+                        for (int childPhysicalId : group.getCommunicationTree(CollectiveOperation.REDUCE).getChildrenNodes()) {
+                            T value = receivedValues.get(childPhysicalId);
+                            reducedValue = reducedValue == null ? value : function.apply(reducedValue, value);
                         }
                     } catch (Exception ex) {
                         exceptions.add(ex);
@@ -143,11 +147,11 @@ public class ReduceStates {
                 SocketChannel socket;
 
                 int physicalId = nodeData.getCurrentNodePhysicalId();
-                if (physicalId != group.getCommunicationTree().getMasterNode()) {
-                    int parentId = group.getCommunicationTree().getParentNode();
+                if (physicalId != group.getCommunicationTree(CollectiveOperation.REDUCE).getMasterNode()) {
+                    int parentId = group.getCommunicationTree(CollectiveOperation.REDUCE).getParentNode();
                     socket = nodeData.getSocketChannelByPhysicalId(parentId);
 
-                    message = new ReduceValueMessage<>(group.getGroupId(), requestNum, requesterThreadId, reducedValue, exceptions);
+                    message = new ReduceValueMessage<>(group.getGroupId(), requestNum, requesterThreadId, physicalId, reducedValue, exceptions);
                 } else {
                     socket = nodeData.getSocketChannelByPhysicalId(requesterPhysicalId);
 
@@ -165,24 +169,26 @@ public class ReduceStates {
 
         private T getValue(InternalCommonGroup group) {
             NodeData nodeData = InternalPCJ.getNodeData();
-            Set<Integer> threadsId = group.getLocalThreadsId();
 
-            boolean foundAny = false;
-            T reducedValue = null;
-            for (int threadId : threadsId) {
+            return LocalCombiner.reduce(LocalCombiner.getLocalThreadIds(group), threadId -> {
                 int globalThreadId = group.getGlobalThreadId(threadId);
                 PcjThread pcjThread = nodeData.getPcjThread(globalThreadId);
                 InternalStorages storage = pcjThread.getThreadData().getStorages();
 
-                T value = storage.get(this.sharedEnumClassName, this.variableName, this.indices);
-                if (!foundAny) {
-                    foundAny = true;
-                    reducedValue = value;
-                } else {
-                    reducedValue = function.apply(reducedValue, value);
-                }
+                return storage.get(this.sharedEnumClassName, this.variableName, this.indices);
+            }, this::accumulatorOf, function);
+        }
+
+        /*
+         * built-in operations combine arrays in place of the first argument,
+         * so they get a copy instead of the value of shareable variable
+         */
+        @SuppressWarnings("unchecked")
+        private T accumulatorOf(T value) {
+            if (function instanceof BuiltinReduceOperation) {
+                return (T) BuiltinReduceOperation.accumulatorOf(value);
             }
-            return reducedValue;
+            return value;
         }
 
         public void signal(T value, Queue<Exception> messageExceptions) {
@@ -28,6 +28,7 @@ public final class ReduceValueMessage<T> extends Message {
     private int groupId;
     private int requestNum;
     private int requesterThreadId;
+    private int physicalId;
     private T value;
     private Queue<Exception> exceptions;
 
@@ -35,11 +36,12 @@ public final class ReduceValueMessage<T> extends Message {
         super(MessageType.REDUCE_VALUE);
     }
 
-    ReduceValueMessage(int groupId, int requestNum, int requesterThreadId, T value, Queue<Exception> exceptions) {
+    ReduceValueMessage(int groupId, int requestNum, int requesterThreadId, int physicalId, T value, Queue<Exception> exceptions) {
         this();
         this.groupId = groupId;
         this.requestNum = requestNum;
         this.requesterThreadId = requesterThreadId;
+        this.physicalId = physicalId;
         this.value = value;
         this.exceptions = exceptions;
     }
@@ -49,6 +51,7 @@ public final class ReduceValueMessage<T> extends Message {
         out.writeInt(groupId);
         out.writeInt(requestNum);
         out.writeInt(requesterThreadId);
+        out.writeInt(physicalId);
         boolean exception = ((exceptions != null) && (!exceptions.isEmpty()));
         out.writeBoolean(exception);
         if (exception) {
@@ -64,6 +67,7 @@ public final class ReduceValueMessage<T> extends Message {
         groupId = in.readInt();
         requestNum = in.readInt();
         requesterThreadId = in.readInt();
+        physicalId = in.readInt();
 
         boolean exceptionOccurred = in.readBoolean();
         try {
@@ -83,6 +87,6 @@ public final class ReduceValueMessage<T> extends Message {
         ReduceStates states = commonGroup.getReduceStates();
         ReduceStates.State<T> state = states.getOrCreate(requestNum, requesterThreadId, commonGroup);
 
-        state.upProcessNode(commonGroup, value, exceptions);
+        state.upProcessNode(commonGroup, physicalId, value, exceptions);
     }
 }
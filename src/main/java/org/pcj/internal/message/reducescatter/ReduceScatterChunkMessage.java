@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2011-2019, PCJ Library, Marek Nowicki
+ * All rights reserved.
+ *
+ * Licensed under New BSD License (3-clause license).
+ *
+ * See the file "LICENSE" for the full license governing this code.
+ */
+package org.pcj.internal.message.reducescatter;
+
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.nio.channels.SocketChannel;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import org.pcj.internal.InternalCommonGroup;
+import org.pcj.internal.InternalPCJ;
+import org.pcj.internal.NodeData;
+import org.pcj.internal.PrimitiveTypes;
+import org.pcj.internal.message.Message;
+import org.pcj.internal.message.MessageType;
+import org.pcj.internal.network.MessageDataInputStream;
+import org.pcj.internal.network.MessageDataOutputStream;
+
+/**
+ * Message with part of array sent between nodes in reduce-scatter.
+ * <p>
+ * Arrays of primitive numeric elements are written without Java serialization,
+ * directly from the range of the node array.
+ *
+ * @author Marek Nowicki (faramir@mat.umk.pl)
+ */
+public final class ReduceScatterChunkMessage extends Message {
+
+    private int groupId;
+    private int round;
+    private int step;
+    private Object array;
+    private int offset;
+    private int length;
+    private Queue<Exception> exceptions;
+
+    public ReduceScatterChunkMessage() {
+        super(MessageType.REDUCESCATTER_CHUNK);
+    }
+
+    ReduceScatterChunkMessage(int groupId, int round, int step, Object array, int offset, int length, Queue<Exception> exceptions) {
+        this();
+
+        this.groupId = groupId;
+        this.round = round;
+        this.step = step;
+        this.array = array;
+        this.offset = offset;
+        this.length = length;
+        this.exceptions = exceptions;
+    }
+
+    @Override
+    public void write(MessageDataOutputStream out) throws IOException {
+        out.writeInt(groupId);
+        out.writeInt(round);
+        out.writeInt(step);
+
+        boolean exception = ((exceptions != null) && (!exceptions.isEmpty()));
+        out.writeBoolean(exception);
+        if (exception) {
+            out.writeObject(exceptions);
+        } else if (PrimitiveTypes.isNumericArray(array)) {
+            out.writeBoolean(true);
+            out.writePrimitiveArray(array, offset, length);
+        } else {
+            Object chunk = Array.newInstance(array.getClass().getComponentType(), length);
+            System.arraycopy(array, offset, chunk, 0, length);
+            out.writeBoolean(false);
+            out.writeObject(chunk);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void onReceive(SocketChannel sender, MessageDataInputStream in) throws IOException {
+        groupId = in.readInt();
+        round = in.readInt();
+        step = in.readInt();
+
+        Object chunk = null;
+        boolean exceptionOccurred = in.readBoolean();
+        try {
+            if (exceptionOccurred) {
+                exceptions = (Queue<Exception>) in.readObject();
+            } else if (in.readBoolean()) {
+                chunk = in.readPrimitiveArray();
+            } else {
+                chunk = in.readObject();
+            }
+        } catch (Exception ex) {
+            exceptions = new ConcurrentLinkedQueue<>();
+            exceptions.add(ex);
+        }
+
+        NodeData nodeData = InternalPCJ.getNodeData();
+        InternalCommonGroup commonGroup = nodeData.getCommonGroupById(groupId);
+
+        ReduceScatterStates states = commonGroup.getReduceScatterStates();
+        ReduceScatterStates.State<?> state = states.getOrCreate(round, commonGroup);
+
+        state.chunkReceived(commonGroup, step, chunk, exceptions);
+    }
+}
@@ -0,0 +1,430 @@
+/*
+ * Copyright (c) 2011-2019, PCJ Library, Marek Nowicki
+ * All rights reserved.
+ *
+ * Licensed under New BSD License (3-clause license).
+ *
+ * See the file "LICENSE" for the full license governing this code.
+ */
+package org.pcj.internal.message.reducescatter;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.pcj.PcjFuture;
+import org.pcj.PcjRuntimeException;
+import org.pcj.ReduceOperation;
+import org.pcj.internal.BuiltinReduceOperation;
+import org.pcj.internal.CollectiveOperation;
+import org.pcj.internal.InternalCommonGroup;
+import org.pcj.internal.InternalPCJ;
+import org.pcj.internal.InternalStorages;
+import org.pcj.internal.NodeData;
+
+/**
+ * States of reduce-scatter operations.
+ * <p>
+ * All PCJ Threads of the group take part in the operation. Arrays of local
+ * PCJ Threads are reduced element-wise into the node array, in which blocks
+ * of PCJ Threads placed on the same node are stored one after another (node
+ * chunk). Then nodes exchange chunks, so that each node gets its own chunk
+ * reduced over all nodes, and local PCJ Threads get their blocks.
+ * <p>
+ * Chunks are exchanged pairwise (each node sends chunks directly to all other
+ * nodes, one step) or, for large arrays (see {@code pcj.reducescatter.ring.threshold}),
+ * in the ring of nodes (P-1 steps, each node sends to the next node only).
+ * Received chunks are combined in fixed order, so the result does not depend
+ * on order of arrival of messages.
+ *
+ * @author Marek Nowicki (faramir@mat.umk.pl)
+ */
+public class ReduceScatterStates {
+
+    private static final Object NO_CHUNK = new Object();
+    private final ConcurrentMap<Integer, AtomicInteger> counterMap;
+    private final ConcurrentMap<Integer, State<?>> stateMap;
+
+    public ReduceScatterStates() {
+        counterMap = new ConcurrentHashMap<>();
+        stateMap = new ConcurrentHashMap<>();
+    }
+
+    public int getNextRound(int threadId) {
+        AtomicInteger roundCounter = counterMap.computeIfAbsent(threadId, key -> new AtomicInteger(0));
+        return roundCounter.incrementAndGet();
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> State<T> getOrCreate(int round, InternalCommonGroup commonGroup) {
+        return (State<T>) stateMap.computeIfAbsent(round,
+                key -> new State<>(round, commonGroup.getLocalThreadsId().size()));
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> State<T> remove(int round) {
+        return (State<T>) stateMap.remove(round);
+    }
+
+    /**
+     * Checks if the reduce function combines arrays of type of the source array.
+     * <p>
+     * The function is applied on empty arrays, so it is rejected before any
+     * PCJ Thread starts the operation, instead of failing while combining chunks.
+     *
+     * @param function reduce function
+     * @param array    source array
+     * @throws IllegalArgumentException when the function does not accept the arrays
+     */
+    @SuppressWarnings("unchecked")
+    public static void checkFunction(ReduceOperation<?> function, Object array) throws IllegalArgumentException {
+        if (array == null || !array.getClass().isArray() || function instanceof BuiltinReduceOperation) {
+            return;
+        }
+        Object empty = Array.newInstance(array.getClass().getComponentType(), 0);
+        try {
+            ((ReduceOperation<Object>) function).apply(empty, empty);
+        } catch (ClassCastException ex) {
+            throw new IllegalArgumentException("Reduce function has to combine arrays of type "
+                                                       + array.getClass().getSimpleName() + ", not their elements", ex);
+        } catch (RuntimeException ex) {
+            // function may not expect empty arrays, only type of arguments is checked
+        }
+    }
+
+    public class State<T> {
+
+        private final int round;
+        private final AtomicInteger localCount;
+        private final Map<Integer, T> localValues;
+        private final Map<Integer, ReduceScatterFuture> futures;
+        private final Map<Integer, Object> pendingChunks;
+        private final Queue<Exception> exceptions;
+        private ReduceOperation<T> function;
+        private String targetEnumClassName;
+        private String targetVariableName;
+        private int[] counts;
+        private List<Integer> nodes;
+        private int nodeIndex;
+        private boolean ring;
+        private int[] chunkOffsets;
+        private int[] blockOffsets;
+        private int[] displacements;
+        private Object nodeArray;
+        private boolean started;
+        private int nextStep;
+
+        private State(int round, int localCount) {
+            this.round = round;
+
+            this.localCount = new AtomicInteger(localCount);
+            localValues = new TreeMap<>();
+            futures = new TreeMap<>();
+            pendingChunks = new HashMap<>();
+            exceptions = new ConcurrentLinkedQueue<>();
+        }
+
+        public PcjFuture<Void> processLocal(InternalCommonGroup group, int threadId, ReduceOperation<T> function,
+                                            String sourceEnumClassName, String sourceVariableName,
+                                            String targetEnumClassName, String targetVariableName, int[] counts) {
+            ReduceScatterFuture future = new ReduceScatterFuture();
+
+            T value = null;
+            try {
+                int globalThreadId = group.getGlobalThreadId(threadId);
+                InternalStorages storage = InternalPCJ.getNodeData().getPcjThread(globalThreadId).getThreadData().getStorages();
+                value = storage.get(sourceEnumClassName, sourceVariableName);
+            } catch (Exception ex) {
+                exceptions.add(ex);
+            }
+
+            synchronized (this) {
+                this.function = function;
+                this.targetEnumClassName = targetEnumClassName;
+                this.targetVariableName = targetVariableName;
+                this.counts = counts;
+                futures.put(threadId, future);
+                if (value != null) {
+                    localValues.put(threadId, value);
+                }
+            }
+
+            if (localCount.decrementAndGet() == 0) {
+                start(group);
+            }
+
+            return future;
+        }
+
+        private void start(InternalCommonGroup group) {
+            List<Outgoing> messages = new ArrayList<>();
+            synchronized (this) {
+                NodeData nodeData = InternalPCJ.getNodeData();
+                nodes = group.getCommunicationTree(CollectiveOperation.REDUCESCATTER).getNodes();
+                nodeIndex = nodes.indexOf(nodeData.getCurrentNodePhysicalId());
+
+                try {
+                    computeOffsets(group);
+                    nodeArray = reduceLocalValues();
+                } catch (Exception ex) {
+                    exceptions.add(ex);
+                }
+
+                int nodeCount = nodes.size();
+                int threshold = InternalPCJ.getConfiguration().REDUCESCATTER_RING_THRESHOLD;
+                ring = threshold >= 0 && nodeCount > 2 && Arrays.stream(counts).asLongStream().sum() >= threshold;
+
+                if (nodeCount == 1) {
+                    finish(group, nodeArray, 0);
+                } else if (ring) {
+                    messages.add(createChunkMessage(group, 0, Math.floorMod(nodeIndex - 1, nodeCount), nextNode()));
+                } else {
+                    for (int i = 0; i < nodeCount; ++i) {
+                        if (i != nodeIndex) {
+                            messages.add(createChunkMessage(group, nodeIndex, i, nodes.get(i)));
+                        }
+                    }
+                }
+                started = true;
+                processPendingChunks(group, messages);
+            }
+            sendMessages(messages);
+        }
+
+        /*
+         * displacements - position of block of the thread in value of the thread,
+         * blockOffsets - position of block of the thread in node array,
+         * chunkOffsets - position of chunk of the node in node array
+         */
+        private void computeOffsets(InternalCommonGroup group) {
+            int threadCount = group.threadCount();
+            if (counts.length != threadCount) {
+                throw new IllegalArgumentException("Number of counts (" + counts.length
+                                                           + ") is not equal to number of threads: " + threadCount);
+            }
+            NodeData nodeData = InternalPCJ.getNodeData();
+            Map<Integer, Integer> nodeIndices = new HashMap<>();
+            for (int i = 0; i < nodes.size(); ++i) {
+                nodeIndices.put(nodes.get(i), i);
+            }
+            int[] threadNodeIndices = new int[threadCount];
+            int[] chunkLengths = new int[nodes.size()];
+            displacements = new int[threadCount];
+            for (int threadId = 0; threadId < threadCount; ++threadId) {
+                if (threadId > 0) {
+                    displacements[threadId] = displacements[threadId - 1] + counts[threadId - 1];
+                }
+                int physicalId = nodeData.getPhysicalId(group.getGlobalThreadId(threadId));
+                threadNodeIndices[threadId] = nodeIndices.get(physicalId);
+                chunkLengths[threadNodeIndices[threadId]] += counts[threadId];
+            }
+            chunkOffsets = new int[nodes.size() + 1];
+            for (int i = 0; i < nodes.size(); ++i) {
+                chunkOffsets[i + 1] = chunkOffsets[i] + chunkLengths[i];
+            }
+            int[] positions = Arrays.copyOf(chunkOffsets, nodes.size());
+            blockOffsets = new int[threadCount];
+            for (int threadId = 0; threadId < threadCount; ++threadId) {
+                blockOffsets[threadId] = positions[threadNodeIndices[threadId]];
+                positions[threadNodeIndices[threadId]] += counts[threadId];
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private Object reduceLocalValues() {
+            int length = chunkOffsets[nodes.size()];
+            Object reducedValue = null;
+            for (T value : localValues.values()) {
+                if (value == null || !value.getClass().isArray() || Array.getLength(value) != length) {
+                    throw new IllegalArgumentException("Value is not an array of length equal to sum of counts ("
+                                                               + length + "): " + value);
+                }
+                if (reducedValue == null) {
+                    reducedValue = Array.newInstance(value.getClass().getComponentType(), length);
+                    pack(value, reducedValue);
+                } else if (function instanceof BuiltinReduceOperation) {
+                    BuiltinReduceOperation operation = (BuiltinReduceOperation) function;
+                    for (int threadId = 0; threadId < counts.length; ++threadId) {
+                        operation.combine(reducedValue, blockOffsets[threadId], value, displacements[threadId], counts[threadId]);
+                    }
+                } else {
+                    Object packed = Array.newInstance(value.getClass().getComponentType(), length);
+                    pack(value, packed);
+                    reducedValue = function.apply((T) reducedValue, (T) packed);
+                }
+            }
+            return reducedValue;
+        }
+
+        private void pack(Object value, Object packed) {
+            for (int threadId = 0; threadId < counts.length; ++threadId) {
+                System.arraycopy(value, displacements[threadId], packed, blockOffsets[threadId], counts[threadId]);
+            }
+        }
+
+        void chunkReceived(InternalCommonGroup group, int step, Object chunk, Queue<Exception> messageExceptions) {
+            List<Outgoing> messages = new ArrayList<>();
+            synchronized (this) {
+                if ((messageExceptions != null) && (!messageExceptions.isEmpty())) {
+                    exceptions.addAll(messageExceptions);
+                    pendingChunks.put(step, NO_CHUNK);
+                } else {
+                    pendingChunks.put(step, chunk);
+                }
+                if (started) {
+                    processPendingChunks(group, messages);
+                }
+            }
+            sendMessages(messages);
+        }
+
+        private void processPendingChunks(InternalCommonGroup group, List<Outgoing> messages) {
+            if (nodes.size() == 1) {
+                return;
+            }
+            if (ring) {
+                processRingChunks(group, messages);
+            } else if (pendingChunks.size() == nodes.size() - 1) {
+                processPairwiseChunks(group);
+            }
+        }
+
+        /*
+         * In step s the node at position k of the ring sends chunk (k-s-1) mod P
+         * and receives chunk (k-s-2) mod P, which is combined with the local one
+         * and sent in the next step. After P-1 steps the node has own chunk k.
+         */
+        @SuppressWarnings("unchecked")
+        private void processRingChunks(InternalCommonGroup group, List<Outgoing> messages) {
+            int nodeCount = nodes.size();
+            Object chunk;
+            while ((chunk = pendingChunks.remove(nextStep)) != null) {
+                int step = nextStep++;
+                int chunkIndex = Math.floorMod(nodeIndex - step - 2, nodeCount);
+
+                if (chunk != NO_CHUNK && exceptions.isEmpty()) {
+                    int from = chunkOffsets[chunkIndex];
+                    int length = chunkOffsets[chunkIndex + 1] - from;
+                    try {
+                        if (function instanceof BuiltinReduceOperation) {
+                            ((BuiltinReduceOperation) function).combine(nodeArray, from, chunk, 0, length);
+                        } else {
+                            Object combined = function.apply((T) copyOfRange(nodeArray, from, length), (T) chunk);
+                            System.arraycopy(combined, 0, nodeArray, from, length);
+                        }
+                    } catch (Exception ex) {
+                        exceptions.add(ex);
+                    }
+                }
+
+                if (step + 1 < nodeCount - 1) {
+                    messages.add(createChunkMessage(group, step + 1, chunkIndex, nextNode()));
+                } else {
+                    finish(group, nodeArray, 0);
+                }
+            }
+        }
+
+        /*
+         * Chunks received from all other nodes (step is the position of sender
+         * in the order of nodes) are combined with own one in order of nodes.
+         */
+        @SuppressWarnings("unchecked")
+        private void processPairwiseChunks(InternalCommonGroup group) {
+            if (!exceptions.isEmpty() || pendingChunks.containsValue(NO_CHUNK)) {
+                finish(group, null, 0);
+                return;
+            }
+            int from = chunkOffsets[nodeIndex];
+            int length = chunkOffsets[nodeIndex + 1] - from;
+            Object reducedValue = null;
+            try {
+                for (int i = 0; i < nodes.size(); ++i) {
+                    Object chunk = i == nodeIndex ? copyOfRange(nodeArray, from, length) : pendingChunks.get(i);
+                    reducedValue = reducedValue == null ? chunk : function.apply((T) reducedValue, (T) chunk);
+                }
+            } catch (Exception ex) {
+                exceptions.add(ex);
+            }
+            pendingChunks.clear();
+            finish(group, reducedValue, -from);
+        }
+
+        private Outgoing createChunkMessage(InternalCommonGroup group, int step, int chunkIndex, int physicalId) {
+            ReduceScatterChunkMessage message;
+            if (exceptions.isEmpty()) {
+                int from = chunkOffsets[chunkIndex];
+                int length = chunkOffsets[chunkIndex + 1] - from;
+                message = new ReduceScatterChunkMessage(group.getGroupId(), round, step, nodeArray, from, length, null);
+            } else {
+                message = new ReduceScatterChunkMessage(group.getGroupId(), round, step, null, 0, 0, exceptions);
+            }
+            return new Outgoing(physicalId, message);
+        }
+
+        private int nextNode() {
+            return nodes.get((nodeIndex + 1) % nodes.size());
+        }
+
+        private void sendMessages(List<Outgoing> messages) {
+            NodeData nodeData = InternalPCJ.getNodeData();
+            for (Outgoing outgoing : messages) {
+                InternalPCJ.getNetworker().send(nodeData.getSocketChannelByPhysicalId(outgoing.physicalId), outgoing.message);
+            }
+        }
+
+        private Object copyOfRange(Object array, int from, int length) {
+            Object copy = Array.newInstance(array.getClass().getComponentType(), length);
+            System.arraycopy(array, from, copy, 0, length);
+            return copy;
+        }
+
+        /*
+         * block of thread is at position blockOffsets[threadId] + shift in the array
+         */
+        private void finish(InternalCommonGroup group, Object array, int shift) {
+            ReduceScatterStates.this.remove(round);
+
+            if (!exceptions.isEmpty()) {
+                PcjRuntimeException ex = new PcjRuntimeException("Reduce-scatter failed", exceptions.poll());
+                exceptions.forEach(ex::addSuppressed);
+                futures.values().forEach(future -> future.signalException(ex));
+                return;
+            }
+
+            NodeData nodeData = InternalPCJ.getNodeData();
+            for (Map.Entry<Integer, ReduceScatterFuture> entry : futures.entrySet()) {
+                int threadId = entry.getKey();
+                ReduceScatterFuture future = entry.getValue();
+                try {
+                    Object block = copyOfRange(array, blockOffsets[threadId] + shift, counts[threadId]);
+                    int globalThreadId = group.getGlobalThreadId(threadId);
+                    InternalStorages storage = nodeData.getPcjThread(globalThreadId).getThreadData().getStorages();
+                    storage.put(block, targetEnumClassName, targetVariableName);
+                    future.signalDone();
+                } catch (Exception ex) {
+                    future.signalException(new PcjRuntimeException("Reduce-scatter failed", ex));
+                }
+            }
+        }
+    }
+
+    private static final class Outgoing {
+
+        private final int physicalId;
+        private final ReduceScatterChunkMessage message;
+
+        private Outgoing(int physicalId, ReduceScatterChunkMessage message) {
+            this.physicalId = physicalId;
+            this.message = message;
+        }
+    }
+}
@@ -0,0 +1,306 @@
+/*
+ * Copyright (c) 2011-2019, PCJ Library, Marek Nowicki
+ * All rights reserved.
+ *
+ * Licensed under New BSD License (3-clause license).
+ *
+ * See the file "LICENSE" for the full license governing this code.
+ */
+package org.pcj.internal.message.scan;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.pcj.PcjFuture;
+import org.pcj.PcjRuntimeException;
+import org.pcj.ReduceOperation;
+import org.pcj.internal.BuiltinReduceOperation;
+import org.pcj.internal.InternalCommonGroup;
+import org.pcj.internal.InternalPCJ;
+import org.pcj.internal.InternalStorages;
+import org.pcj.internal.NodeData;
+
+/**
+ * States of scan (inclusive and exclusive prefix reduction) operations.
+ * <p>
+ * All PCJ Threads of the group take part in the operation. Prefixes are
+ * computed using recursive doubling on PCJ Threads: in step {@code k} each
+ * PCJ Thread {@code i} sends its partial value (reduction of values of PCJ
+ * Threads {@code i-2^k+1..i}) to PCJ Thread {@code i+2^k} and combines
+ * the partial value received from PCJ Thread {@code i-2^k} with its own. After
+ * ceil(log P) steps the partial value is the inclusive prefix. Exclusive prefix
+ * is the combination of all received values.
+ * <p>
+ * Nodes make steps for all local PCJ Threads together, so partial values sent
+ * in the step to PCJ Threads placed on the same node are sent in one message.
+ * Received values are always combined as the first argument of the function,
+ * so the function has to be associative, but not necessarily commutative.
+ *
+ * @author Marek Nowicki (faramir@mat.umk.pl)
+ */
+public class ScanStates {
+
+    private final ConcurrentMap<Integer, AtomicInteger> counterMap;
+    private final ConcurrentMap<Integer, State<?>> stateMap;
+
+    public ScanStates() {
+        counterMap = new ConcurrentHashMap<>();
+        stateMap = new ConcurrentHashMap<>();
+    }
+
+    public int getNextRound(int threadId) {
+        AtomicInteger roundCounter = counterMap.computeIfAbsent(threadId, key -> new AtomicInteger(0));
+        return roundCounter.incrementAndGet();
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> State<T> getOrCreate(int round, InternalCommonGroup commonGroup) {
+        return (State<T>) stateMap.computeIfAbsent(round,
+                key -> new State<>(round, commonGroup.getLocalThreadsId().size()));
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> State<T> remove(int round) {
+        return (State<T>) stateMap.remove(round);
+    }
+
+    public class State<T> {
+
+        private final int round;
+        private final AtomicInteger localCount;
+        private final Map<Integer, T> originalValues;
+        private final Map<Integer, T> partialValues;
+        private final Map<Integer, T> exclusiveValues;
+        private final Map<Integer, ScanFuture<T>> futures;
+        private final Map<Integer, Map<Integer, T>> pendingValues;
+        private final Queue<Exception> exceptions;
+        private ReduceOperation<T> function;
+        private boolean exclusive;
+        private int threadCount;
+        private int stepCount;
+        private boolean started;
+        private int step;
+
+        private State(int round, int localCount) {
+            this.round = round;
+
+            this.localCount = new AtomicInteger(localCount);
+            originalValues = new HashMap<>();
+            partialValues = new TreeMap<>();
+            exclusiveValues = new HashMap<>();
+            futures = new TreeMap<>();
+            pendingValues = new HashMap<>();
+            exceptions = new ConcurrentLinkedQueue<>();
+        }
+
+        public PcjFuture<T> processLocal(InternalCommonGroup group, int threadId, ReduceOperation<T> function, boolean exclusive,
+                                         String sharedEnumClassName, String variableName, int[] indices) {
+            ScanFuture<T> future = new ScanFuture<>();
+
+            T value = null;
+            try {
+                int globalThreadId = group.getGlobalThreadId(threadId);
+                InternalStorages storage = InternalPCJ.getNodeData().getPcjThread(globalThreadId).getThreadData().getStorages();
+                value = storage.get(sharedEnumClassName, variableName, indices);
+            } catch (Exception ex) {
+                exceptions.add(ex);
+            }
+
+            synchronized (this) {
+                this.function = function;
+                this.exclusive = exclusive;
+                futures.put(threadId, future);
+                originalValues.put(threadId, value);
+                partialValues.put(threadId, value);
+            }
+
+            if (localCount.decrementAndGet() == 0) {
+                start(group);
+            }
+
+            return future;
+        }
+
+        private void start(InternalCommonGroup group) {
+            List<Outgoing> messages = new ArrayList<>();
+            synchronized (this) {
+                threadCount = group.threadCount();
+                stepCount = 32 - Integer.numberOfLeadingZeros(threadCount - 1);
+                started = true;
+
+                if (stepCount == 0) {
+                    finish();
+                } else {
+                    sendStep(group, messages);
+                    processPendingValues(group, messages);
+                }
+            }
+            sendMessages(messages);
+        }
+
+        void valuesReceived(InternalCommonGroup group, int step, int[] threadIds, Object[] values, Queue<Exception> messageExceptions) {
+            List<Outgoing> messages = new ArrayList<>();
+            synchronized (this) {
+                storeValues(step, threadIds, values, messageExceptions);
+                if (started) {
+                    processPendingValues(group, messages);
+                }
+            }
+            sendMessages(messages);
+        }
+
+        @SuppressWarnings("unchecked")
+        private void storeValues(int step, int[] threadIds, Object[] values, Queue<Exception> messageExceptions) {
+            if ((messageExceptions != null) && (!messageExceptions.isEmpty())) {
+                exceptions.addAll(messageExceptions);
+            }
+            Map<Integer, T> stepValues = pendingValues.computeIfAbsent(step, key -> new HashMap<>());
+            for (int i = 0; i < threadIds.length; ++i) {
+                stepValues.put(threadIds[i], values == null ? null : (T) values[i]);
+            }
+        }
+
+        /*
+         * partial values of local threads are sent to threads 2^step positions
+         * further, values for local threads are stored without messages
+         */
+        private void sendStep(InternalCommonGroup group, List<Outgoing> messages) {
+            NodeData nodeData = InternalPCJ.getNodeData();
+            int distance = 1 << step;
+
+            Map<Integer, List<Integer>> targetThreadIds = new LinkedHashMap<>();
+            for (int threadId : partialValues.keySet()) {
+                int targetThreadId = threadId + distance;
+                if (targetThreadId < threadCount) {
+                    int physicalId = nodeData.getPhysicalId(group.getGlobalThreadId(targetThreadId));
+                    targetThreadIds.computeIfAbsent(physicalId, key -> new ArrayList<>()).add(targetThreadId);
+                }
+            }
+
+            for (Map.Entry<Integer, List<Integer>> entry : targetThreadIds.entrySet()) {
+                int[] threadIds = entry.getValue().stream().mapToInt(Integer::intValue).toArray();
+                Object[] values = null;
+                if (exceptions.isEmpty()) {
+                    values = new Object[threadIds.length];
+                    for (int i = 0; i < threadIds.length; ++i) {
+                        values[i] = partialValues.get(threadIds[i] - distance);
+                    }
+                }
+                if (entry.getKey() == nodeData.getCurrentNodePhysicalId()) {
+                    storeValues(step, threadIds, values, null);
+                } else {
+                    messages.add(new Outgoing(entry.getKey(), new ScanValuesMessage(group.getGroupId(), round, step,
+                            threadIds, values, values == null ? exceptions : null)));
+                }
+            }
+        }
+
+        private void processPendingValues(InternalCommonGroup group, List<Outgoing> messages) {
+            while (step < stepCount) {
+                int distance = 1 << step;
+                long expected = partialValues.keySet().stream().filter(threadId -> threadId >= distance).count();
+                Map<Integer, T> stepValues = pendingValues.getOrDefault(step, new HashMap<>());
+                if (stepValues.size() < expected) {
+                    return;
+                }
+                pendingValues.remove(step);
+                if (exceptions.isEmpty()) {
+                    try {
+                        combine(stepValues);
+                    } catch (Exception ex) {
+                        exceptions.add(ex);
+                    }
+                }
+
+                ++step;
+                if (step < stepCount) {
+                    sendStep(group, messages);
+                }
+            }
+            finish();
+        }
+
+        private void combine(Map<Integer, T> stepValues) {
+            for (Map.Entry<Integer, T> entry : stepValues.entrySet()) {
+                int threadId = entry.getKey();
+                T received = entry.getValue();
+                partialValues.put(threadId, function.apply(accumulatorOf(received), partialValues.get(threadId)));
+                if (exclusive) {
+                    T exclusiveValue = exclusiveValues.get(threadId);
+                    exclusiveValues.put(threadId, exclusiveValue == null
+                                                          ? received
+                                                          : function.apply(accumulatorOf(received), exclusiveValue));
+                }
+            }
+        }
+
+        /*
+         * built-in operations combine arrays in place of the first argument,
+         * so they get a copy instead of the value, which can be still used
+         * by other thread
+         */
+        @SuppressWarnings("unchecked")
+        private T accumulatorOf(T value) {
+            if (function instanceof BuiltinReduceOperation) {
+                return (T) BuiltinReduceOperation.accumulatorOf(value);
+            }
+            return value;
+        }
+
+        /*
+         * messages of many steps can be sent to the same node,
+         * so they are kept in the list in order of creation
+         */
+        private void sendMessages(List<Outgoing> messages) {
+            NodeData nodeData = InternalPCJ.getNodeData();
+            for (Outgoing outgoing : messages) {
+                InternalPCJ.getNetworker().send(nodeData.getSocketChannelByPhysicalId(outgoing.physicalId), outgoing.message);
+            }
+        }
+
+        private boolean isOriginalValue(T value) {
+            return originalValues.values().stream().anyMatch(originalValue -> originalValue == value);
+        }
+
+        @SuppressWarnings("unchecked")
+        private void finish() {
+            ScanStates.this.remove(round);
+
+            if (!exceptions.isEmpty()) {
+                PcjRuntimeException ex = new PcjRuntimeException("Scan failed", exceptions.poll());
+                exceptions.forEach(ex::addSuppressed);
+                futures.values().forEach(future -> future.signalException(ex));
+                return;
+            }
+
+            for (Map.Entry<Integer, ScanFuture<T>> entry : futures.entrySet()) {
+                int threadId = entry.getKey();
+                T value = exclusive ? exclusiveValues.get(threadId) : partialValues.get(threadId);
+                if (isOriginalValue(value)) {
+                    // value of shareable variable is not returned, as it can be modified
+                    value = (T) BuiltinReduceOperation.accumulatorOf(value);
+                }
+                entry.getValue().signalDone(value);
+            }
+        }
+    }
+
+    private static final class Outgoing {
+
+        private final int physicalId;
+        private final ScanValuesMessage message;
+
+        private Outgoing(int physicalId, ScanValuesMessage message) {
+            this.physicalId = physicalId;
+            this.message = message;
+        }
+    }
+}
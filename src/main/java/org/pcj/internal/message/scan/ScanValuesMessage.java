@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2011-2019, PCJ Library, Marek Nowicki
+ * All rights reserved.
+ *
+ * Licensed under New BSD License (3-clause license).
+ *
+ * See the file "LICENSE" for the full license governing this code.
+ */
+package org.pcj.internal.message.scan;
+
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.nio.channels.SocketChannel;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import org.pcj.internal.InternalCommonGroup;
+import org.pcj.internal.InternalPCJ;
+import org.pcj.internal.NodeData;
+import org.pcj.internal.PrimitiveTypes;
+import org.pcj.internal.message.Message;
+import org.pcj.internal.message.MessageType;
+import org.pcj.internal.network.MessageDataInputStream;
+import org.pcj.internal.network.MessageDataOutputStream;
+
+/**
+ * Message with partial values of scan sent in one step to PCJ Threads placed
+ * on one node.
+ * <p>
+ * Arrays of primitive numeric elements are written without Java serialization.
+ *
+ * @author Marek Nowicki (faramir@mat.umk.pl)
+ */
+public final class ScanValuesMessage extends Message {
+
+    private int groupId;
+    private int round;
+    private int step;
+    private int[] threadIds;
+    private Object[] values;
+    private Queue<Exception> exceptions;
+
+    public ScanValuesMessage() {
+        super(MessageType.SCAN_VALUES);
+    }
+
+    ScanValuesMessage(int groupId, int round, int step, int[] threadIds, Object[] values, Queue<Exception> exceptions) {
+        this();
+
+        this.groupId = groupId;
+        this.round = round;
+        this.step = step;
+        this.threadIds = threadIds;
+        this.values = values;
+        this.exceptions = exceptions;
+    }
+
+    @Override
+    public void write(MessageDataOutputStream out) throws IOException {
+        out.writeInt(groupId);
+        out.writeInt(round);
+        out.writeInt(step);
+        out.writeIntArray(threadIds);
+
+        boolean exception = ((exceptions != null) && (!exceptions.isEmpty()));
+        out.writeBoolean(exception);
+        if (exception) {
+            out.writeObject(exceptions);
+            return;
+        }
+
+        for (Object value : values) {
+            boolean numeric = PrimitiveTypes.isNumericArray(value);
+            out.writeBoolean(numeric);
+            if (numeric) {
+                out.writePrimitiveArray(value, 0, Array.getLength(value));
+            } else {
+                out.writeObject(value);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void onReceive(SocketChannel sender, MessageDataInputStream in) throws IOException {
+        groupId = in.readInt();
+        round = in.readInt();
+        step = in.readInt();
+        threadIds = in.readIntArray();
+
+        boolean exceptionOccurred = in.readBoolean();
+        try {
+            if (exceptionOccurred) {
+                exceptions = (Queue<Exception>) in.readObject();
+            } else {
+                values = new Object[threadIds.length];
+                for (int i = 0; i < values.length; ++i) {
+                    values[i] = in.readBoolean() ? in.readPrimitiveArray() : in.readObject();
+                }
+            }
+        } catch (Exception ex) {
+            values = null;
+            exceptions = new ConcurrentLinkedQueue<>();
+            exceptions.add(ex);
+        }
+
+        NodeData nodeData = InternalPCJ.getNodeData();
+        InternalCommonGroup commonGroup = nodeData.getCommonGroupById(groupId);
+
+        ScanStates states = commonGroup.getScanStates();
+        ScanStates.State<?> state = states.getOrCreate(round, commonGroup);
+
+        state.valuesReceived(commonGroup, step, threadIds, values, exceptions);
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2011-2019, PCJ Library, Marek Nowicki
+ * All rights reserved.
+ *
+ * Licensed under New BSD License (3-clause license).
+ *
+ * See the file "LICENSE" for the full license governing this code.
+ */
+package org.pcj.internal.message.scatter;
+
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.pcj.PcjRuntimeException;
+import org.pcj.internal.CollectiveOperation;
+import org.pcj.internal.InternalCommonGroup;
+import org.pcj.internal.InternalCommonGroup.CommunicationTree;
+import org.pcj.internal.InternalPCJ;
+import org.pcj.internal.NodeData;
+import org.pcj.internal.PrimitiveTypes;
+import org.pcj.internal.message.Message;
+import org.pcj.internal.message.MessageType;
+import org.pcj.internal.network.MessageDataInputStream;
+import org.pcj.internal.network.MessageDataOutputStream;
+
+/**
+ * Message with blocks of array for PCJ Threads placed in the subtree of the receiving node.
+ * <p>
+ * Blocks of primitive numeric elements are written without Java serialization,
+ * directly from the range of the source array.
+ *
+ * @author Marek Nowicki (faramir@mat.umk.pl)
+ */
+public final class ScatterRequestMessage extends Message {
+
+    private int groupId;
+    private int requestNum;
+    private int requesterThreadId;
+    private String sharedEnumClassName;
+    private String variableName;
+    private int[] threadIds;
+    private Object[] arrays;
+    private int[] offsets;
+    private int[] lengths;
+
+    public ScatterRequestMessage() {
+        super(MessageType.SCATTER_REQUEST);
+    }
+
+    public ScatterRequestMessage(int groupId, int requestNum, int requesterThreadId, String sharedEnumClassName, String variableName,
+                                 int[] threadIds, Object[] arrays, int[] offsets, int[] lengths) {
+        this();
+
+        this.groupId = groupId;
+        this.requestNum = requestNum;
+        this.requesterThreadId = requesterThreadId;
+        this.sharedEnumClassName = sharedEnumClassName;
+        this.variableName = variableName;
+        this.threadIds = threadIds;
+        this.arrays = arrays;
+        this.offsets = offsets;
+        this.lengths = lengths;
+    }
+
+    @Override
+    public void write(MessageDataOutputStream out) throws IOException {
+        out.writeInt(groupId);
+        out.writeInt(requestNum);
+        out.writeInt(requesterThreadId);
+        out.writeString(sharedEnumClassName);
+        out.writeString(variableName);
+
+        out.writeInt(threadIds.length);
+        boolean numeric = threadIds.length > 0 && PrimitiveTypes.isNumericArray(arrays[0]);
+        out.writeBoolean(numeric);
+        for (int i = 0; i < threadIds.length; ++i) {
+            out.writeInt(threadIds[i]);
+            if (numeric) {
+                out.writePrimitiveArray(arrays[i], offsets[i], lengths[i]);
+            } else if (offsets[i] == 0 && lengths[i] == Array.getLength(arrays[i])) {
+                out.writeObject(arrays[i]);
+            } else {
+                Object block = Array.newInstance(arrays[i].getClass().getComponentType(), lengths[i]);
+                System.arraycopy(arrays[i], offsets[i], block, 0, lengths[i]);
+                out.writeObject(block);
+            }
+        }
+    }
+
+    @Override
+    public void onReceive(SocketChannel sender, MessageDataInputStream in) throws IOException {
+        groupId = in.readInt();
+        requestNum = in.readInt();
+        requesterThreadId = in.readInt();
+        sharedEnumClassName = in.readString();
+        variableName = in.readString();
+
+        int count = in.readInt();
+        boolean numeric = in.readBoolean();
+        Map<Integer, Object> blocks = new LinkedHashMap<>();
+        try {
+            for (int i = 0; i < count; ++i) {
+                int threadId = in.readInt();
+                blocks.put(threadId, numeric ? in.readPrimitiveArray() : in.readObject());
+            }
+        } catch (ClassNotFoundException e) {
+            throw new PcjRuntimeException(e);
+        }
+
+        NodeData nodeData = InternalPCJ.getNodeData();
+        InternalCommonGroup commonGroup = nodeData.getCommonGroupById(groupId);
+
+        ScatterStates states = commonGroup.getScatterStates();
+        ScatterStates.State state = states.getOrCreate(requestNum, requesterThreadId, commonGroup);
+
+        CommunicationTree tree = commonGroup.getCommunicationTree(CollectiveOperation.SCATTER);
+        int currentPhysicalId = nodeData.getCurrentNodePhysicalId();
+
+        Map<Integer, Object> localBlocks = new TreeMap<>();
+        Map<Integer, List<Integer>> childrenThreadIds = new LinkedHashMap<>();
+        tree.getChildrenNodes().forEach(child -> childrenThreadIds.put(child, new ArrayList<>()));
+        for (int threadId : blocks.keySet()) {
+            int physicalId = nodeData.getPhysicalId(commonGroup.getGlobalThreadId(threadId));
+            if (physicalId == currentPhysicalId) {
+                localBlocks.put(threadId, blocks.get(threadId));
+                continue;
+            }
+            // the child of the current node which subtree contains the node
+            while (physicalId >= 0 && tree.getParentNode(physicalId) != currentPhysicalId) {
+                physicalId = tree.getParentNode(physicalId);
+            }
+            if (physicalId < 0) {
+                throw new IllegalStateException("Thread " + threadId + " is not placed in subtree of node " + currentPhysicalId);
+            }
+            childrenThreadIds.get(physicalId).add(threadId);
+        }
+
+        for (Map.Entry<Integer, List<Integer>> entry : childrenThreadIds.entrySet()) {
+            List<Integer> childThreadIds = entry.getValue();
+            int size = childThreadIds.size();
+            int[] ids = new int[size];
+            Object[] childArrays = new Object[size];
+            int[] childLengths = new int[size];
+            for (int i = 0; i < size; ++i) {
+                ids[i] = childThreadIds.get(i);
+                childArrays[i] = blocks.get(ids[i]);
+                childLengths[i] = Array.getLength(childArrays[i]);
+            }
+
+            ScatterRequestMessage message = new ScatterRequestMessage(groupId, requestNum, requesterThreadId,
+                    sharedEnumClassName, variableName, ids, childArrays, new int[size], childLengths);
+            InternalPCJ.getNetworker().send(nodeData.getSocketChannelByPhysicalId(entry.getKey()), message);
+        }
+
+        state.downProcessNode(commonGroup, localBlocks, sharedEnumClassName, variableName);
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2011-2019, PCJ Library, Marek Nowicki
+ * All rights reserved.
+ *
+ * Licensed under New BSD License (3-clause license).
+ *
+ * See the file "LICENSE" for the full license governing this code.
+ */
+package org.pcj.internal.message.scatter;
+
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.pcj.PcjFuture;
+import org.pcj.PcjRuntimeException;
+import org.pcj.internal.CollectiveOperation;
+import org.pcj.internal.InternalCommonGroup;
+import org.pcj.internal.InternalPCJ;
+import org.pcj.internal.InternalStorages;
+import org.pcj.internal.NodeData;
+import org.pcj.internal.PcjThread;
+import org.pcj.internal.message.Message;
+
+/**
+ * States of scatter operations (blocks of array distributed to all PCJ Threads
+ * of the group).
+ * <p>
+ * Blocks are sent down the communication tree and each node receives only
+ * blocks of PCJ Threads placed in its subtree.
+ *
+ * @author Marek Nowicki (faramir@mat.umk.pl)
+ */
+public class ScatterStates {
+
+    private final AtomicInteger counter;
+    private final ConcurrentMap<List<Integer>, State> stateMap;
+
+    public ScatterStates() {
+        counter = new AtomicInteger(0);
+        stateMap = new ConcurrentHashMap<>();
+    }
+
+    public State create(int threadId, InternalCommonGroup commonGroup) {
+        int requestNum = counter.incrementAndGet();
+
+        ScatterFuture future = new ScatterFuture();
+        State state = new State(requestNum, threadId, commonGroup.getCommunicationTree(CollectiveOperation.SCATTER).getChildrenNodes().size(), future);
+
+        stateMap.put(Arrays.asList(requestNum, threadId), state);
+
+        return state;
+    }
+
+    public State getOrCreate(int requestNum, int requesterThreadId, InternalCommonGroup commonGroup) {
+        return stateMap.computeIfAbsent(Arrays.asList(requestNum, requesterThreadId),
+                key -> new State(requestNum, requesterThreadId, commonGroup.getCommunicationTree(CollectiveOperation.SCATTER).getChildrenNodes().size()));
+    }
+
+    public State remove(int requestNum, int threadId) {
+        return stateMap.remove(Arrays.asList(requestNum, threadId));
+    }
+
+    public class State {
+
+        private final int requestNum;
+        private final int requesterThreadId;
+        private final AtomicInteger notificationCount;
+        private final ScatterFuture future;
+        private final Queue<Exception> exceptions;
+
+        private State(int requestNum, int requesterThreadId, int childrenCount, ScatterFuture future) {
+            this.requestNum = requestNum;
+            this.requesterThreadId = requesterThreadId;
+            this.future = future;
+
+            // notification from children and from itself
+            notificationCount = new AtomicInteger(childrenCount + 1);
+            exceptions = new ConcurrentLinkedQueue<>();
+        }
+
+        private State(int requestNum, int requesterThreadId, int childrenCount) {
+            this(requestNum, requesterThreadId, childrenCount, null);
+        }
+
+        public int getRequestNum() {
+            return requestNum;
+        }
+
+        public PcjFuture<Void> getFuture() {
+            return future;
+        }
+
+        void downProcessNode(InternalCommonGroup group, Map<Integer, Object> localBlocks, String sharedEnumClassName, String name) {
+            NodeData nodeData = InternalPCJ.getNodeData();
+            for (Map.Entry<Integer, Object> entry : localBlocks.entrySet()) {
+                int globalThreadId = group.getGlobalThreadId(entry.getKey());
+                PcjThread pcjThread = nodeData.getPcjThread(globalThreadId);
+                InternalStorages storage = pcjThread.getThreadData().getStorages();
+
+                try {
+                    storage.put(entry.getValue(), sharedEnumClassName, name);
+                } catch (Exception ex) {
+                    exceptions.add(ex);
+                }
+            }
+
+            nodeProcessed(group);
+        }
+
+        void upProcessNode(InternalCommonGroup group, Queue<Exception> messageExceptions) {
+            if ((messageExceptions != null) && (!messageExceptions.isEmpty())) {
+                exceptions.addAll(messageExceptions);
+            }
+
+            nodeProcessed(group);
+        }
+
+        private void nodeProcessed(InternalCommonGroup group) {
+            int leftPhysical = notificationCount.decrementAndGet();
+            if (leftPhysical == 0) {
+                NodeData nodeData = InternalPCJ.getNodeData();
+
+                int globalThreadId = group.getGlobalThreadId(requesterThreadId);
+                int requesterPhysicalId = nodeData.getPhysicalId(globalThreadId);
+                if (requesterPhysicalId != nodeData.getCurrentNodePhysicalId()) { // requester is going to receive response
+                    ScatterStates.this.remove(requestNum, requesterThreadId);
+                }
+
+                Message message;
+                SocketChannel socket;
+
+                int physicalId = nodeData.getCurrentNodePhysicalId();
+                if (physicalId != group.getCommunicationTree(CollectiveOperation.SCATTER).getMasterNode()) {
+                    int parentId = group.getCommunicationTree(CollectiveOperation.SCATTER).getParentNode();
+                    socket = nodeData.getSocketChannelByPhysicalId(parentId);
+
+                    message = new ScatterInformMessage(group.getGroupId(), requestNum, requesterThreadId, exceptions);
+                } else {
+                    message = new ScatterResponseMessage(group.getGroupId(), requestNum, requesterThreadId, exceptions);
+
+                    socket = nodeData.getSocketChannelByPhysicalId(requesterPhysicalId);
+                }
+
+                InternalPCJ.getNetworker().send(socket, message);
+            }
+        }
+
+        public void signal(Queue<Exception> messageExceptions) {
+            if ((messageExceptions != null) && (!messageExceptions.isEmpty())) {
+                PcjRuntimeException ex = new PcjRuntimeException("Scattering values failed", messageExceptions.poll());
+                messageExceptions.forEach(ex::addSuppressed);
+                future.signalException(ex);
+            } else {
+                future.signalDone();
+            }
+        }
+    }
+}
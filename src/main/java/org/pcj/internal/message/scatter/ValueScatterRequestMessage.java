@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2011-2019, PCJ Library, Marek Nowicki
+ * All rights reserved.
+ *
+ * Licensed under New BSD License (3-clause license).
+ *
+ * See the file "LICENSE" for the full license governing this code.
+ */
+package org.pcj.internal.message.scatter;
+
+import java.io.IOException;
+import java.nio.channels.SocketChannel;
+import org.pcj.ReduceOperation;
+import org.pcj.internal.InternalPCJ;
+import org.pcj.internal.InternalStorages;
+import org.pcj.internal.NodeData;
+import org.pcj.internal.PcjThread;
+import org.pcj.internal.message.Message;
+import org.pcj.internal.message.MessageType;
+import org.pcj.internal.network.MessageDataInputStream;
+import org.pcj.internal.network.MessageDataOutputStream;
+
+/**
+ * Message with packed values to be put (or accumulated, when function is
+ * provided) into the array variable at the given indices.
+ *
+ * @author Marek Nowicki (faramir@mat.umk.pl)
+ */
+public final class ValueScatterRequestMessage<T> extends Message {
+
+    private int requestNum;
+    private int groupId;
+    private int requesterThreadId;
+    private int threadId;
+    private String sharedEnumClassName;
+    private String name;
+    private int[] indices;
+    private Object values;
+    private ReduceOperation<T> function;
+
+    public ValueScatterRequestMessage() {
+        super(MessageType.VALUE_SCATTER_REQUEST);
+    }
+
+    public ValueScatterRequestMessage(int groupId, int requestNum, int requesterThreadId, int threadId, String storageName, String name, int[] indices, ReduceOperation<T> function, Object values) {
+        this();
+
+        this.groupId = groupId;
+        this.requestNum = requestNum;
+        this.requesterThreadId = requesterThreadId;
+        this.threadId = threadId;
+        this.sharedEnumClassName = storageName;
+        this.name = name;
+        this.indices = indices;
+        this.function = function;
+        this.values = values;
+    }
+
+    @Override
+    public void write(MessageDataOutputStream out) throws IOException {
+        out.writeInt(groupId);
+        out.writeInt(requestNum);
+        out.writeInt(requesterThreadId);
+        out.writeInt(threadId);
+        out.writeString(sharedEnumClassName);
+        out.writeString(name);
+        out.writeIntArray(indices);
+        out.writeBoolean(function != null);
+        if (function != null) {
+            out.writeReduceOperation(function);
+        }
+        out.writeObject(values);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void onReceive(SocketChannel sender, MessageDataInputStream in) throws IOException {
+        groupId = in.readInt();
+        requestNum = in.readInt();
+        requesterThreadId = in.readInt();
+        threadId = in.readInt();
+        sharedEnumClassName = in.readString();
+        name = in.readString();
+        indices = in.readIntArray();
+        boolean accumulate = in.readBoolean();
+
+        NodeData nodeData = InternalPCJ.getNodeData();
+        PcjThread pcjThread = nodeData.getPcjThread(groupId, threadId);
+
+        InternalStorages storage = pcjThread.getThreadData().getStorages();
+
+        ValueScatterResponseMessage valueScatterResponseMessage = new ValueScatterResponseMessage(groupId, requestNum, requesterThreadId);
+        try {
+            if (accumulate) {
+                function = in.readReduceOperation();
+                values = in.readObject();
+                storage.scatterAccumulate(function, values, sharedEnumClassName, name, indices);
+            } else {
+                values = in.readObject();
+                storage.scatter(values, sharedEnumClassName, name, indices);
+            }
+        } catch (Exception ex) {
+            valueScatterResponseMessage.setException(ex);
+        }
+
+        InternalPCJ.getNetworker().send(sender, valueScatterResponseMessage);
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2011-2019, PCJ Library, Marek Nowicki
+ * All rights reserved.
+ *
+ * Licensed under New BSD License (3-clause license).
+ *
+ * See the file "LICENSE" for the full license governing this code.
+ */
+package org.pcj.internal.message.split;
+
+import java.io.IOException;
+import java.nio.channels.SocketChannel;
+import org.pcj.internal.InternalCommonGroup;
+import org.pcj.internal.InternalPCJ;
+import org.pcj.internal.message.Message;
+import org.pcj.internal.message.MessageType;
+import org.pcj.internal.network.MessageDataInputStream;
+import org.pcj.internal.network.MessageDataOutputStream;
+
+/**
+ * Message with ids of groups created by the split sent by node 0 to the group
+ * master node.
+ *
+ * @author Marek Nowicki (faramir@mat.umk.pl)
+ */
+public final class GroupSplitAnswerMessage extends Message {
+
+    private int groupId;
+    private int round;
+    private int[] newGroupIds;
+
+    public GroupSplitAnswerMessage() {
+        super(MessageType.GROUP_SPLIT_ANSWER);
+    }
+
+    GroupSplitAnswerMessage(int groupId, int round, int[] newGroupIds) {
+        this();
+
+        this.groupId = groupId;
+        this.round = round;
+        this.newGroupIds = newGroupIds;
+    }
+
+    @Override
+    public void write(MessageDataOutputStream out) throws IOException {
+        out.writeInt(groupId);
+        out.writeInt(round);
+        out.writeIntArray(newGroupIds);
+    }
+
+    @Override
+    public void onReceive(SocketChannel sender, MessageDataInputStream in) throws IOException {
+        groupId = in.readInt();
+        round = in.readInt();
+        newGroupIds = in.readIntArray();
+
+        InternalCommonGroup commonGroup = InternalPCJ.getNodeData().getCommonGroupById(groupId);
+
+        GroupSplitStates states = commonGroup.getGroupSplitStates();
+        GroupSplitStates.State state = states.getOrCreate(round, commonGroup);
+        state.groupIdsReceived(commonGroup, newGroupIds);
+    }
+}
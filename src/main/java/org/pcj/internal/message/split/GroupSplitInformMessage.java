@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2011-2019, PCJ Library, Marek Nowicki
+ * All rights reserved.
+ *
+ * Licensed under New BSD License (3-clause license).
+ *
+ * See the file "LICENSE" for the full license governing this code.
+ */
+package org.pcj.internal.message.split;
+
+import java.io.IOException;
+import java.nio.channels.SocketChannel;
+import org.pcj.internal.InternalCommonGroup;
+import org.pcj.internal.InternalPCJ;
+import org.pcj.internal.NodeData;
+import org.pcj.internal.message.Message;
+import org.pcj.internal.message.MessageType;
+import org.pcj.internal.network.MessageDataInputStream;
+import org.pcj.internal.network.MessageDataOutputStream;
+
+/**
+ * Message with description of all groups created by the split sent down the
+ * tree from the group master node.
+ *
+ * @author Marek Nowicki (faramir@mat.umk.pl)
+ */
+public final class GroupSplitInformMessage extends Message {
+
+    private int groupId;
+    private int round;
+    private int[] newGroupIds;
+    private String[] groupNames;
+    private int[] masterPhysicalIds;
+    private int[][] globalThreadIds;
+
+    public GroupSplitInformMessage() {
+        super(MessageType.GROUP_SPLIT_INFORM);
+    }
+
+    GroupSplitInformMessage(int groupId, int round, int[] newGroupIds, String[] groupNames,
+                            int[] masterPhysicalIds, int[][] globalThreadIds) {
+        this();
+
+        this.groupId = groupId;
+        this.round = round;
+        this.newGroupIds = newGroupIds;
+        this.groupNames = groupNames;
+        this.masterPhysicalIds = masterPhysicalIds;
+        this.globalThreadIds = globalThreadIds;
+    }
+
+    @Override
+    public void write(MessageDataOutputStream out) throws IOException {
+        out.writeInt(groupId);
+        out.writeInt(round);
+        out.writeIntArray(newGroupIds);
+        out.writeIntArray(masterPhysicalIds);
+        for (int i = 0; i < newGroupIds.length; ++i) {
+            out.writeString(groupNames[i]);
+            out.writeIntArray(globalThreadIds[i]);
+        }
+    }
+
+    @Override
+    public void onReceive(SocketChannel sender, MessageDataInputStream in) throws IOException {
+        groupId = in.readInt();
+        round = in.readInt();
+        newGroupIds = in.readIntArray();
+        masterPhysicalIds = in.readIntArray();
+        groupNames = new String[newGroupIds.length];
+        globalThreadIds = new int[newGroupIds.length][];
+        for (int i = 0; i < newGroupIds.length; ++i) {
+            groupNames[i] = in.readString();
+            globalThreadIds[i] = in.readIntArray();
+        }
+
+        NodeData nodeData = InternalPCJ.getNodeData();
+        InternalCommonGroup commonGroup = nodeData.getCommonGroupById(groupId);
+
+        commonGroup.getCommunicationTree().getChildrenNodes().stream()
+                .map(nodeData::getSocketChannelByPhysicalId)
+                .forEach(socket -> InternalPCJ.getNetworker().send(socket, this));
+
+        GroupSplitStates states = commonGroup.getGroupSplitStates();
+        GroupSplitStates.State state = states.remove(round);
+        state.groupsCreated(commonGroup, newGroupIds, groupNames, masterPhysicalIds, globalThreadIds);
+    }
+}
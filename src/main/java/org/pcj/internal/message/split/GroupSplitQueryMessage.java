@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2011-2019, PCJ Library, Marek Nowicki
+ * All rights reserved.
+ *
+ * Licensed under New BSD License (3-clause license).
+ *
+ * See the file "LICENSE" for the full license governing this code.
+ */
+package org.pcj.internal.message.split;
+
+import java.io.IOException;
+import java.nio.channels.SocketChannel;
+import org.pcj.internal.InternalPCJ;
+import org.pcj.internal.NodeData.Node0Data;
+import org.pcj.internal.message.Message;
+import org.pcj.internal.message.MessageType;
+import org.pcj.internal.network.MessageDataInputStream;
+import org.pcj.internal.network.MessageDataOutputStream;
+
+/**
+ * Message sent by the group master node to node 0 to register all groups
+ * created by the split in one request. The groups are registered without names.
+ *
+ * @author Marek Nowicki (faramir@mat.umk.pl)
+ */
+public final class GroupSplitQueryMessage extends Message {
+
+    private int groupId;
+    private int round;
+    private int[] masterPhysicalIds;
+
+    public GroupSplitQueryMessage() {
+        super(MessageType.GROUP_SPLIT_QUERY);
+    }
+
+    GroupSplitQueryMessage(int groupId, int round, int[] masterPhysicalIds) {
+        this();
+
+        this.groupId = groupId;
+        this.round = round;
+        this.masterPhysicalIds = masterPhysicalIds;
+    }
+
+    @Override
+    public void write(MessageDataOutputStream out) throws IOException {
+        out.writeInt(groupId);
+        out.writeInt(round);
+        out.writeIntArray(masterPhysicalIds);
+    }
+
+    @Override
+    public void onReceive(SocketChannel sender, MessageDataInputStream in) throws IOException {
+        groupId = in.readInt();
+        round = in.readInt();
+        masterPhysicalIds = in.readIntArray();
+
+        Node0Data node0Data = InternalPCJ.getNodeData().getNode0Data();
+
+        int[] newGroupIds = new int[masterPhysicalIds.length];
+        for (int i = 0; i < newGroupIds.length; ++i) {
+            newGroupIds[i] = node0Data.getAnonymousGroupId();
+            node0Data.getGroupMaster(newGroupIds[i], masterPhysicalIds[i]);
+        }
+
+        GroupSplitAnswerMessage message = new GroupSplitAnswerMessage(groupId, round, newGroupIds);
+        InternalPCJ.getNetworker().send(sender, message);
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright (c) 2011-2019, PCJ Library, Marek Nowicki
+ * All rights reserved.
+ *
+ * Licensed under New BSD License (3-clause license).
+ *
+ * See the file "LICENSE" for the full license governing this code.
+ */
+package org.pcj.internal.message.split;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.pcj.PcjFuture;
+import org.pcj.internal.InternalCommonGroup;
+import org.pcj.internal.InternalGroup;
+import org.pcj.internal.InternalPCJ;
+import org.pcj.internal.NodeData;
+import org.pcj.internal.PcjThread;
+
+/**
+ * States of group split operations.
+ * <p>
+ * All PCJ Threads of the group take part in the operation. Colors and keys of
+ * PCJ Threads are sent up the tree to the group master node, that computes
+ * thread maps of all new groups, registers the groups in node 0 using one
+ * request and sends the description of the groups down the tree. Each node
+ * creates the groups having local PCJ Threads without further communication.
+ * <p>
+ * New groups are registered in node 0 without names, so their names, derived
+ * from the name of the split group, never clash with groups joined by name.
+ * <p>
+ * PCJ Threads with the same color form new group and are ordered by the key
+ * and then by the id in the split group. PCJ Threads with negative color do
+ * not join any group.
+ *
+ * @author Marek Nowicki (faramir@mat.umk.pl)
+ */
+public class GroupSplitStates {
+
+    private final ConcurrentMap<Integer, AtomicInteger> counterMap;
+    private final ConcurrentMap<Integer, State> stateMap;
+
+    public GroupSplitStates() {
+        counterMap = new ConcurrentHashMap<>();
+        stateMap = new ConcurrentHashMap<>();
+    }
+
+    public int getNextRound(int threadId) {
+        AtomicInteger roundCounter = counterMap.computeIfAbsent(threadId, key -> new AtomicInteger(0));
+        return roundCounter.incrementAndGet();
+    }
+
+    public State getOrCreate(int round, InternalCommonGroup commonGroup) {
+        return stateMap.computeIfAbsent(round,
+                key -> new State(round, commonGroup.getLocalThreadsId().size(),
+                        commonGroup.getCommunicationTree().getChildrenNodes().size()));
+    }
+
+    public State remove(int round) {
+        return stateMap.remove(round);
+    }
+
+    public class State {
+
+        private final int round;
+        private final AtomicInteger notificationCount;
+        private final Map<Integer, int[]> colorsAndKeys; // groupThreadId -> {color, key}
+        private final Map<Integer, GroupSplitFuture> futures;
+        private String[] groupNames;
+        private int[] masterPhysicalIds;
+        private int[][] globalThreadIds;
+
+        private State(int round, int localCount, int childrenCount) {
+            this.round = round;
+
+            notificationCount = new AtomicInteger(localCount + childrenCount);
+            colorsAndKeys = new TreeMap<>();
+            futures = new HashMap<>();
+        }
+
+        public PcjFuture<InternalGroup> processLocal(InternalCommonGroup group, int threadId, int color, int key) {
+            GroupSplitFuture future = new GroupSplitFuture();
+            synchronized (this) {
+                futures.put(threadId, future);
+                colorsAndKeys.put(threadId, new int[]{color, key});
+            }
+
+            if (notificationCount.decrementAndGet() == 0) {
+                nodeProcessed(group);
+            }
+
+            return future;
+        }
+
+        void processPhysical(InternalCommonGroup group, int[] threadIds, int[] colors, int[] keys) {
+            synchronized (this) {
+                for (int i = 0; i < threadIds.length; ++i) {
+                    colorsAndKeys.put(threadIds[i], new int[]{colors[i], keys[i]});
+                }
+            }
+
+            if (notificationCount.decrementAndGet() == 0) {
+                nodeProcessed(group);
+            }
+        }
+
+        private void nodeProcessed(InternalCommonGroup group) {
+            NodeData nodeData = InternalPCJ.getNodeData();
+            InternalCommonGroup.CommunicationTree tree = group.getCommunicationTree();
+
+            if (nodeData.getCurrentNodePhysicalId() != tree.getMasterNode()) {
+                int[] threadIds;
+                int[] colors;
+                int[] keys;
+                synchronized (this) {
+                    threadIds = new int[colorsAndKeys.size()];
+                    colors = new int[threadIds.length];
+                    keys = new int[threadIds.length];
+                    int index = 0;
+                    for (Map.Entry<Integer, int[]> entry : colorsAndKeys.entrySet()) {
+                        threadIds[index] = entry.getKey();
+                        colors[index] = entry.getValue()[0];
+                        keys[index] = entry.getValue()[1];
+                        ++index;
+                    }
+                }
+                GroupSplitValuesMessage message = new GroupSplitValuesMessage(group.getGroupId(), round, threadIds, colors, keys);
+                InternalPCJ.getNetworker().send(nodeData.getSocketChannelByPhysicalId(tree.getParentNode()), message);
+                return;
+            }
+
+            synchronized (this) {
+                computeGroups(group);
+            }
+            GroupSplitQueryMessage message = new GroupSplitQueryMessage(group.getGroupId(), round, masterPhysicalIds);
+            InternalPCJ.getNetworker().send(nodeData.getNode0Socket(), message);
+        }
+
+        /*
+         * threads are grouped by color and ordered by key and thread id,
+         * the master of the new group is the node of its first thread
+         */
+        private void computeGroups(InternalCommonGroup group) {
+            NodeData nodeData = InternalPCJ.getNodeData();
+
+            Map<Integer, List<Integer>> threadIdsByColor = new TreeMap<>();
+            colorsAndKeys.forEach((threadId, colorAndKey) -> {
+                if (colorAndKey[0] >= 0) {
+                    threadIdsByColor.computeIfAbsent(colorAndKey[0], key -> new ArrayList<>()).add(threadId);
+                }
+            });
+
+            groupNames = new String[threadIdsByColor.size()];
+            masterPhysicalIds = new int[groupNames.length];
+            globalThreadIds = new int[groupNames.length][];
+            int index = 0;
+            for (Map.Entry<Integer, List<Integer>> entry : threadIdsByColor.entrySet()) {
+                List<Integer> threadIds = entry.getValue();
+                threadIds.sort(Comparator.<Integer>comparingInt(threadId -> colorsAndKeys.get(threadId)[1])
+                                       .thenComparingInt(threadId -> threadId));
+
+                groupNames[index] = group.getName() + "#split" + round + ":" + entry.getKey();
+                globalThreadIds[index] = threadIds.stream().mapToInt(group::getGlobalThreadId).toArray();
+                masterPhysicalIds[index] = nodeData.getPhysicalId(globalThreadIds[index][0]);
+                ++index;
+            }
+        }
+
+        void groupIdsReceived(InternalCommonGroup group, int[] newGroupIds) {
+            GroupSplitInformMessage message = new GroupSplitInformMessage(group.getGroupId(), round, newGroupIds,
+                    groupNames, masterPhysicalIds, globalThreadIds);
+
+            NodeData nodeData = InternalPCJ.getNodeData();
+            InternalPCJ.getNetworker().send(nodeData.getSocketChannelByPhysicalId(nodeData.getCurrentNodePhysicalId()), message);
+        }
+
+        void groupsCreated(InternalCommonGroup group, int[] newGroupIds, String[] groupNames, int[] masterPhysicalIds, int[][] globalThreadIds) {
+            NodeData nodeData = InternalPCJ.getNodeData();
+            int currentPhysicalId = nodeData.getCurrentNodePhysicalId();
+
+            Map<Integer, InternalGroup> threadGroups = new HashMap<>(); // globalThreadId -> group
+            for (int i = 0; i < newGroupIds.length; ++i) {
+                int[] threadIds = globalThreadIds[i];
+
+                Map<Integer, Integer> threadsMap = new HashMap<>();
+                boolean local = false;
+                for (int groupThreadId = 0; groupThreadId < threadIds.length; ++groupThreadId) {
+                    threadsMap.put(groupThreadId, threadIds[groupThreadId]);
+                    local |= nodeData.getPhysicalId(threadIds[groupThreadId]) == currentPhysicalId;
+                }
+                if (!local) {
+                    continue;
+                }
+
+                InternalCommonGroup commonGroup = nodeData.getOrCreateSplitGroup(masterPhysicalIds[i], newGroupIds[i], groupNames[i]);
+                commonGroup.updateThreadsMap(threadsMap);
+
+                for (int groupThreadId = 0; groupThreadId < threadIds.length; ++groupThreadId) {
+                    if (nodeData.getPhysicalId(threadIds[groupThreadId]) == currentPhysicalId) {
+                        threadGroups.put(threadIds[groupThreadId], new InternalGroup(groupThreadId, commonGroup));
+                    }
+                }
+            }
+
+            synchronized (this) {
+                for (Map.Entry<Integer, GroupSplitFuture> entry : futures.entrySet()) {
+                    int globalThreadId = group.getGlobalThreadId(entry.getKey());
+                    InternalGroup threadGroup = threadGroups.get(globalThreadId);
+                    if (threadGroup != null) {
+                        PcjThread pcjThread = nodeData.getPcjThread(globalThreadId);
+                        pcjThread.getThreadData().addGroup(threadGroup);
+                    }
+                    entry.getValue().signalDone(threadGroup);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2011-2019, PCJ Library, Marek Nowicki
+ * All rights reserved.
+ *
+ * Licensed under New BSD License (3-clause license).
+ *
+ * See the file "LICENSE" for the full license governing this code.
+ */
+package org.pcj.internal.message.split;
+
+import java.io.IOException;
+import java.nio.channels.SocketChannel;
+import org.pcj.internal.InternalCommonGroup;
+import org.pcj.internal.InternalPCJ;
+import org.pcj.internal.message.Message;
+import org.pcj.internal.message.MessageType;
+import org.pcj.internal.network.MessageDataInputStream;
+import org.pcj.internal.network.MessageDataOutputStream;
+
+/**
+ * Message with colors and keys of PCJ Threads sent up the tree to the group
+ * master node.
+ *
+ * @author Marek Nowicki (faramir@mat.umk.pl)
+ */
+public final class GroupSplitValuesMessage extends Message {
+
+    private int groupId;
+    private int round;
+    private int[] threadIds;
+    private int[] colors;
+    private int[] keys;
+
+    public GroupSplitValuesMessage() {
+        super(MessageType.GROUP_SPLIT_VALUES);
+    }
+
+    GroupSplitValuesMessage(int groupId, int round, int[] threadIds, int[] colors, int[] keys) {
+        this();
+
+        this.groupId = groupId;
+        this.round = round;
+        this.threadIds = threadIds;
+        this.colors = colors;
+        this.keys = keys;
+    }
+
+    @Override
+    public void write(MessageDataOutputStream out) throws IOException {
+        out.writeInt(groupId);
+        out.writeInt(round);
+        out.writeIntArray(threadIds);
+        out.writeIntArray(colors);
+        out.writeIntArray(keys);
+    }
+
+    @Override
+    public void onReceive(SocketChannel sender, MessageDataInputStream in) throws IOException {
+        groupId = in.readInt();
+        round = in.readInt();
+        threadIds = in.readIntArray();
+        colors = in.readIntArray();
+        keys = in.readIntArray();
+
+        InternalCommonGroup commonGroup = InternalPCJ.getNodeData().getCommonGroupById(groupId);
+
+        GroupSplitStates states = commonGroup.getGroupSplitStates();
+        GroupSplitStates.State state = states.getOrCreate(round, commonGroup);
+        state.processPhysical(commonGroup, threadIds, colors, keys);
+    }
+}
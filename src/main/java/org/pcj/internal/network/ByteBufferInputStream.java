@@ -8,6 +8,7 @@
  */
 package org.pcj.internal.network;
 
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
@@ -122,6 +123,38 @@ public class ByteBufferInputStream extends InputStream {
 
     }
 
+    /**
+     * Reads bytes until the {@code target} buffer is full, copying them buffer to buffer.
+     *
+     * @param target buffer to fill in
+     * @throws IOException when the end of stream is reached before filling the buffer
+     */
+    public void readFully(ByteBuffer target) throws IOException {
+        if (closed) {
+            throw new IOException("Stream Closed");
+        }
+
+        while (target.hasRemaining()) {
+            while (remainingLength == 0) {
+                if (receivingLastChunk) {
+                    throw new EOFException("Unexpectedly reached end of stream.");
+                }
+
+                readChunkLength();
+            }
+
+            ByteBuffer byteBuffer = getCurrentByteBuffer();
+
+            int len = Math.min(Math.min(byteBuffer.remaining(), target.remaining()), remainingLength);
+            ByteBuffer source = byteBuffer.duplicate();
+            source.limit(source.position() + len);
+            target.put(source);
+            byteBuffer.position(byteBuffer.position() + len);
+
+            remainingLength -= len;
+        }
+    }
+
     @Override
     public void close() {
         if (closed) {
@@ -68,6 +68,39 @@ public class ByteBufferOutputStream extends OutputStream {
         currentByteBuffer.put(b, off, len);
     }
 
+    /**
+     * Writes content of the buffer as separate chunks, that are sent straight from the buffer,
+     * without copying it into pooled buffers.
+     * <p>
+     * Content of the buffer should not be modified until it is sent.
+     *
+     * @param buffer buffer with content from position to limit
+     */
+    public void writeDirect(ByteBuffer buffer) {
+        if (currentPooledByteBuffer != null && currentPooledByteBuffer.getByteBuffer().position() > HEADER_SIZE) {
+            offerCurrentByteBuffer(false);
+        } else if (currentPooledByteBuffer != null) {
+            currentPooledByteBuffer.returnToPool();
+        }
+
+        ByteBuffer content = buffer.slice();
+        while (content.hasRemaining()) {
+            int length = Math.min(content.remaining(), ~LAST_CHUNK_BIT);
+            ByteBuffer chunk = content.duplicate();
+            chunk.limit(length);
+            content.position(length);
+            content = content.slice();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(0, length);
+
+            queue.offer(new ByteBufferPool.WrappedByteBuffer(header));
+            queue.offer(new ByteBufferPool.WrappedByteBuffer(chunk));
+        }
+
+        getNextByteBuffer();
+    }
+
     @Override
     public void close() {
         offerCurrentByteBuffer(true);
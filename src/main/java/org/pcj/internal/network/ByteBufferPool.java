@@ -63,6 +63,19 @@ public class ByteBufferPool {
         }
     }
 
+    /**
+     * Buffer that is not owned by the pool, eg. view of off-heap memory that is sent without copying.
+     */
+    public final static class WrappedByteBuffer extends PooledByteBuffer {
+        public WrappedByteBuffer(ByteBuffer buffer) {
+            super(buffer);
+        }
+
+        public void returnToPool() {
+            // not pooled buffer, do not return to pool
+        }
+    }
+
     public final static class HeapPooledByteBuffer extends PooledByteBuffer {
         public HeapPooledByteBuffer(int capacity) {
             super(ByteBuffer.allocate(capacity));
@@ -10,6 +10,8 @@ package org.pcj.internal.network;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
@@ -78,6 +80,77 @@ public class InputStreamCloner {
         return inputStreamCloner;
     }
 
+    /**
+     * Splits content into segments of at least {@code segmentSize} bytes (the last one can be smaller).
+     * Segments share byte arrays with this object.
+     *
+     * @param segmentSize minimal size of segment in bytes
+     * @return list of segments
+     */
+    public List<InputStreamCloner> split(long segmentSize) {
+        List<InputStreamCloner> segments = new ArrayList<>();
+        InputStreamCloner segment = new InputStreamCloner();
+        for (byte[] bytesArray : bytesList) {
+            segment.addByteArray(bytesArray);
+            if (segment.length >= segmentSize) {
+                segments.add(segment);
+                segment = new InputStreamCloner();
+            }
+        }
+        if (segment.length > 0 || segments.isEmpty()) {
+            segments.add(segment);
+        }
+        return segments;
+    }
+
+    /**
+     * Splits content into exactly {@code segmentCount} segments, which sizes
+     * differ by at most one byte. Segments share whole byte arrays with this
+     * object, only byte arrays crossing segment boundaries are copied.
+     *
+     * @param segmentCount number of segments
+     * @return list of segments
+     */
+    public List<InputStreamCloner> splitEvenly(int segmentCount) {
+        List<InputStreamCloner> segments = new ArrayList<>(segmentCount);
+        Iterator<byte[]> iterator = bytesList.iterator();
+        byte[] bytesArray = EMPTY_ARRAY;
+        int offset = 0;
+        for (int segmentIndex = 0; segmentIndex < segmentCount; ++segmentIndex) {
+            long segmentSize = length * (segmentIndex + 1) / segmentCount - length * segmentIndex / segmentCount;
+            InputStreamCloner segment = new InputStreamCloner();
+            while (segment.length < segmentSize) {
+                if (offset == bytesArray.length) {
+                    bytesArray = iterator.next();
+                    offset = 0;
+                }
+                int len = (int) Math.min(bytesArray.length - offset, segmentSize - segment.length);
+                if (offset == 0 && len == bytesArray.length) {
+                    segment.addByteArray(bytesArray);
+                } else {
+                    segment.addByteArray(Arrays.copyOfRange(bytesArray, offset, offset + len));
+                }
+                offset += len;
+            }
+            segments.add(segment);
+        }
+        return segments;
+    }
+
+    /**
+     * Joins segments into one object. Byte arrays of segments are shared, not copied.
+     *
+     * @param segments segments in order
+     * @return joined object
+     */
+    public static InputStreamCloner concat(InputStreamCloner[] segments) {
+        InputStreamCloner inputStreamCloner = new InputStreamCloner();
+        for (InputStreamCloner segment : segments) {
+            segment.bytesList.forEach(inputStreamCloner::addByteArray);
+        }
+        return inputStreamCloner;
+    }
+
     public void writeInto(MessageDataOutputStream out) throws IOException {
         out.writeLong(length);
 
@@ -12,13 +12,22 @@ import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.ObjectInputStream;
+import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import org.pcj.OffHeapArray;
+import org.pcj.ReduceOperation;
+import org.pcj.internal.BuiltinReduceOperation;
+import org.pcj.internal.OffHeapArrays;
+import org.pcj.internal.PrimitiveTypes;
 
 /**
  * @author Marek Nowicki (faramir@mat.umk.pl)
  */
 public class MessageDataInputStream extends InputStream {
 
+    private static final int COPY_BUFFER_SIZE = 8192;
+    private static final int PRIMITIVE_BLOCK_LENGTH = 64 * 1024;
     private final InputStream input;
     private final byte[] intBytes = new byte[Integer.BYTES];
     private final byte[] longBytes = new byte[Long.BYTES];
@@ -82,6 +91,22 @@ public class MessageDataInputStream extends InputStream {
         }
     }
 
+    public void readFully(ByteBuffer buffer) throws IOException {
+        if (input instanceof ByteBufferInputStream) {
+            ((ByteBufferInputStream) input).readFully(buffer);
+            return;
+        }
+
+        byte[] bytes = new byte[Math.min(buffer.remaining(), COPY_BUFFER_SIZE)];
+        while (buffer.hasRemaining()) {
+            int bytesRead = input.read(bytes, 0, Math.min(bytes.length, buffer.remaining()));
+            if (bytesRead < 0) {
+                throw new EOFException("Unexpectedly reached end of stream.");
+            }
+            buffer.put(bytes, 0, bytesRead);
+        }
+    }
+
     public boolean readBoolean() throws IOException {
         int b = input.read();
         if (b == -1) {
@@ -192,6 +217,78 @@ public class MessageDataInputStream extends InputStream {
         }
     }
 
+    public OffHeapArray readOffHeapArray() throws IOException {
+        byte typeCode = readByte();
+        long length = readLong();
+
+        OffHeapArray array = OffHeapArrays.allocate(typeCode, length);
+        for (ByteBuffer buffer : array.byteBuffers(0, length)) {
+            readFully(buffer);
+        }
+        return array;
+    }
+
+    /**
+     * Reads array of primitive numeric or char elements written in bulk.
+     *
+     * @return new array
+     * @see MessageDataOutputStream#writePrimitiveArray(Object, int, int)
+     */
+    public Object readPrimitiveArray() throws IOException {
+        byte typeCode = readByte();
+        int elementSize = PrimitiveTypes.getArrayElementSize(typeCode);
+        int length = readInt();
+
+        Object array = Array.newInstance(PrimitiveTypes.getArrayElementType(typeCode), length);
+        ByteBuffer buffer = ByteBuffer.allocate(Math.min(length, PRIMITIVE_BLOCK_LENGTH) * elementSize);
+        for (int position = 0; position < length; position += PRIMITIVE_BLOCK_LENGTH) {
+            int blockLength = Math.min(PRIMITIVE_BLOCK_LENGTH, length - position);
+            buffer.clear();
+            buffer.limit(blockLength * elementSize);
+            readFully(buffer);
+            buffer.flip();
+            switch (typeCode) {
+                case 'D':
+                    buffer.asDoubleBuffer().get((double[]) array, position, blockLength);
+                    break;
+                case 'F':
+                    buffer.asFloatBuffer().get((float[]) array, position, blockLength);
+                    break;
+                case 'J':
+                    buffer.asLongBuffer().get((long[]) array, position, blockLength);
+                    break;
+                case 'I':
+                    buffer.asIntBuffer().get((int[]) array, position, blockLength);
+                    break;
+                case 'S':
+                    buffer.asShortBuffer().get((short[]) array, position, blockLength);
+                    break;
+                case 'C':
+                    buffer.asCharBuffer().get((char[]) array, position, blockLength);
+                    break;
+                default:
+                    buffer.get((byte[]) array, position, blockLength);
+                    break;
+            }
+        }
+        return array;
+    }
+
+    /**
+     * Reads reduce operation written by {@link MessageDataOutputStream#writeReduceOperation(ReduceOperation)}.
+     *
+     * @param <T> type of value
+     * @return reduce operation
+     */
+    @SuppressWarnings("unchecked")
+    public <T> ReduceOperation<T> readReduceOperation() throws IOException, ClassNotFoundException {
+        byte id = readByte();
+        if (id >= 0) {
+            return (ReduceOperation<T>) BuiltinReduceOperation.fromId(id);
+        }
+        return (ReduceOperation<T>) readObject();
+    }
+
     public Object readObject() throws IOException, ClassNotFoundException {
         if (objectInputStream == null) {
             objectInputStream = new ObjectInputStream(input);
@@ -11,13 +11,21 @@ package org.pcj.internal.network;
 import java.io.IOException;
 import java.io.ObjectOutputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import org.pcj.OffHeapArray;
+import org.pcj.ReduceOperation;
+import org.pcj.internal.BuiltinReduceOperation;
+import org.pcj.internal.OffHeapArrays;
+import org.pcj.internal.PrimitiveTypes;
 
 /**
  * @author Marek Nowicki (faramir@mat.umk.pl)
  */
 public class MessageDataOutputStream extends OutputStream {
 
+    private static final int COPY_BUFFER_SIZE = 8192;
+    private static final int PRIMITIVE_BLOCK_LENGTH = 64 * 1024;
     private final OutputStream output;
     private ObjectOutputStream objectOutputStream;
 
@@ -160,6 +168,97 @@ public class MessageDataOutputStream extends OutputStream {
         }
     }
 
+    /**
+     * Writes content of the buffer (from position to limit). When possible,
+     * the content is sent straight from the buffer, without copying.
+     *
+     * @param buffer buffer to write
+     */
+    public void writeByteBuffer(ByteBuffer buffer) throws IOException {
+        if (output instanceof ByteBufferOutputStream) {
+            ((ByteBufferOutputStream) output).writeDirect(buffer);
+            return;
+        }
+
+        ByteBuffer content = buffer.duplicate();
+        byte[] bytes = new byte[Math.min(content.remaining(), COPY_BUFFER_SIZE)];
+        while (content.hasRemaining()) {
+            int len = Math.min(bytes.length, content.remaining());
+            content.get(bytes, 0, len);
+            output.write(bytes, 0, len);
+        }
+    }
+
+    public void writeOffHeapArray(OffHeapArray array) throws IOException {
+        writeByte(OffHeapArrays.getTypeCode(array));
+        writeLong(array.length());
+        for (ByteBuffer buffer : array.byteBuffers(0, array.length())) {
+            writeByteBuffer(buffer);
+        }
+    }
+
+    /**
+     * Writes part of array of primitive numeric or char elements in bulk,
+     * without Java serialization.
+     *
+     * @param array  array
+     * @param offset index of the first element
+     * @param length number of elements
+     * @see MessageDataInputStream#readPrimitiveArray()
+     */
+    public void writePrimitiveArray(Object array, int offset, int length) throws IOException {
+        byte typeCode = PrimitiveTypes.getArrayTypeCode(array);
+        int elementSize = PrimitiveTypes.getArrayElementSize(typeCode);
+        writeByte(typeCode);
+        writeInt(length);
+
+        for (int position = 0; position < length; position += PRIMITIVE_BLOCK_LENGTH) {
+            int blockLength = Math.min(PRIMITIVE_BLOCK_LENGTH, length - position);
+            int from = offset + position;
+            // new buffer for each block, as the buffer can be sent without copying
+            ByteBuffer buffer = ByteBuffer.allocate(blockLength * elementSize);
+            switch (typeCode) {
+                case 'D':
+                    buffer.asDoubleBuffer().put((double[]) array, from, blockLength);
+                    break;
+                case 'F':
+                    buffer.asFloatBuffer().put((float[]) array, from, blockLength);
+                    break;
+                case 'J':
+                    buffer.asLongBuffer().put((long[]) array, from, blockLength);
+                    break;
+                case 'I':
+                    buffer.asIntBuffer().put((int[]) array, from, blockLength);
+                    break;
+                case 'S':
+                    buffer.asShortBuffer().put((short[]) array, from, blockLength);
+                    break;
+                case 'C':
+                    buffer.asCharBuffer().put((char[]) array, from, blockLength);
+                    break;
+                default:
+                    buffer.put((byte[]) array, from, blockLength);
+                    buffer.flip();
+                    break;
+            }
+            writeByteBuffer(buffer);
+        }
+    }
+
+    /**
+     * Writes reduce operation: id of built-in operation or serialized function.
+     *
+     * @param function reduce operation
+     */
+    public void writeReduceOperation(ReduceOperation<?> function) throws IOException {
+        if (function instanceof BuiltinReduceOperation) {
+            writeByte(((BuiltinReduceOperation) function).getId());
+        } else {
+            writeByte((byte) -1);
+            writeObject(function);
+        }
+    }
+
     public void writeObject(Object object) throws IOException {
         if (objectOutputStream == null) {
             objectOutputStream = new ObjectOutputStream(output);
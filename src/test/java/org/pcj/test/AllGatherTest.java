@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2011-2019, PCJ Library, Marek Nowicki
+ * All rights reserved.
+ *
+ * Licensed under New BSD License (3-clause license).
+ *
+ * See the file "LICENSE" for the full license governing this code.
+ */
+package org.pcj.test;
+
+import java.util.Arrays;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.pcj.PCJ;
+import org.pcj.PcjRuntimeException;
+import org.pcj.RegisterStorage;
+import org.pcj.StartPoint;
+import org.pcj.Storage;
+
+/**
+ * @author Marek Nowicki (faramir@mat.umk.pl)
+ */
+@RegisterStorage(AllGatherTest.Shared.class)
+public class AllGatherTest implements StartPoint {
+
+    @Storage(AllGatherTest.class)
+    enum Shared {
+        value, text, array, rows
+    }
+
+    private int value;
+    private String text;
+    private long[] array;
+    private long[][] rows;
+
+    public static void main(String[] args) throws InterruptedException {
+        Level level = Level.INFO;
+//        Level level = Level.CONFIG;
+//        Level level = Level.FINEST;
+        Logger logger = Logger.getLogger("");
+        Arrays.stream(logger.getHandlers()).forEach(handler -> handler.setLevel(level));
+        logger.setLevel(level);
+
+        String[] nodes = {
+                "localhost:8091",
+                "localhost:8002",
+                "localhost:8002",
+                "localhost:8003",
+                "localhost:8004",
+                "localhost:8004",
+                "localhost:8005",};
+
+        // small values are exchanged using recursive doubling, large - in the ring of nodes
+        PCJ.executionBuilder(AllGatherTest.class)
+                .addProperty("pcj.allgather.ring.threshold", "1000")
+                .addNodes(nodes)
+                .deploy();
+    }
+
+    @Override
+    public void main() throws Throwable {
+        int threadCount = PCJ.threadCount();
+        value = PCJ.myId() * 10;
+        text = "t" + PCJ.myId();
+        array = new long[2000];
+        Arrays.fill(array, PCJ.myId());
+        PCJ.barrier();
+
+        int[] expectedValues = new int[threadCount];
+        String[] expectedTexts = new String[threadCount];
+        long[][] expectedArrays = new long[threadCount][2000];
+        for (int i = 0; i < threadCount; ++i) {
+            expectedValues[i] = i * 10;
+            expectedTexts[i] = "t" + i;
+            Arrays.fill(expectedArrays[i], i);
+        }
+
+        Checks.check("allGather(int)", Arrays.toString(expectedValues), Arrays.toString(PCJ.<int[]>allGather(Shared.value)));
+        Checks.check("allGather(String)", Arrays.toString(expectedTexts), Arrays.toString(PCJ.<String[]>allGather(Shared.text)));
+        Checks.check("allGather(long[]) ring", true, Arrays.deepEquals(expectedArrays, PCJ.<long[][]>allGather(Shared.array)));
+
+        int[] output = new int[threadCount];
+        for (int repeat = 0; repeat < 3; ++repeat) {
+            value = PCJ.myId() * 10 + repeat;
+            PCJ.barrier();
+            for (int i = 0; i < threadCount; ++i) {
+                expectedValues[i] = i * 10 + repeat;
+            }
+            int[] result = PCJ.allGather(output, Shared.value);
+            Checks.check("allGather(output) #" + repeat, Arrays.toString(expectedValues),
+                    (result == output ? "" : "new array ") + Arrays.toString(result));
+            PCJ.barrier();
+        }
+
+        // only PCJ Thread 0 (alone on its node) has short array, so all nodes use recursive doubling
+        array = new long[PCJ.myId() == 0 ? 1 : 2000];
+        Arrays.fill(array, PCJ.myId());
+        PCJ.barrier();
+        expectedArrays[0] = new long[]{0};
+        Checks.check("allGather(long[]) mixed lengths", true, Arrays.deepEquals(expectedArrays, PCJ.<long[][]>allGather(Shared.array)));
+
+        // get fails on the last node
+        rows = new long[][]{array};
+        PCJ.barrier();
+        int row = PCJ.myId() == threadCount - 1 ? 1 : 0;
+        Checks.checkThrows("allGather(failed get)", PcjRuntimeException.class, () -> PCJ.allGather(Shared.rows, row));
+
+        Checks.check("allGather(long[]) after failure", true, Arrays.deepEquals(expectedArrays, PCJ.<long[][]>allGather(Shared.array)));
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2011-2019, PCJ Library, Marek Nowicki
+ * All rights reserved.
+ *
+ * Licensed under New BSD License (3-clause license).
+ *
+ * See the file "LICENSE" for the full license governing this code.
+ */
+package org.pcj.test;
+
+import java.util.Arrays;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.pcj.PCJ;
+import org.pcj.PcjRuntimeException;
+import org.pcj.ReduceOperation;
+import org.pcj.RegisterStorage;
+import org.pcj.StartPoint;
+import org.pcj.Storage;
+
+/**
+ * @author Marek Nowicki (faramir@mat.umk.pl)
+ */
+@RegisterStorage(AllReduceTest.Shared.class)
+public class AllReduceTest implements StartPoint {
+
+    @Storage(AllReduceTest.class)
+    enum Shared {
+        value, text, array, mixed, rows
+    }
+
+    private long value;
+    private String text;
+    private long[] array;
+    private long[] mixed;
+    private long[][] rows;
+
+    public static void main(String[] args) throws InterruptedException {
+        Level level = Level.INFO;
+//        Level level = Level.CONFIG;
+//        Level level = Level.FINEST;
+        Logger logger = Logger.getLogger("");
+        Arrays.stream(logger.getHandlers()).forEach(handler -> handler.setLevel(level));
+        logger.setLevel(level);
+
+        String[] nodes = {
+                "localhost:8091",
+                "localhost:8002",
+                "localhost:8002",
+                "localhost:8003",
+                "localhost:8004",
+                "localhost:8004",
+                "localhost:8005",};
+
+        PCJ.executionBuilder(AllReduceTest.class)
+                .addProperty("pcj.allreduce.ring.threshold", "1024")
+                .addNodes(nodes)
+                .deploy();
+    }
+
+    @Override
+    public void main() throws Throwable {
+        value = PCJ.myId() + 1;
+        text = Integer.toString(PCJ.myId(), Character.MAX_RADIX);
+        array = new long[4099];
+        for (int i = 0; i < array.length; ++i) {
+            array[i] = (long) PCJ.myId() * i + i % 7;
+        }
+        PCJ.barrier();
+
+        long expectedSum = (long) PCJ.threadCount() * (PCJ.threadCount() + 1) / 2;
+
+        // values are combined in order of the tree, so the non-commutative result
+        // has to be the same in every call and contain value of every PCJ Thread once
+        String firstText = null;
+        for (int i = 0; i < 3; ++i) {
+            Checks.check("allReduce(sum)", expectedSum, PCJ.allReduce(Long::sum, Shared.value));
+            Checks.check("allReduce(max)", (long) PCJ.threadCount(), PCJ.allReduce(Long::max, Shared.value));
+
+            String concat = PCJ.allReduce(String::concat, Shared.text);
+            if (firstText == null) {
+                char[] chars = concat.toCharArray();
+                Arrays.sort(chars);
+                StringBuilder sorted = new StringBuilder();
+                for (int id = 0; id < PCJ.threadCount(); ++id) {
+                    sorted.append(Integer.toString(id, Character.MAX_RADIX));
+                }
+                Checks.check("allReduce(concat) values", sorted.toString(), new String(chars));
+                firstText = concat;
+            }
+            Checks.check("allReduce(concat)", firstText, concat);
+        }
+
+        // arrays longer than pcj.allreduce.ring.threshold are reduced using ring algorithm
+        long[] expectedArray = new long[array.length];
+        long idsSum = (long) PCJ.threadCount() * (PCJ.threadCount() - 1) / 2;
+        for (int i = 0; i < expectedArray.length; ++i) {
+            expectedArray[i] = idsSum * i + (long) PCJ.threadCount() * (i % 7);
+        }
+        long[] ring = PCJ.allReduce((long[] a, long[] b) -> {
+            long[] sum = a.clone();
+            for (int i = 0; i < sum.length; ++i) {
+                sum[i] += b[i];
+            }
+            return sum;
+        }, Shared.array);
+        Checks.check("allReduce(ring)", true, Arrays.equals(expectedArray, ring));
+        Checks.check("allReduce(ring) unchanged", (long) PCJ.myId() + 1, array[1]);
+
+        // only PCJ Thread 0 (alone on its node) has short array, so nodes do not agree on the ring
+        mixed = new long[PCJ.myId() == 0 ? 100 : array.length];
+        Arrays.fill(mixed, 1);
+        PCJ.barrier();
+        long[] expectedMixed = new long[array.length];
+        for (int i = 0; i < expectedMixed.length; ++i) {
+            expectedMixed[i] = i < 100 ? PCJ.threadCount() : PCJ.threadCount() - 1;
+        }
+        long[] mixedSum = PCJ.allReduce((long[] a, long[] b) -> {
+            long[] sum = a.length >= b.length ? a.clone() : b.clone();
+            long[] other = a.length >= b.length ? b : a;
+            for (int i = 0; i < other.length; ++i) {
+                sum[i] += other[i];
+            }
+            return sum;
+        }, Shared.mixed);
+        Checks.check("allReduce(mixed lengths)", true, Arrays.equals(expectedMixed, mixedSum));
+
+        // get fails on the last node, other nodes offer the ring
+        rows = new long[][]{array};
+        PCJ.barrier();
+        int row = PCJ.myId() == PCJ.threadCount() - 1 ? 1 : 0;
+        Checks.checkThrows("allReduce(failed get)", PcjRuntimeException.class, () -> PCJ.allReduce(ReduceOperation.sum(), Shared.rows, row));
+
+        // reduce function fails on some nodes of the ring
+        mixed = new long[array.length];
+        Arrays.fill(mixed, PCJ.myId() == 3 ? -1 : 1);
+        PCJ.barrier();
+        Checks.checkThrows("allReduce(failed ring)", PcjRuntimeException.class, () -> PCJ.allReduce((long[] a, long[] b) -> {
+            if (a[0] < 0 || b[0] < 0) {
+                throw new IllegalStateException("negative value");
+            }
+            return a;
+        }, Shared.mixed));
+
+        Checks.check("allReduce(sum) after failures", expectedSum, PCJ.allReduce(Long::sum, Shared.value));
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2011-2019, PCJ Library, Marek Nowicki
+ * All rights reserved.
+ *
+ * Licensed under New BSD License (3-clause license).
+ *
+ * See the file "LICENSE" for the full license governing this code.
+ */
+package org.pcj.test;
+
+import java.util.Arrays;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.pcj.PCJ;
+import org.pcj.RegisterStorage;
+import org.pcj.StartPoint;
+import org.pcj.Storage;
+
+/**
+ * @author Marek Nowicki (faramir@mat.umk.pl)
+ */
+@RegisterStorage(AllToAllTest.Shared.class)
+public class AllToAllTest implements StartPoint {
+
+    @Storage(AllToAllTest.class)
+    enum Shared {
+        send, recv
+    }
+
+    private int[] send;
+    private int[] recv;
+
+    public static void main(String[] args) throws InterruptedException {
+        Level level = Level.INFO;
+//        Level level = Level.CONFIG;
+//        Level level = Level.FINEST;
+        Logger logger = Logger.getLogger("");
+        Arrays.stream(logger.getHandlers()).forEach(handler -> handler.setLevel(level));
+        logger.setLevel(level);
+
+        String[] nodes = {
+                "localhost:8091",
+                "localhost:8002",
+                "localhost:8002",
+                "localhost:8003",
+                "localhost:8004",
+                "localhost:8004",
+                "localhost:8005",};
+
+        PCJ.executionBuilder(AllToAllTest.class)
+                .addNodes(nodes)
+                .deploy();
+    }
+
+    @Override
+    public void main() throws Throwable {
+        int myId = PCJ.myId();
+        int threadCount = PCJ.threadCount();
+
+        // PCJ Thread i sends (i + j) % 3 elements to PCJ Thread j, so some blocks are empty
+        int[] sendCounts = new int[threadCount];
+        int[] recvCounts = new int[threadCount];
+        int sendLength = 0;
+        int recvLength = 0;
+        for (int j = 0; j < threadCount; ++j) {
+            sendCounts[j] = (myId + j) % 3;
+            recvCounts[j] = (j + myId) % 3;
+            sendLength += sendCounts[j];
+            recvLength += recvCounts[j];
+        }
+
+        send = new int[sendLength];
+        int[] expected = new int[recvLength];
+        for (int j = 0, sendOffset = 0, recvOffset = 0; j < threadCount; ++j) {
+            for (int k = 0; k < sendCounts[j]; ++k) {
+                send[sendOffset++] = myId * 1000 + j * 10 + k;
+            }
+            for (int k = 0; k < recvCounts[j]; ++k) {
+                expected[recvOffset++] = j * 1000 + myId * 10 + k;
+            }
+        }
+        PCJ.barrier();
+
+        for (int repeat = 0; repeat < 3; ++repeat) {
+            recv = null;
+            PCJ.allToAll(Shared.send, Shared.recv, sendCounts, recvCounts);
+            Checks.check("allToAll #" + repeat, expected, recv);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2011-2019, PCJ Library, Marek Nowicki
+ * All rights reserved.
+ *
+ * Licensed under New BSD License (3-clause license).
+ *
+ * See the file "LICENSE" for the full license governing this code.
+ */
+package org.pcj.test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.pcj.PCJ;
+import org.pcj.PcjFuture;
+import org.pcj.RegisterStorage;
+import org.pcj.StartPoint;
+import org.pcj.Storage;
+
+/**
+ * Barrier test: many synchronous rounds, more outstanding asynchronous
+ * barriers than slots of barrier states, and timed waiting.
+ * <p>
+ * The barrier algorithm (tree, dissemination, tournament) can be given
+ * as the first argument.
+ *
+ * @author Marek Nowicki (faramir@mat.umk.pl)
+ */
+@RegisterStorage(BarrierTest.Shared.class)
+public class BarrierTest implements StartPoint {
+
+    private static final int SYNC_ROUNDS = 1000;
+    private static final int ASYNC_ROUNDS = 200;
+
+    @Storage(BarrierTest.class)
+    enum Shared {
+        counter
+    }
+
+    private int counter;
+
+    public static void main(String[] args) throws InterruptedException {
+        Level level = Level.INFO;
+//        Level level = Level.CONFIG;
+//        Level level = Level.FINEST;
+        Logger logger = Logger.getLogger("");
+        Arrays.stream(logger.getHandlers()).forEach(handler -> handler.setLevel(level));
+        logger.setLevel(level);
+
+        String[] nodes = {
+                "localhost:8091",
+                "localhost:8091",
+                "localhost:8002",
+                "localhost:8003",
+                "localhost:8003",
+                "localhost:8003",
+                "localhost:8004",};
+
+        PCJ.executionBuilder(BarrierTest.class)
+                .addProperty("pcj.barrier.algorithm", args.length > 0 ? args[0] : "tree")
+                .addNodes(nodes)
+                .deploy();
+    }
+
+    @Override
+    public void main() throws Throwable {
+        int next = (PCJ.myId() + 1) % PCJ.threadCount();
+
+        boolean ordered = true;
+        for (int i = 1; i <= SYNC_ROUNDS; ++i) {
+            counter = i;
+            PCJ.barrier();
+            int nextCounter = PCJ.get(next, Shared.counter);
+            if (nextCounter < i) {
+                ordered = false;
+            }
+            PCJ.barrier();
+        }
+        Checks.check("barrier() x" + SYNC_ROUNDS, true, ordered);
+
+        List<PcjFuture<Void>> futures = new ArrayList<>(ASYNC_ROUNDS);
+        for (int i = 0; i < ASYNC_ROUNDS; ++i) {
+            futures.add(PCJ.asyncBarrier());
+        }
+        for (int i = ASYNC_ROUNDS - 1; i >= 0; --i) {
+            futures.get(i).get();
+        }
+        Checks.check("asyncBarrier() x" + ASYNC_ROUNDS + " isDone", true,
+                futures.stream().allMatch(PcjFuture::isDone));
+
+        /* slots are reused after overflow */
+        for (int i = 0; i < ASYNC_ROUNDS; ++i) {
+            PCJ.barrier();
+        }
+        Checks.check("barrier() after overflow", true, true);
+
+        if (PCJ.myId() == 0) {
+            Thread.sleep(500);
+        }
+        PcjFuture<Void> future = PCJ.asyncBarrier();
+        if (PCJ.myId() != 0) {
+            boolean timedOut = false;
+            try {
+                future.get(10, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException ex) {
+                timedOut = true;
+            }
+            Checks.check("get(timeout) before arrival of thread 0", true, timedOut);
+        }
+        future.get(10, TimeUnit.SECONDS);
+        Checks.check("get(timeout) after arrival of thread 0", true, future.isDone());
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2011-2019, PCJ Library, Marek Nowicki
+ * All rights reserved.
+ *
+ * Licensed under New BSD License (3-clause license).
+ *
+ * See the file "LICENSE" for the full license governing this code.
+ */
+package org.pcj.test;
+
+import java.util.Arrays;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.IntStream;
+import org.pcj.Group;
+import org.pcj.PCJ;
+import org.pcj.ReduceOperation;
+import org.pcj.RegisterStorage;
+import org.pcj.StartPoint;
+import org.pcj.Storage;
+
+/**
+ * Many PCJ Threads placed on the same node join groups at the same time,
+ * so their joins are sent in batches.
+ *
+ * @author Marek Nowicki (faramir@mat.umk.pl)
+ */
+@RegisterStorage(BatchedJoinTest.Shared.class)
+public class BatchedJoinTest implements StartPoint {
+
+    private static final int ROUNDS = 20;
+
+    @Storage(BatchedJoinTest.class)
+    enum Shared {
+        globalId
+    }
+
+    private int globalId;
+
+    public static void main(String[] args) throws InterruptedException {
+        Level level = Level.INFO;
+//        Level level = Level.CONFIG;
+//        Level level = Level.FINEST;
+        Logger logger = Logger.getLogger("");
+        Arrays.stream(logger.getHandlers()).forEach(handler -> handler.setLevel(level));
+        logger.setLevel(level);
+
+        String[] nodes = {
+                "localhost:8091", "localhost:8091", "localhost:8091", "localhost:8091",
+                "localhost:8002", "localhost:8002", "localhost:8002", "localhost:8002", "localhost:8002",
+                "localhost:8003", "localhost:8003", "localhost:8003",};
+
+        PCJ.executionBuilder(BatchedJoinTest.class)
+                .addNodes(nodes)
+                .deploy();
+    }
+
+    @Override
+    public void main() throws Throwable {
+        globalId = PCJ.myId();
+        PCJ.barrier();
+
+        boolean allOk = true;
+        for (int round = 0; round < ROUNDS; ++round) {
+            Group group = PCJ.joinGroup("batch" + round);
+            PCJ.barrier();
+            allOk &= checkGroup("batch" + round, group,
+                    IntStream.range(0, PCJ.threadCount()).toArray());
+        }
+        Checks.check("joinGroup of all threads x" + ROUNDS, true, allOk);
+
+        /* local PCJ Threads join different groups at the same time */
+        int parity = PCJ.myId() % 2;
+        Group group = PCJ.joinGroup("parity" + parity);
+        PCJ.barrier();
+        Checks.check("joinGroup of parity" + parity, true, checkGroup("parity" + parity, group,
+                IntStream.range(0, PCJ.threadCount()).filter(id -> id % 2 == parity).toArray()));
+
+        Group again = PCJ.joinGroup("parity" + parity);
+        Checks.check("joinGroup again", group.myId(), again.myId());
+    }
+
+    /*
+     * members joined at the same time, so only the set of members is known;
+     * group ids have to be unique and mapped to the right global ids
+     */
+    private static boolean checkGroup(String name, Group group, int[] members) throws Exception {
+        int[] globalIds = group.<int[]>asyncAllGather(Shared.globalId).get();
+        int[] sorted = globalIds.clone();
+        Arrays.sort(sorted);
+
+        boolean ok = true;
+        ok &= Checks.verify(name + " threadCount", members.length, group.threadCount());
+        ok &= Checks.verify(name + " members", Arrays.toString(members), Arrays.toString(sorted));
+        ok &= Checks.verify(name + " myId", PCJ.myId(), globalIds[group.myId()]);
+        ok &= Checks.verify(name + " allReduce", Arrays.stream(members).sum(),
+                group.asyncAllReduce(ReduceOperation.<Integer>sum(), Shared.globalId).get());
+        group.asyncBarrier().get();
+        return ok;
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2011-2019, PCJ Library, Marek Nowicki
+ * All rights reserved.
+ *
+ * Licensed under New BSD License (3-clause license).
+ *
+ * See the file "LICENSE" for the full license governing this code.
+ */
+package org.pcj.test;
+
+import java.util.Arrays;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.pcj.PCJ;
+import org.pcj.ReduceOperation;
+import org.pcj.RegisterStorage;
+import org.pcj.StartPoint;
+import org.pcj.Storage;
+
+/**
+ * @author Marek Nowicki (faramir@mat.umk.pl)
+ */
+@RegisterStorage(BuiltinReduceTest.Shared.class)
+public class BuiltinReduceTest implements StartPoint {
+
+    @Storage(BuiltinReduceTest.class)
+    enum Shared {
+        value, bits, flag, vector, pairs, counts
+    }
+
+    private long value;
+    private int bits;
+    private boolean flag;
+    private double[] vector;
+    private int[] pairs;
+    private int[] counts = new int[2];
+
+    public static void main(String[] args) throws InterruptedException {
+        Level level = Level.INFO;
+//        Level level = Level.CONFIG;
+//        Level level = Level.FINEST;
+        Logger logger = Logger.getLogger("");
+        Arrays.stream(logger.getHandlers()).forEach(handler -> handler.setLevel(level));
+        logger.setLevel(level);
+
+        String[] nodes = {
+                "localhost:8091",
+                "localhost:8002",
+                "localhost:8002",
+                "localhost:8003",
+                "localhost:8004",
+                "localhost:8004",
+                "localhost:8005",};
+
+        PCJ.executionBuilder(BuiltinReduceTest.class)
+                .addNodes(nodes)
+                .deploy();
+    }
+
+    @Override
+    public void main() throws Throwable {
+        int myId = PCJ.myId();
+        int threadCount = PCJ.threadCount();
+
+        value = myId + 1;
+        bits = 1 << myId;
+        flag = myId % 2 == 0;
+        vector = new double[]{myId, -myId, 0.5 * myId};
+        pairs = new int[]{Math.abs(myId - 2), myId, myId % 3, myId};
+        PCJ.barrier();
+
+        long sum = 0;
+        long prod = 1;
+        int bor = 0;
+        int bxor = 0;
+        int band = -1;
+        boolean flagAnd = true;
+        boolean flagOr = false;
+        double[] vectorSum = new double[3];
+        double[] vectorMax = {Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY};
+        int[] minLoc = {Integer.MAX_VALUE, -1, Integer.MAX_VALUE, -1};
+        int[] maxLoc = {Integer.MIN_VALUE, -1, Integer.MIN_VALUE, -1};
+        for (int id = 0; id < threadCount; ++id) {
+            sum += id + 1;
+            prod *= id + 1;
+            bor |= 1 << id;
+            bxor ^= 1 << id;
+            band &= 1 << id;
+            flagAnd &= id % 2 == 0;
+            flagOr |= id % 2 == 0;
+            double[] v = {id, -id, 0.5 * id};
+            int[] p = {Math.abs(id - 2), id, id % 3, id};
+            for (int i = 0; i < v.length; ++i) {
+                vectorSum[i] += v[i];
+                vectorMax[i] = Math.max(vectorMax[i], v[i]);
+            }
+            for (int i = 0; i < p.length; i += 2) {
+                if (p[i] < minLoc[i]) {
+                    minLoc[i] = p[i];
+                    minLoc[i + 1] = p[i + 1];
+                }
+                if (p[i] > maxLoc[i]) {
+                    maxLoc[i] = p[i];
+                    maxLoc[i + 1] = p[i + 1];
+                }
+            }
+        }
+
+        Checks.check("allReduce(sum)", sum, PCJ.allReduce(ReduceOperation.sum(), Shared.value));
+        Checks.check("allReduce(prod)", prod, PCJ.allReduce(ReduceOperation.prod(), Shared.value));
+        Checks.check("allReduce(min)", 1L, PCJ.allReduce(ReduceOperation.min(), Shared.value));
+        Checks.check("allReduce(max)", (long) threadCount, PCJ.allReduce(ReduceOperation.max(), Shared.value));
+        Checks.check("allReduce(bor)", bor, PCJ.allReduce(ReduceOperation.bor(), Shared.bits));
+        Checks.check("allReduce(bxor)", bxor, PCJ.allReduce(ReduceOperation.bxor(), Shared.bits));
+        Checks.check("allReduce(band)", band, PCJ.allReduce(ReduceOperation.band(), Shared.bits));
+        Checks.check("allReduce(band) flag", flagAnd, PCJ.allReduce(ReduceOperation.band(), Shared.flag));
+        Checks.check("allReduce(bor) flag", flagOr, PCJ.allReduce(ReduceOperation.bor(), Shared.flag));
+        Checks.check("allReduce(sum) vector", Arrays.toString(vectorSum),
+                Arrays.toString(PCJ.<double[]>allReduce(ReduceOperation.sum(), Shared.vector)));
+        Checks.check("allReduce(max) vector", Arrays.toString(vectorMax),
+                Arrays.toString(PCJ.<double[]>allReduce(ReduceOperation.max(), Shared.vector)));
+        Checks.check("allReduce(minLoc)", Arrays.toString(minLoc),
+                Arrays.toString(PCJ.<int[]>allReduce(ReduceOperation.minLoc(), Shared.pairs)));
+        Checks.check("allReduce(maxLoc)", Arrays.toString(maxLoc),
+                Arrays.toString(PCJ.<int[]>allReduce(ReduceOperation.maxLoc(), Shared.pairs)));
+        Checks.check("shareable variable unchanged", Arrays.toString(new double[]{myId, -myId, 0.5 * myId}),
+                Arrays.toString(vector));
+
+        PCJ.accumulate(ReduceOperation.sum(), new int[]{1, myId}, 0, Shared.counts);
+        PCJ.barrier();
+        if (myId == 0) {
+            Checks.check("reduce(sum)", sum, PCJ.reduce(ReduceOperation.sum(), Shared.value));
+            Checks.check("reduce(sum) vector", Arrays.toString(vectorSum),
+                    Arrays.toString(PCJ.<double[]>reduce(ReduceOperation.sum(), Shared.vector)));
+            Checks.check("accumulate(sum)", Arrays.toString(new int[]{threadCount, threadCount * (threadCount - 1) / 2}),
+                    Arrays.toString(counts));
+        }
+    }
+}
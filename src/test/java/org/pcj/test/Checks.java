@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2011-2019, PCJ Library, Marek Nowicki
+ * All rights reserved.
+ *
+ * Licensed under New BSD License (3-clause license).
+ *
+ * See the file "LICENSE" for the full license governing this code.
+ */
+package org.pcj.test;
+
+import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.Objects;
+import org.pcj.PCJ;
+
+/**
+ * Result checks shared by the tests.
+ * <p>
+ * Each check prints a line prefixed with the id of the current PCJ thread
+ * and containing either {@code OK} or {@code FAILED}.
+ *
+ * @author Marek Nowicki (faramir@mat.umk.pl)
+ */
+final class Checks {
+
+    private static final int MAX_PRINTED_LENGTH = 16;
+
+    private Checks() {
+    }
+
+    /**
+     * Compares values (arrays by their contents) and prints the result.
+     *
+     * @return true if the values are equal
+     */
+    static boolean check(String name, Object expected, Object actual) {
+        if (Objects.deepEquals(expected, actual)) {
+            System.out.println(PCJ.myId() + "> " + name + " OK: " + describe(actual));
+            return true;
+        }
+        System.out.println(PCJ.myId() + "> " + name + " FAILED: expected " + toString(expected)
+                                   + " but was " + toString(actual));
+        return false;
+    }
+
+    /**
+     * Compares values like {@link #check(String, Object, Object)}, but prints
+     * only a failure.
+     *
+     * @return true if the values are equal
+     */
+    static boolean verify(String name, Object expected, Object actual) {
+        if (Objects.deepEquals(expected, actual)) {
+            return true;
+        }
+        System.out.println(PCJ.myId() + "> " + name + " FAILED: expected " + toString(expected)
+                                   + " but was " + toString(actual));
+        return false;
+    }
+
+    /**
+     * Runs the operation and checks that it throws exception of the given type.
+     *
+     * @return true if the expected exception was thrown
+     */
+    static boolean checkThrows(String name, Class<? extends RuntimeException> exceptionClass, Runnable operation) {
+        try {
+            operation.run();
+        } catch (RuntimeException ex) {
+            if (exceptionClass.isInstance(ex)) {
+                System.out.println(PCJ.myId() + "> " + name + " OK: " + ex.getMessage());
+                return true;
+            }
+            System.out.println(PCJ.myId() + "> " + name + " FAILED: expected " + exceptionClass.getSimpleName()
+                                       + " but was " + ex);
+            return false;
+        }
+        System.out.println(PCJ.myId() + "> " + name + " FAILED: expected " + exceptionClass.getSimpleName());
+        return false;
+    }
+
+    private static String describe(Object value) {
+        if (value != null && value.getClass().isArray()
+                    && Array.getLength(value) > MAX_PRINTED_LENGTH) {
+            return Array.getLength(value) + " elements";
+        }
+        return toString(value);
+    }
+
+    private static String toString(Object value) {
+        String text = Arrays.deepToString(new Object[]{value});
+        return text.substring(1, text.length() - 1);
+    }
+}
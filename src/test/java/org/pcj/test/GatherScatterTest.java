@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2019, Marek Nowicki
+ * All rights reserved.
+ *
+ * Licensed under New BSD License (3-clause license).
+ *
+ * See the file "LICENSE" for the full license governing this code.
+ */
+package org.pcj.test;
+
+import java.util.Arrays;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.pcj.PCJ;
+import org.pcj.ReduceOperation;
+import org.pcj.RegisterStorage;
+import org.pcj.StartPoint;
+import org.pcj.Storage;
+
+/**
+ * @author Marek Nowicki (faramir@mat.umk.pl)
+ */
+@RegisterStorage(GatherScatterTest.Shared.class)
+public class GatherScatterTest implements StartPoint {
+
+    @Storage(GatherScatterTest.class)
+    enum Shared {
+        a
+    }
+
+    private double[] a = new double[16];
+
+    public static void main(String[] args) throws InterruptedException {
+        Level level = Level.INFO;
+//        Level level = Level.CONFIG;
+//        Level level = Level.FINEST;
+        Logger logger = Logger.getLogger("");
+        Arrays.stream(logger.getHandlers()).forEach(handler -> handler.setLevel(level));
+        logger.setLevel(level);
+
+        String[] nodes = {
+                "localhost",
+                "localhost:8092",
+                "localhost:8093",};
+
+        PCJ.executionBuilder(GatherScatterTest.class)
+                .addNodes(nodes)
+                .deploy();
+    }
+
+    @Override
+    public void main() throws Throwable {
+        int next = (PCJ.myId() + 1) % PCJ.threadCount();
+        int[] indices = {PCJ.myId(), PCJ.myId() + 4, PCJ.myId() + 8};
+
+        PCJ.scatter(new double[]{1, 2, 3}, next, Shared.a, indices);
+        PCJ.scatterAccumulate(Double::sum, new int[]{10, 20, 30}, next, Shared.a, indices);
+        PCJ.scatterAccumulate(ReduceOperation.sum(), new double[]{100, 200, 300}, next, Shared.a, indices);
+        PCJ.barrier();
+
+        double[] expected = {111, 222, 333};
+        Checks.check("gather from " + next, expected, PCJ.gather(next, Shared.a, indices));
+
+        int previous = (PCJ.myId() + PCJ.threadCount() - 1) % PCJ.threadCount();
+        double[] expectedLocal = new double[a.length];
+        for (int i = 0; i < expected.length; ++i) {
+            expectedLocal[previous + 4 * i] = expected[i];
+        }
+        Checks.check("scattered by " + previous, expectedLocal, a);
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2011-2019, PCJ Library, Marek Nowicki
+ * All rights reserved.
+ *
+ * Licensed under New BSD License (3-clause license).
+ *
+ * See the file "LICENSE" for the full license governing this code.
+ */
+package org.pcj.test;
+
+import java.util.Arrays;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.pcj.PCJ;
+import org.pcj.RegisterStorage;
+import org.pcj.StartPoint;
+import org.pcj.Storage;
+
+/**
+ * @author Marek Nowicki (faramir@mat.umk.pl)
+ */
+@RegisterStorage(LocalParallelTest.Shared.class)
+public class LocalParallelTest implements StartPoint {
+
+    @Storage(LocalParallelTest.class)
+    enum Shared {
+        value, text
+    }
+
+    private int value;
+    private String text;
+
+    public static void main(String[] args) throws InterruptedException {
+        Level level = Level.INFO;
+//        Level level = Level.CONFIG;
+//        Level level = Level.FINEST;
+        Logger logger = Logger.getLogger("");
+        Arrays.stream(logger.getHandlers()).forEach(handler -> handler.setLevel(level));
+        logger.setLevel(level);
+
+        String[] nodes = {
+                "localhost:8091",
+                "localhost:8091",
+                "localhost:8091",
+                "localhost:8091",
+                "localhost:8091",
+                "localhost:8091",
+                "localhost:8091",
+                "localhost:8091",
+                "localhost:8091",
+                "localhost:8091",
+                "localhost:8002",
+                "localhost:8002",
+                "localhost:8002",
+                "localhost:8003",
+                "localhost:8003",};
+
+        // local phase of reduce and collect is done in parallel also on machines with one processor
+        System.setProperty("java.util.concurrent.ForkJoinPool.common.parallelism", "4");
+
+        PCJ.executionBuilder(LocalParallelTest.class)
+                .addProperty("pcj.local.parallel.threshold", "2")
+                .addNodes(nodes)
+                .deploy();
+    }
+
+    @Override
+    public void main() throws Throwable {
+        value = PCJ.myId() * PCJ.myId();
+        text = Integer.toString(PCJ.myId(), Character.MAX_RADIX);
+        PCJ.barrier();
+
+        if (PCJ.myId() == 0 || PCJ.myId() == PCJ.threadCount() - 1) {
+            int[] expectedValues = new int[PCJ.threadCount()];
+            StringBuilder expectedLocalText = new StringBuilder();
+            for (int i = 0; i < PCJ.threadCount(); ++i) {
+                expectedValues[i] = i * i;
+                if (i < 10) {
+                    expectedLocalText.append(Integer.toString(i, Character.MAX_RADIX));
+                }
+            }
+
+            boolean collectOk = true;
+            boolean reduceOk = true;
+            String firstText = null;
+            for (int repeat = 0; repeat < 20; ++repeat) {
+                int[] values = PCJ.collect(Shared.value);
+                collectOk &= Arrays.equals(expectedValues, values);
+
+                // values of threads of the master node are first, in order of thread ids,
+                // and the result is the same in every call
+                String concat = PCJ.reduce(String::concat, Shared.text);
+                if (firstText == null) {
+                    firstText = concat;
+                }
+                reduceOk &= concat.startsWith(expectedLocalText.toString())
+                                    && concat.length() == PCJ.threadCount()
+                                    && concat.equals(firstText);
+            }
+            Checks.check("collect", true, collectOk);
+            Checks.check("reduce(concat) " + firstText, true, reduceOk);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2019, Marek Nowicki
+ * All rights reserved.
+ *
+ * Licensed under New BSD License (3-clause license).
+ *
+ * See the file "LICENSE" for the full license governing this code.
+ */
+package org.pcj.test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.pcj.OffHeapDoubleArray;
+import org.pcj.PCJ;
+import org.pcj.PcjRuntimeException;
+import org.pcj.RegisterStorage;
+import org.pcj.StartPoint;
+import org.pcj.Storage;
+
+/**
+ * @author Marek Nowicki (faramir@mat.umk.pl)
+ */
+@RegisterStorage(MappedStorageTest.Shared.class)
+public class MappedStorageTest implements StartPoint {
+
+    @Storage(MappedStorageTest.class)
+    enum Shared {
+        data, readOnly
+    }
+
+    private static final long LENGTH = 1_000_000;
+    private OffHeapDoubleArray data;
+    private OffHeapDoubleArray readOnly;
+
+    public static void main(String[] args) throws Exception {
+        Level level = Level.INFO;
+//        Level level = Level.CONFIG;
+//        Level level = Level.FINEST;
+        Logger logger = Logger.getLogger("");
+        Arrays.stream(logger.getHandlers()).forEach(handler -> handler.setLevel(level));
+        logger.setLevel(level);
+
+        String[] nodes = {
+                "localhost",
+                "localhost:8092",};
+
+        Path dataDir = Files.createTempDirectory("pcj-mapped");
+
+        PCJ.executionBuilder(MappedStorageTest.class)
+                .addProperty("data.dir", dataDir.toString())
+                .addNodes(nodes)
+                .deploy();
+    }
+
+    @Override
+    public void main() throws Throwable {
+        Path dataDir = Paths.get(PCJ.getProperty("data.dir"));
+
+        data = OffHeapDoubleArray.map(dataDir.resolve("data-" + PCJ.myId()), LENGTH);
+        for (long i = 0; i < data.length(); ++i) {
+            data.set(i, PCJ.myId() * data.length() + i);
+        }
+        data.force();
+
+        readOnly = OffHeapDoubleArray.map(dataDir.resolve("data-" + PCJ.myId()), true);
+        PCJ.barrier();
+
+        int peer = (PCJ.myId() + 1) % PCJ.threadCount();
+
+        OffHeapDoubleArray range = PCJ.getRange(peer, Shared.readOnly, LENGTH - 5, 5);
+        double[] values = new double[(int) range.length()];
+        range.get(0, values);
+        System.out.println(PCJ.myId() + "> " + peer + ".readOnly[" + (LENGTH - 5) + ".." + LENGTH + "]="
+                                   + Arrays.toString(values));
+        PCJ.barrier();
+
+        PCJ.putRange(new double[]{-1.0, -2.0, -3.0}, peer, Shared.data, 1);
+        try {
+            PCJ.putRange(new double[]{-1.0}, peer, Shared.readOnly, 0);
+            System.out.println(PCJ.myId() + "> put into read-only mapping succeeded unexpectedly");
+        } catch (PcjRuntimeException ex) {
+            System.out.println(PCJ.myId() + "> put into read-only mapping failed as expected: " + ex);
+        }
+        PCJ.barrier();
+
+        double[] local = new double[5];
+        readOnly.get(0, local);
+        System.out.println(PCJ.myId() + "> readOnly[0..5]=" + Arrays.toString(local));
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2019, Marek Nowicki
+ * All rights reserved.
+ *
+ * Licensed under New BSD License (3-clause license).
+ *
+ * See the file "LICENSE" for the full license governing this code.
+ */
+package org.pcj.test;
+
+import java.util.Arrays;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.pcj.OffHeapDoubleArray;
+import org.pcj.PCJ;
+import org.pcj.RegisterStorage;
+import org.pcj.StartPoint;
+import org.pcj.Storage;
+
+/**
+ * @author Marek Nowicki (faramir@mat.umk.pl)
+ */
+@RegisterStorage(OffHeapTest.Shared.class)
+public class OffHeapTest implements StartPoint {
+
+    @Storage(OffHeapTest.class)
+    enum Shared {
+        data
+    }
+
+    private OffHeapDoubleArray data = new OffHeapDoubleArray(1_000_000);
+
+    public static void main(String[] args) throws InterruptedException {
+        Level level = Level.INFO;
+//        Level level = Level.CONFIG;
+//        Level level = Level.FINEST;
+        Logger logger = Logger.getLogger("");
+        Arrays.stream(logger.getHandlers()).forEach(handler -> handler.setLevel(level));
+        logger.setLevel(level);
+
+        String[] nodes = {
+                "localhost",
+                "localhost:8092",};
+
+        PCJ.executionBuilder(OffHeapTest.class)
+                .addNodes(nodes)
+                .deploy();
+    }
+
+    @Override
+    public void main() throws Throwable {
+        for (long i = 0; i < data.length(); ++i) {
+            data.set(i, PCJ.myId() * data.length() + i);
+        }
+        PCJ.barrier();
+
+        int peer = (PCJ.myId() + 1) % PCJ.threadCount();
+        int previous = (PCJ.myId() + PCJ.threadCount() - 1) % PCJ.threadCount();
+        long length = data.length();
+
+        OffHeapDoubleArray copy = PCJ.get(peer, Shared.data);
+        long mismatches = 0;
+        for (long i = 0; i < length; ++i) {
+            if (copy.get(i) != peer * length + i) {
+                ++mismatches;
+            }
+        }
+        Checks.check("get(" + peer + ") length", length, copy.length());
+        Checks.check("get(" + peer + ") mismatches", 0L, mismatches);
+        Checks.check("get(" + peer + ", 10)", peer * length + 10.0, PCJ.<Double>get(peer, Shared.data, 10));
+        Checks.check("gather(" + peer + ")",
+                new double[]{peer * length + 1, peer * length + 2, peer * length + 999_999},
+                PCJ.gather(peer, Shared.data, new int[]{1, 2, 999_999}));
+        PCJ.barrier();
+
+        PCJ.put(-1.0, peer, Shared.data, 0);
+        PCJ.accumulate(Double::sum, 0.5, peer, Shared.data, 0);
+        PCJ.barrier();
+        Checks.check("put and accumulate by " + previous, -0.5, data.get(0));
+        Checks.check("element not modified", PCJ.myId() * length + 1.0, data.get(1));
+        PCJ.barrier();
+
+        OffHeapDoubleArray small = new OffHeapDoubleArray(1000);
+        for (int i = 0; i < small.length(); ++i) {
+            small.set(i, PCJ.myId() + i / 1000.0);
+        }
+        PCJ.put(small, peer, Shared.data);
+        PCJ.barrier();
+        double[] head = new double[3];
+        data.get(0, head);
+        Checks.check("put(array) by " + previous + " length", 1000L, data.length());
+        Checks.check("put(array) by " + previous, new double[]{previous, previous + 0.001, previous + 0.002}, head);
+        PCJ.barrier();
+
+        if (PCJ.myId() == 0) {
+            PCJ.broadcast(42.0, Shared.data, 7);
+        }
+        PCJ.barrier();
+        Checks.check("broadcast(data[7])", 42.0, data.get(7));
+        Checks.check("broadcast(data[8]) not modified", previous + 0.008, data.get(8));
+    }
+}
@@ -10,6 +10,7 @@ package org.pcj.test;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.LinkedHashSet;
 import java.util.Scanner;
 import java.util.Set;
@@ -53,6 +54,7 @@ public class PcjMicroBenchmarkBarrier implements StartPoint {
 
     public static void main(String[] args) {
         int[] threads = {1, 2, 4, 8, 12, 24, 48};
+        String[] algorithms = {"tree", "dissemination", "tournament"};
 
         String nodesFile = "nodes.txt";
         if (args.length > 0) {
@@ -73,6 +75,17 @@ public class PcjMicroBenchmarkBarrier implements StartPoint {
 
         String[] nodesUniq = nodesSet.toArray(new String[0]);
 
+        // latency of synchronization of nodes: one thread per node, 2..512 nodes
+        for (String algorithm : algorithms) {
+            for (int nn = 2; nn <= Math.min(512, nodesUniq.length); nn *= 2) {
+                System.out.printf(" Start deploy algorithm=%s nn=%d nt=%d\n", algorithm, nn, 1);
+                PCJ.executionBuilder(PcjMicroBenchmarkBarrier.class)
+                        .addProperty("pcj.barrier.algorithm", algorithm)
+                        .addNodes(Arrays.copyOf(nodesUniq, nn))
+                        .deploy();
+            }
+        }
+
         int nn = nodesUniq.length;
 //        for (int nn = nodesUniq.length; nn > 0; nn = nn / 2) {
         for (int nt : threads) {
@@ -78,8 +78,10 @@ public class PcjMicroBenchmarkBroadcast implements StartPoint {
 
 //            System.out.println(PCJ.threadCount() + " " + time + " " + a[n - 1]);
             if (PCJ.myId() == 0) {
-                System.out.format(Locale.FRANCE, "%5d size %.10f time %.7f %n",
-                        PCJ.threadCount(), (double) n / 128, dtime);
+                System.out.format(Locale.FRANCE, "%5d size %.10f time %.7f pipeline threshold %s scatter threshold %s%n",
+                        PCJ.threadCount(), (double) n / 128, dtime,
+                        PCJ.getProperty("pcj.broadcast.pipeline.threshold", "default"),
+                        PCJ.getProperty("pcj.broadcast.scatter.threshold", "default"));
             }
         }
     }
@@ -140,9 +142,15 @@ public class PcjMicroBenchmarkBroadcast implements StartPoint {
                     }
                 }
 
-                PCJ.executionBuilder(PcjMicroBenchmarkBroadcast.class)
-                        .addNodes(nodes)
-                        .deploy();
+                // plain tree, pipelining of every value and scatter-allgather of every value, to show the crossover
+                String[][] thresholds = {{"-1", "-1"}, {"0", "-1"}, {"-1", "0"}};
+                for (String[] threshold : thresholds) {
+                    PCJ.executionBuilder(PcjMicroBenchmarkBroadcast.class)
+                            .addProperty("pcj.broadcast.pipeline.threshold", threshold[0])
+                            .addProperty("pcj.broadcast.scatter.threshold", threshold[1])
+                            .addNodes(nodes)
+                            .deploy();
+                }
             }
         }
     }
@@ -137,6 +137,8 @@ public class PcjMicroBenchmarkReduce implements StartPoint {
                 new Benchmark("pcjTreePut", this::pcjTreePut),
                 new Benchmark("pcjCollect", this::pcjCollect),
                 new Benchmark("pcjReduce", this::pcjReduce),
+                new Benchmark("pcjReduceBcast", this::pcjReduceBroadcast),
+                new Benchmark("pcjAllReduce", this::pcjAllReduce),
         };
 
         for (int i = 0; i < NUMBER_OF_TESTS; ++i) {
@@ -241,4 +243,17 @@ public class PcjMicroBenchmarkReduce implements StartPoint {
         }
         return Double.NaN;
     }
+
+    private double pcjReduceBroadcast() {
+        if (PCJ.myId() == 0) {
+            double sum = PCJ.reduce(Double::sum, Vars.value);
+            PCJ.broadcast(sum, Vars.reducedValue);
+        }
+        PCJ.waitFor(Vars.reducedValue);
+        return reducedValue;
+    }
+
+    private double pcjAllReduce() {
+        return PCJ.allReduce(Double::sum, Vars.value);
+    }
 }
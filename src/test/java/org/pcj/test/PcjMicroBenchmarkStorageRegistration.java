@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2019, Marek Nowicki
+ * All rights reserved.
+ *
+ * Licensed under New BSD License (3-clause license).
+ *
+ * See the file "LICENSE" for the full license governing this code.
+ */
+package org.pcj.test;
+
+import java.util.Arrays;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.pcj.PCJ;
+import org.pcj.RegisterStorage;
+import org.pcj.StartPoint;
+import org.pcj.Storage;
+
+/**
+ * Measures time of starting PCJ Threads and registering wide storage
+ * by many PCJ Threads in one JVM.
+ *
+ * @author Marek Nowicki (faramir@mat.umk.pl)
+ */
+@RegisterStorage({PcjMicroBenchmarkStorageRegistration.Shared.class, PcjMicroBenchmarkStorageRegistration.Wide.class})
+public class PcjMicroBenchmarkStorageRegistration implements StartPoint {
+
+    @Storage(PcjMicroBenchmarkStorageRegistration.class)
+    enum Shared {
+        registrationTime
+    }
+
+    private long registrationTime;
+
+    @Storage(WideStorage.class)
+    enum Wide {
+        f00, f01, f02, f03, f04, f05, f06, f07, f08, f09, f10, f11, f12, f13, f14, f15,
+        f16, f17, f18, f19, f20, f21, f22, f23, f24, f25, f26, f27, f28, f29, f30, f31,
+        f32, f33, f34, f35, f36, f37, f38, f39, f40, f41, f42, f43, f44, f45, f46, f47,
+        f48, f49, f50, f51, f52, f53, f54, f55, f56, f57, f58, f59, f60, f61, f62, f63
+    }
+
+    @Storage(OtherWideStorage.class)
+    enum OtherWide {
+        f00, f01, f02, f03, f04, f05, f06, f07, f08, f09, f10, f11, f12, f13, f14, f15,
+        f16, f17, f18, f19, f20, f21, f22, f23, f24, f25, f26, f27, f28, f29, f30, f31,
+        f32, f33, f34, f35, f36, f37, f38, f39, f40, f41, f42, f43, f44, f45, f46, f47,
+        f48, f49, f50, f51, f52, f53, f54, f55, f56, f57, f58, f59, f60, f61, f62, f63
+    }
+
+    public static class WideStorage {
+
+        private double f00, f01, f02, f03, f04, f05, f06, f07, f08, f09, f10, f11, f12, f13, f14, f15;
+        private double f16, f17, f18, f19, f20, f21, f22, f23, f24, f25, f26, f27, f28, f29, f30, f31;
+        private double f32, f33, f34, f35, f36, f37, f38, f39, f40, f41, f42, f43, f44, f45, f46, f47;
+        private double f48, f49, f50, f51, f52, f53, f54, f55, f56, f57, f58, f59, f60, f61, f62, f63;
+    }
+
+    public static class OtherWideStorage {
+
+        private double f00, f01, f02, f03, f04, f05, f06, f07, f08, f09, f10, f11, f12, f13, f14, f15;
+        private double f16, f17, f18, f19, f20, f21, f22, f23, f24, f25, f26, f27, f28, f29, f30, f31;
+        private double f32, f33, f34, f35, f36, f37, f38, f39, f40, f41, f42, f43, f44, f45, f46, f47;
+        private double f48, f49, f50, f51, f52, f53, f54, f55, f56, f57, f58, f59, f60, f61, f62, f63;
+    }
+
+    @Override
+    public void main() {
+        long start = System.nanoTime();
+        PCJ.registerStorage(OtherWide.class);
+        registrationTime = System.nanoTime() - start;
+
+        PCJ.barrier();
+        if (PCJ.myId() == 0) {
+            long maxTime = PCJ.reduce(Long::max, Shared.registrationTime);
+            System.out.format("Registration\t%5d\tmax time\t%12.7f\n",
+                    PCJ.threadCount(), maxTime * 1e-9);
+        }
+    }
+
+    public static void main(String[] args) {
+        Level level = Level.WARNING;
+        Logger logger = Logger.getLogger("");
+        Arrays.stream(logger.getHandlers()).forEach(handler -> handler.setLevel(level));
+        logger.setLevel(level);
+
+        int[] threads = {1, 16, 64, 256};
+
+        for (int nt : threads) {
+            String[] nodes = new String[nt];
+            Arrays.fill(nodes, "localhost");
+
+            long start = System.nanoTime();
+            PCJ.executionBuilder(PcjMicroBenchmarkStorageRegistration.class)
+                    .addNodes(nodes)
+                    .start();
+            System.out.format("Startup\t%5d\ttime\t%12.7f\n",
+                    nt, (System.nanoTime() - start) * 1e-9);
+        }
+    }
+}
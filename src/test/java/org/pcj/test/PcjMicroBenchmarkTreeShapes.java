@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2019, Marek Nowicki
+ * All rights reserved.
+ *
+ * Licensed under New BSD License (3-clause license).
+ *
+ * See the file "LICENSE" for the full license governing this code.
+ */
+package org.pcj.test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashSet;
+import java.util.Scanner;
+import java.util.Set;
+import java.util.stream.IntStream;
+import org.pcj.PCJ;
+import org.pcj.RegisterStorage;
+import org.pcj.StartPoint;
+import org.pcj.Storage;
+
+/**
+ * Compares barrier, broadcast and reduce times for different shapes
+ * of communication tree ({@code pcj.tree.shape} property).
+ *
+ * @author Marek Nowicki (faramir@mat.umk.pl)
+ */
+@RegisterStorage(PcjMicroBenchmarkTreeShapes.Vars.class)
+public class PcjMicroBenchmarkTreeShapes implements StartPoint {
+
+    private static final int NUMBER_OF_TESTS = 10;
+    private static final int NTIMES = 200;
+
+    @Storage(PcjMicroBenchmarkTreeShapes.class)
+    enum Vars {
+        value
+    }
+
+    private double value;
+
+    @Override
+    public void main() {
+        PCJ.barrier();
+
+        double barrierTime = measure(PCJ::barrier);
+        double broadcastTime = measure(() -> {
+            if (PCJ.myId() == 0) {
+                PCJ.broadcast(1.0, Vars.value);
+            }
+            PCJ.waitFor(Vars.value);
+            PCJ.barrier();
+        });
+        double reduceTime = measure(() -> {
+            if (PCJ.myId() == 0) {
+                PCJ.reduce(Double::sum, Vars.value);
+            }
+            PCJ.barrier();
+        });
+
+        if (PCJ.myId() == 0) {
+            System.out.format("%-8s\t%5d\tbarrier\t%12.7f\tbroadcast+barrier\t%12.7f\treduce+barrier\t%12.7f\n",
+                    PCJ.getProperty("pcj.tree.shape"), PCJ.threadCount(),
+                    barrierTime, broadcastTime, reduceTime);
+        }
+    }
+
+    private static double measure(Runnable operation) {
+        double tmin = Double.MAX_VALUE;
+        for (int k = 0; k < NUMBER_OF_TESTS; k++) {
+            long rTime = System.nanoTime();
+
+            for (int i = 0; i < NTIMES; i++) {
+                operation.run();
+            }
+
+            rTime = System.nanoTime() - rTime;
+            double dtime = (rTime / (double) NTIMES) * 1e-9;
+
+            if (tmin > dtime) {
+                tmin = dtime;
+            }
+            PCJ.barrier();
+        }
+        return tmin;
+    }
+
+    public static void main(String[] args) {
+        String[] shapes = {"binary", "kary", "binomial", "flat"};
+
+        String nodesFile = "nodes.txt";
+        if (args.length > 0) {
+            nodesFile = args[0];
+        }
+        Set<String> nodesSet = new LinkedHashSet<>();
+        try (Scanner s = new Scanner(new File(nodesFile))) {
+            while (s.hasNextLine()) {
+                String node = s.nextLine();
+                nodesSet.add(node);
+            }
+        } catch (IOException ex) {
+            System.err.println(nodesFile + ": file not found");
+            IntStream.range(0, 8)
+                    .mapToObj(i -> "localhost:" + (9000 + i))
+                    .forEach(nodesSet::add);
+        }
+
+        String[] nodes = nodesSet.toArray(new String[0]);
+
+        for (String shape : shapes) {
+            PCJ.executionBuilder(PcjMicroBenchmarkTreeShapes.class)
+                    .addProperty("pcj.tree.shape", shape)
+                    .addProperty("pcj.tree.arity", "8")
+                    .addNodes(nodes)
+                    .deploy();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2011-2019, PCJ Library, Marek Nowicki
+ * All rights reserved.
+ *
+ * Licensed under New BSD License (3-clause license).
+ *
+ * See the file "LICENSE" for the full license governing this code.
+ */
+package org.pcj.test;
+
+import java.util.Arrays;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.pcj.PCJ;
+import org.pcj.ReduceOperation;
+import org.pcj.RegisterStorage;
+import org.pcj.StartPoint;
+import org.pcj.Storage;
+
+/**
+ * @author Marek Nowicki (faramir@mat.umk.pl)
+ */
+@RegisterStorage(ReduceScatterTest.Shared.class)
+public class ReduceScatterTest implements StartPoint {
+
+    @Storage(ReduceScatterTest.class)
+    enum Shared {
+        source, target
+    }
+
+    private long[] source;
+    private long[] target;
+
+    public static void main(String[] args) throws InterruptedException {
+        Level level = Level.INFO;
+//        Level level = Level.CONFIG;
+//        Level level = Level.FINEST;
+        Logger logger = Logger.getLogger("");
+        Arrays.stream(logger.getHandlers()).forEach(handler -> handler.setLevel(level));
+        logger.setLevel(level);
+
+        String[] nodes = {
+                "localhost:8091",
+                "localhost:8002",
+                "localhost:8002",
+                "localhost:8003",
+                "localhost:8004",
+                "localhost:8004",
+                "localhost:8005",};
+
+        // small arrays are exchanged pairwise, large - in the ring of nodes
+        PCJ.executionBuilder(ReduceScatterTest.class)
+                .addProperty("pcj.reducescatter.ring.threshold", "1000")
+                .addNodes(nodes)
+                .deploy();
+    }
+
+    @Override
+    public void main() throws Throwable {
+        reduceScatter("pairwise", 1);
+        reduceScatter("ring", 200);
+
+        try {
+            PCJ.reduceScatter(Integer::sum, Shared.source, Shared.target, new int[PCJ.threadCount()]);
+            System.out.println(PCJ.myId() + "> element function FAILED: not rejected");
+        } catch (IllegalArgumentException ex) {
+            System.out.println(PCJ.myId() + "> element function OK: " + ex.getMessage());
+        }
+    }
+
+    private void reduceScatter(String name, int blockSize) {
+        int[] counts = new int[PCJ.threadCount()];
+        int offset = 0;
+        int myOffset = 0;
+        for (int i = 0; i < counts.length; ++i) {
+            counts[i] = blockSize + i;
+            if (i == PCJ.myId()) {
+                myOffset = offset;
+            }
+            offset += counts[i];
+        }
+
+        source = new long[offset];
+        for (int i = 0; i < source.length; ++i) {
+            source[i] = (long) PCJ.myId() * i + 1;
+        }
+        PCJ.barrier();
+
+        long idsSum = (long) PCJ.threadCount() * (PCJ.threadCount() - 1) / 2;
+        long[] expected = new long[counts[PCJ.myId()]];
+        for (int i = 0; i < expected.length; ++i) {
+            expected[i] = idsSum * (myOffset + i) + PCJ.threadCount();
+        }
+
+        PCJ.<long[]>reduceScatter(ReduceOperation.sum(), Shared.source, Shared.target, counts);
+        Checks.check(name + " built-in", expected, target);
+
+        target = null;
+        PCJ.reduceScatter((long[] a, long[] b) -> {
+            long[] sum = a.clone();
+            for (int i = 0; i < sum.length; ++i) {
+                sum[i] += b[i];
+            }
+            return sum;
+        }, Shared.source, Shared.target, counts);
+        Checks.check(name + " lambda", expected, target);
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2011-2019, PCJ Library, Marek Nowicki
+ * All rights reserved.
+ *
+ * Licensed under New BSD License (3-clause license).
+ *
+ * See the file "LICENSE" for the full license governing this code.
+ */
+package org.pcj.test;
+
+import java.util.Arrays;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.pcj.PCJ;
+import org.pcj.RegisterStorage;
+import org.pcj.StartPoint;
+import org.pcj.Storage;
+
+/**
+ * @author Marek Nowicki (faramir@mat.umk.pl)
+ */
+@RegisterStorage(ScanTest.Shared.class)
+public class ScanTest implements StartPoint {
+
+    @Storage(ScanTest.class)
+    enum Shared {
+        value, text
+    }
+
+    private long value;
+    private String text;
+
+    public static void main(String[] args) throws InterruptedException {
+        Level level = Level.INFO;
+//        Level level = Level.CONFIG;
+//        Level level = Level.FINEST;
+        Logger logger = Logger.getLogger("");
+        Arrays.stream(logger.getHandlers()).forEach(handler -> handler.setLevel(level));
+        logger.setLevel(level);
+
+        String[] nodes = {
+                "localhost:8091",
+                "localhost:8002",
+                "localhost:8002",
+                "localhost:8003",
+                "localhost:8004",
+                "localhost:8004",
+                "localhost:8005",};
+
+        PCJ.executionBuilder(ScanTest.class)
+                .addNodes(nodes)
+                .deploy();
+    }
+
+    @Override
+    public void main() throws Throwable {
+        value = PCJ.myId() + 1;
+        text = Integer.toString(PCJ.myId(), Character.MAX_RADIX);
+        PCJ.barrier();
+
+        long expectedScan = 0;
+        StringBuilder expectedText = new StringBuilder();
+        for (int i = 0; i < PCJ.myId(); ++i) {
+            expectedScan += i + 1;
+            expectedText.append(Integer.toString(i, Character.MAX_RADIX));
+        }
+        Long expectedExscan = PCJ.myId() == 0 ? null : expectedScan;
+        String expectedExscanText = PCJ.myId() == 0 ? null : expectedText.toString();
+        expectedScan += value;
+        expectedText.append(text);
+
+        Long scan = PCJ.scan(Long::sum, Shared.value);
+        Long exscan = PCJ.exscan(Long::sum, Shared.value);
+        String scanText = PCJ.scan(String::concat, Shared.text);
+        String exscanText = PCJ.exscan(String::concat, Shared.text);
+
+        Checks.check("scan(sum)", expectedScan, scan);
+        Checks.check("exscan(sum)", expectedExscan, exscan);
+        Checks.check("scan(concat)", expectedText.toString(), scanText);
+        Checks.check("exscan(concat)", expectedExscanText, exscanText);
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2011-2019, PCJ Library, Marek Nowicki
+ * All rights reserved.
+ *
+ * Licensed under New BSD License (3-clause license).
+ *
+ * See the file "LICENSE" for the full license governing this code.
+ */
+package org.pcj.test;
+
+import java.util.Arrays;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.pcj.PCJ;
+import org.pcj.RegisterStorage;
+import org.pcj.StartPoint;
+import org.pcj.Storage;
+
+/**
+ * @author Marek Nowicki (faramir@mat.umk.pl)
+ */
+@RegisterStorage(ScatterBlocksTest.Shared.class)
+public class ScatterBlocksTest implements StartPoint {
+
+    @Storage(ScatterBlocksTest.class)
+    enum Shared {
+        block
+    }
+
+    private double[] block;
+
+    public static void main(String[] args) throws InterruptedException {
+        Level level = Level.INFO;
+//        Level level = Level.CONFIG;
+//        Level level = Level.FINEST;
+        Logger logger = Logger.getLogger("");
+        Arrays.stream(logger.getHandlers()).forEach(handler -> handler.setLevel(level));
+        logger.setLevel(level);
+
+        String[] nodes = {
+                "localhost:8091",
+                "localhost:8002",
+                "localhost:8002",
+                "localhost:8003",
+                "localhost:8004",
+                "localhost:8004",
+                "localhost:8005",};
+
+        PCJ.executionBuilder(ScatterBlocksTest.class)
+                .addNodes(nodes)
+                .deploy();
+    }
+
+    @Override
+    public void main() throws Throwable {
+        int threadCount = PCJ.threadCount();
+        int[] counts = new int[threadCount];
+        int[] displacements = new int[threadCount];
+        int length = 0;
+        for (int i = 0; i < threadCount; ++i) {
+            counts[i] = i % 3 + 1;
+            length += counts[i];
+        }
+        // blocks in reverse order
+        for (int i = 0, offset = length; i < threadCount; ++i) {
+            offset -= counts[i];
+            displacements[i] = offset;
+        }
+        double[] values = new double[length];
+        for (int i = 0; i < values.length; ++i) {
+            values[i] = i + 0.5;
+        }
+
+        PCJ.monitor(Shared.block);
+        PCJ.barrier();
+
+        if (PCJ.myId() == 0) {
+            PCJ.scatterBlocks(values, Shared.block, counts, null);
+        }
+        PCJ.waitFor(Shared.block);
+        int from = 0;
+        for (int i = 0; i < PCJ.myId(); ++i) {
+            from += counts[i];
+        }
+        Checks.check("scatterBlocks", Arrays.copyOfRange(values, from, from + counts[PCJ.myId()]), block);
+        PCJ.barrier();
+
+        if (PCJ.myId() == threadCount - 1) {
+            PCJ.scatterBlocks(values, Shared.block, counts, displacements);
+        }
+        PCJ.waitFor(Shared.block);
+        from = displacements[PCJ.myId()];
+        Checks.check("scatterBlocks with displacements", Arrays.copyOfRange(values, from, from + counts[PCJ.myId()]), block);
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2011-2019, PCJ Library, Marek Nowicki
+ * All rights reserved.
+ *
+ * Licensed under New BSD License (3-clause license).
+ *
+ * See the file "LICENSE" for the full license governing this code.
+ */
+package org.pcj.test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.IntStream;
+import org.pcj.Group;
+import org.pcj.PCJ;
+import org.pcj.RegisterStorage;
+import org.pcj.ReduceOperation;
+import org.pcj.StartPoint;
+import org.pcj.Storage;
+
+/**
+ * @author Marek Nowicki (faramir@mat.umk.pl)
+ */
+@RegisterStorage(SplitGroupTest.Shared.class)
+public class SplitGroupTest implements StartPoint {
+
+    @Storage(SplitGroupTest.class)
+    enum Shared {
+        globalId
+    }
+
+    private int globalId;
+
+    public static void main(String[] args) throws InterruptedException {
+        Level level = Level.INFO;
+//        Level level = Level.CONFIG;
+//        Level level = Level.FINEST;
+        Logger logger = Logger.getLogger("");
+        Arrays.stream(logger.getHandlers()).forEach(handler -> handler.setLevel(level));
+        logger.setLevel(level);
+
+        String[] nodes = {
+                "localhost:8091",
+                "localhost:8091",
+                "localhost:8002",
+                "localhost:8002",
+                "localhost:8002",
+                "localhost:8003",
+                "localhost:8004",
+                "localhost:8004",
+                "localhost:8005",
+                "localhost:8005",};
+
+        PCJ.executionBuilder(SplitGroupTest.class)
+                .addNodes(nodes)
+                .deploy();
+    }
+
+    private static int color(int threadId, int threadCount) {
+        return threadId == threadCount - 1 ? -1 : threadId % 3;
+    }
+
+    private static int key(int threadId) {
+        return threadId % 2;
+    }
+
+    @Override
+    public void main() throws Throwable {
+        globalId = PCJ.myId();
+        PCJ.barrier();
+
+        int color = color(PCJ.myId(), PCJ.threadCount());
+        /* members of the new group ordered by key and then by global id */
+        int[] expected = IntStream.range(0, PCJ.threadCount())
+                .filter(id -> color >= 0 && color(id, PCJ.threadCount()) == color)
+                .boxed()
+                .sorted(Comparator.comparingInt(SplitGroupTest::key).thenComparingInt(id -> id))
+                .mapToInt(Integer::intValue)
+                .toArray();
+
+        Group group = PCJ.splitGroup(color, key(PCJ.myId()));
+        if (color < 0) {
+            Checks.check("split(negative color)", null, group);
+        } else {
+            Checks.check("split threadCount", expected.length, group.threadCount());
+            Checks.check("split myId", IntStream.range(0, expected.length).filter(i -> expected[i] == PCJ.myId()).findFirst().getAsInt(), group.myId());
+            Checks.check("split members", Arrays.toString(expected),
+                    Arrays.toString(group.<int[]>asyncAllGather(Shared.globalId).get()));
+            Checks.check("split allReduce", Arrays.stream(expected).sum(),
+                    group.asyncAllReduce(ReduceOperation.<Integer>sum(), Shared.globalId).get());
+            Checks.check("split get(0)", expected[0], group.<Integer>asyncGet(0, Shared.globalId).get());
+            group.asyncBarrier().get();
+
+            Group reversed = group.split(0, -group.myId());
+            int[] expectedReversed = IntStream.range(0, expected.length)
+                    .map(i -> expected[expected.length - 1 - i])
+                    .toArray();
+            Checks.check("nested split members", Arrays.toString(expectedReversed),
+                    Arrays.toString(reversed.<int[]>asyncAllGather(Shared.globalId).get()));
+        }
+
+        Group copy = PCJ.splitGroup(0, 0);
+        Checks.check("split of all threads threadCount", PCJ.threadCount(), copy.threadCount());
+        Checks.check("split of all threads myId", PCJ.myId(), copy.myId());
+
+        /* new groups are not registered by name, so joining by the same name creates other group */
+        if (PCJ.myId() % 2 == 0) {
+            Group joined = PCJ.joinGroup(copy.getName());
+            joined.asyncBarrier().get();
+            Checks.check("joinGroup(split group name) threadCount", (PCJ.threadCount() + 1) / 2, joined.threadCount());
+        }
+        PCJ.barrier();
+        Checks.check("split group after joinGroup threadCount", PCJ.threadCount(), copy.threadCount());
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2011-2019, PCJ Library, Marek Nowicki
+ * All rights reserved.
+ *
+ * Licensed under New BSD License (3-clause license).
+ *
+ * See the file "LICENSE" for the full license governing this code.
+ */
+package org.pcj.test;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.pcj.Group;
+import org.pcj.PCJ;
+import org.pcj.RegisterStorage;
+import org.pcj.StartPoint;
+import org.pcj.Storage;
+
+/**
+ * @author Marek Nowicki (faramir@mat.umk.pl)
+ */
+@RegisterStorage(SplitPhaseBarrierTest.Shared.class)
+public class SplitPhaseBarrierTest implements StartPoint {
+
+    @Storage(SplitPhaseBarrierTest.class)
+    enum Shared {
+        value
+    }
+
+    private int value;
+
+    public static void main(String[] args) throws InterruptedException {
+        Level level = Level.INFO;
+//        Level level = Level.CONFIG;
+//        Level level = Level.FINEST;
+        Logger logger = Logger.getLogger("");
+        Arrays.stream(logger.getHandlers()).forEach(handler -> handler.setLevel(level));
+        logger.setLevel(level);
+
+        String[] nodes = {
+                "localhost:8091",
+                "localhost:8002",
+                "localhost:8002",
+                "localhost:8003",
+                "localhost:8004",
+                "localhost:8004",};
+
+        PCJ.executionBuilder(SplitPhaseBarrierTest.class)
+                .addNodes(nodes)
+                .deploy();
+    }
+
+    @Override
+    public void main() throws Throwable {
+        int next = (PCJ.myId() + 1) % PCJ.threadCount();
+
+        value = PCJ.myId() + 1;
+        int token = PCJ.barrierArrive();
+        long localWork = 0;
+        for (int i = 0; i < 1_000_000; ++i) {
+            localWork += i % 7;
+        }
+        PCJ.barrierAwait(token);
+        Checks.check("arrive/await", next + 1, PCJ.<Integer>get(next, Shared.value));
+        PCJ.barrier();
+
+        int first = PCJ.barrierArrive();
+        int second = PCJ.barrierArrive();
+        PCJ.barrierAwait(second);
+        PCJ.barrierAwait(first);
+        Checks.check("await of later token first", true, second - first == 1);
+
+        Group group = PCJ.getGlobalGroup();
+        value = -(PCJ.myId() + 1);
+        group.barrierAwait(group.barrierArrive());
+        Checks.check("group arrive/await", -(next + 1), PCJ.<Integer>get(next, Shared.value));
+        PCJ.barrier();
+
+        CountDownLatch latch = new CountDownLatch(1);
+        value = 100 + PCJ.myId();
+        PCJ.onBarrierComplete(() -> {
+            if (PCJ.<Integer>get(next, Shared.value) == 100 + next) {
+                latch.countDown();
+            }
+        });
+        Checks.check("onBarrierComplete", true, latch.await(10, TimeUnit.SECONDS));
+        PCJ.barrier();
+
+        int last = PCJ.barrierArrive();
+        PCJ.barrierAwait(last);
+        Checks.checkThrows("barrierAwait(not arrived)", IllegalArgumentException.class, () -> PCJ.barrierAwait(last + 1));
+        Checks.checkThrows("barrierAwait(0)", IllegalArgumentException.class, () -> PCJ.barrierAwait(0));
+
+        Checks.check("local work", 2_999_997L, localWork);
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2011-2019, PCJ Library, Marek Nowicki
+ * All rights reserved.
+ *
+ * Licensed under New BSD License (3-clause license).
+ *
+ * See the file "LICENSE" for the full license governing this code.
+ */
+package org.pcj.test;
+
+import java.util.Arrays;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.IntStream;
+import org.pcj.Group;
+import org.pcj.PCJ;
+import org.pcj.RegisterStorage;
+import org.pcj.StartPoint;
+import org.pcj.Storage;
+
+/**
+ * PCJ Threads join groups in order different from global ids, and every
+ * PCJ Thread checks mapping of group ids to global ids.
+ *
+ * @author Marek Nowicki (faramir@mat.umk.pl)
+ */
+@RegisterStorage(ThreadIdMappingTest.Shared.class)
+public class ThreadIdMappingTest implements StartPoint {
+
+    @Storage(ThreadIdMappingTest.class)
+    enum Shared {
+        globalId, received
+    }
+
+    private int globalId;
+    private int received;
+
+    public static void main(String[] args) throws InterruptedException {
+        Level level = Level.INFO;
+//        Level level = Level.CONFIG;
+//        Level level = Level.FINEST;
+        Logger logger = Logger.getLogger("");
+        Arrays.stream(logger.getHandlers()).forEach(handler -> handler.setLevel(level));
+        logger.setLevel(level);
+
+        String[] nodes = {
+                "localhost:8091",
+                "localhost:8002",
+                "localhost:8002",
+                "localhost:8003",
+                "localhost:8004",
+                "localhost:8004",
+                "localhost:8004",
+                "localhost:8005",};
+
+        PCJ.executionBuilder(ThreadIdMappingTest.class)
+                .addNodes(nodes)
+                .deploy();
+    }
+
+    @Override
+    public void main() throws Throwable {
+        globalId = PCJ.myId();
+        PCJ.barrier();
+
+        int[] reversed = IntStream.range(0, PCJ.threadCount())
+                .map(i -> PCJ.threadCount() - 1 - i)
+                .toArray();
+        checkMapping("reversed", joinInOrder("reversed", reversed), reversed);
+
+        /* every third PCJ Thread, joining from the last one */
+        int[] sparse = Arrays.stream(reversed)
+                .filter(id -> id % 3 == 0)
+                .toArray();
+        checkMapping("sparse", joinInOrder("sparse", sparse), sparse);
+    }
+
+    /* returns joined group or null when current PCJ Thread is not in the order */
+    private static Group joinInOrder(String name, int[] order) {
+        Group group = null;
+        for (int id : order) {
+            if (PCJ.myId() == id) {
+                group = PCJ.joinGroup(name);
+            }
+            PCJ.barrier();
+        }
+        return group;
+    }
+
+    /* expected[groupId] is the global id of the group member */
+    private void checkMapping(String name, Group group, int[] expected) throws Exception {
+        if (group == null) {
+            PCJ.barrier();
+            return;
+        }
+        int myGroupId = IntStream.range(0, expected.length)
+                .filter(i -> expected[i] == PCJ.myId())
+                .findFirst().getAsInt();
+        Checks.check(name + " threadCount", expected.length, group.threadCount());
+        Checks.check(name + " myId", myGroupId, group.myId());
+
+        boolean getOk = true;
+        boolean atOk = true;
+        for (int groupId = 0; groupId < group.threadCount(); ++groupId) {
+            getOk &= group.<Integer>asyncGet(groupId, Shared.globalId).get() == expected[groupId];
+            atOk &= group.asyncAt(groupId, PCJ::myId).get() == expected[groupId];
+        }
+        Checks.check(name + " get(groupId)", true, getOk);
+        Checks.check(name + " asyncAt(groupId)", true, atOk);
+        Checks.check(name + " allGather", Arrays.toString(expected),
+                Arrays.toString(group.<int[]>asyncAllGather(Shared.globalId).get()));
+
+        int next = (group.myId() + 1) % group.threadCount();
+        group.asyncPut(group.myId(), next, Shared.received).get();
+        PCJ.barrier();
+        int previous = (group.myId() + group.threadCount() - 1) % group.threadCount();
+        Checks.check(name + " put(groupId)", previous, received);
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2011-2019, PCJ Library, Marek Nowicki
+ * All rights reserved.
+ *
+ * Licensed under New BSD License (3-clause license).
+ *
+ * See the file "LICENSE" for the full license governing this code.
+ */
+package org.pcj.test;
+
+import java.util.Arrays;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.pcj.PCJ;
+import org.pcj.RegisterStorage;
+import org.pcj.StartPoint;
+import org.pcj.Storage;
+
+/**
+ * @author Marek Nowicki (faramir@mat.umk.pl)
+ */
+@RegisterStorage(TypedCollectTest.Shared.class)
+public class TypedCollectTest implements StartPoint {
+
+    @Storage(TypedCollectTest.class)
+    enum Shared {
+        value, array, text
+    }
+
+    private double value;
+    private int[] array;
+    private String text;
+
+    public static void main(String[] args) throws InterruptedException {
+        Level level = Level.INFO;
+//        Level level = Level.CONFIG;
+//        Level level = Level.FINEST;
+        Logger logger = Logger.getLogger("");
+        Arrays.stream(logger.getHandlers()).forEach(handler -> handler.setLevel(level));
+        logger.setLevel(level);
+
+        // thread ids of nodes are not consecutive
+        String[] nodes = {
+                "localhost:8091",
+                "localhost:8002",
+                "localhost:8091",
+                "localhost:8003",
+                "localhost:8002",
+                "localhost:8002",
+                "localhost:8004",
+                "localhost:8003",};
+
+        PCJ.executionBuilder(TypedCollectTest.class)
+                .addNodes(nodes)
+                .deploy();
+    }
+
+    @Override
+    public void main() throws Throwable {
+        value = PCJ.myId() + 0.25;
+        array = new int[]{PCJ.myId(), -PCJ.myId()};
+        text = "t" + PCJ.myId();
+        PCJ.barrier();
+
+        if (PCJ.myId() == 0 || PCJ.myId() == PCJ.threadCount() - 1) {
+            double[] expectedValues = new double[PCJ.threadCount()];
+            int[] expectedElements = new int[PCJ.threadCount()];
+            int[][] expectedArrays = new int[PCJ.threadCount()][];
+            String[] expectedTexts = new String[PCJ.threadCount()];
+            for (int i = 0; i < PCJ.threadCount(); ++i) {
+                expectedValues[i] = i + 0.25;
+                expectedElements[i] = -i;
+                expectedArrays[i] = new int[]{i, -i};
+                expectedTexts[i] = "t" + i;
+            }
+
+            Checks.check("collect(double)", Arrays.toString(expectedValues), Arrays.toString(PCJ.<double[]>collect(Shared.value)));
+            Checks.check("collect(int[], 1)", Arrays.toString(expectedElements), Arrays.toString(PCJ.<int[]>collect(Shared.array, 1)));
+            Checks.check("collect(int[])", Arrays.deepToString(expectedArrays), Arrays.deepToString(PCJ.<int[][]>collect(Shared.array)));
+            Checks.check("collect(String)", Arrays.toString(expectedTexts), Arrays.toString(PCJ.<String[]>collect(Shared.text)));
+        }
+    }
+}
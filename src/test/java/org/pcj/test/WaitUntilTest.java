@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2019, Marek Nowicki
+ * All rights reserved.
+ *
+ * Licensed under New BSD License (3-clause license).
+ *
+ * See the file "LICENSE" for the full license governing this code.
+ */
+package org.pcj.test;
+
+import java.util.Arrays;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.pcj.PCJ;
+import org.pcj.RegisterStorage;
+import org.pcj.StartPoint;
+import org.pcj.Storage;
+
+/**
+ * @author Marek Nowicki (faramir@mat.umk.pl)
+ */
+@RegisterStorage(WaitUntilTest.Shared.class)
+public class WaitUntilTest implements StartPoint {
+
+    @Storage(WaitUntilTest.class)
+    enum Shared {
+        array, counter, first, second
+    }
+
+    private int[] array = new int[10];
+    private long counter;
+    private int first;
+    private int second;
+
+    public static void main(String[] args) throws InterruptedException {
+        Level level = Level.INFO;
+//        Level level = Level.CONFIG;
+//        Level level = Level.FINEST;
+        Logger logger = Logger.getLogger("");
+        Arrays.stream(logger.getHandlers()).forEach(handler -> handler.setLevel(level));
+        logger.setLevel(level);
+
+        String[] nodes = {
+                "localhost",
+                "localhost",
+                "localhost:8092",
+                "localhost:8092",};
+
+        PCJ.executionBuilder(WaitUntilTest.class)
+                .addNodes(nodes)
+                .deploy();
+    }
+
+    @Override
+    public void main() throws Throwable {
+        if (PCJ.myId() == 0) {
+            PCJ.monitor(Shared.array, 3);
+        }
+        PCJ.barrier();
+
+        if (PCJ.myId() == 0) {
+            PCJ.waitFor(Shared.array, 1, 3);
+            System.out.println("0> array[3] modified: " + Arrays.toString(array));
+        } else if (PCJ.myId() == 1) {
+            for (int i = 0; i < array.length; ++i) {
+                if (i != 3) {
+                    PCJ.put(i, 0, Shared.array, i);
+                }
+            }
+            PCJ.put(3, 0, Shared.array, 3);
+        }
+        PCJ.barrier();
+
+        if (PCJ.myId() == 0) {
+            PCJ.monitor(Shared.array, 5);
+            PCJ.monitor(Shared.array, 8);
+            PCJ.monitor(Shared.counter);
+        }
+        PCJ.barrier();
+
+        if (PCJ.myId() == 0) {
+            PCJ.waitFor(Shared.array, 1, 5);
+            PCJ.waitFor(Shared.array, 1, 8);
+            System.out.println("0> array[5] and array[8] modified: " + Arrays.toString(array));
+        } else if (PCJ.myId() == 1) {
+            PCJ.scatter(new int[]{50, 70}, 0, Shared.array, new int[]{5, 7});
+            PCJ.putRange(new int[]{80, 90}, 0, Shared.array, 8);
+        }
+        PCJ.barrier();
+
+        // element stays monitored after all its modifications were consumed
+        if (PCJ.myId() == 0) {
+            int remaining = PCJ.waitFor(Shared.array, 1, 5);
+            System.out.println("0> array[5] modified again: " + array[5] + ", remaining " + remaining);
+        } else if (PCJ.myId() == 1) {
+            PCJ.put(55, 0, Shared.array, 5);
+        }
+        PCJ.barrier();
+
+        PCJ.accumulate(Long::sum, (long) PCJ.myId() + 1, 0, Shared.counter);
+        if (PCJ.myId() == 0) {
+            long expected = (long) PCJ.threadCount() * (PCJ.threadCount() + 1) / 2;
+            long value = PCJ.<Long>waitUntil(Shared.counter, v -> v >= expected);
+            System.out.println("0> counter reached " + value);
+            PCJ.waitFor(Shared.counter, PCJ.threadCount());
+            System.out.println("0> counter modified " + PCJ.threadCount() + " times");
+        }
+        PCJ.barrier();
+
+        if (PCJ.myId() == 0) {
+            for (int i = 1; i < PCJ.threadCount(); ++i) {
+                Enum<?> modified = PCJ.waitForAny(Shared.first, Shared.second);
+                System.out.println("0> modified " + modified + ": first=" + first + " second=" + second);
+            }
+        } else {
+            PCJ.put(PCJ.myId(), 0, PCJ.myId() % 2 == 0 ? Shared.first : Shared.second);
+        }
+    }
+}